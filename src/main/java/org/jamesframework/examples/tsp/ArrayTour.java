@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * Round trip stored as a primitive array of cities together with the inverse array that
+ * holds the position of each city, so that both can be looked up in constant time.
+ * Reversing a subpath takes time linear in its length.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class ArrayTour implements TSPTour {
+
+    // cities in the order in which they are visited
+    private final int[] tour;
+    // position of each city in the round trip
+    private final int[] pos;
+
+    public ArrayTour(int[] tour){
+        this.tour = tour;
+        // infer positions
+        pos = new int[tour.length];
+        for(int p=0; p<tour.length; p++){
+            pos[tour[p]] = p;
+        }
+    }
+
+    // deep copy constructor
+    private ArrayTour(ArrayTour toCopy){
+        tour = toCopy.tour.clone();
+        pos = toCopy.pos.clone();
+    }
+
+    @Override
+    public int getNumCities(){
+        return tour.length;
+    }
+
+    @Override
+    public int getCity(int position){
+        return tour[position];
+    }
+
+    @Override
+    public int getPosition(int city){
+        return pos[city];
+    }
+
+    @Override
+    public int next(int city){
+        int p = pos[city]+1;
+        return tour[p < tour.length ? p : 0];
+    }
+
+    @Override
+    public int prev(int city){
+        int p = pos[city]-1;
+        return tour[p >= 0 ? p : tour.length-1];
+    }
+
+    @Override
+    public void reverse(int i, int j){
+        int n = tour.length;
+        // length of subpath from position i to j
+        int len = j - i;
+        if(len < 0){
+            len += n;
+        }
+        len++;
+        // swap cities pairwise from both ends towards the middle
+        int numSwaps = len/2;
+        for(int k=0; k<numSwaps; k++){
+            int a = tour[i];
+            int b = tour[j];
+            tour[i] = b;
+            tour[j] = a;
+            pos[b] = i;
+            pos[a] = j;
+            if(++i == n){
+                i = 0;
+            }
+            if(--j < 0){
+                j = n-1;
+            }
+        }
+    }
+
+    @Override
+    public ArrayTour copy(){
+        return new ArrayTour(this);
+    }
+
+}
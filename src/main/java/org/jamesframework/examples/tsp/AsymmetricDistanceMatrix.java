@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * Full, possibly asymmetric distance matrix stored as a two-dimensional array of double precision values,
+ * where the entry in row i and column j is the distance from city i to city j. Unlike the symmetric
+ * {@link StoredDistanceMatrix} implementations, the matrix is read-only and both directions of an edge
+ * are stored separately. Intended to be used with an {@link AsymmetricTSPObjective}.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class AsymmetricDistanceMatrix implements DistanceMatrix {
+
+    // travel distance matrix
+    private final double[][] dist;
+    
+    /**
+     * Wrap the given square distance matrix (not copied).
+     * 
+     * @param dist distance matrix
+     * @throws IllegalArgumentException if the matrix is not square
+     */
+    public AsymmetricDistanceMatrix(double[][] dist) {
+        for(double[] row : dist){
+            if(row.length != dist.length){
+                throw new IllegalArgumentException("Error: distance matrix should be square.");
+            }
+        }
+        this.dist = dist;
+    }
+
+    @Override
+    public double getDistance(int from, int to) {
+        return dist[from][to];
+    }
+    
+    @Override
+    public void getDistances(int from, int[] to, int offset, int length, double[] dest) {
+        // gather from row
+        double[] row = dist[from];
+        for(int k=0; k<length; k++){
+            dest[k] = row[to[offset+k]];
+        }
+    }
+
+    @Override
+    public int getNumCities() {
+        return dist.length;
+    }
+    
+}
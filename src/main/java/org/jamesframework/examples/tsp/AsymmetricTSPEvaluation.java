@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+
+/**
+ * <p>
+ * Evaluation object produced by the {@link AsymmetricTSPObjective}. Besides the total travel distance of the
+ * round trip, it holds prefix sums of the edge lengths along the round trip in both directions, from which
+ * the length of any subpath, traversed forwards or backwards, is obtained in constant time.
+ * </p>
+ * <p>
+ * The prefix sums are computed lazily, in O(n) time, when they are first requested to evaluate a move. The
+ * evaluations of moves do not hold any prefix sums, so that these are only recomputed for the new current
+ * solution after a move has been accepted. An evaluation should therefore only be used together with the
+ * solution for which it was computed.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class AsymmetricTSPEvaluation implements Evaluation {
+
+    // total travel distance
+    private final double distance;
+
+    // length of the path from position 0 to position p, traversed forwards (forward[p]) and
+    // backwards (backward[p]), where position n corresponds to position 0 at the end of the
+    // round trip (null until first requested)
+    private double[] forward, backward;
+
+    public AsymmetricTSPEvaluation(double distance) {
+        this.distance = distance;
+    }
+
+    // compute prefix sums for the given solution, if not yet computed
+    private void computePrefixSums(TSPSolution solution, TSPData data){
+        if(forward == null){
+            int n = solution.getNumCities();
+            forward = new double[n+1];
+            backward = new double[n+1];
+            int from = solution.getCity(0);
+            for(int p=0; p<n; p++){
+                int to = solution.getCity(p+1 < n ? p+1 : 0);
+                forward[p+1] = forward[p] + data.getDistance(from, to);
+                backward[p+1] = backward[p] + data.getDistance(to, from);
+                from = to;
+            }
+        }
+    }
+
+    /**
+     * Get the length of the subpath from position i to position j (inclusive) of the given solution,
+     * wrapping around the end of the round trip if j &lt; i, traversed in the given direction.
+     *
+     * @param solution solution for which this evaluation was computed
+     * @param data TSP data
+     * @param i position of the first city of the subpath
+     * @param j position of the last city of the subpath
+     * @param reversed if <code>true</code>, the subpath is traversed from position j back to position i
+     * @return length of the subpath
+     */
+    public double getPathLength(TSPSolution solution, TSPData data, int i, int j, boolean reversed){
+        computePrefixSums(solution, data);
+        double[] prefix = reversed ? backward : forward;
+        if(i <= j){
+            return prefix[j] - prefix[i];
+        } else {
+            return prefix[prefix.length-1] - prefix[i] + prefix[j];
+        }
+    }
+
+    /**
+     * Get the total travel distance when the entire round trip of the given solution is traversed backwards.
+     *
+     * @param solution solution for which this evaluation was computed
+     * @param data TSP data
+     * @return travel distance of reversed round trip
+     */
+    public double getReversedDistance(TSPSolution solution, TSPData data){
+        computePrefixSums(solution, data);
+        return backward[backward.length-1];
+    }
+
+    @Override
+    public double getValue() {
+        return distance;
+    }
+
+    @Override
+    public String toString(){
+        return Double.toString(distance);
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import org.jamesframework.core.exceptions.IncompatibleDeltaEvaluationException;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.objectives.Objective;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.neigh.Move;
+
+/**
+ * <p>
+ * Objective for the asymmetric TSP problem: minimize total travel distance of the round trip, where the
+ * distance from one city to another may differ from the distance in the opposite direction. Solutions
+ * should be of type {@link AsymmetricTSPSolution}, so that moves preserve the direction of traversal.
+ * </p>
+ * <p>
+ * Reversing a subpath with a {@link TSP2OptMove} changes the direction of all its edges. The change in
+ * travel distance is computed in constant time from the prefix sums held by the current evaluation
+ * (see {@link AsymmetricTSPEvaluation}). Other moves are evaluated by applying them, computing the
+ * full travel distance and undoing them again.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class AsymmetricTSPObjective implements Objective<TSPSolution, TSPData> {
+
+    @Override
+    public AsymmetricTSPEvaluation evaluate(TSPSolution solution, TSPData data) {
+        // compute sum of travel distances (in direction of traversal)
+        int n = solution.getNumCities();
+        double totalDistance = 0.0;
+        int fromCity = solution.getCity(n-1);
+        for(int i=0; i<n; i++){
+            int toCity = solution.getCity(i);
+            totalDistance += data.getDistance(fromCity, toCity);
+            fromCity = toCity;
+        }
+        return new AsymmetricTSPEvaluation(totalDistance);
+    }
+
+    @Override
+    public <ActualSolutionType extends TSPSolution> Evaluation evaluate(Move<? super ActualSolutionType> move,
+                                                                        ActualSolutionType curSolution,
+                                                                        Evaluation curEvaluation,
+                                                                        TSPData data) {
+        if(!(curSolution instanceof AsymmetricTSPSolution)){
+            throw new IncompatibleDeltaEvaluationException("Delta evaluation in asymmetric TSP objective expects "
+                                                            + "solution of type AsymmetricTSPSolution.");
+        }
+        if(move instanceof TSP2OptMove){
+            if(!(curEvaluation instanceof AsymmetricTSPEvaluation)){
+                throw new IncompatibleDeltaEvaluationException("Delta evaluation in asymmetric TSP objective expects "
+                                                                + "evaluation of type AsymmetricTSPEvaluation.");
+            }
+            return evaluate2Opt((TSP2OptMove) move, curSolution, (AsymmetricTSPEvaluation) curEvaluation, data);
+        }
+        // apply, evaluate and undo
+        return Objective.super.evaluate(move, curSolution, curEvaluation, data);
+    }
+
+    private Evaluation evaluate2Opt(TSP2OptMove move2opt, TSPSolution curSolution,
+                                    AsymmetricTSPEvaluation curEvaluation, TSPData data){
+
+        // get bounds of reversed subsequence
+        int i = move2opt.getI();
+        int j = move2opt.getJ();
+        // get number of cities
+        int n = curSolution.getNumCities();
+
+        if((j+1)%n == i){
+            // special case: entire round trip reversed
+            return new AsymmetricTSPEvaluation(curEvaluation.getReversedDistance(curSolution, data));
+        } else {
+            // get current total travel distance
+            double totalDistance = curEvaluation.getValue();
+            // get crucial cities (at boundary of reversed subsequence)
+            int beforeReversed = curSolution.getCity((i-1+n)%n);
+            int firstReversed = curSolution.getCity(i);
+            int lastReversed = curSolution.getCity(j);
+            int afterReversed = curSolution.getCity((j+1)%n);
+
+            // account for dropped distances
+            totalDistance -= data.getDistance(beforeReversed, firstReversed);
+            totalDistance -= data.getDistance(lastReversed, afterReversed);
+
+            // account for new distances
+            totalDistance += data.getDistance(beforeReversed, lastReversed);
+            totalDistance += data.getDistance(firstReversed, afterReversed);
+
+            // account for direction change of reversed subsequence
+            totalDistance -= curEvaluation.getPathLength(curSolution, data, i, j, false);
+            totalDistance += curEvaluation.getPathLength(curSolution, data, i, j, true);
+
+            // return updated travel distance
+            return new AsymmetricTSPEvaluation(totalDistance);
+        }
+
+    }
+
+    // reject problems with an asymmetric objective or distance matrix, for searches that assume
+    // that reversing a subpath does not change its length
+    static void requireSymmetric(GenericProblem<?, ? extends TSPData> problem, String search){
+        DistanceMatrix dist = CachedDistanceMatrix.unwrap(problem.getData().getDistanceMatrix());
+        if(problem.getObjective() instanceof AsymmetricTSPObjective || dist instanceof AsymmetricDistanceMatrix){
+            throw new IllegalArgumentException("Error: " + search + " requires symmetric distances.");
+        }
+    }
+
+    @Override
+    public boolean isMinimizing() {
+        return true;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.List;
+
+/**
+ * Solution to the asymmetric travelling salesman problem, in which the round trip is traversed in the
+ * order in which the cities are stored. Unlike a {@link TSPSolution}, reversing a subpath never reverses
+ * the complementary subpath instead, as this would change the direction of all other edges. Note that the
+ * edge hash does not take direction into account.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class AsymmetricTSPSolution extends TSPSolution {
+
+    public AsymmetricTSPSolution(TSPTour tour){
+        super(tour);
+    }
+
+    public AsymmetricTSPSolution(int[] tour){
+        super(tour);
+    }
+
+    public AsymmetricTSPSolution(List<Integer> cities){
+        super(cities);
+    }
+
+    // deep copy constructor
+    private AsymmetricTSPSolution(AsymmetricTSPSolution toCopy){
+        super(toCopy);
+    }
+
+    /**
+     * The direction of traversal matters for asymmetric distances.
+     *
+     * @return <code>true</code>
+     */
+    @Override
+    protected boolean isDirected(){
+        return true;
+    }
+
+    @Override
+    public AsymmetricTSPSolution copy() {
+        return new AsymmetricTSPSolution(this);
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * <p>
+ * Bounded cache in front of a distance matrix that computes distances on demand or reads them from a slow
+ * source, such as a {@link MappedDistanceMatrix} that does not fit in memory. Local searches query the same
+ * pairs of nearby cities over and over again, which are then answered from the cache.
+ * </p>
+ * <p>
+ * Every thread has its own direct-mapped cache with a fixed number of entries, so that parallel searches
+ * (e.g. the replicas of a parallel tempering search) never contend for a lock. Each pair of cities is hashed
+ * to a single slot, which holds the most recently requested pair with this hash; a miss simply overwrites the
+ * slot, so that no bookkeeping is needed for eviction. For symmetric distances, both directions of an edge
+ * share the same slot. The number of lookups and hits of all threads are counted to assess whether the cache
+ * pays off for a given source (see {@link #getHitRate()}). Only these counters are retained for all threads;
+ * the cache of a thread can be garbage collected as soon as the thread terminates (e.g. when the worker
+ * threads of a pool are replaced).
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class CachedDistanceMatrix implements DistanceMatrix {
+
+    // default number of cached distances per thread
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    // underlying distance matrix
+    private final DistanceMatrix source;
+    // number of cached distances per thread (power of two)
+    private final int capacity;
+    // indicates whether distances are symmetric
+    private final boolean symmetric;
+
+    // cache of each thread
+    private final ThreadLocal<Cache> caches = new ThreadLocal<>();
+    // counters of all threads that have used the cache (for statistics)
+    private final List<Counters> allCounters = new ArrayList<>();
+
+    /**
+     * Create a cache with a default capacity in front of the given (possibly asymmetric) distance matrix.
+     *
+     * @param source underlying distance matrix
+     */
+    public CachedDistanceMatrix(DistanceMatrix source){
+        this(source, DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Create a cache in front of the given distance matrix, that holds at least the given number of
+     * distances per thread (rounded up to a power of two). If distances are symmetric, each distance
+     * is cached only once for both directions.
+     *
+     * @param source underlying distance matrix
+     * @param capacity number of cached distances per thread
+     * @param symmetric indicates whether the distances are symmetric
+     * @throws NullPointerException if <code>source</code> is <code>null</code>
+     * @throws IllegalArgumentException if the capacity is not strictly positive or larger than 2<sup>30</sup>
+     */
+    public CachedDistanceMatrix(DistanceMatrix source, int capacity, boolean symmetric){
+        if(source == null){
+            throw new NullPointerException("Error: underlying distance matrix can not be null.");
+        }
+        if(capacity <= 0 || capacity > 1 << 30){
+            throw new IllegalArgumentException("Error: capacity should be strictly positive and at most 2^30.");
+        }
+        this.source = source;
+        // round up to power of two
+        int size = 1;
+        while(size < capacity){
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.symmetric = symmetric;
+    }
+
+    // get the cache of the current thread (created on first use)
+    private Cache getCache(){
+        Cache cache = caches.get();
+        if(cache == null){
+            Counters counters = new Counters();
+            cache = new Cache(capacity, counters);
+            caches.set(cache);
+            synchronized(allCounters){
+                allCounters.add(counters);
+            }
+        }
+        return cache;
+    }
+
+    @Override
+    public double getDistance(int from, int to) {
+        if(symmetric && from > to){
+            int tmp = from;
+            from = to;
+            to = tmp;
+        }
+        long key = ((long) from << 32) | (to & 0xFFFFFFFFL);
+        Cache cache = getCache();
+        int slot = cache.slot(key);
+        Counters counters = cache.counters;
+        Counters.LOOKUPS.lazySet(counters, counters.numLookups + 1);
+        if(cache.keys[slot] == key){
+            Counters.HITS.lazySet(counters, counters.numHits + 1);
+            return cache.values[slot];
+        }
+        double d = source.getDistance(from, to);
+        cache.keys[slot] = key;
+        cache.values[slot] = d;
+        return d;
+    }
+
+    @Override
+    public int getNumCities() {
+        return source.getNumCities();
+    }
+
+    /**
+     * Get the underlying distance matrix.
+     *
+     * @return underlying distance matrix
+     */
+    public DistanceMatrix getSource(){
+        return source;
+    }
+
+    /**
+     * Get the underlying distance matrix if the given matrix is a cache, or else the given matrix itself.
+     * Used where a specific implementation is required, e.g. to access city coordinates.
+     *
+     * @param dist distance matrix, possibly a cache
+     * @return underlying distance matrix
+     */
+    public static DistanceMatrix unwrap(DistanceMatrix dist){
+        return dist instanceof CachedDistanceMatrix ? ((CachedDistanceMatrix) dist).getSource() : dist;
+    }
+
+    /**
+     * Get the total number of lookups by all threads. The counts of other threads may lag behind
+     * while they are still querying distances.
+     *
+     * @return number of lookups
+     */
+    public long getNumLookups(){
+        long lookups = 0;
+        synchronized(allCounters){
+            for(Counters counters : allCounters){
+                lookups += counters.numLookups;
+            }
+        }
+        return lookups;
+    }
+
+    /**
+     * Get the total number of lookups by all threads that were answered from the cache. The counts
+     * of other threads may lag behind while they are still querying distances.
+     *
+     * @return number of hits
+     */
+    public long getNumHits(){
+        long hits = 0;
+        synchronized(allCounters){
+            for(Counters counters : allCounters){
+                hits += counters.numHits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Get the fraction of all lookups that were answered from the cache.
+     *
+     * @return hit rate (0.0 if no distances have been requested)
+     */
+    public double getHitRate(){
+        // read hits before lookups, as every hit is counted after the corresponding lookup
+        long hits = getNumHits();
+        long lookups = getNumLookups();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    // direct-mapped cache of a single thread
+    private static class Cache {
+
+        // city pairs and distances stored in each slot (key -1 marks an empty slot)
+        private final long[] keys;
+        private final double[] values;
+        // mask to compute slot from hash
+        private final int mask;
+        // statistics of the owning thread
+        private final Counters counters;
+
+        private Cache(int capacity, Counters counters){
+            keys = new long[capacity];
+            values = new double[capacity];
+            mask = capacity - 1;
+            this.counters = counters;
+            Arrays.fill(keys, -1L);
+        }
+
+        // compute slot of the given city pair
+        private int slot(long key){
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+    }
+
+    // lookup statistics of a single thread (outlive the cache of this thread)
+    private static class Counters {
+
+        // number of lookups and hits (only written by the owning thread, with ordered stores that are cheaper
+        // than volatile writes, while volatile reads by other threads never observe a partially written value)
+        private volatile long numLookups, numHits;
+        private static final AtomicLongFieldUpdater<Counters> LOOKUPS
+                = AtomicLongFieldUpdater.newUpdater(Counters.class, "numLookups");
+        private static final AtomicLongFieldUpdater<Counters> HITS
+                = AtomicLongFieldUpdater.newUpdater(Counters.class, "numHits");
+
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Random;
+
+/**
+ * Cheapest insertion construction heuristic: starts from a random city and repeatedly inserts the
+ * city that causes the smallest increase in travel distance, in between the cities where it does
+ * so. The cheapest insertion position of every remaining city is cached and only recomputed from
+ * scratch when the corresponding edge is broken, so that the round trip is constructed in roughly
+ * quadratic time.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class CheapestInsertionConstructor implements TourConstructor {
+
+    @Override
+    public int[] construct(DistanceMatrix dist, Random rnd) {
+        int n = dist.getNumCities();
+        int[] tour = new int[n];
+        if(n == 0){
+            return tour;
+        }
+        // successor of each city in the partial round trip
+        int[] next = new int[n];
+        // remaining cities are stored in the first part of this array
+        int[] remaining = new int[n-1];
+        int numRemaining = 0;
+        // cheapest insertion cost of each remaining city, after the given city
+        double[] bestCost = new double[n];
+        int[] bestFrom = new int[n];
+        // start with random city
+        int start = rnd.nextInt(n);
+        next[start] = start;
+        for(int c=0; c<n; c++){
+            if(c != start){
+                remaining[numRemaining++] = c;
+                bestCost[c] = 2 * dist.getDistance(start, c);
+                bestFrom[c] = start;
+            }
+        }
+        while(numRemaining > 0){
+            // select remaining city with cheapest insertion
+            int best = 0;
+            for(int k=1; k<numRemaining; k++){
+                if(bestCost[remaining[k]] < bestCost[remaining[best]]){
+                    best = k;
+                }
+            }
+            int c = remaining[best];
+            remaining[best] = remaining[--numRemaining];
+            // insert in between a and b
+            int a = bestFrom[c];
+            int b = next[a];
+            next[a] = c;
+            next[c] = b;
+            // update cheapest insertions of remaining cities
+            double ac = dist.getDistance(a, c);
+            double cb = dist.getDistance(c, b);
+            for(int k=0; k<numRemaining; k++){
+                int r = remaining[k];
+                if(bestFrom[r] == a){
+                    // cached edge (a,b) has been broken
+                    recompute(dist, r, start, next, bestCost, bestFrom);
+                } else {
+                    // check new edges (a,c) and (c,b)
+                    double cost = dist.getDistance(a, r) + dist.getDistance(r, c) - ac;
+                    if(cost < bestCost[r]){
+                        bestCost[r] = cost;
+                        bestFrom[r] = a;
+                    }
+                    cost = dist.getDistance(c, r) + dist.getDistance(r, b) - cb;
+                    if(cost < bestCost[r]){
+                        bestCost[r] = cost;
+                        bestFrom[r] = c;
+                    }
+                }
+            }
+        }
+        // read round trip
+        int cur = start;
+        for(int p=0; p<n; p++){
+            tour[p] = cur;
+            cur = next[cur];
+        }
+        return tour;
+    }
+
+    // recompute cheapest insertion of the given city by checking all edges of the partial round trip
+    private void recompute(DistanceMatrix dist, int r, int start, int[] next, double[] bestCost, int[] bestFrom){
+        bestCost[r] = Double.MAX_VALUE;
+        int a = start;
+        do {
+            int b = next[a];
+            double cost = dist.getDistance(a, r) + dist.getDistance(r, b) - dist.getDistance(a, b);
+            if(cost < bestCost[r]){
+                bestCost[r] = cost;
+                bestFrom[r] = a;
+            }
+            a = b;
+        } while(a != start);
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Locality preserving renumbering of the cities of a TSP instance. Cities are renumbered in the order in which
+ * they are visited by a space-filling curve (see {@link SpaceFillingCurveConstructor}), if city coordinates are
+ * available, or else by a greedy round trip (see {@link GreedyEdgeConstructor}). Cities that are close to each
+ * other, and are therefore likely to be adjacent in good round trips, then have nearby indices. As a result,
+ * the rows (or coordinates) accessed when evaluating moves are often close together in memory, so that fewer
+ * cache misses occur when searching large instances.
+ * </p>
+ * <p>
+ * The data is renumbered once, with {@link #renumber(TSPData, DistanceStorage)} or in place with
+ * {@link #renumberInPlace(TSPData)}, after which all searches are applied to the renumbered data. Round trips found for the renumbered data are mapped back to the original
+ * city indices with {@link #toOriginal(TSPSolution)}.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class CityRenumbering {
+
+    // number of nearest neighbours considered by the greedy round trip
+    private static final int NUM_CANDIDATES = 10;
+    // fixed seed so that the renumbering is reproducible
+    private static final long SEED = 0;
+
+    // original index of each renumbered city
+    private final int[] original;
+    // new index of each original city
+    private final int[] renumbered;
+
+    /**
+     * Compute a locality preserving renumbering for the cities of the given distance matrix.
+     *
+     * @param dist distance matrix
+     */
+    public CityRenumbering(DistanceMatrix dist){
+        this(computeOrder(dist));
+    }
+
+    /**
+     * Create a renumbering in which the city at position i of the given array receives index i.
+     *
+     * @param order permutation of the cities
+     * @throws IllegalArgumentException if the given array is not a permutation of 0, ..., n-1
+     */
+    public CityRenumbering(int[] order){
+        int n = order.length;
+        original = order.clone();
+        renumbered = new int[n];
+        boolean[] seen = new boolean[n];
+        for(int i=0; i<n; i++){
+            int c = original[i];
+            if(c < 0 || c >= n || seen[c]){
+                throw new IllegalArgumentException("Error: renumbering should be a permutation of 0, ..., n-1.");
+            }
+            seen[c] = true;
+            renumbered[c] = i;
+        }
+    }
+
+    /**
+     * Create a renumbering that retains the original city indices.
+     *
+     * @param n number of cities
+     * @return identity renumbering
+     */
+    public static CityRenumbering identity(int n){
+        int[] order = new int[n];
+        for(int c=0; c<n; c++){
+            order[c] = c;
+        }
+        return new CityRenumbering(order);
+    }
+
+    // order cities along a space-filling curve or greedy round trip
+    private static int[] computeOrder(DistanceMatrix dist){
+        dist = CachedDistanceMatrix.unwrap(dist);
+        if(dist.getNumCities() < 2){
+            return identity(dist.getNumCities()).original;
+        }
+        TourConstructor constructor;
+        if(dist instanceof CoordinateDistanceMatrix){
+            constructor = new SpaceFillingCurveConstructor();
+        } else {
+            constructor = new GreedyEdgeConstructor(new NearestNeighbourLists(dist, NUM_CANDIDATES));
+        }
+        return constructor.construct(dist, new Random(SEED));
+    }
+
+    /**
+     * Get the number of cities.
+     *
+     * @return number of cities
+     */
+    public int getNumCities(){
+        return original.length;
+    }
+
+    /**
+     * Get the original index of the given renumbered city.
+     *
+     * @param city renumbered city index
+     * @return original city index
+     */
+    public int getOriginalCity(int city){
+        return original[city];
+    }
+
+    /**
+     * Get the new index of the given original city.
+     *
+     * @param city original city index
+     * @return renumbered city index
+     */
+    public int getRenumberedCity(int city){
+        return renumbered[city];
+    }
+
+    /**
+     * Create a copy of the given data in which the cities are renumbered. City coordinates are permuted
+     * accordingly. Otherwise, the rows and columns of the distance matrix are permuted, and the distances
+     * are stored according to the given storage mode. With a full matrix, the distances are copied in both
+     * directions, so that asymmetric distances are retained; all other storage modes assume symmetric
+     * distances. Cached distances are copied from the underlying distance matrix.
+     *
+     * @param data original TSP data
+     * @param storage storage mode of renumbered distance matrix (ignored for city coordinates)
+     * @return renumbered TSP data
+     * @throws IllegalArgumentException if the number of cities differs from the size of this renumbering
+     */
+    public TSPData renumber(TSPData data, DistanceStorage storage){
+        int n = original.length;
+        if(data.getNumCities() != n){
+            throw new IllegalArgumentException("Error: data contains " + data.getNumCities()
+                                                + " cities (expected " + n + ").");
+        }
+        DistanceMatrix dist = CachedDistanceMatrix.unwrap(data.getDistanceMatrix());
+        if(dist instanceof CoordinateDistanceMatrix){
+            // permute coordinates
+            CoordinateDistanceMatrix coords = (CoordinateDistanceMatrix) dist;
+            double[] x = new double[n];
+            double[] y = new double[n];
+            for(int i=0; i<n; i++){
+                x[i] = coords.getX(original[i]);
+                y[i] = coords.getY(original[i]);
+            }
+            return new TSPData(new CoordinateDistanceMatrix(x, y, coords.getEdgeWeightType()));
+        }
+        if(storage == DistanceStorage.FULL){
+            // permute rows and columns of full matrix
+            double[][] renumberedDist = new double[n][n];
+            for(int i=0; i<n; i++){
+                double[] row = renumberedDist[i];
+                int from = original[i];
+                for(int j=0; j<n; j++){
+                    row[j] = dist.getDistance(from, original[j]);
+                }
+            }
+            return new TSPData(renumberedDist);
+        }
+        // permute rows and columns of lower triangle
+        StoredDistanceMatrix renumberedDist = storage.create(n);
+        for(int i=0; i<n; i++){
+            int from = original[i];
+            for(int j=0; j<i; j++){
+                renumberedDist.setDistance(i, j, dist.getDistance(from, original[j]));
+            }
+        }
+        return new TSPData(renumberedDist);
+    }
+
+    /**
+     * Renumber the cities of the given data without copying the distance matrix, so that the distances
+     * remain stored according to the storage mode of the given data. Stored distance matrices are permuted
+     * in place, by swapping pairs of rows and columns, and the given data is returned. As the original data
+     * is modified, it should no longer be used afterwards. City coordinates are permuted in a copy, and any
+     * other distance matrix is copied into a full matrix (see {@link #renumber(TSPData, DistanceStorage)}).
+     *
+     * @param data original TSP data (modified if the distances are stored in memory)
+     * @return renumbered TSP data
+     * @throws IllegalArgumentException if the number of cities differs from the size of this renumbering
+     */
+    public TSPData renumberInPlace(TSPData data){
+        int n = original.length;
+        if(data.getNumCities() != n){
+            throw new IllegalArgumentException("Error: data contains " + data.getNumCities()
+                                                + " cities (expected " + n + ").");
+        }
+        if(!(data.getDistanceMatrix() instanceof StoredDistanceMatrix)){
+            return renumber(data, DistanceStorage.FULL);
+        }
+        StoredDistanceMatrix dist = (StoredDistanceMatrix) data.getDistanceMatrix();
+        // current index of each original city, and original city at each index
+        int[] index = new int[n];
+        int[] city = new int[n];
+        for(int c=0; c<n; c++){
+            index[c] = c;
+            city[c] = c;
+        }
+        // move each city to its new index (at most n-1 swaps)
+        for(int i=0; i<n; i++){
+            int c = original[i];
+            int j = index[c];
+            if(j != i){
+                dist.swapCities(i, j);
+                int d = city[i];
+                city[j] = d;
+                index[d] = j;
+                city[i] = c;
+                index[c] = i;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Map a round trip of the renumbered data to the original city indices.
+     *
+     * @param solution round trip of the renumbered data
+     * @return same round trip with original city indices
+     */
+    public TSPSolution toOriginal(TSPSolution solution){
+        return map(solution, original);
+    }
+
+    /**
+     * Map a round trip of the original data to the renumbered city indices.
+     *
+     * @param solution round trip of the original data
+     * @return same round trip with renumbered city indices
+     */
+    public TSPSolution toRenumbered(TSPSolution solution){
+        return map(solution, renumbered);
+    }
+
+    // replace every city with the corresponding index in the given array
+    private TSPSolution map(TSPSolution solution, int[] index){
+        int n = solution.getNumCities();
+        if(n != index.length){
+            throw new IllegalArgumentException("Error: round trip visits " + n
+                                                + " cities (expected " + index.length + ").");
+        }
+        int[] tour = new int[n];
+        for(int p=0; p<n; p++){
+            tour[p] = index[solution.getCity(p)];
+        }
+        return TSPSolution.create(tour);
+    }
+
+}
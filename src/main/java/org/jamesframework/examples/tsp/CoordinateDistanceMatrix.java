@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+/**
+ * Distance matrix for TSP instances specified by city coordinates. Distances are not
+ * stored but computed on demand from the coordinates, using the specified edge weight
+ * type. The required memory therefore grows linearly with the number of cities.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class CoordinateDistanceMatrix implements DistanceMatrix {
+
+    // city coordinates
+    private final double[] x, y;
+    // distance function
+    private final EdgeWeightType type;
+
+    /**
+     * Create a distance matrix for cities with the given coordinates.
+     * 
+     * @param x x-coordinates of the cities
+     * @param y y-coordinates of the cities
+     * @param type distance function
+     * @throws IllegalArgumentException if the coordinate arrays have different lengths
+     */
+    public CoordinateDistanceMatrix(double[] x, double[] y, EdgeWeightType type) {
+        if(x.length != y.length){
+            throw new IllegalArgumentException("Error: number of x- and y-coordinates differ.");
+        }
+        this.x = x;
+        this.y = y;
+        this.type = type;
+    }
+    
+    @Override
+    public double getDistance(int from, int to) {
+        if(from == to){
+            return 0.0;
+        }
+        return type.distance(x[from], y[from], x[to], y[to]);
+    }
+
+    @Override
+    public int getNumCities() {
+        return x.length;
+    }
+    
+    // get x-coordinate of the given city
+    public double getX(int city){
+        return x[city];
+    }
+    
+    // get y-coordinate of the given city
+    public double getY(int city){
+        return y[city];
+    }
+    
+    // retrieve distance function
+    public EdgeWeightType getEdgeWeightType(){
+        return type;
+    }
+    
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+/**
+ * Travel distances between all pairs of cities in a TSP instance. Implementations
+ * differ in the way in which distances are stored or computed, but are accessed
+ * through the same interface.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public interface DistanceMatrix {
+
+    /**
+     * Get the travel distance from the given city to the given other city.
+     * 
+     * @param from index of the first city
+     * @param to index of the second city
+     * @return travel distance
+     */
+    public double getDistance(int from, int to);
+    
+    /**
+     * Gather the travel distances from the given city to a batch of other cities, i.e. to
+     * <code>to[offset]</code>, ..., <code>to[offset+length-1]</code>, and store them in the
+     * first <code>length</code> positions of the destination array. The default implementation
+     * looks up each distance separately. Implementations that store full rows override this
+     * method with a tight gather loop.
+     * 
+     * @param from index of the first city
+     * @param to array containing the indices of the other cities
+     * @param offset position of the first other city in <code>to</code>
+     * @param length number of other cities
+     * @param dest destination array
+     */
+    public default void getDistances(int from, int[] to, int offset, int length, double[] dest){
+        for(int k=0; k<length; k++){
+            dest[k] = getDistance(from, to[offset+k]);
+        }
+    }
+    
+    /**
+     * Get the number of cities.
+     * 
+     * @return number of cities
+     */
+    public int getNumCities();
+    
+}
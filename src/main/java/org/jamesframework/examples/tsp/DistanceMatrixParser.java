@@ -0,0 +1,441 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * <p>
+ * Parser for text files that contain the lower triangular part of a symmetric distance matrix, as read by
+ * {@link TSPFileReader} (see {@link TSPFileReader#read(String)} for a description of the format), or a full
+ * (possibly asymmetric) distance matrix (see {@link TSPFileReader#readAsymmetric(String)}). The file is
+ * memory-mapped and parsed at byte level, without creating any objects per number. Numbers with at most 18
+ * significant digits and a small decimal exponent are converted exactly; other numbers are delegated to
+ * {@link Double#parseDouble(String)}.
+ * </p>
+ * <p>
+ * The file is split into chunks of roughly equal size that are processed on the threads of a fork/join pool.
+ * A first pass counts the numbers that start in each chunk, which determines the row and column of the first
+ * entry of each chunk. In a second pass, all chunks are parsed in parallel and the entries are stored directly
+ * at their position in the distance matrix.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class DistanceMatrixParser {
+
+    // default minimum and maximum number of bytes per chunk
+    private static final long DEFAULT_MIN_CHUNK_SIZE = 1 << 20;
+    private static final long DEFAULT_MAX_CHUNK_SIZE = 1 << 28;
+    // maximum number of bytes of a single number
+    private static final int MAX_NUMBER_LENGTH = 64;
+
+    // exactly representable powers of ten
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // largest mantissa that is exactly representable as a double
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // fork/join pool used to process chunks
+    private final ForkJoinPool pool;
+    // minimum and maximum number of bytes per chunk
+    private final long minChunkSize, maxChunkSize;
+
+    /**
+     * Create a parser that uses the common fork/join pool.
+     */
+    public DistanceMatrixParser(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a parser that uses the given fork/join pool.
+     *
+     * @param pool fork/join pool used to process chunks
+     */
+    public DistanceMatrixParser(ForkJoinPool pool){
+        this(pool, DEFAULT_MIN_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE);
+    }
+
+    // create a parser with custom chunk sizes (small chunks are used to test chunk boundaries)
+    DistanceMatrixParser(ForkJoinPool pool, long minChunkSize, long maxChunkSize){
+        if(pool == null){
+            throw new NullPointerException("Error: fork/join pool can not be null.");
+        }
+        if(minChunkSize <= 0 || maxChunkSize < minChunkSize){
+            throw new IllegalArgumentException("Error: invalid chunk sizes.");
+        }
+        this.pool = pool;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    /**
+     * Parse a lower triangular distance matrix from a text file and store the distances according to the
+     * given storage mode. Any numbers after the last entry of the matrix are ignored.
+     *
+     * @param filePath input file path
+     * @param storage storage mode of distance matrix
+     * @return distance matrix read from the input file
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file can not be read or does not contain a valid distance matrix
+     */
+    public StoredDistanceMatrix parse(String filePath, DistanceStorage storage) throws IOException {
+        return parse(filePath, false, storage::create, dist -> dist::setDistance);
+    }
+
+    /**
+     * Parse a full distance matrix from a text file. The first number in the file is the number of cities n,
+     * followed by the n<sup>2</sup> entries of the matrix (row-wise, including diagonal entries), separated by
+     * whitespace and/or newlines. The distance from city i to city j is found in row i and column j, and may
+     * differ from the distance in the opposite direction. Any numbers after the last entry are ignored.
+     *
+     * @param filePath input file path
+     * @return distance matrix read from the input file
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file can not be read or does not contain a valid distance matrix
+     */
+    public double[][] parseFull(String filePath) throws IOException {
+        return parse(filePath, true, n -> new double[n][n], dist -> (i, j, d) -> dist[i][j] = d);
+    }
+
+    // parse a full or lower triangular matrix, which is created with the given function
+    // once the number of cities is known, and store the entries through the given sink
+    private <M> M parse(String filePath, boolean full, IntFunction<M> create,
+                        Function<M, EntrySink> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            // read number of cities
+            Chunk header = new Chunk(channel, 0, Math.min(size, minChunkSize));
+            if(!header.skipWhitespace()){
+                throw new IOException("Error: missing number of cities.");
+            }
+            double numCities = header.parseNumber();
+            int n = (int) numCities;
+            if(n != numCities || n < 0){
+                throw new IOException("Error: invalid number of cities: " + header.lastNumber() + ".");
+            }
+            long dataStart = header.getPosition();
+            long numEntries = full ? (long) n * n : (long) n * (n-1) / 2;
+            // split remainder of file in chunks
+            long length = size - dataStart;
+            long numChunks = Math.max(
+                    (length + maxChunkSize - 1) / maxChunkSize,
+                    Math.min(4L * pool.getParallelism(), (length + minChunkSize - 1) / minChunkSize)
+            );
+            numChunks = Math.max(1, numChunks);
+            List<Chunk> chunks = new ArrayList<>();
+            for(long c=0; c<numChunks; c++){
+                long from = dataStart + length * c / numChunks;
+                long to = dataStart + length * (c+1) / numChunks;
+                chunks.add(new Chunk(channel, from, to));
+            }
+            // first pass: count numbers in each chunk
+            List<Callable<Long>> counts = new ArrayList<>();
+            for(Chunk chunk : chunks){
+                counts.add(chunk::countNumbers);
+            }
+            List<Long> numbers = invokeAll(counts);
+            long total = 0;
+            long[] firstEntry = new long[chunks.size()];
+            for(int c=0; c<chunks.size(); c++){
+                firstEntry[c] = total;
+                total += numbers.get(c);
+            }
+            if(total < numEntries){
+                throw new IOException("Error: expected " + numEntries + " distances for " + n
+                                        + " cities, found " + total + ".");
+            }
+            // second pass: parse and store entries of each chunk
+            M dist = create.apply(n);
+            EntrySink entries = sink.apply(dist);
+            List<Callable<Long>> parses = new ArrayList<>();
+            for(int c=0; c<chunks.size(); c++){
+                Chunk chunk = chunks.get(c);
+                long first = firstEntry[c];
+                parses.add(() -> chunk.parseEntries(entries, full, n, first, numEntries));
+            }
+            invokeAll(parses);
+            return dist;
+        } catch (NoSuchFileException ex){
+            throw new FileNotFoundException(ex.getMessage());
+        }
+    }
+
+    // execute the given tasks in the fork/join pool and collect their results
+    private List<Long> invokeAll(List<Callable<Long>> tasks) throws IOException {
+        List<Long> results = new ArrayList<>();
+        try {
+            for(Future<Long> f : pool.invokeAll(tasks)){
+                results.add(f.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Error: interrupted while parsing distance matrix.", ex);
+        } catch (ExecutionException ex) {
+            // the pool wraps checked exceptions thrown by a task in (possibly nested) runtime exceptions
+            for(Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()){
+                if(cause instanceof IOException){
+                    throw (IOException) cause;
+                }
+            }
+            if(ex.getCause() instanceof RuntimeException){
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IOException("Error while parsing distance matrix.", ex.getCause());
+        }
+        return results;
+    }
+
+    // destination of parsed entries
+    private interface EntrySink {
+        void set(int i, int j, double distance);
+    }
+
+    // check whether the given byte is whitespace
+    private static boolean isWhitespace(byte b){
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+
+    /**
+     * Range of bytes [from, to) of the file. A chunk owns all numbers that start within this range. The
+     * mapped region includes the preceding byte, to detect whether the first byte continues a number of
+     * the previous chunk, and a number of trailing bytes, to complete the last number.
+     */
+    private static class Chunk {
+
+        // mapped region and its offset in the file
+        private final MappedByteBuffer buffer;
+        private final long offset;
+        // range of owned bytes, relative to the mapped region
+        private final int from, to;
+        // end of mapped region, and whether it coincides with the end of the file
+        private final int limit;
+        private final boolean endOfFile;
+
+        // current position in mapped region and start of last parsed number
+        private int pos, numberStart;
+
+        private Chunk(FileChannel channel, long from, long to) throws IOException {
+            long size = channel.size();
+            offset = Math.max(0, from - 1);
+            long end = Math.min(size, to + MAX_NUMBER_LENGTH);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, end - offset);
+            this.from = (int) (from - offset);
+            this.to = (int) (to - offset);
+            limit = (int) (end - offset);
+            endOfFile = (end == size);
+            pos = this.from;
+        }
+
+        // get current position in file
+        private long getPosition(){
+            return offset + pos;
+        }
+
+        // skip whitespace, returns false if the end of the mapped region is reached
+        private boolean skipWhitespace(){
+            while(pos < limit && isWhitespace(buffer.get(pos))){
+                pos++;
+            }
+            return pos < limit;
+        }
+
+        // move to start of next owned number, returns false if there is none
+        private boolean nextNumber(){
+            if(pos == from && pos > 0 && !isWhitespace(buffer.get(pos-1))){
+                // skip number that started in previous chunk
+                while(pos < limit && !isWhitespace(buffer.get(pos))){
+                    pos++;
+                }
+            }
+            return skipWhitespace() && pos < to;
+        }
+
+        // count numbers owned by this chunk
+        private long countNumbers(){
+            pos = from;
+            long count = 0;
+            while(nextNumber()){
+                count++;
+                while(pos < limit && !isWhitespace(buffer.get(pos))){
+                    pos++;
+                }
+            }
+            return count;
+        }
+
+        // parse numbers owned by this chunk, of which the first is the given entry in the full matrix
+        // or packed lower triangle of n cities, and store them in the given sink (returns the number of
+        // stored entries)
+        private long parseEntries(EntrySink dist, boolean full, int n,
+                                  long firstEntry, long numEntries) throws IOException {
+            if(firstEntry >= numEntries){
+                return 0;
+            }
+            // compute row and column of first entry
+            int i, j;
+            if(full){
+                i = (int) (firstEntry / n);
+                j = (int) (firstEntry % n);
+            } else {
+                // row i starts at entry i(i-1)/2
+                i = (int) ((1 + Math.sqrt(1 + 8.0 * firstEntry)) / 2);
+                while((long) i * (i-1) / 2 > firstEntry){
+                    i--;
+                }
+                while((long) (i+1) * i / 2 <= firstEntry){
+                    i++;
+                }
+                j = (int) (firstEntry - (long) i * (i-1) / 2);
+            }
+            // parse and store entries (rows of the full matrix have length n, row i of the triangle has length i)
+            int rowLength = full ? n : i;
+            pos = from;
+            long entry = firstEntry;
+            while(entry < numEntries && nextNumber()){
+                dist.set(i, j, parseNumber());
+                entry++;
+                if(++j == rowLength){
+                    i++;
+                    j = 0;
+                    if(!full){
+                        rowLength = i;
+                    }
+                }
+            }
+            return entry - firstEntry;
+        }
+
+        // parse number starting at the current position and move to the first byte after this number
+        private double parseNumber() throws IOException {
+            numberStart = pos;
+            int p = pos;
+            boolean negative = false;
+            byte b = buffer.get(p);
+            if(b == '-' || b == '+'){
+                negative = (b == '-');
+                p++;
+            }
+            // read significant digits and decimal exponent
+            long mantissa = 0;
+            int numDigits = 0, exponent = 0;
+            boolean exact = true;
+            int digitsStart = p;
+            while(p < limit && (b = buffer.get(p)) >= '0' && b <= '9'){
+                if(numDigits < 18){
+                    mantissa = 10*mantissa + (b - '0');
+                    if(mantissa > 0){
+                        numDigits++;
+                    }
+                } else {
+                    exact = false;
+                }
+                p++;
+            }
+            boolean hasDigits = p > digitsStart;
+            if(p < limit && buffer.get(p) == '.'){
+                p++;
+                int fractionStart = p;
+                while(p < limit && (b = buffer.get(p)) >= '0' && b <= '9'){
+                    if(numDigits < 18){
+                        mantissa = 10*mantissa + (b - '0');
+                        if(mantissa > 0){
+                            numDigits++;
+                        }
+                        exponent--;
+                    } else {
+                        exact = false;
+                    }
+                    p++;
+                }
+                hasDigits |= p > fractionStart;
+            }
+            if(hasDigits && p < limit && ((b = buffer.get(p)) == 'e' || b == 'E')){
+                p++;
+                boolean negativeExponent = false;
+                if(p < limit && ((b = buffer.get(p)) == '-' || b == '+')){
+                    negativeExponent = (b == '-');
+                    p++;
+                }
+                int e = 0;
+                int exponentStart = p;
+                while(p < limit && (b = buffer.get(p)) >= '0' && b <= '9'){
+                    e = Math.min(10*e + (b - '0'), 100000);
+                    p++;
+                }
+                if(p == exponentStart){
+                    exact = false;
+                }
+                exponent += negativeExponent ? -e : e;
+            }
+            // find end of number
+            pos = p;
+            while(pos < limit && !isWhitespace(buffer.get(pos))){
+                pos++;
+                exact = false;
+            }
+            if(pos == limit && !endOfFile){
+                throw new IOException("Error: number exceeds " + MAX_NUMBER_LENGTH + " characters at position "
+                                        + (offset + numberStart) + ".");
+            }
+            if(hasDigits && exact && mantissa < MAX_EXACT_MANTISSA
+                    && exponent >= -22 && exponent <= 22){
+                // exact conversion (both operands are exactly representable)
+                double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent]
+                                             : mantissa / POWERS_OF_TEN[-exponent];
+                return negative ? -value : value;
+            }
+            // fall back to standard conversion
+            String number = lastNumber();
+            try {
+                return Double.parseDouble(number);
+            } catch (NumberFormatException ex){
+                throw new IOException("Error: invalid number at position " + (offset + numberStart)
+                                        + ": " + number + ".", ex);
+            }
+        }
+
+        // get text of last parsed number
+        private String lastNumber(){
+            byte[] bytes = new byte[pos - numberStart];
+            for(int k=0; k<bytes.length; k++){
+                bytes[k] = buffer.get(numberStart + k);
+            }
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+/**
+ * Available storage modes for distance matrices that are read from a file.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public enum DistanceStorage {
+    
+    /**
+     * Full two-dimensional array of double precision values (8n² bytes).
+     */
+    FULL {
+        @Override
+        public StoredDistanceMatrix create(int n) {
+            return new FullDistanceMatrix(n);
+        }
+    },
+    
+    /**
+     * Packed lower triangle of double precision values (4n² bytes).
+     */
+    PACKED {
+        @Override
+        public StoredDistanceMatrix create(int n) {
+            return new PackedDistanceMatrix(n);
+        }
+    },
+    
+    /**
+     * Packed lower triangle of single precision values (2n² bytes).
+     */
+    FLOAT {
+        @Override
+        public StoredDistanceMatrix create(int n) {
+            return new FloatDistanceMatrix(n);
+        }
+    },
+    
+    /**
+     * Packed lower triangle of distances rounded to the nearest integer, as in TSPLIB (2n² bytes).
+     */
+    ROUNDED {
+        @Override
+        public StoredDistanceMatrix create(int n) {
+            return new RoundedDistanceMatrix(n);
+        }
+    };
+    
+    /**
+     * Create an empty distance matrix with this storage mode.
+     * 
+     * @param n number of cities
+     * @return empty distance matrix
+     */
+    public abstract StoredDistanceMatrix create(int n);
+    
+}
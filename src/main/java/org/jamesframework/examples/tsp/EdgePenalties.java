@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+
+/**
+ * Sparse storage of (undirected) edge penalties, used by the {@link TSPGuidedLocalSearch}. Only a small
+ * fraction of all edges is ever penalized, so instead of an n-by-n matrix, penalties are stored in an open
+ * addressing hash map with primitive keys, in which edge (a,b) is identified by the packed pair of its
+ * endpoints (smallest index first). Edges without penalty are not stored and have penalty zero.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class EdgePenalties {
+
+    // key of empty slots (never a valid edge as city indices are not negative)
+    private static final long EMPTY = -1L;
+    // initial number of slots (power of two)
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // packed edges and corresponding penalties (linear probing)
+    private long[] keys;
+    private int[] penalties;
+    // number of penalized edges
+    private int size;
+
+    /**
+     * Create empty penalty storage.
+     */
+    public EdgePenalties(){
+        clear();
+    }
+
+    /**
+     * Get the penalty of edge (a,b).
+     *
+     * @param a first endpoint
+     * @param b second endpoint
+     * @return penalty of the edge, zero if it has not been penalized
+     */
+    public int get(int a, int b){
+        long key = key(a, b);
+        int mask = keys.length - 1;
+        for(int s = hash(key) & mask; keys[s] != EMPTY; s = (s+1) & mask){
+            if(keys[s] == key){
+                return penalties[s];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Increase the penalty of edge (a,b) by one.
+     *
+     * @param a first endpoint
+     * @param b second endpoint
+     * @return updated penalty of the edge
+     */
+    public int increment(int a, int b){
+        long key = key(a, b);
+        int mask = keys.length - 1;
+        int s = hash(key) & mask;
+        while(keys[s] != EMPTY){
+            if(keys[s] == key){
+                return ++penalties[s];
+            }
+            s = (s+1) & mask;
+        }
+        keys[s] = key;
+        penalties[s] = 1;
+        // grow if more than half of the slots are in use
+        if(++size > keys.length / 2){
+            grow();
+        }
+        return 1;
+    }
+
+    /**
+     * Remove all penalties.
+     */
+    public void clear(){
+        keys = new long[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+        penalties = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    // get number of penalized edges
+    public int size(){
+        return size;
+    }
+
+    // double the number of slots and reinsert all penalized edges
+    private void grow(){
+        long[] oldKeys = keys;
+        int[] oldPenalties = penalties;
+        keys = new long[2 * oldKeys.length];
+        Arrays.fill(keys, EMPTY);
+        penalties = new int[keys.length];
+        int mask = keys.length - 1;
+        for(int t=0; t<oldKeys.length; t++){
+            if(oldKeys[t] != EMPTY){
+                int s = hash(oldKeys[t]) & mask;
+                while(keys[s] != EMPTY){
+                    s = (s+1) & mask;
+                }
+                keys[s] = oldKeys[t];
+                penalties[s] = oldPenalties[t];
+            }
+        }
+    }
+
+    // pack endpoints of undirected edge (smallest index first)
+    private static long key(int a, int b){
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    // spread bits of packed edge
+    private static int hash(long key){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
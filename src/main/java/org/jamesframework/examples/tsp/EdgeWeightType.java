@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+/**
+ * Distance functions for TSP instances that are specified by city coordinates,
+ * following the definitions from TSPLIB. All distances are integral.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public enum EdgeWeightType {
+    
+    /**
+     * Euclidean distance in the plane, rounded to the nearest integer.
+     */
+    EUC_2D {
+        @Override
+        public double distance(double x1, double y1, double x2, double y2) {
+            double dx = x1 - x2;
+            double dy = y1 - y2;
+            return Math.floor(Math.sqrt(dx*dx + dy*dy) + 0.5);
+        }
+    },
+    
+    /**
+     * Euclidean distance in the plane, rounded up to the next integer.
+     */
+    CEIL_2D {
+        @Override
+        public double distance(double x1, double y1, double x2, double y2) {
+            double dx = x1 - x2;
+            double dy = y1 - y2;
+            return Math.ceil(Math.sqrt(dx*dx + dy*dy));
+        }
+    },
+    
+    /**
+     * Pseudo-Euclidean distance (used for the att48 and att532 instances).
+     */
+    ATT {
+        @Override
+        public double distance(double x1, double y1, double x2, double y2) {
+            double dx = x1 - x2;
+            double dy = y1 - y2;
+            double r = Math.sqrt((dx*dx + dy*dy) / 10.0);
+            double t = Math.floor(r + 0.5);
+            return t < r ? t + 1.0 : t;
+        }
+    },
+    
+    /**
+     * Geographical distance (in kilometres) on an idealized sphere, where x and y are
+     * the latitude and longitude in DDD.MM format (degrees and minutes).
+     */
+    GEO {
+        @Override
+        public double distance(double x1, double y1, double x2, double y2) {
+            double lat1 = toRadians(x1);
+            double lon1 = toRadians(y1);
+            double lat2 = toRadians(x2);
+            double lon2 = toRadians(y2);
+            double q1 = Math.cos(lon1 - lon2);
+            double q2 = Math.cos(lat1 - lat2);
+            double q3 = Math.cos(lat1 + lat2);
+            return Math.floor(EARTH_RADIUS * Math.acos(0.5*((1.0+q1)*q2 - (1.0-q1)*q3)) + 1.0);
+        }
+        
+        @Override
+        public boolean isEuclidean() {
+            return false;
+        }
+    };
+    
+    // value of pi used by TSPLIB for geographical distances (not Math.PI, which yields different roundings)
+    private static final double PI = 3.141592;
+    // radius of the idealized sphere used for geographical distances
+    private static final double EARTH_RADIUS = 6378.388;
+    
+    // convert DDD.MM coordinate to radians (as in TSPLIB)
+    private static double toRadians(double coord){
+        double deg = (int) coord;
+        double min = coord - deg;
+        return PI * (deg + 5.0 * min / 3.0) / 180.0;
+    }
+    
+    /**
+     * Compute the distance between two cities with the given coordinates.
+     * 
+     * @param x1 x-coordinate of the first city
+     * @param y1 y-coordinate of the first city
+     * @param x2 x-coordinate of the second city
+     * @param y2 y-coordinate of the second city
+     * @return distance between both cities
+     */
+    public abstract double distance(double x1, double y1, double x2, double y2);
+    
+    /**
+     * Indicates whether distances are non-decreasing in the Euclidean distance between the
+     * coordinates, so that nearest neighbours can be found with a {@link KdTree}.
+     * 
+     * @return <code>true</code> for all planar distance functions
+     */
+    public boolean isEuclidean(){
+        return true;
+    }
+    
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+/**
+ * Packed triangular distance matrix with single precision entries (2n² bytes for n cities).
+ * Distances are rounded to the nearest float value.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class FloatDistanceMatrix extends TriangularDistanceMatrix {
+
+    // packed entries
+    private final float[] entries;
+    
+    public FloatDistanceMatrix(int n) {
+        super(n);
+        entries = new float[getNumEntries(n)];
+    }
+
+    @Override
+    protected double getEntry(int index) {
+        return entries[index];
+    }
+
+    @Override
+    protected void setEntry(int index, double distance) {
+        entries[index] = (float) distance;
+    }
+    
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+/**
+ * Distance matrix stored as a full two-dimensional array of double precision values.
+ * Requires 8n² bytes for n cities, but provides the fastest access.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class FullDistanceMatrix extends StoredDistanceMatrix {
+
+    // travel distance matrix
+    private final double[][] dist;
+    
+    // create empty distance matrix for the given number of cities
+    public FullDistanceMatrix(int n) {
+        this(new double[n][n]);
+    }
+    
+    // wrap the given distance matrix (not copied)
+    public FullDistanceMatrix(double[][] dist) {
+        super(dist.length);
+        this.dist = dist;
+    }
+
+    @Override
+    public void setDistance(int i, int j, double distance) {
+        dist[i][j] = distance;
+        dist[j][i] = distance;
+    }
+
+    /**
+     * Swaps both rows and both columns, so that asymmetric distances are retained.
+     * 
+     * @param a index of the first city
+     * @param b index of the second city
+     */
+    @Override
+    public void swapCities(int a, int b){
+        double[] row = dist[a];
+        dist[a] = dist[b];
+        dist[b] = row;
+        for(double[] r : dist){
+            double d = r[a];
+            r[a] = r[b];
+            r[b] = d;
+        }
+    }
+
+    @Override
+    public double getDistance(int from, int to) {
+        return dist[from][to];
+    }
+    
+    @Override
+    public void getDistances(int from, int[] to, int offset, int length, double[] dest) {
+        // gather from row
+        double[] row = dist[from];
+        for(int k=0; k<length; k++){
+            dest[k] = row[to[offset+k]];
+        }
+    }
+    
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>
+ * Greedy edge construction heuristic: considers the edges between each city and its nearest neighbours
+ * in order of increasing length and adds every edge that does not give a city more than two neighbours
+ * and does not close a cycle. This yields a set of paths (fragments), which are then joined into a round
+ * trip by repeatedly connecting the end of the current fragment to the closest endpoint of a fragment that
+ * has not yet been included.
+ * </p>
+ * <p>
+ * The constructed round trip is randomized by multiplying the length of each edge with a random factor
+ * between 1 and 1 + <code>noise</code> before sorting. Without noise, the result only depends on the
+ * randomly chosen fragment from which the round trip is assembled.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class GreedyEdgeConstructor implements TourConstructor {
+
+    // nearest neighbour candidate lists
+    private final NearestNeighbourLists candidates;
+    // maximum relative perturbation of edge lengths
+    private final double noise;
+
+    /**
+     * Create a greedy edge constructor that considers the edges in the given candidate lists.
+     *
+     * @param candidates nearest neighbour candidate lists
+     */
+    public GreedyEdgeConstructor(NearestNeighbourLists candidates){
+        this(candidates, 0.0);
+    }
+
+    /**
+     * Create a greedy edge constructor that considers the edges in the given candidate lists,
+     * the lengths of which are randomly perturbed with the given maximum relative noise.
+     *
+     * @param candidates nearest neighbour candidate lists
+     * @param noise maximum relative perturbation of edge lengths
+     * @throws IllegalArgumentException if the noise is negative
+     */
+    public GreedyEdgeConstructor(NearestNeighbourLists candidates, double noise){
+        if(candidates == null){
+            throw new NullPointerException("Error: candidate lists can not be null.");
+        }
+        if(noise < 0.0){
+            throw new IllegalArgumentException("Error: noise can not be negative.");
+        }
+        this.candidates = candidates;
+        this.noise = noise;
+    }
+
+    @Override
+    public int[] construct(DistanceMatrix dist, Random rnd) {
+        int n = dist.getNumCities();
+        // collect candidate edges, skipping duplicates (a,b) with a > b that also occur as (b,a)
+        int numEdges = 0;
+        for(int a=0; a<n; a++){
+            numEdges += candidates.getNeighbours(a).length;
+        }
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        long[] sortKeys = new long[numEdges];
+        int m = 0;
+        for(int a=0; a<n; a++){
+            for(int b : candidates.getNeighbours(a)){
+                if(a < b || !candidates.isNeighbour(b, a)){
+                    double w = dist.getDistance(a, b);
+                    if(noise > 0.0){
+                        w *= 1.0 + noise * rnd.nextDouble();
+                    }
+                    from[m] = a;
+                    to[m] = b;
+                    // sort by (single precision) length, using edge index to break ties
+                    sortKeys[m] = ((long) Float.floatToIntBits((float) w) << 32) | m;
+                    m++;
+                }
+            }
+        }
+        Arrays.sort(sortKeys, 0, m);
+        // add edges in order of increasing length
+        int[] adj = new int[2*n];
+        Arrays.fill(adj, -1);
+        int[] degree = new int[n];
+        int[] parent = new int[n];
+        for(int c=0; c<n; c++){
+            parent[c] = c;
+        }
+        for(int k=0; k<m; k++){
+            int e = (int) sortKeys[k];
+            int a = from[e];
+            int b = to[e];
+            if(degree[a] < 2 && degree[b] < 2){
+                int ra = find(parent, a);
+                int rb = find(parent, b);
+                if(ra != rb){
+                    parent[ra] = rb;
+                    adj[2*a + degree[a]++] = b;
+                    adj[2*b + degree[b]++] = a;
+                }
+            }
+        }
+        // endpoints of fragments (cities with less than two neighbours) are stored in
+        // the first part of this array (with inverse index, -1 if not a remaining endpoint)
+        int[] endpoints = new int[n];
+        int[] index = new int[n];
+        int numEndpoints = 0;
+        for(int c=0; c<n; c++){
+            if(degree[c] < 2){
+                index[c] = numEndpoints;
+                endpoints[numEndpoints++] = c;
+            } else {
+                index[c] = -1;
+            }
+        }
+        // join fragments, starting from a random fragment
+        int[] tour = new int[n];
+        int p = 0;
+        int cur = numEndpoints > 0 ? endpoints[rnd.nextInt(numEndpoints)] : 0;
+        while(p < n){
+            // traverse fragment starting at cur
+            numEndpoints = removeEndpoint(cur, endpoints, index, numEndpoints);
+            int prev = -1;
+            while(true){
+                tour[p++] = cur;
+                int next = adj[2*cur] != prev ? adj[2*cur] : adj[2*cur+1];
+                if(next < 0 || p == n){
+                    break;
+                }
+                prev = cur;
+                cur = next;
+            }
+            numEndpoints = removeEndpoint(cur, endpoints, index, numEndpoints);
+            // continue with closest endpoint of another fragment
+            if(numEndpoints > 0){
+                cur = findNearestEndpoint(dist, cur, endpoints, index, numEndpoints);
+            }
+        }
+        return tour;
+    }
+
+    // find representative of the fragment containing the given city (with path halving)
+    private int find(int[] parent, int c){
+        while(parent[c] != c){
+            parent[c] = parent[parent[c]];
+            c = parent[c];
+        }
+        return c;
+    }
+
+    // remove city from remaining endpoints, if present; returns the new number of endpoints
+    private int removeEndpoint(int c, int[] endpoints, int[] index, int numEndpoints){
+        if(index[c] >= 0){
+            int last = endpoints[--numEndpoints];
+            endpoints[index[c]] = last;
+            index[last] = index[c];
+            index[c] = -1;
+        }
+        return numEndpoints;
+    }
+
+    // find closest remaining endpoint (first looked up in the candidate lists)
+    private int findNearestEndpoint(DistanceMatrix dist, int from, int[] endpoints, int[] index, int numEndpoints){
+        for(int c : candidates.getNeighbours(from)){
+            if(index[c] >= 0){
+                return c;
+            }
+        }
+        int nearest = -1;
+        double nearestDist = Double.MAX_VALUE;
+        for(int k=0; k<numEndpoints; k++){
+            double d = dist.getDistance(from, endpoints[k]);
+            if(nearest < 0 || d < nearestDist){
+                nearest = endpoints[k];
+                nearestDist = d;
+            }
+        }
+        return nearest;
+    }
+
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Held-Karp lower bound on the length of an optimal round trip. A 1-tree consists of a minimum spanning
+ * tree on all cities except one special city, together with the two shortest edges incident to that city.
+ * As every round trip is a 1-tree, the length of a minimum 1-tree is a lower bound. This bound is tightened
+ * by adding a penalty &pi;<sub>i</sub> to each city, so that the length of edge (i,j) becomes
+ * d(i,j) + &pi;<sub>i</sub> + &pi;<sub>j</sub>: the length of the minimum 1-tree minus twice the sum of
+ * all penalties is still a lower bound, for any penalties.
+ * </p>
+ * <p>
+ * The penalties are optimized with subgradient optimization: cities with more than two incident edges
+ * in the current 1-tree are penalized, and those with a single edge are rewarded, with a step size that
+ * is proportional to the distance between the current bound and a given upper bound (e.g. the length of
+ * any round trip). The step size is halved whenever the bound has not improved for a number of iterations.
+ * If the 1-tree becomes a round trip, it is optimal and the bound is exact.
+ * </p>
+ * <p>
+ * Each iteration computes a minimum spanning tree with Prim's algorithm, which takes quadratic time. If
+ * candidate lists are given, the penalties are instead optimized on the sparse graph that only contains
+ * the edges between each city and its nearest neighbours, where a spanning tree is found with Kruskal's
+ * algorithm in O(nk log(nk)) time. As this tree is not necessarily minimal for the full graph, the final
+ * bound is then obtained by computing the minimum 1-tree of the full graph once, with the best penalties.
+ * This bound is valid for any penalties, so it is still a lower bound, albeit slightly less tight.
+ * The final step takes quadratic time, so that the bound is only feasible for instances with up to a few
+ * tens of thousands of cities.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class HeldKarpBound {
+
+    // default maximum number of subgradient iterations
+    private static final int DEFAULT_MAX_ITERATIONS = 1000;
+    // number of iterations without improvement after which the step size is halved
+    private static final int PERIOD = 20;
+    // minimum value of the step size multiplier
+    private static final double MIN_LAMBDA = 1e-4;
+
+    // best lower bound
+    private final double bound;
+    // penalties that yield the best lower bound
+    private final double[] penalties;
+    // number of performed iterations
+    private int numIterations;
+    // indicates whether the best 1-tree is a round trip
+    private boolean optimal;
+
+    /**
+     * Compute the Held-Karp bound for the given TSP data, with a default maximum number of iterations.
+     * The penalties are optimized on the graph induced by the given candidate lists.
+     *
+     * @param data TSP data
+     * @param candidates nearest neighbour candidate lists
+     * @param upperBound length of any round trip
+     */
+    public HeldKarpBound(TSPData data, NearestNeighbourLists candidates, double upperBound){
+        this(data.getDistanceMatrix(), candidates, upperBound, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Compute the Held-Karp bound for the given distance matrix, with the given maximum number of
+     * subgradient iterations. The upper bound is used to set the step size and should be the length
+     * of a round trip (the better the round trip, the faster the bound converges). If candidate lists
+     * are given, the penalties are optimized on the sparse graph induced by these lists, as long as
+     * this graph is connected. Else, or if no candidates are given (<code>null</code>), all edges are
+     * considered in every iteration.
+     *
+     * @param dist distance matrix
+     * @param candidates nearest neighbour candidate lists, may be <code>null</code>
+     * @param upperBound length of any round trip
+     * @param maxIterations maximum number of subgradient iterations
+     * @throws IllegalArgumentException if the number of cities is smaller than three
+     *                                  or the maximum number of iterations is not strictly positive
+     */
+    public HeldKarpBound(DistanceMatrix dist, NearestNeighbourLists candidates, double upperBound, int maxIterations){
+        int n = dist.getNumCities();
+        if(n < 3){
+            throw new IllegalArgumentException("Error: Held-Karp bound requires at least three cities.");
+        }
+        if(maxIterations <= 0){
+            throw new IllegalArgumentException("Error: maximum number of iterations should be strictly positive.");
+        }
+        double[] pi = new double[n];
+        int[] degree = new int[n];
+        // reuse buffers of spanning tree computation
+        double[] key = new double[n];
+        int[] parent = new int[n];
+        boolean[] inTree = new boolean[n];
+        // collect candidate edges that do not involve the special city
+        SparseGraph graph = candidates != null ? SparseGraph.create(dist, candidates) : null;
+        double bestBound = -Double.MAX_VALUE;
+        double[] bestPi = pi.clone();
+        double lambda = 2.0;
+        int sinceImprovement = 0;
+        while(numIterations < maxIterations && !optimal && lambda >= MIN_LAMBDA){
+            numIterations++;
+            double w = graph != null ? graph.computeOneTree(dist, pi, degree, parent)
+                                     : computeOneTree(dist, pi, degree, key, parent, inTree);
+            if(w > bestBound){
+                bestBound = w;
+                bestPi = pi.clone();
+                sinceImprovement = 0;
+            } else if(++sinceImprovement >= PERIOD){
+                lambda /= 2;
+                sinceImprovement = 0;
+            }
+            // compute subgradient (degree - 2)
+            long norm = 0;
+            for(int i=0; i<n; i++){
+                int v = degree[i] - 2;
+                norm += v * v;
+            }
+            if(norm == 0){
+                // 1-tree is a round trip
+                optimal = true;
+            } else if(w >= upperBound){
+                // bound can not be improved any further
+                break;
+            } else {
+                // update penalties
+                double step = lambda * (upperBound - w) / norm;
+                for(int i=0; i<n; i++){
+                    pi[i] += step * (degree[i] - 2);
+                }
+            }
+        }
+        if(graph != null){
+            // compute minimum 1-tree of full graph with best penalties
+            bestBound = computeOneTree(dist, bestPi, degree, key, parent, inTree);
+            optimal = true;
+            for(int i=0; i<n; i++){
+                optimal &= degree[i] == 2;
+            }
+        }
+        bound = bestBound;
+        penalties = bestPi;
+    }
+
+    // compute length of minimum 1-tree with city 0 as special city, minus twice the sum of the penalties,
+    // and store the degree of each city in the 1-tree
+    private static double computeOneTree(DistanceMatrix dist, double[] pi, int[] degree,
+                                  double[] key, int[] parent, boolean[] inTree){
+        int n = dist.getNumCities();
+        // minimum spanning tree on cities 1, ..., n-1 (Prim)
+        for(int i=1; i<n; i++){
+            key[i] = Double.MAX_VALUE;
+            inTree[i] = false;
+            degree[i] = 0;
+        }
+        degree[0] = 0;
+        double length = 0.0;
+        int cur = 1;
+        inTree[1] = true;
+        for(int added=1; added<n-1; added++){
+            // update keys of remaining cities and select closest one
+            int best = -1;
+            for(int i=2; i<n; i++){
+                if(!inTree[i]){
+                    double d = dist.getDistance(cur, i) + pi[cur] + pi[i];
+                    if(d < key[i]){
+                        key[i] = d;
+                        parent[i] = cur;
+                    }
+                    if(best < 0 || key[i] < key[best]){
+                        best = i;
+                    }
+                }
+            }
+            inTree[best] = true;
+            length += key[best];
+            degree[best]++;
+            degree[parent[best]]++;
+            cur = best;
+        }
+        // connect special city with its two nearest cities
+        length += connectSpecialCity(dist, pi, degree);
+        return length - 2*sum(pi);
+    }
+
+    // compute the two shortest (penalized) edges incident to special city 0, add them to the 1-tree and
+    // return their total length
+    private static double connectSpecialCity(DistanceMatrix dist, double[] pi, int[] degree){
+        int n = dist.getNumCities();
+        double first = Double.MAX_VALUE, second = Double.MAX_VALUE;
+        int firstCity = -1, secondCity = -1;
+        for(int i=1; i<n; i++){
+            double d = dist.getDistance(0, i) + pi[0] + pi[i];
+            if(d < first){
+                second = first;
+                secondCity = firstCity;
+                first = d;
+                firstCity = i;
+            } else if(d < second){
+                second = d;
+                secondCity = i;
+            }
+        }
+        degree[0] = 2;
+        degree[firstCity]++;
+        degree[secondCity]++;
+        return first + second;
+    }
+
+    // compute sum of penalties
+    private static double sum(double[] pi){
+        double sum = 0.0;
+        for(double p : pi){
+            sum += p;
+        }
+        return sum;
+    }
+
+    // sparse graph with the candidate edges between cities 1, ..., n-1
+    private static class SparseGraph {
+
+        // endpoints and (unpenalized) lengths of each edge
+        private final int[] from, to;
+        private final double[] length;
+        // reuse buffer with sort keys
+        private final long[] sortKeys;
+
+        private SparseGraph(int[] from, int[] to, double[] length){
+            this.from = from;
+            this.to = to;
+            this.length = length;
+            sortKeys = new long[from.length];
+        }
+
+        // collect candidate edges; returns null if they do not connect cities 1, ..., n-1
+        private static SparseGraph create(DistanceMatrix dist, NearestNeighbourLists candidates){
+            int n = dist.getNumCities();
+            int numEdges = 0;
+            for(int a=1; a<n; a++){
+                numEdges += candidates.getNeighbours(a).length;
+            }
+            int[] from = new int[numEdges];
+            int[] to = new int[numEdges];
+            double[] length = new double[numEdges];
+            int m = 0;
+            // track connected components
+            int[] parent = new int[n];
+            for(int c=0; c<n; c++){
+                parent[c] = c;
+            }
+            int numComponents = n-1;
+            for(int a=1; a<n; a++){
+                for(int b : candidates.getNeighbours(a)){
+                    // skip duplicate edges (b,a) that are also listed as (a,b)
+                    if(b != 0 && (a < b || !contains(candidates.getNeighbours(b), a))){
+                        from[m] = a;
+                        to[m] = b;
+                        length[m] = dist.getDistance(a, b);
+                        m++;
+                        int ra = find(parent, a);
+                        int rb = find(parent, b);
+                        if(ra != rb){
+                            parent[ra] = rb;
+                            numComponents--;
+                        }
+                    }
+                }
+            }
+            if(numComponents > 1){
+                return null;
+            }
+            return new SparseGraph(Arrays.copyOf(from, m), Arrays.copyOf(to, m), Arrays.copyOf(length, m));
+        }
+
+        // compute length of minimum 1-tree on the sparse graph (Kruskal), minus twice the sum of the
+        // penalties, and store the degree of each city in the 1-tree
+        private double computeOneTree(DistanceMatrix dist, double[] pi, int[] degree, int[] parent){
+            int n = dist.getNumCities();
+            int m = from.length;
+            for(int e=0; e<m; e++){
+                float w = (float) (length[e] + pi[from[e]] + pi[to[e]]);
+                // map float to int with the same (signed) order and use edge index to break ties
+                int bits = Float.floatToIntBits(w);
+                if(bits < 0){
+                    bits ^= Integer.MAX_VALUE;
+                }
+                sortKeys[e] = ((long) bits << 32) | e;
+            }
+            Arrays.sort(sortKeys);
+            for(int c=0; c<n; c++){
+                parent[c] = c;
+                degree[c] = 0;
+            }
+            double treeLength = 0.0;
+            int added = 0;
+            for(int k=0; k<m && added<n-2; k++){
+                int e = (int) sortKeys[k];
+                int ra = find(parent, from[e]);
+                int rb = find(parent, to[e]);
+                if(ra != rb){
+                    parent[ra] = rb;
+                    treeLength += length[e] + pi[from[e]] + pi[to[e]];
+                    degree[from[e]]++;
+                    degree[to[e]]++;
+                    added++;
+                }
+            }
+            treeLength += connectSpecialCity(dist, pi, degree);
+            return treeLength - 2*sum(pi);
+        }
+
+        // check whether the array contains the given value
+        private static boolean contains(int[] values, int v){
+            for(int x : values){
+                if(x == v){
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // find representative of the component containing the given city (with path halving)
+        private static int find(int[] parent, int c){
+            while(parent[c] != c){
+                parent[c] = parent[parent[c]];
+                c = parent[c];
+            }
+            return c;
+        }
+
+    }
+
+    // get best lower bound
+    public double getBound(){
+        return bound;
+    }
+
+    // get penalties that yield the best lower bound (returns a copy)
+    public double[] getPenalties(){
+        return penalties.clone();
+    }
+
+    // get number of performed subgradient iterations
+    public int getNumIterations(){
+        return numIterations;
+    }
+
+    // check whether the bound is exact, i.e. a minimum 1-tree is a round trip
+    public boolean isOptimal(){
+        return optimal;
+    }
+
+}
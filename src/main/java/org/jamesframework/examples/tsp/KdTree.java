@@ -0,0 +1,354 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Two-dimensional k-d tree over the coordinates of the cities of a TSP instance, that answers k-nearest-neighbour
+ * and fixed-radius queries in O(log n) expected time (plus the size of the output) instead of scanning all cities.
+ * Distances are Euclidean distances between the coordinates. For edge weight types that are non-decreasing in
+ * the Euclidean distance (see {@link EdgeWeightType#isEuclidean()}), the nearest neighbours are therefore also
+ * the nearest neighbours according to the distance matrix, up to ties.
+ * </p>
+ * <p>
+ * The tree is stored implicitly in a single permutation of the cities: each node covers a range of this array,
+ * with the median city along the split dimension of the node in the middle, the cities on the lower side before
+ * and those on the upper side after the median. The split dimension is the one in which the cities of the node
+ * are most spread out. Small ranges are not split further and are scanned linearly.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class KdTree {
+
+    // maximum number of cities in a leaf
+    private static final int LEAF_SIZE = 8;
+
+    // city coordinates
+    private final double[] x, y;
+    // permutation of cities (implicit tree)
+    private final int[] cities;
+    // split dimension of the node with the given median position (true: x, false: y)
+    private final boolean[] splitX;
+
+    /**
+     * Build a k-d tree over the cities of the given coordinate based distance matrix.
+     *
+     * @param dist coordinate based distance matrix
+     */
+    public KdTree(CoordinateDistanceMatrix dist){
+        this(coordinates(dist, true), coordinates(dist, false));
+    }
+
+    /**
+     * Build a k-d tree over the cities with the given coordinates. The arrays are not copied.
+     *
+     * @param x x-coordinates of the cities
+     * @param y y-coordinates of the cities
+     * @throws IllegalArgumentException if the coordinate arrays have different lengths
+     */
+    public KdTree(double[] x, double[] y){
+        if(x.length != y.length){
+            throw new IllegalArgumentException("Error: number of x- and y-coordinates differ.");
+        }
+        this.x = x;
+        this.y = y;
+        int n = x.length;
+        cities = new int[n];
+        for(int c=0; c<n; c++){
+            cities[c] = c;
+        }
+        splitX = new boolean[n];
+        build(0, n);
+    }
+
+    // extract x- or y-coordinates from distance matrix
+    private static double[] coordinates(CoordinateDistanceMatrix dist, boolean xCoordinates){
+        double[] coords = new double[dist.getNumCities()];
+        for(int c=0; c<coords.length; c++){
+            coords[c] = xCoordinates ? dist.getX(c) : dist.getY(c);
+        }
+        return coords;
+    }
+
+    // recursively build subtree over the given range of the permutation
+    private void build(int lo, int hi){
+        if(hi - lo <= LEAF_SIZE){
+            return;
+        }
+        // split along dimension with largest spread
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for(int p=lo; p<hi; p++){
+            int c = cities[p];
+            minX = Math.min(minX, x[c]);
+            maxX = Math.max(maxX, x[c]);
+            minY = Math.min(minY, y[c]);
+            maxY = Math.max(maxY, y[c]);
+        }
+        int mid = (lo + hi) >>> 1;
+        boolean sx = maxX - minX >= maxY - minY;
+        splitX[mid] = sx;
+        select(lo, hi, mid, sx ? x : y);
+        build(lo, mid);
+        build(mid+1, hi);
+    }
+
+    // partially sort the given range so that position k holds the city that belongs there in sorted
+    // order according to the given coordinates, with smaller or equal values before and larger or
+    // equal values after this position (quickselect)
+    private void select(int lo, int hi, int k, double[] coords){
+        hi--;
+        while(hi > lo){
+            double pivot = coords[cities[(lo + hi) >>> 1]];
+            int i = lo, j = hi;
+            while(i <= j){
+                while(coords[cities[i]] < pivot){
+                    i++;
+                }
+                while(coords[cities[j]] > pivot){
+                    j--;
+                }
+                if(i <= j){
+                    int tmp = cities[i];
+                    cities[i] = cities[j];
+                    cities[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if(k <= j){
+                hi = j;
+            } else if(k >= i){
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Find the k nearest other cities of the given city, sorted by increasing distance.
+     * If k is larger than the number of other cities, all other cities are returned.
+     *
+     * @param city city
+     * @param k number of nearest neighbours
+     * @return k nearest other cities, sorted by increasing distance
+     * @throws IllegalArgumentException if k is negative
+     */
+    public int[] nearest(int city, int k){
+        if(k < 0){
+            throw new IllegalArgumentException("Error: number of nearest neighbours can not be negative.");
+        }
+        NearestQuery query = new NearestQuery(x[city], y[city], city, Math.min(k, x.length-1));
+        if(query.k > 0){
+            nearest(query, 0, x.length);
+        }
+        return query.sorted();
+    }
+
+    // search subtree for nearest neighbours
+    private void nearest(NearestQuery query, int lo, int hi){
+        if(hi - lo <= LEAF_SIZE){
+            for(int p=lo; p<hi; p++){
+                query.offer(cities[p], x, y);
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int c = cities[mid];
+        query.offer(c, x, y);
+        double diff = splitX[mid] ? query.qx - x[c] : query.qy - y[c];
+        // visit side containing query point first
+        if(diff < 0){
+            nearest(query, lo, mid);
+            if(diff*diff < query.bound()){
+                nearest(query, mid+1, hi);
+            }
+        } else {
+            nearest(query, mid+1, hi);
+            if(diff*diff < query.bound()){
+                nearest(query, lo, mid);
+            }
+        }
+    }
+
+    /**
+     * Find all other cities within the given distance of the given city (inclusive), in no specific order.
+     *
+     * @param city city
+     * @param radius maximum distance
+     * @return all other cities within the given distance
+     */
+    public int[] withinRadius(int city, double radius){
+        RadiusQuery query = new RadiusQuery(x[city], y[city], city, radius);
+        withinRadius(query, 0, x.length);
+        return Arrays.copyOf(query.found, query.size);
+    }
+
+    // search subtree for cities within radius
+    private void withinRadius(RadiusQuery query, int lo, int hi){
+        if(hi - lo <= LEAF_SIZE){
+            for(int p=lo; p<hi; p++){
+                query.offer(cities[p], x, y);
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int c = cities[mid];
+        query.offer(c, x, y);
+        double diff = splitX[mid] ? query.qx - x[c] : query.qy - y[c];
+        if(diff <= query.radius){
+            withinRadius(query, lo, mid);
+        }
+        if(diff >= -query.radius){
+            withinRadius(query, mid+1, hi);
+        }
+    }
+
+    // retrieve number of cities
+    public int getNumCities(){
+        return x.length;
+    }
+
+    /**
+     * State of a k-nearest-neighbour query: bounded max-heap of the nearest cities found so far,
+     * keyed by squared distance.
+     */
+    private static class NearestQuery {
+
+        private final double qx, qy;
+        private final int exclude;
+        private final int k;
+        private final int[] heap;
+        private final double[] heapDist;
+        private int size = 0;
+
+        private NearestQuery(double qx, double qy, int exclude, int k){
+            this.qx = qx;
+            this.qy = qy;
+            this.exclude = exclude;
+            this.k = k;
+            heap = new int[k];
+            heapDist = new double[k];
+        }
+
+        // squared distance of furthest retained city (infinite while heap is not full)
+        private double bound(){
+            return size < k ? Double.POSITIVE_INFINITY : heapDist[0];
+        }
+
+        // consider the given city
+        private void offer(int c, double[] x, double[] y){
+            if(c == exclude){
+                return;
+            }
+            double dx = qx - x[c];
+            double dy = qy - y[c];
+            double d = dx*dx + dy*dy;
+            if(size < k){
+                // sift up
+                int p = size++;
+                while(p > 0 && heapDist[(p-1)/2] < d){
+                    heap[p] = heap[(p-1)/2];
+                    heapDist[p] = heapDist[(p-1)/2];
+                    p = (p-1)/2;
+                }
+                heap[p] = c;
+                heapDist[p] = d;
+            } else if(d < heapDist[0]){
+                // replace root and sift down
+                int p = 0;
+                while(true){
+                    int child = 2*p+1;
+                    if(child >= size){
+                        break;
+                    }
+                    if(child+1 < size && heapDist[child+1] > heapDist[child]){
+                        child++;
+                    }
+                    if(heapDist[child] <= d){
+                        break;
+                    }
+                    heap[p] = heap[child];
+                    heapDist[p] = heapDist[child];
+                    p = child;
+                }
+                heap[p] = c;
+                heapDist[p] = d;
+            }
+        }
+
+        // retrieve retained cities sorted by increasing distance
+        private int[] sorted(){
+            // insertion sort (k is small)
+            int[] result = new int[size];
+            double[] resultDist = new double[size];
+            for(int i=0; i<size; i++){
+                int p = i;
+                while(p > 0 && resultDist[p-1] > heapDist[i]){
+                    result[p] = result[p-1];
+                    resultDist[p] = resultDist[p-1];
+                    p--;
+                }
+                result[p] = heap[i];
+                resultDist[p] = heapDist[i];
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * State of a fixed-radius query: growing array of cities found so far.
+     */
+    private static class RadiusQuery {
+
+        private final double qx, qy;
+        private final int exclude;
+        private final double radius, radiusSquared;
+        private int[] found = new int[16];
+        private int size = 0;
+
+        private RadiusQuery(double qx, double qy, int exclude, double radius){
+            this.qx = qx;
+            this.qy = qy;
+            this.exclude = exclude;
+            this.radius = radius;
+            radiusSquared = radius*radius;
+        }
+
+        // consider the given city
+        private void offer(int c, double[] x, double[] y){
+            if(c == exclude){
+                return;
+            }
+            double dx = qx - x[c];
+            double dy = qy - y[c];
+            if(dx*dx + dy*dy <= radiusSquared){
+                if(size == found.length){
+                    found = Arrays.copyOf(found, 2*size);
+                }
+                found[size++] = c;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Lazy, immutable list view of all moves in a neighbourhood, where each move is identified by an index from 0
+ * to the number of moves (exclusive). The moves are never stored: each move is decoded from its index when it
+ * is retrieved from the list, so that a search can scan the entire neighbourhood with constant memory.
+ * </p>
+ * <p>
+ * If there are more than {@link Integer#MAX_VALUE} moves, {@link #size()} returns {@link Integer#MAX_VALUE}
+ * and only the first moves can be accessed by index, but iteration still covers the full neighbourhood.
+ * Use {@link #getNumMoves()} to obtain the exact number of moves. The returned {@link Spliterator} splits
+ * the index range so that the moves can also be scanned with a parallel stream.
+ * </p>
+ *
+ * @param <M> move type
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public abstract class LazyMoveList<M> extends AbstractList<M> implements RandomAccess {
+
+    // number of moves
+    private final long numMoves;
+
+    /**
+     * Create a lazy list with the given number of moves.
+     *
+     * @param numMoves number of moves
+     */
+    protected LazyMoveList(long numMoves){
+        this.numMoves = numMoves;
+    }
+
+    // exact number of moves (may exceed Integer.MAX_VALUE)
+    public long getNumMoves(){
+        return numMoves;
+    }
+
+    /**
+     * Create the move with the given index.
+     *
+     * @param index index of the move, from 0 to the number of moves (exclusive)
+     * @return move with the given index
+     */
+    protected abstract M createMove(long index);
+
+    @Override
+    public M get(int index) {
+        if(index < 0 || index >= size()){
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        return createMove(index);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(numMoves, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterator<M> iterator() {
+        return new Iterator<M>() {
+            private long next = 0;
+            @Override
+            public boolean hasNext() {
+                return next < numMoves;
+            }
+            @Override
+            public M next() {
+                if(!hasNext()){
+                    throw new NoSuchElementException();
+                }
+                return createMove(next++);
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<M> spliterator() {
+        return new MoveSpliterator(0, numMoves);
+    }
+
+    // spliterator over a range of move indices
+    private class MoveSpliterator implements Spliterator<M> {
+
+        // current and end index (exclusive)
+        private long from;
+        private final long to;
+
+        MoveSpliterator(long from, long to){
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super M> action) {
+            if(from < to){
+                action.accept(createMove(from++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super M> action) {
+            while(from < to){
+                action.accept(createMove(from++));
+            }
+        }
+
+        @Override
+        public Spliterator<M> trySplit() {
+            long mid = (from + to) >>> 1;
+            if(mid <= from){
+                return null;
+            }
+            // hand out first half
+            Spliterator<M> prefix = new MoveSpliterator(from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | DISTINCT | NONNULL | IMMUTABLE;
+        }
+
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Symmetric distance matrix that is read directly from a memory-mapped binary file, without copying the
+ * distances onto the heap. The operating system loads the pages of the file on demand and keeps them in its
+ * page cache, so that several processes solving the same instance share a single copy of the matrix and
+ * start without parsing any text.
+ * </p>
+ * <p>
+ * The binary file starts with a header of four little-endian integers: the magic number 0x5453504D ("TSPM"),
+ * the format version (1), the entry type (0 for single precision floating point values, 1 for integers, see
+ * {@link EntryType}) and the number of cities n. The header is followed by the n(n-1)/2 entries of the lower
+ * triangular part of the matrix (row-wise without diagonal entries), each stored in four little-endian bytes.
+ * Such a file can be written with {@link #write(DistanceMatrix, EntryType, String)}, or converted from a text
+ * or TSPLIB file with {@link TSPBinaryConverter}.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class MappedDistanceMatrix implements DistanceMatrix {
+
+    /**
+     * Representation of the entries in a binary distance matrix file.
+     */
+    public enum EntryType {
+        /**
+         * Single precision floating point values.
+         */
+        FLOAT,
+        /**
+         * Distances rounded to the nearest integer, as in TSPLIB.
+         */
+        INT
+    }
+
+    // magic number and format version
+    private static final int MAGIC = 0x5453504D;
+    private static final int VERSION = 1;
+    // size of header and entries (in bytes)
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 4;
+    // number of entries per mapped segment (a single buffer can not exceed 2GB)
+    private static final int SEGMENT_SHIFT = 28;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    // size of write buffer (in bytes)
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    // number of cities
+    private final int n;
+    // entry type
+    private final EntryType type;
+    // mapped segments of the packed lower triangle
+    private final ByteBuffer[] segments;
+
+    /**
+     * Map the distance matrix stored in the given binary file.
+     *
+     * @param filePath binary input file path
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file can not be read or is not a valid binary distance matrix file
+     */
+    public MappedDistanceMatrix(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < HEADER_SIZE){
+                throw new IOException("Error: missing header in binary distance matrix file.");
+            }
+            // read header
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                                       .order(ByteOrder.LITTLE_ENDIAN);
+            if(header.getInt(0) != MAGIC){
+                throw new IOException("Error: not a binary distance matrix file.");
+            }
+            if(header.getInt(4) != VERSION){
+                throw new IOException("Error: unsupported binary distance matrix version: " + header.getInt(4) + ".");
+            }
+            int t = header.getInt(8);
+            if(t < 0 || t >= EntryType.values().length){
+                throw new IOException("Error: unsupported entry type in binary distance matrix file: " + t + ".");
+            }
+            type = EntryType.values()[t];
+            n = header.getInt(12);
+            if(n < 0){
+                throw new IOException("Error: invalid number of cities: " + n + ".");
+            }
+            long numEntries = getNumEntries(n);
+            if(size != HEADER_SIZE + numEntries * ENTRY_SIZE){
+                throw new IOException("Error: expected " + numEntries + " distances for " + n
+                                        + " cities, file size does not match.");
+            }
+            // map entries in segments
+            int numSegments = (int) ((numEntries + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new ByteBuffer[numSegments];
+            for(int s=0; s<numSegments; s++){
+                long first = (long) s << SEGMENT_SHIFT;
+                long length = Math.min(numEntries - first, 1L << SEGMENT_SHIFT);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                          HEADER_SIZE + first * ENTRY_SIZE,
+                                          length * ENTRY_SIZE)
+                                     .order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (NoSuchFileException ex){
+            throw new FileNotFoundException(ex.getMessage());
+        }
+    }
+
+    // number of packed entries for the given number of cities
+    private static long getNumEntries(int n){
+        return (long) n * (n-1) / 2;
+    }
+
+    @Override
+    public double getDistance(int from, int to) {
+        if(from == to){
+            return 0.0;
+        }
+        int i = Math.max(from, to);
+        int j = Math.min(from, to);
+        long entry = (long) i * (i-1) / 2 + j;
+        ByteBuffer segment = segments[(int) (entry >>> SEGMENT_SHIFT)];
+        int index = ((int) entry & SEGMENT_MASK) * ENTRY_SIZE;
+        return type == EntryType.FLOAT ? segment.getFloat(index) : segment.getInt(index);
+    }
+
+    @Override
+    public int getNumCities() {
+        return n;
+    }
+
+    // get representation of entries
+    public EntryType getEntryType(){
+        return type;
+    }
+
+    /**
+     * Write the given distance matrix to a binary file that can be mapped with
+     * {@link #MappedDistanceMatrix(String)}. Any existing file is overwritten.
+     *
+     * @param dist distance matrix
+     * @param type representation of the entries
+     * @param filePath binary output file path
+     * @throws IOException if the file can not be written
+     */
+    public static void write(DistanceMatrix dist, EntryType type, String filePath) throws IOException {
+        int n = dist.getNumCities();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.WRITE,
+                                                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            // write header
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(type.ordinal()).putInt(n);
+            // write entries
+            for(int i=1; i<n; i++){
+                for(int j=0; j<i; j++){
+                    if(buffer.remaining() < ENTRY_SIZE){
+                        flush(buffer, channel);
+                    }
+                    double d = dist.getDistance(i, j);
+                    if(type == EntryType.FLOAT){
+                        buffer.putFloat((float) d);
+                    } else {
+                        buffer.putInt((int) (d + 0.5));
+                    }
+                }
+            }
+            flush(buffer, channel);
+        }
+    }
+
+    // write buffered bytes to channel
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
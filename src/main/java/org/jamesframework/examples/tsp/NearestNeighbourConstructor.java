@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Random;
+
+/**
+ * Nearest neighbour construction heuristic: starts at a random city and repeatedly travels to
+ * the closest city that has not yet been visited. The closest unvisited city is first looked
+ * up in the nearest neighbour candidate lists, if any, and only if all candidates have been
+ * visited, all remaining cities are scanned.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class NearestNeighbourConstructor implements TourConstructor {
+
+    // nearest neighbour candidate lists (null if not used)
+    private final NearestNeighbourLists candidates;
+
+    /**
+     * Create a nearest neighbour constructor that scans all unvisited cities in every step.
+     */
+    public NearestNeighbourConstructor(){
+        this(null);
+    }
+
+    /**
+     * Create a nearest neighbour constructor that first looks for unvisited cities in the
+     * given candidate lists. If <code>null</code>, all unvisited cities are scanned.
+     *
+     * @param candidates nearest neighbour candidate lists, may be <code>null</code>
+     */
+    public NearestNeighbourConstructor(NearestNeighbourLists candidates){
+        this.candidates = candidates;
+    }
+
+    @Override
+    public int[] construct(DistanceMatrix dist, Random rnd) {
+        int n = dist.getNumCities();
+        int[] tour = new int[n];
+        if(n == 0){
+            return tour;
+        }
+        // unvisited cities are stored in the first part of this array (with inverse index)
+        int[] unvisited = new int[n];
+        int[] index = new int[n];
+        for(int c=0; c<n; c++){
+            unvisited[c] = c;
+            index[c] = c;
+        }
+        int numUnvisited = n;
+        // start at random city
+        int cur = rnd.nextInt(n);
+        for(int p=0; p<n; p++){
+            // mark current city as visited
+            tour[p] = cur;
+            int last = unvisited[--numUnvisited];
+            unvisited[index[cur]] = last;
+            index[last] = index[cur];
+            index[cur] = numUnvisited;
+            if(numUnvisited > 0){
+                cur = findNearestUnvisited(dist, cur, unvisited, index, numUnvisited);
+            }
+        }
+        return tour;
+    }
+
+    // find closest unvisited city
+    private int findNearestUnvisited(DistanceMatrix dist, int from, int[] unvisited, int[] index, int numUnvisited){
+        if(candidates != null){
+            // candidates are sorted by increasing distance
+            for(int c : candidates.getNeighbours(from)){
+                if(index[c] < numUnvisited){
+                    return c;
+                }
+            }
+        }
+        // scan all unvisited cities
+        int nearest = -1;
+        double nearestDist = Double.MAX_VALUE;
+        for(int k=0; k<numUnvisited; k++){
+            double d = dist.getDistance(from, unvisited[k]);
+            if(nearest < 0 || d < nearestDist){
+                nearest = unvisited[k];
+                nearestDist = d;
+            }
+        }
+        return nearest;
+    }
+
+}
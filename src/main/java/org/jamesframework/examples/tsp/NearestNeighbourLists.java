@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * Candidate lists for the TSP problem: stores the k nearest neighbours of every city,
+ * sorted by increasing distance. Neighbourhoods and searches use these lists to restrict
+ * their attention to moves that introduce short edges, which are the only ones that are
+ * likely to improve a reasonable round trip.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class NearestNeighbourLists {
+
+    // nearest neighbours of each city (sorted by increasing distance)
+    private final int[][] neighbours;
+
+    /**
+     * Compute the k nearest neighbours of every city in the given TSP data. If k is larger
+     * than the number of other cities, all other cities are included in each list.
+     *
+     * @param data TSP data
+     * @param k number of nearest neighbours per city
+     * @throws IllegalArgumentException if k is not strictly positive
+     */
+    public NearestNeighbourLists(TSPData data, int k){
+        this(data.getDistanceMatrix(), k);
+    }
+
+    /**
+     * Compute the k nearest neighbours of every city in the given distance matrix. If k is larger
+     * than the number of other cities, all other cities are included in each list. If the distances
+     * are computed from coordinates with an edge weight type that is non-decreasing in the Euclidean
+     * distance, the neighbours are found with a {@link KdTree} in O(n log n) expected time. Else,
+     * all n<sup>2</sup> distances are inspected.
+     *
+     * @param data distance matrix
+     * @param k number of nearest neighbours per city
+     * @throws IllegalArgumentException if k is not strictly positive
+     */
+    public NearestNeighbourLists(DistanceMatrix data, int k){
+        if(k <= 0){
+            throw new IllegalArgumentException("Error: number of nearest neighbours should be strictly positive.");
+        }
+        // inspect underlying distances instead of filling a cache
+        data = CachedDistanceMatrix.unwrap(data);
+        int n = data.getNumCities();
+        k = Math.min(k, n-1);
+        neighbours = new int[n][];
+        if(data instanceof CoordinateDistanceMatrix
+                && ((CoordinateDistanceMatrix) data).getEdgeWeightType().isEuclidean()){
+            // query spatial index
+            KdTree tree = new KdTree((CoordinateDistanceMatrix) data);
+            for(int from=0; from<n; from++){
+                neighbours[from] = tree.nearest(from, k);
+            }
+            return;
+        }
+        // reuse buffer for distances to current neighbours
+        double[] nearestDist = new double[k];
+        for(int from=0; from<n; from++){
+            int[] nearest = new int[k];
+            int size = 0;
+            for(int to=0; to<n; to++){
+                if(to != from){
+                    double d = data.getDistance(from, to);
+                    if(size < k || d < nearestDist[size-1]){
+                        // insert in sorted list, dropping the furthest neighbour if full
+                        int p = size < k ? size++ : size-1;
+                        while(p > 0 && nearestDist[p-1] > d){
+                            nearest[p] = nearest[p-1];
+                            nearestDist[p] = nearestDist[p-1];
+                            p--;
+                        }
+                        nearest[p] = to;
+                        nearestDist[p] = d;
+                    }
+                }
+            }
+            neighbours[from] = nearest;
+        }
+    }
+
+    // wrap the given neighbour lists (not copied), each sorted by increasing distance
+    NearestNeighbourLists(int[][] neighbours){
+        this.neighbours = neighbours;
+    }
+
+    // get nearest neighbours of the given city (sorted by increasing distance)
+    public int[] getNeighbours(int city){
+        return neighbours[city];
+    }
+
+    // check whether the other city is one of the nearest neighbours of the given city
+    public boolean isNeighbour(int city, int other){
+        for(int c : neighbours[city]){
+            if(c == other){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // retrieve number of cities
+    public int getNumCities(){
+        return neighbours.length;
+    }
+
+    /**
+     * Compute the average distance between each city and its nearest neighbour. Neighbours at
+     * distance zero (duplicate cities) are skipped in favour of the nearest distinct neighbour
+     * in the list, if any. Takes O(nk) time.
+     *
+     * @param data distance matrix from which these lists were computed
+     * @return average nearest neighbour distance
+     */
+    public double getAvgNearestNeighbourDistance(DistanceMatrix data){
+        double sum = 0.0;
+        int count = 0;
+        for(int from=0; from<neighbours.length; from++){
+            for(int to : neighbours[from]){
+                double d = data.getDistance(from, to);
+                if(d > 0.0){
+                    sum += d;
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count > 0 ? sum/count : 0.0;
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.Search;
+import org.jamesframework.core.search.stopcriteria.StopCriterion;
+
+/**
+ * Stop criterion that terminates a (minimizing) search as soon as the evaluation of its best solution is
+ * within a given relative gap of a lower bound, such as the {@link HeldKarpBound}. For example, with a
+ * gap of 0.01, the search stops when the best found round trip is at most 1% longer than the bound, and
+ * therefore at most 1% longer than an optimal round trip.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class OptimalityGap implements StopCriterion {
+
+    // lower bound
+    private final double lowerBound;
+    // maximum relative gap
+    private final double gap;
+
+    /**
+     * Create a stop criterion with the given lower bound and maximum relative gap.
+     *
+     * @param lowerBound lower bound on the evaluation of any solution
+     * @param gap maximum relative gap between the best solution and the lower bound
+     * @throws IllegalArgumentException if the gap is negative
+     */
+    public OptimalityGap(double lowerBound, double gap){
+        if(gap < 0.0){
+            throw new IllegalArgumentException("Error while creating stop criterion: gap should be >= 0.0.");
+        }
+        this.lowerBound = lowerBound;
+        this.gap = gap;
+    }
+
+    @Override
+    public boolean searchShouldStop(Search<?> search) {
+        Evaluation bestEval = search.getBestSolutionEvaluation();
+        return bestEval != null && bestEval.getValue() <= lowerBound + gap * Math.abs(lowerBound);
+    }
+
+    @Override
+    public String toString(){
+        return "{lower bound: " + lowerBound + ", gap: " + gap + "}";
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * <p>
+ * Generalized partition crossover (GPX) for the TSP problem. The edges that occur in only one of both parents
+ * are grouped into connected components. All edges that connect a component to the rest of the round trip are
+ * shared by both parents. If there are exactly two such edges, both parents traverse the component as a single
+ * path between the same two cities, so that either path can be used in the offspring without breaking the round
+ * trip. The offspring inherits the shorter path for each such component, and all other edges from the first
+ * parent. It is therefore never longer than the first parent, and shorter if any component is improved.
+ * </p>
+ * <p>
+ * A crossover takes O(n) time and memory: the components are found with a union-find structure and the offspring
+ * is assembled by following, from each city, the edges of the parent chosen for the component of that city.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class PartitionCrossover {
+
+    /**
+     * Recombine both parents. Returns <code>null</code> if the offspring would be identical to the first
+     * parent, i.e. if no component could be improved by inheriting the path of the second parent.
+     *
+     * @param first first parent (default source of edges)
+     * @param second second parent
+     * @param data TSP data
+     * @return offspring, <code>null</code> if identical to the first parent
+     * @throws IllegalArgumentException if the parents do not visit the same number of cities
+     */
+    public TSPSolution cross(TSPSolution first, TSPSolution second, TSPData data){
+        int n = first.getNumCities();
+        if(second.getNumCities() != n){
+            throw new IllegalArgumentException("Error: parents should visit the same number of cities.");
+        }
+        if(n < 4){
+            return null;
+        }
+        // group cities connected by edges that are not shared by both parents
+        int[] parent = new int[n];
+        for(int c=0; c<n; c++){
+            parent[c] = c;
+        }
+        for(int a=0; a<n; a++){
+            int b = first.next(a);
+            if(!hasEdge(second, a, b)){
+                union(parent, a, b);
+            }
+            b = second.next(a);
+            if(!hasEdge(first, a, b)){
+                union(parent, a, b);
+            }
+        }
+        // count (shared) edges that connect each component to the rest of the round trip
+        // and compute length of the path through each component in both parents
+        int[] cut = new int[n];
+        double[] firstLength = new double[n];
+        double[] secondLength = new double[n];
+        for(int a=0; a<n; a++){
+            int ra = find(parent, a);
+            int b = first.next(a);
+            if(ra != find(parent, b)){
+                cut[ra]++;
+                cut[find(parent, b)]++;
+            } else {
+                firstLength[ra] += data.getDistance(a, b);
+            }
+            b = second.next(a);
+            if(ra == find(parent, b)){
+                secondLength[ra] += data.getDistance(a, b);
+            }
+        }
+        // inherit path of second parent for feasible components where it is shorter
+        boolean[] fromSecond = new boolean[n];
+        boolean improved = false;
+        for(int c=0; c<n; c++){
+            if(parent[c] == c && cut[c] == 2 && secondLength[c] < firstLength[c]){
+                fromSecond[c] = true;
+                improved = true;
+            }
+        }
+        if(!improved){
+            return null;
+        }
+        // assemble offspring
+        int[] tour = new int[n];
+        int prev = -1;
+        int cur = 0;
+        for(int p=0; p<n; p++){
+            tour[p] = cur;
+            TSPSolution source = fromSecond[find(parent, cur)] ? second : first;
+            int next = source.next(cur);
+            if(next == prev){
+                next = source.prev(cur);
+            }
+            prev = cur;
+            cur = next;
+        }
+        return TSPSolution.create(tour);
+    }
+
+    // check whether the round trip contains edge (a,b)
+    private boolean hasEdge(TSPSolution sol, int a, int b){
+        return sol.next(a) == b || sol.prev(a) == b;
+    }
+
+    // merge components of both cities
+    private void union(int[] parent, int a, int b){
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if(ra != rb){
+            parent[ra] = rb;
+        }
+    }
+
+    // find representative of the component containing the given city (with path halving)
+    private int find(int[] parent, int c){
+        while(parent[c] != c){
+            parent[c] = parent[parent[c]];
+            c = parent[c];
+        }
+        return c;
+    }
+
+}
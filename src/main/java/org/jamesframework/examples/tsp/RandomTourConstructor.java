@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Random;
+
+/**
+ * Creates a uniformly random round trip.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class RandomTourConstructor implements TourConstructor {
+
+    @Override
+    public int[] construct(DistanceMatrix dist, Random rnd) {
+        // create random permutation of cities (Fisher-Yates shuffle)
+        int n = dist.getNumCities();
+        int[] cities = new int[n];
+        for(int i=0; i<n; i++){
+            cities[i] = i;
+        }
+        for(int i=n-1; i>0; i--){
+            int r = rnd.nextInt(i+1);
+            int tmp = cities[i];
+            cities[i] = cities[r];
+            cities[r] = tmp;
+        }
+        return cities;
+    }
+
+}
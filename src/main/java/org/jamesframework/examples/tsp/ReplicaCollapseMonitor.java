@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jamesframework.core.factory.MetropolisSearchFactory;
+import org.jamesframework.core.problems.Problem;
+import org.jamesframework.core.search.Search;
+import org.jamesframework.core.search.algo.MetropolisSearch;
+import org.jamesframework.core.search.listeners.SearchListener;
+import org.jamesframework.core.search.neigh.Neighbourhood;
+
+/**
+ * <p>
+ * Detects parallel tempering replicas that are exploring the same round trip. This class serves both as the
+ * {@link MetropolisSearchFactory} that creates the replicas, so that it can keep track of them, and as a
+ * listener that should be attached to the parallel tempering search itself. After every step of the parallel
+ * tempering search, the edge hashes (see {@link TSPSolution#getEdgeHash()}) of the current solutions of all
+ * replicas are compared to count the number of distinct round trips. Only replicas that have been run since
+ * the parallel tempering search was started are taken into account, so that the factory can be reused for
+ * another parallel tempering search (one at a time).
+ * </p>
+ * <p>
+ * The number of distinct round trips after the last step, and the fraction of steps in which several replicas
+ * shared the same round trip, can be retrieved programmatically. If requested, the latter is also printed to
+ * standard output when the search stops.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class ReplicaCollapseMonitor implements MetropolisSearchFactory<TSPSolution>, SearchListener<TSPSolution> {
+
+    // replicas created by this factory that have been run since the monitored search was started
+    private final Set<MetropolisSearch<TSPSolution>> activeReplicas = ConcurrentHashMap.newKeySet();
+    // indicates whether a summary is printed
+    private final boolean verbose;
+
+    // reuse buffer with edge hashes of replicas
+    private long[] hashes;
+    // number of distinct round trips after the last step (-1 if unknown)
+    private int lastDistinct;
+    // number of inspected steps and steps in which replicas shared a round trip
+    private long numSteps, numCollapsedSteps;
+
+    /**
+     * Create a monitor that does not print any messages.
+     */
+    public ReplicaCollapseMonitor(){
+        this(false);
+    }
+
+    /**
+     * Create a monitor, indicating whether a summary is printed to standard output when the search stops.
+     *
+     * @param verbose if <code>true</code>, a summary is printed
+     */
+    public ReplicaCollapseMonitor(boolean verbose){
+        this.verbose = verbose;
+    }
+
+    @Override
+    public MetropolisSearch<TSPSolution> create(Problem<TSPSolution> problem,
+                                                Neighbourhood<? super TSPSolution> neighbourhood,
+                                                double temperature) {
+        MetropolisSearch<TSPSolution> replica = new MetropolisSearch<>(problem, neighbourhood, temperature);
+        // register replica when it is run (replicas are run in parallel)
+        replica.addSearchListener(new SearchListener<TSPSolution>() {
+            @Override
+            public void searchStarted(Search<? extends TSPSolution> search) {
+                activeReplicas.add(replica);
+            }
+        });
+        return replica;
+    }
+
+    @Override
+    public void searchStarted(Search<? extends TSPSolution> search) {
+        // forget replicas of previous runs
+        activeReplicas.clear();
+        lastDistinct = -1;
+        numSteps = 0;
+        numCollapsedSteps = 0;
+    }
+
+    @Override
+    public void stepCompleted(Search<? extends TSPSolution> search, long numSteps) {
+        int distinct = countDistinctTours();
+        if(distinct < 0){
+            return;
+        }
+        this.numSteps++;
+        if(distinct < activeReplicas.size()){
+            numCollapsedSteps++;
+        }
+        lastDistinct = distinct;
+    }
+
+    @Override
+    public void searchStopped(Search<? extends TSPSolution> search) {
+        if(verbose && numSteps > 0){
+            System.out.format(" >>> Replicas shared a round trip in %.1f%% of all steps\n",
+                                100.0 * numCollapsedSteps / numSteps);
+        }
+    }
+
+    // count distinct round trips among current solutions of the active replicas (-1 if not all of them have
+    // a solution)
+    private int countDistinctTours(){
+        int r = activeReplicas.size();
+        if(hashes == null || hashes.length != r){
+            hashes = new long[r];
+        }
+        int k = 0;
+        for(MetropolisSearch<TSPSolution> replica : activeReplicas){
+            TSPSolution sol = replica.getCurrentSolution();
+            if(sol == null){
+                return -1;
+            }
+            hashes[k++] = sol.getEdgeHash();
+        }
+        Arrays.sort(hashes);
+        int distinct = r > 0 ? 1 : 0;
+        for(k=1; k<r; k++){
+            if(hashes[k] != hashes[k-1]){
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    // get number of distinct round trips among the replicas after the last step (-1 if unknown)
+    public int getNumDistinctTours(){
+        return lastDistinct;
+    }
+
+    // get number of inspected steps
+    public long getNumSteps(){
+        return numSteps;
+    }
+
+    // get number of steps in which several replicas shared the same round trip
+    public long getNumCollapsedSteps(){
+        return numCollapsedSteps;
+    }
+
+}
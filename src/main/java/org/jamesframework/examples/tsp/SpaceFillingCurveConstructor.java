@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Space-filling curve construction heuristic: visits the cities in the order in which they occur
+ * along a Hilbert curve that covers their bounding box. This is by far the fastest constructor
+ * (O(n log n) time) but it requires city coordinates, i.e. the distances should be specified by
+ * a {@link CoordinateDistanceMatrix}. The round trip is randomized by applying a random symmetry
+ * of the bounding box (mirroring and/or transposing the coordinates) before mapping the cities
+ * onto the curve.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class SpaceFillingCurveConstructor implements TourConstructor {
+
+    // number of bits per coordinate on the grid that is covered by the curve
+    private static final int ORDER = 16;
+
+    /**
+     * Construct a round trip by following a Hilbert curve.
+     *
+     * @param dist distance matrix, should be a {@link CoordinateDistanceMatrix} (possibly cached)
+     * @param rnd random generator
+     * @return cities in the order in which they are visited
+     * @throws IllegalArgumentException if no city coordinates are available
+     */
+    @Override
+    public int[] construct(DistanceMatrix dist, Random rnd) {
+        dist = CachedDistanceMatrix.unwrap(dist);
+        if(!(dist instanceof CoordinateDistanceMatrix)){
+            throw new IllegalArgumentException("Error: space-filling curve construction requires city coordinates.");
+        }
+        CoordinateDistanceMatrix coords = (CoordinateDistanceMatrix) dist;
+        int n = coords.getNumCities();
+        // compute bounding box
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for(int c=0; c<n; c++){
+            minX = Math.min(minX, coords.getX(c));
+            maxX = Math.max(maxX, coords.getX(c));
+            minY = Math.min(minY, coords.getY(c));
+            maxY = Math.max(maxY, coords.getY(c));
+        }
+        // pick random symmetry
+        boolean mirrorX = rnd.nextBoolean();
+        boolean mirrorY = rnd.nextBoolean();
+        boolean transpose = rnd.nextBoolean();
+        // map cities onto grid (preserving aspect ratio) and sort by index along the curve
+        int max = (1 << ORDER) - 1;
+        double range = Math.max(maxX - minX, maxY - minY);
+        double scale = range > 0 ? max / range : 0.0;
+        long[] sortKeys = new long[n];
+        for(int c=0; c<n; c++){
+            int gx = (int) ((coords.getX(c) - minX) * scale);
+            int gy = (int) ((coords.getY(c) - minY) * scale);
+            if(mirrorX){
+                gx = max - gx;
+            }
+            if(mirrorY){
+                gy = max - gy;
+            }
+            long d = transpose ? hilbertIndex(gy, gx) : hilbertIndex(gx, gy);
+            // city index fills the lower 31 bits
+            sortKeys[c] = (d << 31) | c;
+        }
+        Arrays.sort(sortKeys);
+        int[] tour = new int[n];
+        for(int p=0; p<n; p++){
+            tour[p] = (int) (sortKeys[p] & Integer.MAX_VALUE);
+        }
+        return tour;
+    }
+
+    // compute index of grid cell (x,y) along the Hilbert curve
+    private long hilbertIndex(int x, int y){
+        int max = (1 << ORDER) - 1;
+        long d = 0;
+        for(int s = 1 << (ORDER-1); s > 0; s >>= 1){
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // rotate quadrant
+            if(ry == 0){
+                if(rx == 1){
+                    x = max - x;
+                    y = max - y;
+                }
+                int tmp = x;
+                x = y;
+                y = tmp;
+            }
+        }
+        return d;
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+/**
+ * Symmetric distance matrix of which the entries are stored in memory and can be set one by one,
+ * e.g. while reading a file. The distance from each city to itself is always zero.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public abstract class StoredDistanceMatrix implements DistanceMatrix {
+
+    // number of cities
+    private final int n;
+
+    public StoredDistanceMatrix(int n) {
+        this.n = n;
+    }
+    
+    /**
+     * Set the travel distance between the two given distinct cities, in both directions.
+     * 
+     * @param i index of the first city
+     * @param j index of the second city
+     * @param distance travel distance between both cities
+     */
+    public abstract void setDistance(int i, int j, double distance);
+    
+    /**
+     * Exchange the indices of the two given cities, by swapping the corresponding rows and columns
+     * of the matrix in place. Takes O(n) time and does not require any additional memory.
+     * 
+     * @param a index of the first city
+     * @param b index of the second city
+     */
+    public void swapCities(int a, int b){
+        if(a == b){
+            return;
+        }
+        for(int k=0; k<n; k++){
+            if(k != a && k != b){
+                double d = getDistance(a, k);
+                setDistance(a, k, getDistance(b, k));
+                setDistance(b, k, d);
+            }
+        }
+    }
+    
+    @Override
+    public int getNumCities(){
+        return n;
+    }
+    
+}
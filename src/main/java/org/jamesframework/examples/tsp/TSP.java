@@ -16,23 +16,29 @@
 
 package org.jamesframework.examples.tsp;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.jamesframework.core.problems.GenericProblem;
-import org.jamesframework.core.problems.Problem;
 import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
 import org.jamesframework.core.problems.sol.RandomSolutionGenerator;
 import org.jamesframework.core.search.LocalSearch;
+import org.jamesframework.core.search.Search;
 import org.jamesframework.core.search.algo.ParallelTempering;
 import org.jamesframework.core.search.algo.RandomDescent;
+import org.jamesframework.core.search.neigh.Neighbourhood;
 import org.jamesframework.core.search.stopcriteria.MaxRuntime;
+import org.jamesframework.core.search.stopcriteria.StopCriterion;
 import org.jamesframework.examples.util.ProgressSearchListener;
+import org.jamesframework.ext.search.neigh.CompositeNeighbourhood;
 
 /**
  * Main class for the travelling salesman example (example 4A).
@@ -43,43 +49,149 @@ import org.jamesframework.examples.util.ProgressSearchListener;
  */
 public class TSP {
     
-    // specify random solution generator
-    public static final RandomSolutionGenerator<TSPSolution, TSPData> RANDOM_SOLUTION_GENERATOR = (rnd, data) -> {
-        // create random permutation of cities
-        List<Integer> cities = new ArrayList<>();
-        int n = data.getNumCities();
-        for(int i=0; i<n; i++){
-            cities.add(i);
-        }
-        Collections.shuffle(cities, rnd);
-        // create and return TSP solution
-        return new TSPSolution(cities);
-    };
+    // number of nearest neighbours considered for each city when generating moves
+    private static final int NUM_CANDIDATES = 10;
+    
+    // default construction heuristic for initial round trips
+    private static final TourConstruction DEFAULT_CONSTRUCTION = TourConstruction.GREEDY;
+    
+    // default searches (each run with the full time limit)
+    private static final Set<TSPAlgorithm> DEFAULT_ALGORITHMS
+            = EnumSet.of(TSPAlgorithm.RANDOM_DESCENT, TSPAlgorithm.PARALLEL_TEMPERING);
+    
+    // default maximum relative gap between the best round trip and the lower bound at which searches stop
+    private static final double DEFAULT_OPTIMALITY_GAP = 0.02;
+    
+    // maximum number of cities for which the Held-Karp lower bound is computed
+    private static final int MAX_BOUND_CITIES = 20000;
+    
+    // maximum number of cities for which the full 2-opt neighbourhood is scanned in every step
+    private static final int MAX_STEEPEST_DESCENT_CITIES = 20000;
+    
+    // number of distances read from a memory-mapped matrix or computed from geographical coordinates that are cached per thread
+    private static final int DISTANCE_CACHE_CAPACITY = 1 << 16;
+    
+    // specify random solution generator (uniformly random round trips)
+    public static final RandomSolutionGenerator<TSPSolution, TSPData> RANDOM_SOLUTION_GENERATOR
+            = createSolutionGenerator(new RandomTourConstructor());
+    
+    // specify random solution generator for the asymmetric TSP (uniformly random directed round trips)
+    public static final RandomSolutionGenerator<TSPSolution, TSPData> ASYMMETRIC_RANDOM_SOLUTION_GENERATOR
+            = (rnd, data) -> new AsymmetricTSPSolution(new RandomTourConstructor().construct(data.getDistanceMatrix(), rnd));
+    
+    /**
+     * Create a random solution generator that applies the given construction heuristic. Every call
+     * uses the random generator of the search, so that each search (or parallel tempering replica)
+     * starts from a different randomized construction.
+     * 
+     * @param constructor construction heuristic
+     * @return random solution generator
+     */
+    public static RandomSolutionGenerator<TSPSolution, TSPData> createSolutionGenerator(TourConstructor constructor){
+        return (rnd, data) -> {
+            int[] cities = constructor.construct(data.getDistanceMatrix(), rnd);
+            // create and return TSP solution (uses two-level list for very large instances)
+            return TSPSolution.create(cities);
+        };
+    }
     
     /**
      * Solves a (symmetric) travelling salesman problem. Expects two parameters: (1) the input file path and
      * (2) the runtime limit (in seconds). The input is specified in a text file in which the first row contains
      * a single integer value indicating the number of cities. The remainder of the file contains the entries of
      * the lower triangular part of a symmetric distance matrix (row-wise without diagonal entries), separated
-     * by whitespace and/or newlines.
+     * by whitespace and/or newlines. Alternatively, files with extension ".tsp" are read in TSPLIB format,
+     * where the cities are specified by their coordinates (see {@link TSPLIBFileReader}), and files with
+     * extension ".bin" are memory-mapped binary distance matrices (see {@link MappedDistanceMatrix}). An
+     * optional third parameter selects the construction heuristic for the initial round trips (see
+     * {@link TourConstruction}), e.g. "nearest_neighbour" or "random". By default, the greedy edge heuristic
+     * is applied. Searches also stop as soon as their best round trip is within a given relative gap of the
+     * Held-Karp lower bound (see {@link HeldKarpBound}), which can be specified with an optional fourth
+     * parameter (default: 0.02). By default, a random descent and parallel tempering search are applied, each
+     * with the full runtime limit. Other searches can be selected with an optional fifth parameter, containing
+     * a comma-separated list of search names (see {@link TSPAlgorithm}), e.g. "lin_kernighan,memetic_search",
+     * or "all" to run every search one after the other. Files with extension ".atsp" contain a full, possibly
+     * asymmetric distance matrix (see {@link TSPFileReader#readAsymmetric(String)}), for which only a random
+     * descent and parallel tempering search are applied with an {@link AsymmetricTSPObjective}, as the
+     * dedicated TSP searches require symmetric distances.
      * 
-     * @param args array containing the input file path and runtime limit
+     * @param args array containing the input file path, runtime limit, and optional construction heuristic,
+     *             optimality gap and selected searches
      */
     public static void main(String[] args) {
         System.out.println("###############################");
         System.out.println("# TRAVELLING SALESMAN PROBLEM #");
         System.out.println("###############################");
         // parse arguments
-        if(args.length != 2){
-            System.err.println("Usage: java -cp james-examples.jar org.jamesframework.examples.tsp.TSP <inputfile> <runtime>");
+        if(args.length < 2 || args.length > 5){
+            System.err.println("Usage: java -cp james-examples.jar org.jamesframework.examples.tsp.TSP <inputfile> <runtime> [<construction> [<gap> [<searches>]]]");
             System.exit(1);
         }
         String filePath = args[0];
         int timeLimit = Integer.parseInt(args[1]);
-        run(filePath, timeLimit);
+        TourConstruction construction = DEFAULT_CONSTRUCTION;
+        if(args.length >= 3){
+            construction = parseConstruction(args[2]);
+        }
+        double gap = DEFAULT_OPTIMALITY_GAP;
+        if(args.length >= 4){
+            gap = Double.parseDouble(args[3]);
+        }
+        Set<TSPAlgorithm> algorithms = DEFAULT_ALGORITHMS;
+        if(args.length == 5){
+            algorithms = parseAlgorithms(args[4]);
+        }
+        if(filePath.endsWith(".atsp")){
+            runAsymmetric(filePath, timeLimit);
+        } else {
+            run(filePath, timeLimit, construction, gap, algorithms);
+        }
+    }
+    
+    /**
+     * Parse the name of a construction heuristic (case insensitive). Prints the available
+     * heuristics and exits if the name is not recognized.
+     * 
+     * @param name name of a construction heuristic
+     * @return construction heuristic
+     */
+    public static TourConstruction parseConstruction(String name){
+        try {
+            return TourConstruction.valueOf(name.toUpperCase(Locale.US));
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Unknown construction heuristic: " + name
+                                + " (available: " + Arrays.toString(TourConstruction.values()) + ")");
+            System.exit(1);
+            return null;
+        }
+    }
+    
+    /**
+     * Parse a comma-separated list of search names (case insensitive), or "all" to select all searches.
+     * Prints the available searches and exits if a name is not recognized.
+     * 
+     * @param names comma-separated search names
+     * @return selected searches
+     */
+    public static Set<TSPAlgorithm> parseAlgorithms(String names){
+        if(names.equalsIgnoreCase("all")){
+            return EnumSet.allOf(TSPAlgorithm.class);
+        }
+        Set<TSPAlgorithm> algorithms = EnumSet.noneOf(TSPAlgorithm.class);
+        for(String name : names.split(",")){
+            try {
+                algorithms.add(TSPAlgorithm.valueOf(name.trim().toUpperCase(Locale.US)));
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Unknown search: " + name
+                                    + " (available: " + Arrays.toString(TSPAlgorithm.values()) + ")");
+                System.exit(1);
+            }
+        }
+        return algorithms;
     }
     
-    private static void run(String filePath, int timeLimit){
+    private static void run(String filePath, int timeLimit, TourConstruction construction, double gap,
+                            Set<TSPAlgorithm> algorithms){
         
         /***************/
         /* PARSE INPUT */
@@ -94,18 +206,562 @@ public class TSP {
             /* PROBLEM SPECIFICATION */
             /*************************/
             
-            // read data (distance matrix)
-            TSPData data = new TSPFileReader().read(filePath);
+            // read data (TSPLIB coordinates, binary or text distance matrix)
+            TSPData data;
+            if(filePath.endsWith(".tsp")){
+                data = new TSPLIBFileReader().read(filePath);
+            } else if(filePath.endsWith(".bin")){
+                data = new TSPData(new MappedDistanceMatrix(filePath));
+            } else {
+                data = new TSPFileReader().read(filePath);
+            }
+            // renumber cities along a space-filling curve or greedy round trip, so that nearby cities
+            // have nearby indices (stored matrices are permuted in place; memory-mapped matrices are not
+            // copied and retain the original indices)
+            CityRenumbering renumbering;
+            if(data.getDistanceMatrix() instanceof MappedDistanceMatrix){
+                renumbering = CityRenumbering.identity(data.getNumCities());
+            } else {
+                renumbering = new CityRenumbering(data.getDistanceMatrix());
+                data = renumbering.renumberInPlace(data);
+            }
+            // cache distances that are read from a mapped file or computed from geographical coordinates,
+            // which requires several trigonometric functions (planar distances are cheaper to recompute
+            // than to look up in the cache)
+            CachedDistanceMatrix cache = null;
+            if(data.getDistanceMatrix() instanceof MappedDistanceMatrix
+                    || data.getDistanceMatrix() instanceof CoordinateDistanceMatrix
+                        && !((CoordinateDistanceMatrix) data.getDistanceMatrix()).getEdgeWeightType().isEuclidean()){
+                cache = new CachedDistanceMatrix(data.getDistanceMatrix(), DISTANCE_CACHE_CAPACITY, true);
+                data = new TSPData(cache);
+            }
             // create objective
             TSPObjective obj = new TSPObjective();
+            // compute nearest neighbour candidate lists
+            NearestNeighbourLists candidates = new NearestNeighbourLists(data, NUM_CANDIDATES);
+            
+            // check construction heuristic
+            if(construction == TourConstruction.SPACE_FILLING_CURVE
+                    && !(CachedDistanceMatrix.unwrap(data.getDistanceMatrix()) instanceof CoordinateDistanceMatrix)){
+                System.err.println("Space-filling curve construction requires city coordinates (TSPLIB input).");
+                System.exit(1);
+            }
+            
+            // wrap in generic problem (initial round trips are created with the chosen construction heuristic)
+            GenericProblem<TSPSolution, TSPData> problem = new GenericProblem<>(
+                    data, obj, createSolutionGenerator(construction.create(candidates))
+            );
             
-            // wrap in generic problem
-            Problem<TSPSolution> problem = new GenericProblem<>(data, obj, RANDOM_SOLUTION_GENERATOR);        
+            // combine 2-opt, Or-opt and 3-opt moves (restricted to candidate moves)
+            Neighbourhood<TSPSolution> neigh = new CompositeNeighbourhood<>(
+                    Arrays.asList(
+                        new TSP2OptNeighbourhood(candidates),
+                        new TSPOrOptNeighbourhood(candidates),
+                        new TSP3OptNeighbourhood(candidates)
+                    ),
+                    Arrays.asList(0.4, 0.3, 0.3)
+            );
             
             System.out.println("# OPTIMIZING TSP ROUND TRIP");
 
             System.out.println("Number of cities: " + data.getNumCities());
-            System.out.println("Time limit: " + timeLimit + " seconds");
+            System.out.println("Time limit: " + timeLimit + " seconds per search");
+            System.out.println("Searches: " + algorithms);
+            System.out.println("Construction heuristic: " + construction);
+            
+            /***************/
+            /* LOWER BOUND */
+            /***************/
+            
+            // compute Held-Karp bound (using a greedy round trip as upper bound) and
+            // stop searches as soon as they are within the requested gap of this bound
+            StopCriterion optimalityGap = null;
+            if(data.getNumCities() >= 3 && data.getNumCities() <= MAX_BOUND_CITIES){
+                System.out.println("# HELD-KARP LOWER BOUND");
+                int[] greedy = new GreedyEdgeConstructor(candidates).construct(data.getDistanceMatrix(), new Random());
+                double upperBound = obj.evaluate(new TSPSolution(greedy), data).getValue();
+                HeldKarpBound bound = new HeldKarpBound(data, candidates, upperBound);
+                optimalityGap = new OptimalityGap(bound.getBound(), gap);
+                System.out.println("Lower bound: " + bound.getBound()
+                                    + " (" + bound.getNumIterations() + " iterations)");
+                System.out.println("Optimality gap: " + gap);
+            }
+            
+            /******************/
+            /* RANDOM DESCENT */
+            /******************/
+
+            Evaluation randomDescentBestEval = null;
+            if(algorithms.contains(TSPAlgorithm.RANDOM_DESCENT)){
+                System.out.println("# RANDOM DESCENT");
+            
+                // create random descent search with combined TSP neighbourhood
+                LocalSearch<TSPSolution> randomDescent = new RandomDescent<>(problem, neigh);
+                // set maximum runtime and optimality gap
+                randomDescent.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
+                if(optimalityGap != null){
+                    randomDescent.addStopCriterion(optimalityGap);
+                }
+                // attach listener
+                randomDescent.addSearchListener(new ProgressSearchListener());
+
+                // start search
+                randomDescent.start();
+            
+                // print results
+                if(randomDescent.getBestSolution() != null){
+                    System.out.println("Best round trip: "
+                                            + renumbering.toOriginal(randomDescent.getBestSolution()).getCities());
+                    randomDescentBestEval = randomDescent.getBestSolutionEvaluation();
+                    System.out.println("Best round trip travel distance: "
+                                            + randomDescentBestEval);
+                } else {
+                    System.out.println("No valid solution found...");
+                }
+
+                // dispose
+                randomDescent.dispose();
+            }
+            
+            /*****************/
+            /* 2-OPT DESCENT */
+            /*****************/
+
+            Evaluation twoOptBestEval = null;
+            if(algorithms.contains(TSPAlgorithm.TWO_OPT_DESCENT)){
+                System.out.println("# 2-OPT DESCENT (DON'T-LOOK BITS)");
+            
+                // create first-improvement 2-opt search (stops when a local optimum is reached)
+                LocalSearch<TSPSolution> twoOptDescent = new TSP2OptDescent(problem, candidates);
+                // set maximum runtime and optimality gap
+                twoOptDescent.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
+                if(optimalityGap != null){
+                    twoOptDescent.addStopCriterion(optimalityGap);
+                }
+                // attach listener
+                twoOptDescent.addSearchListener(new ProgressSearchListener());
+
+                // start search
+                twoOptDescent.start();
+            
+                // print results
+                if(twoOptDescent.getBestSolution() != null){
+                    System.out.println("Best round trip: "
+                                            + renumbering.toOriginal(twoOptDescent.getBestSolution()).getCities());
+                    twoOptBestEval = twoOptDescent.getBestSolutionEvaluation();
+                    System.out.println("Best round trip travel distance: "
+                                            + twoOptBestEval);
+                } else {
+                    System.out.println("No valid solution found...");
+                }
+
+                // dispose
+                twoOptDescent.dispose();
+            }
+            
+            /*****************************/
+            /* PARALLEL STEEPEST DESCENT */
+            /*****************************/
+
+            Evaluation steepestBestEval = null;
+            if(algorithms.contains(TSPAlgorithm.STEEPEST_DESCENT)
+                    && data.getNumCities() <= MAX_STEEPEST_DESCENT_CITIES){
+                System.out.println("# PARALLEL 2-OPT STEEPEST DESCENT");
+            
+                // create best-improvement 2-opt search that scans the full neighbourhood
+                // in parallel (stops when a local optimum is reached)
+                LocalSearch<TSPSolution> steepestDescent = new TSP2OptSteepestDescent(problem);
+                // set maximum runtime and optimality gap
+                steepestDescent.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
+                if(optimalityGap != null){
+                    steepestDescent.addStopCriterion(optimalityGap);
+                }
+                // attach listener
+                steepestDescent.addSearchListener(new ProgressSearchListener());
+
+                // start search
+                steepestDescent.start();
+            
+                // print results
+                if(steepestDescent.getBestSolution() != null){
+                    System.out.println("Best round trip: "
+                                            + renumbering.toOriginal(steepestDescent.getBestSolution()).getCities());
+                    steepestBestEval = steepestDescent.getBestSolutionEvaluation();
+                    System.out.println("Best round trip travel distance: "
+                                            + steepestBestEval);
+                } else {
+                    System.out.println("No valid solution found...");
+                }
+
+                // dispose
+                steepestDescent.dispose();
+            }
+            
+            // best round trips of the following searches are used to fix edges in the backbone reduction
+            List<TSPSolution> eliteTours = new ArrayList<>();
+            
+            /******************/
+            /* LIN-KERNIGHAN  */
+            /******************/
+
+            Evaluation lkBestEval = null;
+            if(algorithms.contains(TSPAlgorithm.LIN_KERNIGHAN)){
+                System.out.println("# LIN-KERNIGHAN");
+            
+                // create variable-depth search with chained 2-opt/3-opt moves (stops when a local optimum is reached)
+                LocalSearch<TSPSolution> linKernighan = new TSPLinKernighan(problem, candidates);
+                // set maximum runtime and optimality gap
+                linKernighan.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
+                if(optimalityGap != null){
+                    linKernighan.addStopCriterion(optimalityGap);
+                }
+                // attach listener
+                linKernighan.addSearchListener(new ProgressSearchListener());
+
+                // start search
+                linKernighan.start();
+            
+                // print results
+                if(linKernighan.getBestSolution() != null){
+                    System.out.println("Best round trip: "
+                                            + renumbering.toOriginal(linKernighan.getBestSolution()).getCities());
+                    lkBestEval = linKernighan.getBestSolutionEvaluation();
+                    eliteTours.add(linKernighan.getBestSolution());
+                    System.out.println("Best round trip travel distance: "
+                                            + lkBestEval);
+                } else {
+                    System.out.println("No valid solution found...");
+                }
+
+                // dispose
+                linKernighan.dispose();
+            }
+            
+            /***********************/
+            /* GUIDED LOCAL SEARCH */
+            /***********************/
+
+            Evaluation glsBestEval = null;
+            if(algorithms.contains(TSPAlgorithm.GUIDED_LOCAL_SEARCH)){
+                System.out.println("# GUIDED LOCAL SEARCH");
+            
+                // create guided local search that penalizes edges of 2-opt local optima
+                LocalSearch<TSPSolution> guidedLocalSearch = new TSPGuidedLocalSearch(problem, candidates);
+                // set maximum runtime and optimality gap
+                guidedLocalSearch.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
+                if(optimalityGap != null){
+                    guidedLocalSearch.addStopCriterion(optimalityGap);
+                }
+                // attach listener
+                guidedLocalSearch.addSearchListener(new ProgressSearchListener());
+
+                // start search
+                guidedLocalSearch.start();
+            
+                // print results
+                if(guidedLocalSearch.getBestSolution() != null){
+                    System.out.println("Best round trip: "
+                                            + renumbering.toOriginal(guidedLocalSearch.getBestSolution()).getCities());
+                    glsBestEval = guidedLocalSearch.getBestSolutionEvaluation();
+                    eliteTours.add(guidedLocalSearch.getBestSolution());
+                    System.out.println("Best round trip travel distance: "
+                                            + glsBestEval);
+                } else {
+                    System.out.println("No valid solution found...");
+                }
+
+                // dispose
+                guidedLocalSearch.dispose();
+            }
+            
+            /******************/
+            /* MEMETIC SEARCH */
+            /******************/
+
+            Evaluation memeticBestEval = null;
+            if(algorithms.contains(TSPAlgorithm.MEMETIC_SEARCH)){
+                System.out.println("# MEMETIC SEARCH");
+            
+                // create memetic search with partition crossover and parallel 2-opt improvement of offspring
+                Search<TSPSolution> memeticSearch = new TSPMemeticSearch(problem, candidates);
+                // set maximum runtime and optimality gap
+                memeticSearch.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
+                if(optimalityGap != null){
+                    memeticSearch.addStopCriterion(optimalityGap);
+                }
+                // attach listener
+                memeticSearch.addSearchListener(new ProgressSearchListener());
+
+                // start search
+                memeticSearch.start();
+            
+                // print results
+                if(memeticSearch.getBestSolution() != null){
+                    System.out.println("Best round trip: "
+                                            + renumbering.toOriginal(memeticSearch.getBestSolution()).getCities());
+                    memeticBestEval = memeticSearch.getBestSolutionEvaluation();
+                    eliteTours.add(memeticSearch.getBestSolution());
+                    System.out.println("Best round trip travel distance: "
+                                            + memeticBestEval);
+                } else {
+                    System.out.println("No valid solution found...");
+                }
+
+                // dispose
+                memeticSearch.dispose();
+            }
+            
+            /************************/
+            /* WINDOW DECOMPOSITION */
+            /************************/
+
+            Evaluation decompositionBestEval = null;
+            if(algorithms.contains(TSPAlgorithm.WINDOW_DECOMPOSITION)){
+                System.out.println("# WINDOW DECOMPOSITION");
+            
+                // create decomposition search that optimizes windows of the round trip in parallel
+                LocalSearch<TSPSolution> decomposition = new TSPWindowDecomposition(problem);
+                // set maximum runtime and optimality gap
+                decomposition.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
+                if(optimalityGap != null){
+                    decomposition.addStopCriterion(optimalityGap);
+                }
+                // attach listener
+                decomposition.addSearchListener(new ProgressSearchListener());
+
+                // start search
+                decomposition.start();
+            
+                // print results
+                if(decomposition.getBestSolution() != null){
+                    System.out.println("Best round trip: "
+                                            + renumbering.toOriginal(decomposition.getBestSolution()).getCities());
+                    decompositionBestEval = decomposition.getBestSolutionEvaluation();
+                    eliteTours.add(decomposition.getBestSolution());
+                    System.out.println("Best round trip travel distance: "
+                                            + decompositionBestEval);
+                } else {
+                    System.out.println("No valid solution found...");
+                }
+
+                // dispose
+                decomposition.dispose();
+            }
+            
+            /**********************/
+            /* PARALLEL TEMPERING */
+            /**********************/
+            
+            Evaluation ptBestEval = null;
+            if(algorithms.contains(TSPAlgorithm.PARALLEL_TEMPERING)){
+                System.out.println("# PARALLEL TEMPERING");
+
+                // set temperature range, scaled according to average
+                // distance between cities and their nearest neighbours
+                double scale = candidates.getAvgNearestNeighbourDistance(data.getDistanceMatrix());
+                double minTemp = scale * 1e-8;
+                double maxTemp = scale * 0.6;
+                // create parallel tempering search with combined TSP neighbourhood
+                // (replicas are created by a monitor that reports replicas exploring the same round trip)
+                int numReplicas = 10;
+                ReplicaCollapseMonitor replicaMonitor = new ReplicaCollapseMonitor(true);
+                ParallelTempering<TSPSolution> parallelTempering = new ParallelTempering<>(
+                                                                        problem,
+                                                                        neigh,
+                                                                        numReplicas, minTemp, maxTemp,
+                                                                        replicaMonitor
+                                                                   );
+            
+                // set maximum runtime and optimality gap
+                parallelTempering.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
+                if(optimalityGap != null){
+                    parallelTempering.addStopCriterion(optimalityGap);
+                }
+                // attach listener
+                parallelTempering.addSearchListener(new ProgressSearchListener());
+                parallelTempering.addSearchListener(replicaMonitor);
+
+                // start search
+                parallelTempering.start();
+            
+                // print results
+                if(parallelTempering.getBestSolution() != null){
+                    System.out.println("Best round trip: "
+                                            + renumbering.toOriginal(parallelTempering.getBestSolution()).getCities());
+                    ptBestEval = parallelTempering.getBestSolutionEvaluation();
+                    eliteTours.add(parallelTempering.getBestSolution());
+                    System.out.println("Best round trip travel distance: "
+                                            + ptBestEval);
+                } else {
+                    System.out.println("No valid solution found...");
+                }
+
+                // dispose
+                parallelTempering.dispose();
+            }
+            
+            /**********************/
+            /* BACKBONE REDUCTION */
+            /**********************/
+            
+            Evaluation backboneBestEval = null;
+            if(algorithms.contains(TSPAlgorithm.BACKBONE_REDUCTION)){
+                System.out.println("# BACKBONE REDUCTION");
+                if(!eliteTours.isEmpty()){
+                    // fix edges shared by all elite round trips and contract the fixed paths
+                    TSPBackboneReduction reduction = new TSPBackboneReduction(data, eliteTours);
+                    TSPData reducedData = reduction.getReducedData();
+                    System.out.println("Fixed edges: " + reduction.getNumFixedEdges()
+                                        + " (reduced to " + reducedData.getNumCities() + " cities)");
+                    GenericProblem<TSPSolution, TSPData> reducedProblem = new GenericProblem<>(
+                            reducedData, obj, RANDOM_SOLUTION_GENERATOR
+                    );
+                    // create memetic search for the reduced instance (with candidate lists mapped from the original
+                    // instance), seeded with the reduced elite round trips
+                    TSPMemeticSearch reducedSearch = new TSPMemeticSearch(reducedProblem, reduction.reduce(candidates));
+                    List<TSPSolution> reducedElite = new ArrayList<>();
+                    for(TSPSolution tour : eliteTours){
+                        reducedElite.add(reduction.reduce(tour));
+                    }
+                    reducedSearch.setInitialPopulation(reducedElite);
+                    // set maximum runtime
+                    reducedSearch.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
+                    // attach listener
+                    reducedSearch.addSearchListener(new ProgressSearchListener());
+                
+                    // start search
+                    reducedSearch.start();
+                
+                    // expand best round trip of reduced instance and print results
+                    if(reducedSearch.getBestSolution() != null){
+                        TSPSolution expanded = reduction.expand(reducedSearch.getBestSolution());
+                        System.out.println("Best round trip: " + renumbering.toOriginal(expanded).getCities());
+                        backboneBestEval = problem.evaluate(expanded);
+                        System.out.println("Best round trip travel distance: " + backboneBestEval);
+                    } else {
+                        System.out.println("No valid solution found...");
+                    }
+                
+                    // dispose
+                    reducedSearch.dispose();
+                } else {
+                    System.out.println("No elite round trips found...");
+                }
+            }
+            
+            /***********/
+            /* SUMMARY */
+            /***********/
+
+            System.out.println("---------------------------------------");
+            System.out.println("Summary:");
+            System.out.println("---------------------------------------");
+
+            System.out.println("Number of cities: " + data.getNumCities());
+            System.out.println("Time limit: " + timeLimit + " seconds per search");
+            System.out.println("---------------------------------------");
+
+            DecimalFormat df = new DecimalFormat("0.0", DecimalFormatSymbols.getInstance(Locale.US));
+            System.out.format("%20s    %15s \n", "", "Travel distance");
+            if(algorithms.contains(TSPAlgorithm.RANDOM_DESCENT)){
+                System.out.format("%20s    %15s \n",
+                                    "Random descent:",
+                                    randomDescentBestEval != null ? df.format(randomDescentBestEval.getValue()) : "-");
+            }
+            if(algorithms.contains(TSPAlgorithm.TWO_OPT_DESCENT)){
+                System.out.format("%20s    %15s \n",
+                                    "2-opt descent:",
+                                    twoOptBestEval != null ? df.format(twoOptBestEval.getValue()) : "-");
+            }
+            if(algorithms.contains(TSPAlgorithm.STEEPEST_DESCENT)){
+                System.out.format("%20s    %15s \n",
+                                    "Steepest descent:",
+                                    steepestBestEval != null ? df.format(steepestBestEval.getValue()) : "-");
+            }
+            if(algorithms.contains(TSPAlgorithm.LIN_KERNIGHAN)){
+                System.out.format("%20s    %15s \n",
+                                    "Lin-Kernighan:",
+                                    lkBestEval != null ? df.format(lkBestEval.getValue()) : "-");
+            }
+            if(algorithms.contains(TSPAlgorithm.GUIDED_LOCAL_SEARCH)){
+                System.out.format("%20s    %15s \n",
+                                    "Guided local search:",
+                                    glsBestEval != null ? df.format(glsBestEval.getValue()) : "-");
+            }
+            if(algorithms.contains(TSPAlgorithm.MEMETIC_SEARCH)){
+                System.out.format("%20s    %15s \n",
+                                    "Memetic search:",
+                                    memeticBestEval != null ? df.format(memeticBestEval.getValue()) : "-");
+            }
+            if(algorithms.contains(TSPAlgorithm.WINDOW_DECOMPOSITION)){
+                System.out.format("%20s    %15s \n",
+                                    "Decomposition:",
+                                    decompositionBestEval != null ? df.format(decompositionBestEval.getValue()) : "-");
+            }
+            if(algorithms.contains(TSPAlgorithm.PARALLEL_TEMPERING)){
+                System.out.format("%20s    %15s \n",
+                                    "Parallel tempering:",
+                                    ptBestEval != null ? df.format(ptBestEval.getValue()) : "-");
+            }
+            if(algorithms.contains(TSPAlgorithm.BACKBONE_REDUCTION)){
+                System.out.format("%20s    %15s \n",
+                                    "Backbone reduction:",
+                                    backboneBestEval != null ? df.format(backboneBestEval.getValue()) : "-");
+            }
+            System.out.println("---------------------------------------");
+            if(cache != null){
+                System.out.format("Distance cache hit rate: %.1f%%\n", 100.0 * cache.getHitRate());
+                System.out.println("---------------------------------------");
+            }
+            
+        } catch (IOException ex) {
+            System.err.println("Failed to read file: " + filePath + " (" + ex.getMessage() + ")");
+            System.exit(2);
+        }
+        
+    }
+    
+    private static void runAsymmetric(String filePath, int timeLimit){
+        
+        /***************/
+        /* PARSE INPUT */
+        /***************/
+        
+        System.out.println("# PARSING INPUT");
+        System.out.println("Reading file: " + filePath);
+        
+        try {
+            
+            /*************************/
+            /* PROBLEM SPECIFICATION */
+            /*************************/
+            
+            // read full, possibly asymmetric distance matrix
+            TSPData data = new TSPFileReader().readAsymmetric(filePath);
+            // create objective (accounts for the direction of reversed subpaths)
+            AsymmetricTSPObjective obj = new AsymmetricTSPObjective();
+            // compute nearest neighbour candidate lists (outgoing distances)
+            NearestNeighbourLists candidates = new NearestNeighbourLists(data, NUM_CANDIDATES);
+            
+            // wrap in generic problem (random directed round trips)
+            GenericProblem<TSPSolution, TSPData> problem = new GenericProblem<>(
+                    data, obj, ASYMMETRIC_RANDOM_SOLUTION_GENERATOR
+            );
+            
+            // combine 2-opt, Or-opt and 3-opt moves (restricted to candidate moves)
+            Neighbourhood<TSPSolution> neigh = new CompositeNeighbourhood<>(
+                    Arrays.asList(
+                        new TSP2OptNeighbourhood(candidates),
+                        new TSPOrOptNeighbourhood(candidates),
+                        new TSP3OptNeighbourhood(candidates)
+                    ),
+                    Arrays.asList(0.4, 0.3, 0.3)
+            );
+            
+            System.out.println("# OPTIMIZING ASYMMETRIC TSP ROUND TRIP");
+
+            System.out.println("Number of cities: " + data.getNumCities());
+            System.out.println("Time limit: " + timeLimit + " seconds per search");
             
             /******************/
             /* RANDOM DESCENT */
@@ -113,8 +769,8 @@ public class TSP {
 
             System.out.println("# RANDOM DESCENT");
             
-            // create random descent search with TSP neighbourhood
-            LocalSearch<TSPSolution> randomDescent = new RandomDescent<>(problem, new TSP2OptNeighbourhood());
+            // create random descent search with combined TSP neighbourhood
+            LocalSearch<TSPSolution> randomDescent = new RandomDescent<>(problem, neigh);
             // set maximum runtime
             randomDescent.addStopCriterion(new MaxRuntime(timeLimit, TimeUnit.SECONDS));
             // attach listener
@@ -126,11 +782,9 @@ public class TSP {
             // print results
             Evaluation randomDescentBestEval = null;
             if(randomDescent.getBestSolution() != null){
-                System.out.println("Best round trip: "
-                                        + randomDescent.getBestSolution().getCities());
+                System.out.println("Best round trip: " + randomDescent.getBestSolution().getCities());
                 randomDescentBestEval = randomDescent.getBestSolutionEvaluation();
-                System.out.println("Best round trip travel distance: "
-                                        + randomDescentBestEval);
+                System.out.println("Best round trip travel distance: " + randomDescentBestEval);
             } else {
                 System.out.println("No valid solution found...");
             }
@@ -146,14 +800,14 @@ public class TSP {
 
             // set temperature range, scaled according to average
             // distance between cities and their nearest neighbours
-            double scale = computeAvgNearestNeighbourDistance(data);
+            double scale = candidates.getAvgNearestNeighbourDistance(data.getDistanceMatrix());
             double minTemp = scale * 1e-8;
             double maxTemp = scale * 0.6;
-            // create parallel tempering search with TSP neighbourhood
+            // create parallel tempering search with combined TSP neighbourhood
             int numReplicas = 10;
             ParallelTempering<TSPSolution> parallelTempering = new ParallelTempering<>(
                                                                     problem,
-                                                                    new TSP2OptNeighbourhood(),
+                                                                    neigh,
                                                                     numReplicas, minTemp, maxTemp
                                                                );
             
@@ -168,11 +822,9 @@ public class TSP {
             // print results
             Evaluation ptBestEval = null;
             if(parallelTempering.getBestSolution() != null){
-                System.out.println("Best round trip: "
-                                        + parallelTempering.getBestSolution().getCities());
+                System.out.println("Best round trip: " + parallelTempering.getBestSolution().getCities());
                 ptBestEval = parallelTempering.getBestSolutionEvaluation();
-                System.out.println("Best round trip travel distance: "
-                                        + ptBestEval);
+                System.out.println("Best round trip travel distance: " + ptBestEval);
             } else {
                 System.out.println("No valid solution found...");
             }
@@ -189,7 +841,7 @@ public class TSP {
             System.out.println("---------------------------------------");
 
             System.out.println("Number of cities: " + data.getNumCities());
-            System.out.println("Time limit: " + timeLimit + " seconds");
+            System.out.println("Time limit: " + timeLimit + " seconds per search");
             System.out.println("---------------------------------------");
 
             DecimalFormat df = new DecimalFormat("0.0", DecimalFormatSymbols.getInstance(Locale.US));
@@ -202,28 +854,11 @@ public class TSP {
                                 ptBestEval != null ? df.format(ptBestEval.getValue()) : "-");
             System.out.println("---------------------------------------");
             
-        } catch (FileNotFoundException ex) {
-            System.err.println("Failed to read file: " + filePath);
+        } catch (IOException ex) {
+            System.err.println("Failed to read file: " + filePath + " (" + ex.getMessage() + ")");
             System.exit(2);
         }
         
     }
-
-    // compute average nearest neighbour distance
-    private static double computeAvgNearestNeighbourDistance(TSPData data){
-        int n = data.getNumCities();
-        double sum = 0.0;
-        for(int i=0; i<n; i++){
-            double min = Double.MAX_VALUE;
-            for(int j=0; j<n; j++) {
-                double dist = data.getDistance(i, j);
-                if(dist > 0.0 && dist < min){
-                    min = dist;
-                }
-            }
-            sum += min;
-        }
-        return sum/n;
-    }
     
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * <p>
+ * Batch evaluation of all 2-opt moves that reverse a subpath starting at a fixed position i. Such a move
+ * removes the edges (a,b) and (c,d), where a and b are the cities at positions i-1 and i and c and d those
+ * at positions j and j+1, and adds edges (a,c) and (b,d). Instead of evaluating the moves one by one, the
+ * distances from a to all cities c and from b to all cities d are first gathered into primitive buffers
+ * (see {@link DistanceMatrix#getDistances(int, int[], int, int, double[])}). The deltas are then computed
+ * in a separate, branch-free loop over these buffers and the lengths of the removed edges, which the JIT
+ * compiler can unroll and vectorize, followed by a scan for the smallest delta.
+ * </p>
+ * <p>
+ * Buffers are allocated once and reused for every batch, so an evaluator should not be shared by several
+ * threads at the same time.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP2OptBatchEvaluator {
+
+    // gathered distances from a to c and from b to d, and computed deltas
+    private final double[] distAC, distBD, delta;
+
+    // smallest delta of the last batch
+    private double bestDelta;
+
+    /**
+     * Create a batch evaluator for round trips with the given number of cities.
+     *
+     * @param n number of cities
+     */
+    public TSP2OptBatchEvaluator(int n){
+        distAC = new double[n];
+        distBD = new double[n];
+        delta = new double[n];
+    }
+
+    /**
+     * Evaluate all moves that reverse the subpath from position i to position j, for i &lt; j &lt; n, and
+     * return the position j of the best move. The smallest change in travel distance can be retrieved with
+     * {@link #getBestDelta()}. Ties are broken in favour of the smallest position.
+     *
+     * @param dist distance matrix
+     * @param cities cities in the order in which they are visited
+     * @param edgeLength length of the edge from the city at each position to the next city
+     * @param i position of the first city of the reversed subpaths (1 &le; i &lt; n-1)
+     * @return position of the last city of the best reversed subpath
+     */
+    public int findBest(DistanceMatrix dist, int[] cities, double[] edgeLength, int i){
+        int n = cities.length;
+        int a = cities[i-1];
+        int b = cities[i];
+        double removedAB = edgeLength[i-1];
+        // number of moves (j = i+1, ..., n-1)
+        int m = n - i - 1;
+        // gather distances from a to c (positions i+1, ..., n-1)
+        dist.getDistances(a, cities, i+1, m, distAC);
+        // gather distances from b to d (positions i+2, ..., n-1 and 0)
+        dist.getDistances(b, cities, i+2, m-1, distBD);
+        distBD[m-1] = dist.getDistance(b, cities[0]);
+        // compute deltas
+        int offset = i+1;
+        for(int k=0; k<m; k++){
+            delta[k] = distAC[k] + distBD[k] - removedAB - edgeLength[offset+k];
+        }
+        // find best move
+        int best = 0;
+        double min = delta[0];
+        for(int k=1; k<m; k++){
+            if(delta[k] < min){
+                min = delta[k];
+                best = k;
+            }
+        }
+        bestDelta = min;
+        return offset + best;
+    }
+
+    // get number of cities
+    public int getNumCities(){
+        return distAC.length;
+    }
+
+    // get smallest delta of the last batch
+    public double getBestDelta(){
+        return bestDelta;
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.constraints.validations.Validation;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.LocalSearch;
+
+/**
+ * <p>
+ * First-improvement 2-opt local search for the TSP problem, driven by a queue of active cities
+ * with so-called don't-look bits. In every step, an active city is taken from the queue and all
+ * 2-opt moves that connect this city's predecessor or successor to one of its nearest neighbours
+ * are inspected. The first improving move is applied, after which only the four endpoints of the
+ * modified edges are reactivated. Cities around which no improvement was found are not considered
+ * again until one of their adjacent edges changes. As a move around a city also depends on the edges
+ * and orientation of the candidate neighbour, some improvements are missed when the queue runs empty.
+ * If all cities were activated when the search was started, they are therefore all reactivated once the
+ * queue runs empty, until a full pass yields no improvement, so that the search stops in a 2-opt local
+ * optimum with respect to the candidate lists. If only a few cities were activated initially (see
+ * {@link #setInitialActiveCities(int[])}), the search simply stops as soon as no active cities remain.
+ * </p>
+ * <p>
+ * Nearest neighbour candidate lists are used to quickly discard moves that can not be improvements:
+ * as these lists are sorted, the scan for a given city stops at the first neighbour that is further
+ * away than the removed edge. Every promising move is evaluated and validated through the problem
+ * before it is applied, so that penalizing and mandatory constraints are respected. Gains are computed
+ * for symmetric distances only, so the search can not be applied to an asymmetric TSP problem.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP2OptDescent extends LocalSearch<TSPSolution> {
+
+    // TSP problem
+    private final GenericProblem<TSPSolution, ? extends TSPData> problem;
+    // nearest neighbour candidate lists
+    private final NearestNeighbourLists candidates;
+
+    // circular queue of active cities
+    private int[] queue;
+    private int queueHead, queueSize;
+    // indicates which cities are currently active (inverse of the don't-look bits)
+    private boolean[] active;
+    // cities that are activated when the search is started (null: all cities)
+    private int[] initialActiveCities;
+    // indicates whether an improvement was made since all cities were last activated (only tracked
+    // if all cities were activated when the search was started)
+    private boolean fullPass, improvedInPass;
+
+    /**
+     * Create a 2-opt descent for the given TSP problem, using the given nearest neighbour candidate lists.
+     *
+     * @param problem TSP problem
+     * @param candidates nearest neighbour candidate lists
+     */
+    public TSP2OptDescent(GenericProblem<TSPSolution, ? extends TSPData> problem, NearestNeighbourLists candidates) {
+        this(null, problem, candidates);
+    }
+
+    /**
+     * Create a 2-opt descent for the given TSP problem, using the given nearest neighbour candidate lists.
+     * The search is assigned the given name. If <code>name</code> is <code>null</code>, the default
+     * name "TSP2OptDescent" is used.
+     *
+     * @param name custom search name
+     * @param problem TSP problem
+     * @param candidates nearest neighbour candidate lists
+     * @throws IllegalArgumentException if the problem has asymmetric distances
+     */
+    public TSP2OptDescent(String name, GenericProblem<TSPSolution, ? extends TSPData> problem, NearestNeighbourLists candidates) {
+        super(name != null ? name : "TSP2OptDescent", problem);
+        AsymmetricTSPObjective.requireSymmetric(problem, "TSP2OptDescent");
+        if(candidates == null){
+            throw new NullPointerException("Error: candidate lists can not be null.");
+        }
+        this.problem = problem;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Restrict the cities that are activated when the search is started. By default, all cities
+     * are activated. When the search is restarted from a local optimum in which only a few edges
+     * have changed (or have become more expensive, see {@link #getCost(int, int)}), it suffices
+     * to activate the endpoints of these edges. Setting <code>null</code> restores the default.
+     * 
+     * @param cities cities that are activated when the search is started, <code>null</code> for all cities
+     */
+    public void setInitialActiveCities(int[] cities){
+        initialActiveCities = cities;
+    }
+
+    /**
+     * When the search is started, all cities are activated, unless the initially
+     * active cities have been restricted with {@link #setInitialActiveCities(int[])}.
+     */
+    @Override
+    protected void searchStarted() {
+        super.searchStarted();
+        TSPSolution sol = getCurrentSolution();
+        int n = sol.getNumCities();
+        if(queue == null || queue.length != n){
+            queue = new int[n];
+            active = new boolean[n];
+        } else {
+            while(queueSize > 0){
+                active[queue[queueHead]] = false;
+                queueHead = (queueHead+1) % queue.length;
+                queueSize--;
+            }
+        }
+        queueHead = 0;
+        queueSize = 0;
+        fullPass = initialActiveCities == null;
+        improvedInPass = false;
+        if(fullPass){
+            activateAll();
+        } else {
+            for(int city : initialActiveCities){
+                activate(city);
+            }
+        }
+    }
+
+    /**
+     * Get the cost of the edge between the given cities, which is minimized by the 2-opt moves that are
+     * considered. By default, this is the travel distance. Subclasses can override this method to search
+     * with modified costs, in which case the objective of the problem should be modified accordingly.
+     * 
+     * @param from first city
+     * @param to second city
+     * @return cost of the edge between both cities
+     */
+    protected double getCost(int from, int to){
+        return problem.getData().getDistance(from, to);
+    }
+
+    /**
+     * Takes the next active city from the queue and applies the first improving 2-opt move around
+     * this city, if any. The endpoints of the modified edges are reactivated. If no more active
+     * cities remain, all cities are reactivated if the search was started with all cities active
+     * and an improvement has been made since they were last activated. Else, the search is stopped.
+     */
+    @Override
+    protected void searchStep() {
+        if(queueSize == 0){
+            if(fullPass && improvedInPass){
+                // verify with another pass over all cities
+                improvedInPass = false;
+                activateAll();
+            } else {
+                // 2-opt local optimum reached
+                stop();
+            }
+        } else {
+            // take next active city
+            int city = queue[queueHead];
+            queueHead = (queueHead+1) % queue.length;
+            queueSize--;
+            active[city] = false;
+            // try to improve around this city (in both directions)
+            if(improve(city, true) || improve(city, false)){
+                // retry the same city later
+                activate(city);
+            }
+        }
+    }
+
+    // search for and apply first improving 2-opt move that removes the edge from t1 to its successor
+    // (if viaSuccessor is true) or predecessor (else); returns true if an improvement has been made
+    private boolean improve(int t1, boolean viaSuccessor){
+        TSPSolution sol = getCurrentSolution();
+        int t2 = viaSuccessor ? sol.next(t1) : sol.prev(t1);
+        double removed12 = getCost(t1, t2);
+        for(int t3 : candidates.getNeighbours(t2)){
+            double added23 = getCost(t2, t3);
+            if(added23 >= removed12){
+                // no further improvements possible (sorted candidates)
+                return false;
+            }
+            // t4 is fixed by t3 to obtain a valid round trip
+            int t4 = viaSuccessor ? sol.prev(t3) : sol.next(t3);
+            if(t3 == t1 || t4 == t2){
+                continue;
+            }
+            double gain = removed12 + getCost(t3, t4) - added23 - getCost(t4, t1);
+            if(gain > 0){
+                // promising move: replaces (t1,t2) and (t4,t3) with (t2,t3) and (t1,t4)
+                TSP2OptMove move = viaSuccessor
+                        ? new TSP2OptMove(sol.getPosition(t2), sol.getPosition(t4))
+                        : new TSP2OptMove(sol.getPosition(t4), sol.getPosition(t2));
+                // evaluate and validate through problem
+                Validation newValidation = problem.validate(move, sol, getCurrentSolutionValidation());
+                if(newValidation.passed()){
+                    Evaluation newEvaluation = problem.evaluate(move, sol, getCurrentSolutionEvaluation());
+                    if(computeDelta(newEvaluation, getCurrentSolutionEvaluation()) > 0){
+                        // apply move and update current (and best) solution
+                        move.apply(sol);
+                        updateCurrentAndBestSolution(sol, newEvaluation, newValidation);
+                        improvedInPass = true;
+                        // reactivate endpoints of modified edges
+                        activate(t2);
+                        activate(t3);
+                        activate(t4);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // activate all cities in order of the current round trip
+    private void activateAll(){
+        TSPSolution sol = getCurrentSolution();
+        for(int p=0; p<sol.getNumCities(); p++){
+            activate(sol.getCity(p));
+        }
+    }
+
+    // add city to queue of active cities, if not yet active
+    private void activate(int city){
+        if(!active[city]){
+            active[city] = true;
+            queue[(queueHead+queueSize) % queue.length] = city;
+            queueSize++;
+        }
+    }
+
+}
@@ -53,22 +53,8 @@ public class TSP2OptMove implements Move<TSPSolution> {
     
     @Override
     public void apply(TSPSolution solution) {
-        // reverse subpath
-        int start = i;
-        int stop = j;
-        int n = solution.getCities().size();
-        int reversedLength;
-        if(i < j){
-            reversedLength = j-i+1;
-        } else {
-            reversedLength = n - (i-j-1);
-        }
-        int numSwaps = reversedLength/2;
-        for(int k=0; k<numSwaps; k++){
-            solution.swapCities(start, stop);
-            start = (start+1) % n;
-            stop = (stop-1+n) % n;
-        }
+        // reverse subpath (the solution takes care of reversing the shorter side)
+        solution.reverse(i, j);
     }
 
     @Override
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * <p>
+ * Lazy, immutable list view of all 2-opt moves for a round trip with a given number of cities n,
+ * i.e. a move for every ordered pair of distinct positions (i,j). The n(n-1) moves are never stored:
+ * each move is created on demand when it is retrieved from the list, so that a search can scan the
+ * entire neighbourhood with constant memory. The move at index <code>k</code> reverses the subpath
+ * from position <code>i = k / (n-1)</code> to position <code>j</code>, where <code>j = k % (n-1)</code>
+ * if this value is smaller than i and <code>j = k % (n-1) + 1</code> otherwise.
+ * </p>
+ * <p>
+ * Searches that do not need move objects can scan the positions directly with {@link #getI(long)}
+ * and {@link #getJ(long)} without allocating anything. See {@link LazyMoveList} for the behaviour
+ * of the list when there are more than {@link Integer#MAX_VALUE} moves.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP2OptMoveList extends LazyMoveList<TSP2OptMove> {
+
+    // number of cities
+    private final int n;
+
+    /**
+     * Create a lazy list of all 2-opt moves for a round trip with the given number of cities.
+     *
+     * @param n number of cities
+     */
+    public TSP2OptMoveList(int n){
+        super(n < 2 ? 0 : (long) n * (n-1));
+        this.n = n;
+    }
+
+    // first position of the reversed subpath for the move with the given index
+    public int getI(long index){
+        return (int) (index / (n-1));
+    }
+
+    // last position of the reversed subpath for the move with the given index
+    public int getJ(long index){
+        int i = (int) (index / (n-1));
+        int j = (int) (index % (n-1));
+        return j < i ? j : j+1;
+    }
+
+    @Override
+    protected TSP2OptMove createMove(long index){
+        return new TSP2OptMove(getI(index), getJ(index));
+    }
+
+}
@@ -22,16 +22,47 @@ import java.util.Random;
 import org.jamesframework.core.search.neigh.Neighbourhood;
 
 /**
- * Basic 2-opt neighbourhood for the TSP problem.
+ * Basic 2-opt neighbourhood for the TSP problem. By default, moves are generated for every pair
+ * of positions in the round trip. Alternatively, nearest neighbour candidate lists can be specified,
+ * in which case only those moves are generated that connect a city to one of its nearest neighbours.
+ * On large instances, the vast majority of uniformly sampled moves join two far-apart cities and
+ * are therefore rejected, while the candidate moves are much more likely to be improvements.
  * 
  * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
  */
 public class TSP2OptNeighbourhood implements Neighbourhood<TSPSolution>{
     
+    // maximum number of attempts to sample a random candidate move
+    private static final int MAX_SAMPLE_ATTEMPTS = 100;
+    
+    // nearest neighbour candidate lists (null if all moves are considered)
+    private final NearestNeighbourLists candidates;
+    
+    /**
+     * Create a 2-opt neighbourhood that considers all pairs of positions.
+     */
+    public TSP2OptNeighbourhood(){
+        this(null);
+    }
+    
+    /**
+     * Create a 2-opt neighbourhood that only generates moves connecting a city to one of its
+     * nearest neighbours, as specified in the given candidate lists. If <code>null</code>,
+     * all pairs of positions are considered.
+     * 
+     * @param candidates nearest neighbour candidate lists, may be <code>null</code>
+     */
+    public TSP2OptNeighbourhood(NearestNeighbourLists candidates){
+        this.candidates = candidates;
+    }
+    
     @Override
     public TSP2OptMove getRandomMove(TSPSolution solution, Random rnd) {
+        if(candidates != null){
+            return getRandomCandidateMove(solution, rnd);
+        }
         // pick two distinct random positions i,j in the round trip
-        int n = solution.getCities().size();
+        int n = solution.getNumCities();
         int i = rnd.nextInt(n);
         int j = rnd.nextInt(n-1);
         if(j >= i){
@@ -43,17 +74,79 @@ public class TSP2OptNeighbourhood implements Neighbourhood<TSPSolution>{
 
     @Override
     public List<TSP2OptMove> getAllMoves(TSPSolution solution) {
-        // generate a 2-opt TSP move for every pair of positions i,j
-        int n = solution.getCities().size();
+        if(candidates != null){
+            return getAllCandidateMoves(solution);
+        }
+        // lazy view of a 2-opt TSP move for every pair of positions i,j (moves are created on demand)
+        return new TSP2OptMoveList(solution.getNumCities());
+    }
+    
+    private TSP2OptMove getRandomCandidateMove(TSPSolution solution, Random rnd){
+        int n = solution.getNumCities();
+        for(int attempt=0; attempt<MAX_SAMPLE_ATTEMPTS; attempt++){
+            // pick random city and random nearest neighbour
+            int city = rnd.nextInt(n);
+            int[] neighbours = candidates.getNeighbours(city);
+            if(neighbours.length > 0){
+                int neighbour = neighbours[rnd.nextInt(neighbours.length)];
+                // connect both cities, either through their successors or their predecessors
+                TSP2OptMove move = createCandidateMove(solution, city, neighbour, rnd.nextBoolean());
+                if(move != null){
+                    return move;
+                }
+            }
+        }
+        // sampling keeps failing (e.g. all neighbours are adjacent): pick from all candidate moves
+        List<TSP2OptMove> moves = getAllCandidateMoves(solution);
+        return moves.isEmpty() ? null : moves.get(rnd.nextInt(moves.size()));
+    }
+    
+    private List<TSP2OptMove> getAllCandidateMoves(TSPSolution solution){
+        // generate both 2-opt moves that connect a city with each of its nearest neighbours, skipping
+        // pairs (city, neighbour) with neighbour < city that also occur as (neighbour, city), as these
+        // yield the same moves
+        int n = solution.getNumCities();
         List<TSP2OptMove> moves = new ArrayList<>();
-        for(int i=0; i<n; i++){
-            for(int j=0; j<n; j++){
-                if(i != j){
-                    moves.add(new TSP2OptMove(i, j));
+        for(int city=0; city<n; city++){
+            for(int neighbour : candidates.getNeighbours(city)){
+                if(neighbour < city && candidates.isNeighbour(neighbour, city)){
+                    continue;
+                }
+                TSP2OptMove move = createCandidateMove(solution, city, neighbour, true);
+                if(move != null){
+                    moves.add(move);
+                }
+                move = createCandidateMove(solution, city, neighbour, false);
+                if(move != null){
+                    moves.add(move);
                 }
             }
         }
         return moves;
     }
+    
+    // create 2-opt move that introduces an edge between the given cities; the second new edge
+    // connects their successors (if viaSuccessors is true) or their predecessors (else), returns
+    // null if the cities are already adjacent
+    private TSP2OptMove createCandidateMove(TSPSolution solution, int city, int neighbour, boolean viaSuccessors){
+        int n = solution.getNumCities();
+        int p = solution.getPosition(city);
+        int q = solution.getPosition(neighbour);
+        if(q == (p+1)%n || p == (q+1)%n){
+            // edge already present
+            return null;
+        }
+        int i, j;
+        if(viaSuccessors){
+            // reverse path from successor of city up to neighbour
+            i = (p+1)%n;
+            j = q;
+        } else {
+            // reverse path from neighbour up to predecessor of city
+            i = q;
+            j = (p-1+n)%n;
+        }
+        return new TSP2OptMove(i, j);
+    }
 
 }
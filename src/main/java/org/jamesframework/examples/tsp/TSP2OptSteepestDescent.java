@@ -0,0 +1,216 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.constraints.validations.Validation;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.LocalSearch;
+import org.jamesframework.core.search.status.SearchStatus;
+
+/**
+ * <p>
+ * Steepest descent (best improvement) 2-opt search for the TSP problem, that inspects the full 2-opt
+ * neighbourhood in every step. As this requires O(n<sup>2</sup>) delta evaluations per step, the scan is
+ * split across the threads of a fork/join pool: the first positions of the reversed subpaths are divided
+ * into ranges, each of which is scanned by a separate task that keeps track of its own best move in
+ * primitive fields. All moves with the same first position are evaluated in one batch by a
+ * {@link TSP2OptBatchEvaluator}, of which each worker thread holds its own instance. The best moves of all
+ * tasks are then reduced to a single best move, breaking ties in favour of the move that would have been
+ * found first by a sequential scan, so that the search is deterministic regardless of the number of threads.
+ * </p>
+ * <p>
+ * The scan only computes the change in travel distance. The best move is evaluated and validated through
+ * the problem before it is applied, so that penalizing and mandatory constraints are respected. The search
+ * stops as soon as the best move is not an improvement, i.e. when a 2-opt local optimum has been reached.
+ * As a single step may take a long time for large instances, the tasks stop scanning as soon as the search
+ * is requested to stop (e.g. by a stop criterion), in which case the interrupted step does not apply a move.
+ * Like {@link TSP2OptDescent}, this search assumes symmetric distances.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP2OptSteepestDescent extends LocalSearch<TSPSolution> {
+
+    // minimum number of delta evaluations per task
+    private static final int MIN_TASK_SIZE = 1 << 14;
+
+    // TSP problem
+    private final GenericProblem<TSPSolution, ? extends TSPData> problem;
+    // fork/join pool used to scan the neighbourhood
+    private final ForkJoinPool pool;
+
+    // cities of the current solution in the order in which they are visited, and length
+    // of the edge from each position to the next position (reused in every step)
+    private int[] cities;
+    private double[] edgeLength;
+    // batch evaluator of each worker thread
+    private final ThreadLocal<TSP2OptBatchEvaluator> evaluators = new ThreadLocal<>();
+
+    /**
+     * Create a steepest descent for the given TSP problem, that uses the common fork/join pool.
+     *
+     * @param problem TSP problem
+     */
+    public TSP2OptSteepestDescent(GenericProblem<TSPSolution, ? extends TSPData> problem) {
+        this(null, problem, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a steepest descent for the given TSP problem, that uses the given fork/join pool.
+     * The search is assigned the given name. If <code>name</code> is <code>null</code>, the
+     * default name "TSP2OptSteepestDescent" is used.
+     *
+     * @param name custom search name
+     * @param problem TSP problem
+     * @param pool fork/join pool used to scan the neighbourhood
+     * @throws IllegalArgumentException if the problem has asymmetric distances
+     */
+    public TSP2OptSteepestDescent(String name, GenericProblem<TSPSolution, ? extends TSPData> problem, ForkJoinPool pool) {
+        super(name != null ? name : "TSP2OptSteepestDescent", problem);
+        AsymmetricTSPObjective.requireSymmetric(problem, "TSP2OptSteepestDescent");
+        if(pool == null){
+            throw new NullPointerException("Error: fork/join pool can not be null.");
+        }
+        this.problem = problem;
+        this.pool = pool;
+    }
+
+    /**
+     * Scans the full 2-opt neighbourhood in parallel and applies the best move, if it is an
+     * improvement. Else, the search is stopped.
+     */
+    @Override
+    protected void searchStep() {
+        TSPSolution sol = getCurrentSolution();
+        int n = sol.getNumCities();
+        // copy current round trip and edge lengths
+        if(cities == null || cities.length != n){
+            cities = new int[n];
+            edgeLength = new double[n];
+        }
+        for(int p=0; p<n; p++){
+            cities[p] = sol.getCity(p);
+        }
+        TSPData data = problem.getData();
+        for(int p=0; p<n; p++){
+            edgeLength[p] = data.getDistance(cities[p], cities[p+1 < n ? p+1 : 0]);
+        }
+        // find best move in parallel (reversing subpaths from position i to j with 1 <= i < j <= n-1
+        // covers all moves, as reversing the complementary subpath yields the same round trip)
+        ScanTask scan = new ScanTask(this, 1, n-1, Math.max(1, MIN_TASK_SIZE / n));
+        pool.invoke(scan);
+        if(getStatus() == SearchStatus.TERMINATING){
+            // scan interrupted: best move is unknown
+            return;
+        }
+        if(scan.bestDelta < 0){
+            TSP2OptMove move = new TSP2OptMove(scan.bestI, scan.bestJ);
+            // evaluate and validate through problem
+            Validation newValidation = problem.validate(move, sol, getCurrentSolutionValidation());
+            if(newValidation.passed()){
+                Evaluation newEvaluation = problem.evaluate(move, sol, getCurrentSolutionEvaluation());
+                if(computeDelta(newEvaluation, getCurrentSolutionEvaluation()) > 0){
+                    // apply move and update current (and best) solution
+                    move.apply(sol);
+                    updateCurrentAndBestSolution(sol, newEvaluation, newValidation);
+                    return;
+                }
+            }
+        }
+        // local optimum reached
+        stop();
+    }
+
+    // get batch evaluator of the current thread
+    private TSP2OptBatchEvaluator getEvaluator(){
+        TSP2OptBatchEvaluator evaluator = evaluators.get();
+        if(evaluator == null || evaluator.getNumCities() != cities.length){
+            evaluator = new TSP2OptBatchEvaluator(cities.length);
+            evaluators.set(evaluator);
+        }
+        return evaluator;
+    }
+
+    /**
+     * Scans all moves that reverse a subpath starting at a position in [from, to) and keeps
+     * track of the best move, which is reduced with the best moves of the subtasks, if any.
+     */
+    private static class ScanTask extends RecursiveAction {
+
+        // search that is being executed
+        private final TSP2OptSteepestDescent search;
+        // range of first positions
+        private final int from, to;
+        // maximum number of first positions scanned by a single task
+        private final int grain;
+
+        // best move (smallest change in travel distance)
+        private double bestDelta = 0.0;
+        private int bestI = -1, bestJ = -1;
+
+        private ScanTask(TSP2OptSteepestDescent search, int from, int to, int grain){
+            this.search = search;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= grain){
+                scan();
+            } else {
+                int mid = (from + to) >>> 1;
+                ScanTask left = new ScanTask(search, from, mid, grain);
+                ScanTask right = new ScanTask(search, mid, to, grain);
+                invokeAll(left, right);
+                // reduce (prefer left task in case of ties)
+                bestDelta = left.bestDelta;
+                bestI = left.bestI;
+                bestJ = left.bestJ;
+                if(right.bestDelta < bestDelta){
+                    bestDelta = right.bestDelta;
+                    bestI = right.bestI;
+                    bestJ = right.bestJ;
+                }
+            }
+        }
+
+        // scan all moves in the assigned range, one batch per first position
+        private void scan(){
+            TSP2OptBatchEvaluator evaluator = search.getEvaluator();
+            DistanceMatrix dist = search.problem.getData().getDistanceMatrix();
+            for(int i=from; i<to; i++){
+                if(search.getStatus() == SearchStatus.TERMINATING){
+                    // search is stopping: abort scan
+                    return;
+                }
+                int j = evaluator.findBest(dist, search.cities, search.edgeLength, i);
+                if(evaluator.getBestDelta() < bestDelta){
+                    bestDelta = evaluator.getBestDelta();
+                    bestI = i;
+                    bestJ = j;
+                }
+            }
+        }
+
+    }
+
+}
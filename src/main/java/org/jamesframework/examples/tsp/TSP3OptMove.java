@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import org.jamesframework.core.search.neigh.Move;
+
+/**
+ * A 3-opt TSP move that exchanges two consecutive segments of the round trip, optionally
+ * reversing one of both segments. These are the 3-opt reconnections that can not be obtained
+ * by a single 2-opt move.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP3OptMove implements Move<TSPSolution> {
+
+    // segments (a') - ... - (b) and (b') - ... - (e) are exchanged as follows:
+    // ... - (a) - (a') - ... - (b) - (b') - ... - (e) - (e') - ...
+    //  =>
+    // ... - (a) - (b') - ... - (e) - (a') - ... - (b) - (e') - ...
+    // where a' and b are swapped if the first segment is reversed,
+    // and b' and e are swapped if the second segment is reversed
+    private final int a, a2, b, b2, e, e2;
+    private final boolean reverseFirst, reverseSecond;
+
+    /**
+     * Create a 3-opt segment exchange move. The cities should be specified in the order in which they
+     * are visited, so that (a,a'), (b,b') and (e,e') are three distinct edges with the same orientation
+     * and both segments contain at least one city. At most one of both segments can be reversed.
+     *
+     * @param a city preceding the first segment
+     * @param a2 first city of the first segment
+     * @param b last city of the first segment
+     * @param b2 first city of the second segment
+     * @param e last city of the second segment
+     * @param e2 city following the second segment
+     * @param reverseFirst if <code>true</code>, the first segment is reversed
+     * @param reverseSecond if <code>true</code>, the second segment is reversed
+     */
+    public TSP3OptMove(int a, int a2, int b, int b2, int e, int e2, boolean reverseFirst, boolean reverseSecond) {
+        // check
+        if(reverseFirst && reverseSecond){
+            throw new IllegalArgumentException("Error: at most one segment can be reversed.");
+        }
+        // store
+        this.a = a;
+        this.a2 = a2;
+        this.b = b;
+        this.b2 = b2;
+        this.e = e;
+        this.e2 = e2;
+        this.reverseFirst = reverseFirst;
+        this.reverseSecond = reverseSecond;
+    }
+
+    public int getA(){
+        return a;
+    }
+
+    public int getA2(){
+        return a2;
+    }
+
+    public int getB(){
+        return b;
+    }
+
+    public int getB2(){
+        return b2;
+    }
+
+    public int getE(){
+        return e;
+    }
+
+    public int getE2(){
+        return e2;
+    }
+
+    public boolean isFirstReversed(){
+        return reverseFirst;
+    }
+
+    public boolean isSecondReversed(){
+        return reverseSecond;
+    }
+
+    @Override
+    public void apply(TSPSolution solution) {
+        if(reverseFirst){
+            // reverse entire path from a' to e, then restore orientation of second segment
+            solution.exchangeEdges(a, a2, e, e2);
+            solution.exchangeEdges(a, e, b2, b);
+        } else if(reverseSecond){
+            // reverse entire path from a' to e, then restore orientation of first segment
+            solution.exchangeEdges(a, a2, e, e2);
+            solution.exchangeEdges(b2, b, a2, e2);
+        } else {
+            // reverse first segment, then second segment, then path in between a and e'
+            solution.exchangeEdges(a, a2, b, b2);
+            solution.exchangeEdges(a2, b2, e, e2);
+            solution.exchangeEdges(a, b, b2, e2);
+        }
+    }
+
+    @Override
+    public void undo(TSPSolution solution) {
+        // revert exchanges in opposite order
+        if(reverseFirst){
+            solution.exchangeEdges(a, b2, e, b);
+            solution.exchangeEdges(a, e, a2, e2);
+        } else if(reverseSecond){
+            solution.exchangeEdges(b2, a2, b, e2);
+            solution.exchangeEdges(a, e, a2, e2);
+        } else {
+            solution.exchangeEdges(a, b2, b, e2);
+            solution.exchangeEdges(a2, e, b2, e2);
+            solution.exchangeEdges(a, b, a2, b2);
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * Lazy, immutable list view of all 3-opt segment exchange moves for a given round trip, i.e. three moves for
+ * every triple of positions i &lt; j &lt; k: one that exchanges the segments from position i+1 to j and from
+ * j+1 to k, and two that additionally reverse the first or second segment, respectively. The triples are
+ * ordered lexicographically and the index of a move is decoded into its triple without enumerating the
+ * preceding triples. The cities of the round trip are copied when the list is created, so that the moves
+ * are not affected by later modifications of the solution. See {@link LazyMoveList} for the behaviour of
+ * the list when there are more than {@link Integer#MAX_VALUE} moves.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP3OptMoveList extends LazyMoveList<TSP3OptMove> {
+
+    // number of reconnections per triple of positions
+    private static final int NUM_VARIANTS = 3;
+
+    // cities in the order in which they are visited
+    private final int[] cities;
+    // number of triples of positions
+    private final long numTriples;
+
+    /**
+     * Create a lazy list of all 3-opt moves for the given round trip.
+     *
+     * @param solution round trip
+     */
+    public TSP3OptMoveList(TSPSolution solution){
+        this(toArray(solution));
+    }
+
+    private TSP3OptMoveList(int[] cities){
+        super(NUM_VARIANTS * choose3(cities.length));
+        this.cities = cities;
+        numTriples = choose3(cities.length);
+    }
+
+    // copy cities of the given round trip
+    private static int[] toArray(TSPSolution solution){
+        int[] cities = new int[solution.getNumCities()];
+        for(int p=0; p<cities.length; p++){
+            cities[p] = solution.getCity(p);
+        }
+        return cities;
+    }
+
+    // binomial coefficient C(x,3)
+    private static long choose3(long x){
+        return x < 3 ? 0 : x * (x-1) * (x-2) / 6;
+    }
+
+    // binomial coefficient C(x,2)
+    private static long choose2(long x){
+        return x < 2 ? 0 : x * (x-1) / 2;
+    }
+
+    @Override
+    protected TSP3OptMove createMove(long index){
+        int n = cities.length;
+        long t = index / NUM_VARIANTS;
+        int variant = (int) (index % NUM_VARIANTS);
+        // the lexicographic rank of (i,j,k) is the reversed colexicographic rank of (n-1-k, n-1-j, n-1-i),
+        // so decode the latter: c is the largest value with C(c,3) <= r, b the largest with C(b,2) <= rest
+        long r = numTriples - 1 - t;
+        long c = (long) Math.cbrt(6.0 * r) + 1;
+        while(choose3(c) > r){
+            c--;
+        }
+        while(choose3(c+1) <= r){
+            c++;
+        }
+        r -= choose3(c);
+        long b = (long) Math.sqrt(2.0 * r) + 1;
+        while(choose2(b) > r){
+            b--;
+        }
+        while(choose2(b+1) <= r){
+            b++;
+        }
+        r -= choose2(b);
+        int i = (int) (n - 1 - c);
+        int j = (int) (n - 1 - b);
+        int k = (int) (n - 1 - r);
+        return new TSP3OptMove(
+            cities[i],
+            cities[i+1],
+            cities[j],
+            cities[j+1],
+            cities[k],
+            cities[(k+1)%n],
+            variant == 1,
+            variant == 2
+        );
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jamesframework.core.search.neigh.Neighbourhood;
+
+/**
+ * 3-opt segment exchange neighbourhood for the TSP problem. Each move removes three edges and swaps
+ * the two segments in between them, optionally reversing one of both segments (see {@link TSP3OptMove}).
+ * By default, moves are generated for every triple of positions in the round trip. Alternatively, nearest
+ * neighbour candidate lists can be specified, in which case only those moves are generated that introduce
+ * at least two edges connecting a city to one of its nearest neighbours. Such moves can escape from 2-opt
+ * local optima without having to accept a sequence of deteriorating moves.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP3OptNeighbourhood implements Neighbourhood<TSPSolution>{
+
+    // maximum number of attempts to sample a random candidate move
+    private static final int MAX_SAMPLE_ATTEMPTS = 100;
+
+    // nearest neighbour candidate lists (null if all moves are considered)
+    private final NearestNeighbourLists candidates;
+
+    /**
+     * Create a 3-opt neighbourhood that considers all triples of positions.
+     */
+    public TSP3OptNeighbourhood(){
+        this(null);
+    }
+
+    /**
+     * Create a 3-opt neighbourhood that only generates moves introducing at least two edges that connect
+     * a city to one of its nearest neighbours, as specified in the given candidate lists. If <code>null</code>,
+     * all triples of positions are considered.
+     *
+     * @param candidates nearest neighbour candidate lists, may be <code>null</code>
+     */
+    public TSP3OptNeighbourhood(NearestNeighbourLists candidates){
+        this.candidates = candidates;
+    }
+
+    @Override
+    public TSP3OptMove getRandomMove(TSPSolution solution, Random rnd) {
+        int n = solution.getNumCities();
+        if(n < 3){
+            return null;
+        }
+        if(candidates != null){
+            return getRandomCandidateMove(solution, rnd);
+        }
+        // pick random position i and two distinct offsets 0 < x < y < n
+        int i = rnd.nextInt(n);
+        int x = 1 + rnd.nextInt(n-1);
+        int y = 1 + rnd.nextInt(n-2);
+        if(y >= x){
+            y++;
+        } else {
+            int tmp = x;
+            x = y;
+            y = tmp;
+        }
+        // pick random reconnection
+        int type = rnd.nextInt(3);
+        return createMove(solution, i, (i+x)%n, (i+y)%n, type == 1, type == 2);
+    }
+
+    @Override
+    public List<TSP3OptMove> getAllMoves(TSPSolution solution) {
+        if(candidates != null){
+            return getAllCandidateMoves(solution);
+        }
+        // lazy view of all three reconnections for every triple of positions i,j,k
+        return new TSP3OptMoveList(solution);
+    }
+
+    private TSP3OptMove getRandomCandidateMove(TSPSolution solution, Random rnd){
+        int n = solution.getNumCities();
+        for(int attempt=0; attempt<MAX_SAMPLE_ATTEMPTS; attempt++){
+            // pick random city, reconnection and nearest neighbour for first candidate edge
+            int city = rnd.nextInt(n);
+            int type = rnd.nextInt(3);
+            int[] firstNeighbours = candidates.getNeighbours(city);
+            if(firstNeighbours.length > 0){
+                int first = firstNeighbours[rnd.nextInt(firstNeighbours.length)];
+                // pick random nearest neighbour for second candidate edge
+                int[] secondNeighbours = candidates.getNeighbours(getSecondCandidateCity(solution, city, first, type));
+                if(secondNeighbours.length > 0){
+                    int second = secondNeighbours[rnd.nextInt(secondNeighbours.length)];
+                    TSP3OptMove move = createCandidateMove(solution, city, first, second, type);
+                    if(move != null){
+                        return move;
+                    }
+                }
+            }
+        }
+        // sampling keeps failing: pick from all candidate moves
+        List<TSP3OptMove> moves = getAllCandidateMoves(solution);
+        return moves.isEmpty() ? null : moves.get(rnd.nextInt(moves.size()));
+    }
+
+    private List<TSP3OptMove> getAllCandidateMoves(TSPSolution solution){
+        // generate all moves of each type that introduce two candidate edges
+        int n = solution.getNumCities();
+        List<TSP3OptMove> moves = new ArrayList<>();
+        for(int city=0; city<n; city++){
+            for(int type=0; type<3; type++){
+                for(int first : candidates.getNeighbours(city)){
+                    for(int second : candidates.getNeighbours(getSecondCandidateCity(solution, city, first, type))){
+                        TSP3OptMove move = createCandidateMove(solution, city, first, second, type);
+                        if(move != null){
+                            moves.add(move);
+                        }
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    // get city that is connected to one of its nearest neighbours by the second candidate edge, for a move
+    // of the given type where the first candidate edge connects city a to the given neighbour
+    private int getSecondCandidateCity(TSPSolution solution, int a, int first, int type){
+        if(type == 1){
+            // edge (e,b) where b precedes b' = first
+            return solution.prev(first);
+        } else {
+            // edge (e,a') or (b',a') where a' follows a
+            return solution.next(a);
+        }
+    }
+
+    // create move of the given type that connects city a (preceding the first segment) to the first neighbour,
+    // and the city returned by getSecondCandidateCity(...) to the second neighbour; returns null if the resulting
+    // positions do not specify a valid move
+    private TSP3OptMove createCandidateMove(TSPSolution solution, int a, int first, int second, int type){
+        int i = solution.getPosition(a);
+        int j, k;
+        switch(type){
+            case 0:
+            case 1:
+                // new edges (a,b') and (e,a') or (e,b) with b' = first and e = second
+                j = solution.getPosition(solution.prev(first));
+                k = solution.getPosition(second);
+                break;
+            default:
+                // second segment reversed: new edges (a,e) and (a',b') with e = first and b' = second
+                j = solution.getPosition(solution.prev(second));
+                k = solution.getPosition(first);
+        }
+        return createMove(solution, i, j, k, type == 1, type == 2);
+    }
+
+    // create move that exchanges the segments from position i+1 to j and from j+1 to k (cyclically); returns
+    // null if the positions are not visited in this order or one of the segments would be empty
+    private TSP3OptMove createMove(TSPSolution solution, int i, int j, int k, boolean reverseFirst, boolean reverseSecond){
+        int n = solution.getNumCities();
+        int offsetJ = (j - i + n) % n;
+        int offsetK = (k - i + n) % n;
+        if(offsetJ == 0 || offsetK <= offsetJ){
+            return null;
+        }
+        return new TSP3OptMove(
+            solution.getCity(i),
+            solution.getCity((i+1)%n),
+            solution.getCity(j),
+            solution.getCity((j+1)%n),
+            solution.getCity(k),
+            solution.getCity((k+1)%n),
+            reverseFirst,
+            reverseSecond
+        );
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * Searches that can be selected when running the TSP example (see {@link TSP#main(String[])}).
+ * Each selected search is run with the full time limit.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public enum TSPAlgorithm {
+
+    /**
+     * Random descent with combined 2-opt, Or-opt and 3-opt moves.
+     */
+    RANDOM_DESCENT,
+
+    /**
+     * First-improvement 2-opt descent with don't-look bits (see {@link TSP2OptDescent}).
+     */
+    TWO_OPT_DESCENT,
+
+    /**
+     * Parallel best-improvement 2-opt descent (see {@link TSP2OptSteepestDescent}), only applied
+     * to instances with at most 20000 cities.
+     */
+    STEEPEST_DESCENT,
+
+    /**
+     * Lin-Kernighan variable-depth search (see {@link TSPLinKernighan}).
+     */
+    LIN_KERNIGHAN,
+
+    /**
+     * Guided local search (see {@link TSPGuidedLocalSearch}).
+     */
+    GUIDED_LOCAL_SEARCH,
+
+    /**
+     * Memetic search with partition crossover (see {@link TSPMemeticSearch}).
+     */
+    MEMETIC_SEARCH,
+
+    /**
+     * Window decomposition (see {@link TSPWindowDecomposition}).
+     */
+    WINDOW_DECOMPOSITION,
+
+    /**
+     * Parallel tempering with combined 2-opt, Or-opt and 3-opt moves.
+     */
+    PARALLEL_TEMPERING,
+
+    /**
+     * Memetic search on the instance reduced by fixing the edges shared by the best round trips of all
+     * other selected searches except the descents (see {@link TSPBackboneReduction}).
+     */
+    BACKBONE_REDUCTION
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+
+/**
+ * Evaluation object produced by the {@link TSPAugmentedObjective}. Tracks the travel distance of the
+ * round trip and the total penalty of its edges separately, so that both can be updated during delta
+ * evaluation. The value is the travel distance plus the total penalty multiplied with the weight lambda.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPAugmentedEvaluation implements Evaluation {
+
+    // travel distance
+    private final double distance;
+    // sum of edge penalties
+    private final long penalty;
+    // penalty weight
+    private final double lambda;
+
+    public TSPAugmentedEvaluation(double distance, long penalty, double lambda) {
+        this.distance = distance;
+        this.penalty = penalty;
+        this.lambda = lambda;
+    }
+
+    // get travel distance
+    public double getDistance(){
+        return distance;
+    }
+
+    // get sum of edge penalties
+    public long getPenalty(){
+        return penalty;
+    }
+
+    // get penalty weight
+    public double getLambda(){
+        return lambda;
+    }
+
+    @Override
+    public double getValue() {
+        return distance + lambda * penalty;
+    }
+
+    @Override
+    public String toString(){
+        return getValue() + " (distance: " + distance + ", penalty: " + penalty + ")";
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import org.jamesframework.core.exceptions.IncompatibleDeltaEvaluationException;
+import org.jamesframework.core.problems.objectives.Objective;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.problems.objectives.evaluations.SimpleEvaluation;
+import org.jamesframework.core.search.neigh.Move;
+
+/**
+ * Augmented objective used by the {@link TSPGuidedLocalSearch}: wraps a {@link TSPObjective} and adds the
+ * penalties of all edges in the round trip, multiplied with a weight lambda, to the total travel distance.
+ * Penalties are retrieved from a sparse {@link EdgePenalties} map. The travel distance and total penalty
+ * are tracked separately in a {@link TSPAugmentedEvaluation}, so that delta evaluation of 2-opt, Or-opt and
+ * 3-opt moves only looks up the distances and penalties of the removed and added edges.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPAugmentedObjective implements Objective<TSPSolution, TSPData> {
+
+    // wrapped travel distance objective
+    private final TSPObjective obj;
+    // edge penalties
+    private final EdgePenalties penalties;
+    // penalty weight
+    private double lambda;
+
+    public TSPAugmentedObjective(TSPObjective obj, EdgePenalties penalties, double lambda) {
+        this.obj = obj;
+        this.penalties = penalties;
+        this.lambda = lambda;
+    }
+
+    // get penalty weight
+    public double getLambda(){
+        return lambda;
+    }
+
+    // set penalty weight (only affects subsequently created evaluations)
+    public void setLambda(double lambda){
+        this.lambda = lambda;
+    }
+
+    // get augmented length of edge (a,b)
+    public double getAugmentedDistance(TSPData data, int a, int b){
+        return data.getDistance(a, b) + lambda * penalties.get(a, b);
+    }
+
+    @Override
+    public TSPAugmentedEvaluation evaluate(TSPSolution solution, TSPData data) {
+        double distance = obj.evaluate(solution, data).getValue();
+        // sum penalties of all edges
+        int n = solution.getNumCities();
+        long penalty = 0;
+        int fromCity = solution.getCity(n-1);
+        for(int i=0; i<n; i++){
+            int toCity = solution.getCity(i);
+            penalty += penalties.get(fromCity, toCity);
+            fromCity = toCity;
+        }
+        return new TSPAugmentedEvaluation(distance, penalty, lambda);
+    }
+
+    @Override
+    public Evaluation evaluate(Move move, TSPSolution curSolution, Evaluation curEvaluation, TSPData data){
+        TSPAugmentedEvaluation curEval = (TSPAugmentedEvaluation) curEvaluation;
+        // update travel distance through wrapped objective
+        double distance = obj.evaluate(
+                move, curSolution, SimpleEvaluation.WITH_VALUE(curEval.getDistance()), data
+        ).getValue();
+        // update penalty
+        long penalty = curEval.getPenalty();
+        if(move instanceof TSP2OptMove){
+            penalty += penaltyDelta2Opt((TSP2OptMove) move, curSolution);
+        } else if(move instanceof TSPOrOptMove){
+            penalty += penaltyDeltaOrOpt((TSPOrOptMove) move);
+        } else if(move instanceof TSP3OptMove){
+            penalty += penaltyDelta3Opt((TSP3OptMove) move);
+        } else {
+            throw new IncompatibleDeltaEvaluationException("Delta evaluation in augmented TSP objective expects move of type "
+                                                            + "TSP2OptMove, TSPOrOptMove or TSP3OptMove.");
+        }
+        return new TSPAugmentedEvaluation(distance, penalty, curEval.getLambda());
+    }
+
+    private long penaltyDelta2Opt(TSP2OptMove move2opt, TSPSolution curSolution){
+        int i = move2opt.getI();
+        int j = move2opt.getJ();
+        int n = curSolution.getNumCities();
+        if((j+1)%n == i){
+            // special case: entire round trip reversed
+            return 0;
+        }
+        int beforeReversed = curSolution.getCity((i-1+n)%n);
+        int firstReversed = curSolution.getCity(i);
+        int lastReversed = curSolution.getCity(j);
+        int afterReversed = curSolution.getCity((j+1)%n);
+        return penalties.get(beforeReversed, lastReversed) + penalties.get(firstReversed, afterReversed)
+                - penalties.get(beforeReversed, firstReversed) - penalties.get(lastReversed, afterReversed);
+    }
+
+    private long penaltyDeltaOrOpt(TSPOrOptMove moveOrOpt){
+        int prev = moveOrOpt.getPrev();
+        int first = moveOrOpt.getFirst();
+        int last = moveOrOpt.getLast();
+        int next = moveOrOpt.getNext();
+        int from = moveOrOpt.getInsertFrom();
+        int to = moveOrOpt.getInsertTo();
+        long delta = penalties.get(prev, next)
+                        - penalties.get(prev, first) - penalties.get(last, next) - penalties.get(from, to);
+        if(moveOrOpt.isReversed()){
+            delta += penalties.get(from, last) + penalties.get(first, to);
+        } else {
+            delta += penalties.get(from, first) + penalties.get(last, to);
+        }
+        return delta;
+    }
+
+    private long penaltyDelta3Opt(TSP3OptMove move3opt){
+        int a = move3opt.getA();
+        int a2 = move3opt.getA2();
+        int b = move3opt.getB();
+        int b2 = move3opt.getB2();
+        int e = move3opt.getE();
+        int e2 = move3opt.getE2();
+        long delta = - penalties.get(a, a2) - penalties.get(b, b2) - penalties.get(e, e2);
+        if(move3opt.isFirstReversed()){
+            delta += penalties.get(a, b2) + penalties.get(e, b) + penalties.get(a2, e2);
+        } else if(move3opt.isSecondReversed()){
+            delta += penalties.get(a, e) + penalties.get(b2, a2) + penalties.get(b, e2);
+        } else {
+            delta += penalties.get(a, b2) + penalties.get(e, a2) + penalties.get(b, e2);
+        }
+        return delta;
+    }
+
+    @Override
+    public boolean isMinimizing() {
+        return true;
+    }
+
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Reduces a TSP instance by fixing the backbone of a set of elite round trips, i.e. the edges that are shared by
+ * all of them, such as the best round trips found by several short runs. Good round trips typically share most
+ * of their edges, so that the search can focus on the remaining ones. The fixed edges form disjoint paths, each
+ * of which is contracted into a super-node that consists of the two endpoints of the path, connected by an edge
+ * with a large negative length. Removing this edge is never an improvement, so that round trips of the reduced
+ * instance improved by a local search still traverse each path from one endpoint to the other. If the edge is
+ * cut by a perturbation, such as the random 3-opt mutation of a {@link TSPMemeticSearch}, a candidate-driven
+ * descent restores it, as the other endpoint of the path is the first candidate of each endpoint in the reduced
+ * candidate lists (see {@link #reduce(NearestNeighbourLists)}). Cities that are not incident to any fixed edge
+ * are retained as is.
+ * </p>
+ * <p>
+ * The reduced instance has at most twice as many cities as there are paths (including single cities), and its
+ * distances are looked up in the original distance matrix without storing a new matrix. Round trips of the
+ * original instance are mapped to the reduced instance with {@link #reduce(TSPSolution)} and back with
+ * {@link #expand(TSPSolution)}. For round trips that contain all fixed edges, the travel distance in the
+ * original instance equals the travel distance in the reduced instance plus a constant offset
+ * (see {@link #getOffset()}).
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPBackboneReduction {
+
+    // original TSP data
+    private final TSPData data;
+    // reduced TSP data
+    private final TSPData reducedData;
+
+    // cities of all fixed paths, stored consecutively (path q occupies positions pathStart[q] to pathStart[q+1]-1)
+    private final int[] paths;
+    private final int[] pathStart;
+    // node of the reduced instance for each city (-1 for interior cities of fixed paths)
+    private final int[] node;
+    // city and path corresponding to each node of the reduced instance
+    private final int[] nodeCity;
+    private final int[] nodePath;
+    // number of fixed edges
+    private final int numFixedEdges;
+    // length of edges that connect the endpoints of a fixed path in the reduced instance
+    private final double fixedLength;
+    // difference between original and reduced travel distance of round trips that contain all fixed edges
+    private final double offset;
+
+    /**
+     * Fix the edges shared by all given elite round trips and contract the resulting paths. If all
+     * round trips are identical, one of their edges is left free so that the fixed edges form a path.
+     *
+     * @param data original TSP data
+     * @param eliteTours elite round trips
+     * @throws NullPointerException if <code>data</code> or <code>eliteTours</code> are <code>null</code>
+     * @throws IllegalArgumentException if no elite round trips are given, or if any of them does not
+     *                                  visit all cities of the instance
+     */
+    public TSPBackboneReduction(TSPData data, List<? extends TSPSolution> eliteTours){
+        if(data == null){
+            throw new NullPointerException("Error: TSP data can not be null.");
+        }
+        if(eliteTours == null){
+            throw new NullPointerException("Error: list of elite round trips can not be null.");
+        }
+        if(eliteTours.isEmpty()){
+            throw new IllegalArgumentException("Error: at least one elite round trip is required.");
+        }
+        int n = data.getNumCities();
+        for(TSPSolution tour : eliteTours){
+            if(tour.getNumCities() != n){
+                throw new IllegalArgumentException("Error: elite round trip visits " + tour.getNumCities()
+                                                    + " cities (expected " + n + ").");
+            }
+        }
+        this.data = data;
+
+        // find edges (c, next(c)) of the first round trip that occur in all other round trips
+        TSPSolution first = eliteTours.get(0);
+        int[] fixedNext = new int[n];
+        int[] fixedPrev = new int[n];
+        Arrays.fill(fixedNext, -1);
+        Arrays.fill(fixedPrev, -1);
+        int fixed = 0;
+        for(int c=0; c<n; c++){
+            int d = first.next(c);
+            boolean shared = true;
+            for(int t=1; shared && t<eliteTours.size(); t++){
+                TSPSolution tour = eliteTours.get(t);
+                shared = tour.next(c) == d || tour.prev(c) == d;
+            }
+            if(shared){
+                fixedNext[c] = d;
+                fixedPrev[d] = c;
+                fixed++;
+            }
+        }
+        if(fixed == n && n > 0){
+            // entire round trip is shared: leave one edge free
+            fixedPrev[fixedNext[0]] = -1;
+            fixedNext[0] = -1;
+            fixed--;
+        }
+        numFixedEdges = fixed;
+
+        // collect fixed paths, starting from cities without fixed predecessor
+        paths = new int[n];
+        int[] starts = new int[n+1];
+        int numPaths = 0;
+        int pos = 0;
+        for(int c=0; c<n; c++){
+            if(fixedPrev[c] == -1){
+                starts[numPaths++] = pos;
+                for(int p=c; p != -1; p=fixedNext[p]){
+                    paths[pos++] = p;
+                }
+            }
+        }
+        starts[numPaths] = pos;
+        pathStart = Arrays.copyOf(starts, numPaths+1);
+
+        // create nodes for the endpoints of each path
+        node = new int[n];
+        Arrays.fill(node, -1);
+        int[] cities = new int[2*numPaths];
+        int[] nodePaths = new int[2*numPaths];
+        int m = 0;
+        double pathLength = 0.0;
+        for(int q=0; q<numPaths; q++){
+            int a = paths[pathStart[q]];
+            int b = paths[pathStart[q+1]-1];
+            node[a] = m;
+            cities[m] = a;
+            nodePaths[m++] = q;
+            if(b != a){
+                node[b] = m;
+                cities[m] = b;
+                nodePaths[m++] = q;
+                for(int p=pathStart[q]; p<pathStart[q+1]-1; p++){
+                    pathLength += data.getDistance(paths[p], paths[p+1]);
+                }
+            }
+        }
+        nodeCity = Arrays.copyOf(cities, m);
+        nodePath = Arrays.copyOf(nodePaths, m);
+
+        // connect endpoints of paths with an edge that is never removed: its absolute length exceeds the travel
+        // distance of the first elite round trip, so that removing it can not improve any round trip that is at
+        // least as good as this one
+        double firstLength = 0.0;
+        for(int c=0; c<n; c++){
+            firstLength += data.getDistance(c, first.next(c));
+        }
+        fixedLength = -(Math.abs(firstLength) + 1.0);
+        int numContracted = m - numPaths;
+        offset = pathLength - numContracted * fixedLength;
+        reducedData = new TSPData(new ReducedDistanceMatrix());
+    }
+
+    /**
+     * Get the TSP data of the reduced instance.
+     *
+     * @return reduced TSP data
+     */
+    public TSPData getReducedData(){
+        return reducedData;
+    }
+
+    /**
+     * Get the number of edges that are fixed.
+     *
+     * @return number of fixed edges
+     */
+    public int getNumFixedEdges(){
+        return numFixedEdges;
+    }
+
+    /**
+     * Get the difference between the travel distance of a round trip in the original instance and
+     * the travel distance of the corresponding round trip in the reduced instance, for round trips
+     * that contain all fixed edges.
+     *
+     * @return offset of travel distance
+     */
+    public double getOffset(){
+        return offset;
+    }
+
+    /**
+     * Map a round trip of the original instance to the reduced instance, by visiting the nodes in the order
+     * in which the corresponding cities occur in the given round trip. If the round trip contains all fixed
+     * edges, both endpoints of every fixed path are visited consecutively.
+     *
+     * @param tour round trip of the original instance
+     * @return corresponding round trip of the reduced instance
+     * @throws IllegalArgumentException if the round trip does not visit all cities of the original instance
+     */
+    public TSPSolution reduce(TSPSolution tour){
+        int n = data.getNumCities();
+        if(tour.getNumCities() != n){
+            throw new IllegalArgumentException("Error: round trip visits " + tour.getNumCities()
+                                                + " cities (expected " + n + ").");
+        }
+        int[] reduced = new int[nodeCity.length];
+        int m = 0;
+        for(int p=0; p<n; p++){
+            int u = node[tour.getCity(p)];
+            if(u != -1){
+                reduced[m++] = u;
+            }
+        }
+        return TSPSolution.create(reduced);
+    }
+
+    /**
+     * Map nearest neighbour candidate lists of the original instance to the reduced instance. The list of each
+     * endpoint of a contracted path starts with the other endpoint, which is its nearest node in the reduced
+     * instance, so that a descent restores the edge between both endpoints if it has been cut. It is followed
+     * by the nodes of the neighbours of the corresponding city, in the same order, skipping interior cities of
+     * fixed paths. Lists of the reduced instance may therefore differ in length from the original lists. Takes
+     * O(mk) time for m nodes and k neighbours per city, instead of inspecting all distances of the reduced
+     * instance.
+     *
+     * @param candidates candidate lists of the original instance
+     * @return candidate lists of the reduced instance
+     * @throws IllegalArgumentException if the candidate lists do not contain all cities of the original instance
+     */
+    public NearestNeighbourLists reduce(NearestNeighbourLists candidates){
+        int n = data.getNumCities();
+        if(candidates.getNumCities() != n){
+            throw new IllegalArgumentException("Error: candidate lists contain " + candidates.getNumCities()
+                                                + " cities (expected " + n + ").");
+        }
+        int m = nodeCity.length;
+        int[][] neighbours = new int[m][];
+        for(int u=0; u<m; u++){
+            int[] cityNeighbours = candidates.getNeighbours(nodeCity[u]);
+            int[] nodeNeighbours = new int[cityNeighbours.length + 1];
+            int k = 0;
+            // other endpoint of the same path (at distance fixedLength)
+            int q = nodePath[u];
+            int first = node[paths[pathStart[q]]];
+            int partner = first == u ? node[paths[pathStart[q+1]-1]] : first;
+            if(partner != u){
+                nodeNeighbours[k++] = partner;
+            }
+            for(int c : cityNeighbours){
+                int v = node[c];
+                if(v != -1 && nodePath[v] != nodePath[u]){
+                    nodeNeighbours[k++] = v;
+                }
+            }
+            neighbours[u] = Arrays.copyOf(nodeNeighbours, k);
+        }
+        return new NearestNeighbourLists(neighbours);
+    }
+
+    /**
+     * Map a round trip of the reduced instance back to the original instance, by replacing each node with
+     * the corresponding fixed path. Every path is traversed from the node that is visited first to the other
+     * endpoint, unless the other endpoint is visited immediately before. If the round trip of the reduced
+     * instance contains all edges between path endpoints, the expanded round trip contains all fixed edges.
+     *
+     * @param reducedTour round trip of the reduced instance
+     * @return corresponding round trip of the original instance
+     * @throws IllegalArgumentException if the round trip does not visit all nodes of the reduced instance
+     */
+    public TSPSolution expand(TSPSolution reducedTour){
+        int m = nodeCity.length;
+        if(reducedTour.getNumCities() != m){
+            throw new IllegalArgumentException("Error: round trip visits " + reducedTour.getNumCities()
+                                                + " cities (expected " + m + ").");
+        }
+        int[] tour = new int[data.getNumCities()];
+        boolean[] expanded = new boolean[pathStart.length-1];
+        int n = 0;
+        for(int p=0; p<m; p++){
+            int u = reducedTour.getCity(p);
+            int q = nodePath[u];
+            if(!expanded[q]){
+                expanded[q] = true;
+                // traverse path towards u if the other endpoint has just been visited (wrapping around)
+                boolean towardsU = reducedTour.prev(u) != u && nodePath[reducedTour.prev(u)] == q
+                                    && reducedTour.next(u) != reducedTour.prev(u);
+                boolean forward = (nodeCity[u] == paths[pathStart[q]]) != towardsU;
+                if(forward){
+                    for(int r=pathStart[q]; r<pathStart[q+1]; r++){
+                        tour[n++] = paths[r];
+                    }
+                } else {
+                    for(int r=pathStart[q+1]-1; r>=pathStart[q]; r--){
+                        tour[n++] = paths[r];
+                    }
+                }
+            }
+        }
+        return TSPSolution.create(tour);
+    }
+
+    // distances between the nodes of the reduced instance
+    private class ReducedDistanceMatrix implements DistanceMatrix {
+
+        @Override
+        public double getDistance(int from, int to) {
+            if(from != to && nodePath[from] == nodePath[to]){
+                return fixedLength;
+            }
+            return data.getDistance(nodeCity[from], nodeCity[to]);
+        }
+
+        @Override
+        public int getNumCities() {
+            return nodeCity.length;
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Converts a TSP instance to the binary distance matrix format that is mapped by {@link MappedDistanceMatrix}.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPBinaryConverter {
+
+    /**
+     * Converts a TSP instance to a binary distance matrix file. Expects two parameters: (1) the input file path
+     * and (2) the output file path. The input file contains the lower triangular part of a distance matrix, as
+     * read by {@link TSPFileReader}, or is read in TSPLIB format if it has extension ".tsp" (see
+     * {@link TSPLIBFileReader}). An optional third parameter specifies the representation of the distances
+     * in the output file, "float" (default) or "int" (rounded to the nearest integer).
+     *
+     * @param args array containing the input file path, output file path and optional entry type
+     */
+    public static void main(String[] args) {
+        System.out.println("#########################");
+        System.out.println("# TSP BINARY CONVERSION #");
+        System.out.println("#########################");
+        // parse arguments
+        if(args.length != 2 && args.length != 3){
+            System.err.println("Usage: java -cp james-examples.jar org.jamesframework.examples.tsp.TSPBinaryConverter <inputfile> <outputfile> [float|int]");
+            System.exit(1);
+        }
+        String inputPath = args[0];
+        String outputPath = args[1];
+        MappedDistanceMatrix.EntryType type = MappedDistanceMatrix.EntryType.FLOAT;
+        if(args.length == 3){
+            try {
+                type = MappedDistanceMatrix.EntryType.valueOf(args[2].toUpperCase(Locale.US));
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Unknown entry type: " + args[2]
+                                    + " (available: " + Arrays.toString(MappedDistanceMatrix.EntryType.values()) + ")");
+                System.exit(1);
+            }
+        }
+        convert(inputPath, outputPath, type);
+    }
+
+    private static void convert(String inputPath, String outputPath, MappedDistanceMatrix.EntryType type){
+        try {
+            // read input (store distances with the same precision as in the output file)
+            System.out.println("Reading file: " + inputPath);
+            long start = System.currentTimeMillis();
+            DistanceMatrix dist;
+            if(inputPath.endsWith(".tsp")){
+                dist = new TSPLIBFileReader().readDistanceMatrix(inputPath);
+            } else {
+                DistanceStorage storage = type == MappedDistanceMatrix.EntryType.FLOAT ? DistanceStorage.FLOAT
+                                                                                      : DistanceStorage.ROUNDED;
+                dist = new TSPFileReader(storage).read(inputPath).getDistanceMatrix();
+            }
+            System.out.println("Number of cities: " + dist.getNumCities());
+            System.out.println("Read time: " + (System.currentTimeMillis() - start) + " ms");
+            // write binary output
+            System.out.println("Writing file: " + outputPath);
+            start = System.currentTimeMillis();
+            MappedDistanceMatrix.write(dist, type, outputPath);
+            System.out.println("Write time: " + (System.currentTimeMillis() - start) + " ms");
+        } catch (FileNotFoundException ex) {
+            System.err.println("Failed to read file: " + inputPath);
+            System.exit(2);
+        } catch (IOException ex) {
+            System.err.println("Failed to convert file: " + ex.getMessage());
+            System.exit(3);
+        }
+    }
+
+}
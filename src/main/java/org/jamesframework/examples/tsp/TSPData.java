@@ -17,27 +17,39 @@
 package org.jamesframework.examples.tsp;
 
 /**
- * TSP data: stores a travel distance matrix.
+ * TSP data: stores a travel distance matrix. The way in which the distances are stored
+ * depends on the chosen {@link DistanceMatrix} implementation.
  * 
  * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
  */
 public class TSPData {
 
     // travel distance matrix
-    private final double[][] dist;
+    private final DistanceMatrix dist;
 
+    // wrap a symmetric distance matrix in a FullDistanceMatrix, which mirrors every distance that is set
+    // (use an AsymmetricDistanceMatrix for asymmetric distances)
     public TSPData(double[][] dist) {
+        this(new FullDistanceMatrix(dist));
+    }
+    
+    public TSPData(DistanceMatrix dist) {
         this.dist = dist;
     }
     
     // get travel distance from the given city to the given other city
     public double getDistance(int from, int to){
-        return dist[from][to];
+        return dist.getDistance(from, to);
     }
     
     // retrieve number of cities
     public int getNumCities(){
-        return dist.length;
+        return dist.getNumCities();
+    }
+    
+    // retrieve underlying distance matrix
+    public DistanceMatrix getDistanceMatrix(){
+        return dist;
     }
     
 }
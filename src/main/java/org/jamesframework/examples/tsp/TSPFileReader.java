@@ -16,18 +16,37 @@
 
 package org.jamesframework.examples.tsp;
 
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.Locale;
-import java.util.Scanner;
+import java.io.IOException;
 
 /**
  * Reads a (symmetric) distance matrix for TSP from a text file and constructs the corresponding TSP data.
+ * The distances are stored according to the specified {@link DistanceStorage} mode (defaults to a full matrix).
+ * The file is parsed with a {@link DistanceMatrixParser}.
  * 
  * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
  */
 public class TSPFileReader {
     
+    // storage mode of distance matrix
+    private final DistanceStorage storage;
+    
+    /**
+     * Create a file reader that stores the distances in a full matrix.
+     */
+    public TSPFileReader(){
+        this(DistanceStorage.FULL);
+    }
+    
+    /**
+     * Create a file reader that stores the distances according to the given storage mode.
+     * 
+     * @param storage storage mode of distance matrix
+     */
+    public TSPFileReader(DistanceStorage storage){
+        this.storage = storage;
+    }
+    
     /**
      * Read a (symmetric) distance matrix from a text file and create the corresponding TSP data.
      * The first line of the file contains a single integer value (possibly surrounded by whitespace)
@@ -38,24 +57,28 @@ public class TSPFileReader {
      * @param filePath input file path
      * @return TSP data with distance matrix read from the input file
      * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file can not be read or does not contain a valid distance matrix
+     */
+    public TSPData read(String filePath) throws IOException {
+        return new TSPData(new DistanceMatrixParser().parse(filePath, storage));
+    }
+    
+    /**
+     * Read a full (possibly asymmetric) distance matrix from a text file and create the corresponding TSP data.
+     * The first line of the file contains a single integer value (possibly surrounded by whitespace)
+     * that indicates the number of cities N. The remainder of the file contains all N<sup>2</sup> entries
+     * of the distance matrix (row-wise including diagonal entries), separated by whitespace and/or newlines,
+     * where the entry in row i and column j is the distance from city i to city j. The distances are always
+     * stored in an {@link AsymmetricDistanceMatrix}, regardless of the storage mode of this reader. Such data
+     * is intended to be used with an {@link AsymmetricTSPObjective}.
+     * 
+     * @param filePath input file path
+     * @return TSP data with distance matrix read from the input file
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file can not be read or does not contain a valid distance matrix
      */
-    public TSPData read(String filePath) throws FileNotFoundException {
-        // create scanner
-        Scanner sc = new Scanner(new File(filePath));
-        sc.useLocale(Locale.US);
-        // read number of cities
-        int n = sc.nextInt();
-        // initialize distance matrix
-        double[][] dist = new double[n][n];
-        // fill distance matrix
-        for(int i=0; i<n; i++){
-            for(int j=0; j<i; j++){
-                dist[i][j] = sc.nextDouble();
-                dist[j][i] = dist[i][j];
-            }
-        }
-        // create and return TSP data
-        return new TSPData(dist);
+    public TSPData readAsymmetric(String filePath) throws IOException {
+        return new TSPData(new AsymmetricDistanceMatrix(new DistanceMatrixParser().parseFull(filePath)));
     }
 
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.search.LocalSearch;
+
+/**
+ * <p>
+ * Guided local search for the TSP problem. A {@link TSP2OptDescent} is repeatedly applied to an augmented
+ * problem, in which the length of each edge is increased by lambda times its penalty (see
+ * {@link TSPAugmentedObjective}). Whenever this descent reaches a local optimum, the edges of the round trip
+ * with maximum utility d(a,b) / (1 + p(a,b)) are penalized, so that long edges that have rarely been penalized
+ * before are gradually pushed out of the round trip. The descent is then resumed from the same round trip, with
+ * only the endpoints of the penalized edges activated, which is much cheaper than a random restart or the
+ * random walk performed by high temperature replicas in parallel tempering.
+ * </p>
+ * <p>
+ * Every local optimum of the augmented problem is evaluated with the original problem, which determines the
+ * current and best solution of this search. The weight lambda is set to <code>alpha</code> times the average
+ * edge length of the first local optimum. Penalties are stored in a sparse {@link EdgePenalties} map.
+ * Constraints of the original problem, if any, are not taken into account by the descent but only when
+ * evaluating the local optima, so that only valid solutions are reported as best solution. Asymmetric
+ * problems are not supported, because the inner descent ignores the direction of traversal.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPGuidedLocalSearch extends LocalSearch<TSPSolution> {
+
+    // default scaling factor of penalty weight
+    private static final double DEFAULT_ALPHA = 0.3;
+
+    // scaling factor of penalty weight
+    private final double alpha;
+
+    // edge penalties
+    private final EdgePenalties penalties;
+    // augmented objective and problem
+    private final TSPAugmentedObjective augmentedObjective;
+    private final GenericProblem<TSPSolution, TSPData> augmentedProblem;
+    // 2-opt descent applied to the augmented problem
+    private final TSP2OptDescent descent;
+
+    // indicates whether a local optimum has been reached (i.e. whether lambda has been set)
+    private boolean lambdaSet;
+
+    /**
+     * Create a guided local search for the given TSP problem, using the given nearest neighbour candidate lists.
+     *
+     * @param problem TSP problem
+     * @param candidates nearest neighbour candidate lists
+     */
+    public TSPGuidedLocalSearch(GenericProblem<TSPSolution, ? extends TSPData> problem, NearestNeighbourLists candidates) {
+        this(null, problem, candidates, DEFAULT_ALPHA);
+    }
+
+    /**
+     * Create a guided local search for the given TSP problem, using the given nearest neighbour candidate lists
+     * and scaling factor alpha of the penalty weight. The search is assigned the given name. If <code>name</code>
+     * is <code>null</code>, the default name "TSPGuidedLocalSearch" is used.
+     *
+     * @param name custom search name
+     * @param problem TSP problem
+     * @param candidates nearest neighbour candidate lists
+     * @param alpha scaling factor of penalty weight
+     * @throws IllegalArgumentException if alpha is not strictly positive,
+     *                                  or if the problem has asymmetric distances
+     */
+    public TSPGuidedLocalSearch(String name, GenericProblem<TSPSolution, ? extends TSPData> problem,
+                                NearestNeighbourLists candidates, double alpha) {
+        super(name != null ? name : "TSPGuidedLocalSearch", problem);
+        AsymmetricTSPObjective.requireSymmetric(problem, "TSPGuidedLocalSearch");
+        if(alpha <= 0.0){
+            throw new IllegalArgumentException("Error: alpha should be strictly positive.");
+        }
+        this.alpha = alpha;
+        penalties = new EdgePenalties();
+        augmentedObjective = new TSPAugmentedObjective(new TSPObjective(), penalties, 0.0);
+        // create augmented problem with the same data (the descent always starts from a given solution)
+        augmentedProblem = new GenericProblem<>(
+                problem.getData(), augmentedObjective, TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        // descent with augmented edge lengths
+        descent = new TSP2OptDescent(getName() + " (descent)", augmentedProblem, candidates){
+            @Override
+            protected double getCost(int from, int to){
+                return augmentedObjective.getAugmentedDistance(augmentedProblem.getData(), from, to);
+            }
+        };
+    }
+
+    /**
+     * When the search is started, all penalties are cleared and the descent is
+     * initialized with (a copy of) the current solution.
+     */
+    @Override
+    protected void searchStarted() {
+        super.searchStarted();
+        penalties.clear();
+        augmentedObjective.setLambda(0.0);
+        lambdaSet = false;
+        descent.setCurrentSolution(getCurrentSolution().copy());
+        descent.setInitialActiveCities(null);
+    }
+
+    /**
+     * Runs the descent on the augmented problem until a local optimum is reached,
+     * which is evaluated with the original problem, and penalizes the edges with
+     * maximum utility.
+     */
+    @Override
+    protected void searchStep() {
+        // descend to local optimum of augmented problem
+        descent.start();
+        TSPSolution sol = descent.getCurrentSolution();
+        TSPAugmentedEvaluation eval = (TSPAugmentedEvaluation) descent.getCurrentSolutionEvaluation();
+        // evaluate with original problem and update current (and best) solution
+        updateCurrentAndBestSolution(sol.copy());
+        int n = sol.getNumCities();
+        if(!lambdaSet){
+            // set penalty weight based on first local optimum
+            augmentedObjective.setLambda(alpha * eval.getDistance() / n);
+            lambdaSet = true;
+        }
+        // find maximum utility
+        TSPData data = augmentedProblem.getData();
+        double maxUtil = -1.0;
+        for(int p=0; p<n; p++){
+            int a = sol.getCity(p);
+            int b = sol.next(a);
+            maxUtil = Math.max(maxUtil, data.getDistance(a, b) / (1 + penalties.get(a, b)));
+        }
+        // penalize edges with maximum utility and activate their endpoints
+        int[] endpoints = new int[2*n];
+        int numPenalized = 0;
+        for(int p=0; p<n; p++){
+            int a = sol.getCity(p);
+            int b = sol.next(a);
+            if(data.getDistance(a, b) / (1 + penalties.get(a, b)) == maxUtil){
+                penalties.increment(a, b);
+                endpoints[2*numPenalized] = a;
+                endpoints[2*numPenalized+1] = b;
+                numPenalized++;
+            }
+        }
+        // resume descent from current local optimum (penalties have increased)
+        TSPAugmentedEvaluation newEval = new TSPAugmentedEvaluation(
+                eval.getDistance(), eval.getPenalty() + numPenalized, augmentedObjective.getLambda()
+        );
+        descent.setCurrentSolution(sol, newEval, descent.getCurrentSolutionValidation());
+        descent.setInitialActiveCities(Arrays.copyOf(endpoints, 2*numPenalized));
+    }
+
+    /**
+     * Stops the search, as well as the descent if it is currently running.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        descent.stop();
+    }
+
+}
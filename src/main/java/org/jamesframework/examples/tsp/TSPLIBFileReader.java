@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.StringTokenizer;
+
+/**
+ * Reads a symmetric TSP instance in TSPLIB format, where the cities are specified by their
+ * coordinates (NODE_COORD_SECTION). Supported edge weight types are EUC_2D, CEIL_2D, ATT and GEO.
+ * Distances are computed on demand from the coordinates, so that the memory footprint grows
+ * linearly with the number of cities.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPLIBFileReader {
+    
+    /**
+     * Read a TSP instance in TSPLIB format and create the corresponding TSP data. The header should
+     * at least specify the DIMENSION (number of cities) and EDGE_WEIGHT_TYPE, and is followed by a
+     * NODE_COORD_SECTION with one line per city containing its (1-based) number and coordinates.
+     * 
+     * @param filePath input file path
+     * @return TSP data with distances computed from the coordinates read from the input file
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file can not be read or is not a valid TSPLIB coordinate file
+     */
+    public TSPData read(String filePath) throws IOException {
+        return new TSPData(readDistanceMatrix(filePath));
+    }
+    
+    /**
+     * Read a TSP instance in TSPLIB format and create the corresponding coordinate based distance matrix.
+     * 
+     * @param filePath input file path
+     * @return distance matrix computed from the coordinates read from the input file
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file can not be read or is not a valid TSPLIB coordinate file
+     */
+    public CoordinateDistanceMatrix readDistanceMatrix(String filePath) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.US_ASCII)) {
+            int n = -1;
+            EdgeWeightType type = null;
+            // parse header
+            String line;
+            while((line = reader.readLine()) != null && !line.trim().startsWith("NODE_COORD_SECTION")){
+                int sep = line.indexOf(':');
+                if(sep < 0){
+                    continue;
+                }
+                String key = line.substring(0, sep).trim().toUpperCase(Locale.US);
+                String value = line.substring(sep+1).trim();
+                switch(key){
+                    case "TYPE":
+                        if(!value.toUpperCase(Locale.US).equals("TSP")){
+                            throw new IOException("Unsupported TSPLIB problem type: " + value + ".");
+                        }
+                        break;
+                    case "DIMENSION":
+                        n = Integer.parseInt(value);
+                        break;
+                    case "EDGE_WEIGHT_TYPE":
+                        try {
+                            type = EdgeWeightType.valueOf(value.toUpperCase(Locale.US));
+                        } catch (IllegalArgumentException ex){
+                            throw new IOException("Unsupported TSPLIB edge weight type: " + value + ".");
+                        }
+                        break;
+                    default:
+                        // ignore other specifications
+                }
+            }
+            // check header
+            if(line == null){
+                throw new IOException("Missing NODE_COORD_SECTION in TSPLIB file.");
+            }
+            if(n < 0){
+                throw new IOException("Missing DIMENSION in TSPLIB file.");
+            }
+            if(type == null){
+                throw new IOException("Missing EDGE_WEIGHT_TYPE in TSPLIB file.");
+            }
+            // read coordinates
+            double[] x = new double[n];
+            double[] y = new double[n];
+            boolean[] read = new boolean[n];
+            for(int c=0; c<n; c++){
+                line = reader.readLine();
+                if(line == null || line.trim().equals("EOF")){
+                    throw new IOException("Expected " + n + " cities in NODE_COORD_SECTION, found " + c + ".");
+                }
+                StringTokenizer tokens = new StringTokenizer(line);
+                if(tokens.countTokens() < 3){
+                    throw new IOException("Invalid line in NODE_COORD_SECTION: " + line);
+                }
+                // convert 1-based city number to index
+                int city = Integer.parseInt(tokens.nextToken()) - 1;
+                if(city < 0 || city >= n || read[city]){
+                    throw new IOException("Invalid or duplicate city number in NODE_COORD_SECTION: " + (city+1) + ".");
+                }
+                x[city] = Double.parseDouble(tokens.nextToken());
+                y[city] = Double.parseDouble(tokens.nextToken());
+                read[city] = true;
+            }
+            // create distance matrix
+            return new CoordinateDistanceMatrix(x, y, type);
+        } catch (NoSuchFileException ex){
+            throw new FileNotFoundException(ex.getMessage());
+        } catch (NumberFormatException ex){
+            throw new IOException("Invalid number in TSPLIB file: " + ex.getMessage(), ex);
+        }
+    }
+    
+}
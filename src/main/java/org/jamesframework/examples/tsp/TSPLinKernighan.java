@@ -0,0 +1,400 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.constraints.validations.Validation;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.LocalSearch;
+import org.jamesframework.core.search.neigh.Move;
+
+/**
+ * <p>
+ * Lin-Kernighan style variable-depth search for the TSP problem. Starting from an edge (t1,t2), a chain
+ * of basic moves is built that repeatedly breaks the edge between t1 and its current neighbour t2, adds
+ * an edge from t2 to one of its nearest neighbours t3, and closes the round trip again. Each step is either
+ * a 2-opt move (see {@link TSP2OptMove}) or a 3-opt segment exchange (see {@link TSP3OptMove}) that adds
+ * two candidate edges at once. The chain is extended as long as the cumulative gain (removed minus added
+ * distance, not counting the closing edge) remains positive, no edge that was added before is removed
+ * again, and the maximum depth has not been reached. Afterwards, the round trip is restored to the
+ * prefix of the chain that yielded the largest improvement, if any.
+ * </p>
+ * <p>
+ * At the first levels of the chain, several alternatives are tried in order of decreasing immediate gain
+ * (backtracking), while deeper levels only follow the most promising step. Like {@link TSP2OptDescent},
+ * cities are processed from a queue of active cities with don't-look bits, and the search stops as soon as
+ * no active cities remain. All steps are evaluated and validated through the problem, and an improved chain
+ * is only accepted if the resulting solution is valid and better than the current solution. The gain of a
+ * chain does not account for reversed subpaths, so distances are required to be symmetric.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPLinKernighan extends LocalSearch<TSPSolution> {
+
+    // default maximum number of steps in a chain
+    private static final int DEFAULT_MAX_DEPTH = 50;
+    // number of alternatives tried at the first levels of the chain (one at deeper levels)
+    private static final int[] BREADTH = {5, 3};
+
+    // TSP problem
+    private final GenericProblem<TSPSolution, ? extends TSPData> problem;
+    // nearest neighbour candidate lists
+    private final NearestNeighbourLists candidates;
+    // maximum number of steps in a chain
+    private final int maxDepth;
+
+    // circular queue of active cities
+    private int[] queue;
+    private int queueHead, queueSize;
+    // indicates which cities are currently active (inverse of the don't-look bits)
+    private boolean[] active;
+
+    // steps of the current chain with the touched cities, evaluation and validation after each step
+    private final List<Move<TSPSolution>> steps;
+    private final List<int[]> stepCities;
+    private final List<Evaluation> stepEvaluations;
+    private final List<Validation> stepValidations;
+    // edges added by the current chain (endpoints stored pairwise)
+    private final int[] added;
+    private int numAdded;
+    // first city of the current chain
+    private int t1;
+    // best gain and corresponding number of steps
+    private double bestGain;
+    private int bestDepth;
+
+    /**
+     * Create a Lin-Kernighan search for the given TSP problem, using the given nearest neighbour candidate lists.
+     *
+     * @param problem TSP problem
+     * @param candidates nearest neighbour candidate lists
+     */
+    public TSPLinKernighan(GenericProblem<TSPSolution, ? extends TSPData> problem, NearestNeighbourLists candidates) {
+        this(null, problem, candidates, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Create a Lin-Kernighan search for the given TSP problem, using the given nearest neighbour candidate lists
+     * and maximum chain depth. The search is assigned the given name. If <code>name</code> is <code>null</code>,
+     * the default name "TSPLinKernighan" is used.
+     *
+     * @param name custom search name
+     * @param problem TSP problem
+     * @param candidates nearest neighbour candidate lists
+     * @param maxDepth maximum number of steps in a chain
+     * @throws IllegalArgumentException if the maximum depth is not strictly positive,
+     *                                  or if the problem has asymmetric distances
+     */
+    public TSPLinKernighan(String name, GenericProblem<TSPSolution, ? extends TSPData> problem,
+                           NearestNeighbourLists candidates, int maxDepth) {
+        super(name != null ? name : "TSPLinKernighan", problem);
+        AsymmetricTSPObjective.requireSymmetric(problem, "TSPLinKernighan");
+        if(candidates == null){
+            throw new NullPointerException("Error: candidate lists can not be null.");
+        }
+        if(maxDepth <= 0){
+            throw new IllegalArgumentException("Error: maximum depth should be strictly positive.");
+        }
+        this.problem = problem;
+        this.candidates = candidates;
+        this.maxDepth = maxDepth;
+        steps = new ArrayList<>();
+        stepCities = new ArrayList<>();
+        stepEvaluations = new ArrayList<>();
+        stepValidations = new ArrayList<>();
+        // each step adds at most two edges
+        added = new int[2*2*maxDepth];
+    }
+
+    /**
+     * When the search is started, all cities are activated.
+     */
+    @Override
+    protected void searchStarted() {
+        super.searchStarted();
+        // activate all cities in order of the current round trip
+        TSPSolution sol = getCurrentSolution();
+        int n = sol.getNumCities();
+        queue = new int[n];
+        active = new boolean[n];
+        queueHead = 0;
+        queueSize = 0;
+        for(int p=0; p<n; p++){
+            activate(sol.getCity(p));
+        }
+    }
+
+    /**
+     * Takes the next active city from the queue and tries to find an improving chain that starts by
+     * removing one of the edges adjacent to this city. The endpoints of all modified edges are reactivated.
+     * Stops the search if no more active cities remain.
+     */
+    @Override
+    protected void searchStep() {
+        if(queueSize == 0){
+            // local optimum reached
+            stop();
+        } else {
+            // take next active city
+            int city = queue[queueHead];
+            queueHead = (queueHead+1) % queue.length;
+            queueSize--;
+            active[city] = false;
+            // try to improve around this city (in both directions)
+            TSPSolution sol = getCurrentSolution();
+            if(improve(city, sol.next(city)) || improve(city, sol.prev(city))){
+                // retry the same city later
+                activate(city);
+            }
+        }
+    }
+
+    // search for and apply improving chain that starts by removing edge (t1,t2); returns true if an improvement has been made
+    private boolean improve(int t1, int t2){
+        TSPSolution sol = getCurrentSolution();
+        // initialize chain
+        this.t1 = t1;
+        bestGain = 0.0;
+        bestDepth = 0;
+        numAdded = 0;
+        extend(0, t2, problem.getData().getDistance(t1, t2));
+        // restore best prefix of the chain
+        while(steps.size() > bestDepth){
+            undoLastStep(sol);
+        }
+        boolean improved = false;
+        if(bestDepth > 0){
+            Evaluation newEvaluation = stepEvaluations.get(bestDepth-1);
+            Validation newValidation = stepValidations.get(bestDepth-1);
+            if(newValidation.passed() && computeDelta(newEvaluation, getCurrentSolutionEvaluation()) > 0){
+                // update current (and best) solution and reactivate endpoints of modified edges
+                updateCurrentAndBestSolution(sol, newEvaluation, newValidation);
+                for(int[] cities : stepCities){
+                    for(int c : cities){
+                        activate(c);
+                    }
+                }
+                improved = true;
+            } else {
+                // rejected by problem: restore original solution
+                while(!steps.isEmpty()){
+                    undoLastStep(sol);
+                }
+            }
+        }
+        steps.clear();
+        stepCities.clear();
+        stepEvaluations.clear();
+        stepValidations.clear();
+        return improved;
+    }
+
+    // try to extend the chain at the given level, where t2 is the current neighbour of t1 and gain is the
+    // cumulative gain of the chain (excluding the closing edge (t2,t1)); returns true when an improvement
+    // has been found, in which case the chain is left as is
+    private boolean extend(int level, int t2, double gain){
+        TSPSolution sol = getCurrentSolution();
+        TSPData data = problem.getData();
+        int n = sol.getNumCities();
+        // orientation in which t2 follows t1
+        boolean forward = sol.next(t1) == t2;
+        // collect alternatives: each alternative consists of t3 and t4 (2-opt) or t3 up to t6 (3-opt)
+        int breadth = level < BREADTH.length ? BREADTH[level] : 1;
+        int[][] alternatives = new int[breadth][];
+        double[] scores = new double[breadth];
+        int numAlternatives = 0;
+        for(int t3 : candidates.getNeighbours(t2)){
+            double g1 = gain - data.getDistance(t2, t3);
+            if(g1 <= 0){
+                // positive gain criterion can no longer be satisfied (sorted candidates)
+                break;
+            }
+            if(t3 == t1 || t3 == succ(sol, t2, forward)){
+                continue;
+            }
+            // 2-opt step: remove (t4,t3) where t4 precedes t3
+            int t4 = pred(sol, t3, forward);
+            if(!isAdded(t3, t4)){
+                double score = data.getDistance(t3, t4) - data.getDistance(t2, t3);
+                numAlternatives = insert(alternatives, scores, numAlternatives, new int[]{t3, t4}, score);
+            }
+            // 3-opt step: remove (t3,t4) where t4 follows t3, and (t5,t6) where t5 lies in between t2 and t3
+            t4 = succ(sol, t3, forward);
+            if(!isAdded(t3, t4)){
+                int offset3 = offset(sol, t2, t3, forward, n);
+                int bestT5 = -1;
+                double bestT5Score = 0.0;
+                for(int t5 : candidates.getNeighbours(t4)){
+                    double g2 = g1 + data.getDistance(t3, t4) - data.getDistance(t4, t5);
+                    if(g2 <= 0){
+                        break;
+                    }
+                    if(offset(sol, t2, t5, forward, n) < offset3){
+                        int t6 = succ(sol, t5, forward);
+                        double score = data.getDistance(t5, t6) - data.getDistance(t4, t5);
+                        if(!isAdded(t5, t6) && (bestT5 < 0 || score > bestT5Score)){
+                            bestT5 = t5;
+                            bestT5Score = score;
+                        }
+                    }
+                }
+                if(bestT5 >= 0){
+                    double score = data.getDistance(t3, t4) - data.getDistance(t2, t3) + bestT5Score;
+                    numAlternatives = insert(alternatives, scores, numAlternatives,
+                                             new int[]{t3, t4, bestT5, succ(sol, bestT5, forward)}, score);
+                }
+            }
+        }
+        // try alternatives in order of decreasing score
+        for(int a=0; a<numAlternatives; a++){
+            int[] alt = alternatives[a];
+            int t3 = alt[0];
+            int t4 = alt[1];
+            double newGain = gain - data.getDistance(t2, t3) + data.getDistance(t3, t4);
+            int last;
+            Move<TSPSolution> move;
+            if(alt.length == 2){
+                // 2-opt: replaces (t1,t2) and (t4,t3) with (t2,t3) and (t1,t4)
+                move = forward
+                        ? new TSP2OptMove(sol.getPosition(t2), sol.getPosition(t4))
+                        : new TSP2OptMove(sol.getPosition(t4), sol.getPosition(t2));
+                last = t4;
+            } else {
+                // 3-opt: replaces (t1,t2), (t5,t6) and (t3,t4) with (t2,t3), (t4,t5) and (t1,t6)
+                int t5 = alt[2];
+                int t6 = alt[3];
+                newGain += data.getDistance(t5, t6) - data.getDistance(t4, t5);
+                move = new TSP3OptMove(t1, t2, t5, t6, t3, t4, false, false);
+                last = t6;
+            }
+            // apply step and register added edges
+            applyStep(sol, move, t2, alt);
+            int numAddedBefore = numAdded;
+            addEdge(t2, t3);
+            if(alt.length > 2){
+                addEdge(t4, alt[2]);
+            }
+            // check gain when closing the round trip
+            double closedGain = newGain - data.getDistance(last, t1);
+            if(closedGain > bestGain){
+                bestGain = closedGain;
+                bestDepth = steps.size();
+            }
+            // go deeper
+            if(level+1 < maxDepth && extend(level+1, last, newGain)){
+                return true;
+            }
+            if(bestGain > 0){
+                // improvement found at this level
+                return true;
+            }
+            // backtrack
+            numAdded = numAddedBefore;
+            undoLastStep(sol);
+        }
+        return false;
+    }
+
+    // apply step that starts by removing edge (t1,t2) and modifies the edges adjacent to the given
+    // cities, after evaluating and validating it through the problem
+    private void applyStep(TSPSolution sol, Move<TSPSolution> move, int t2, int[] cities){
+        Evaluation curEvaluation = steps.isEmpty() ? getCurrentSolutionEvaluation() : stepEvaluations.get(steps.size()-1);
+        Validation curValidation = steps.isEmpty() ? getCurrentSolutionValidation() : stepValidations.get(steps.size()-1);
+        stepEvaluations.add(problem.evaluate(move, sol, curEvaluation));
+        stepValidations.add(problem.validate(move, sol, curValidation));
+        move.apply(sol);
+        steps.add(move);
+        int[] touched = new int[cities.length+2];
+        touched[0] = t1;
+        touched[1] = t2;
+        System.arraycopy(cities, 0, touched, 2, cities.length);
+        stepCities.add(touched);
+    }
+
+    // undo last step of the chain
+    private void undoLastStep(TSPSolution sol){
+        int last = steps.size()-1;
+        steps.remove(last).undo(sol);
+        stepCities.remove(last);
+        stepEvaluations.remove(last);
+        stepValidations.remove(last);
+    }
+
+    // insert alternative in list sorted by decreasing score, dropping the last one if the list is full;
+    // returns the new number of alternatives
+    private int insert(int[][] alternatives, double[] scores, int size, int[] alt, double score){
+        if(size == alternatives.length && score <= scores[size-1]){
+            return size;
+        }
+        int p = size < alternatives.length ? size++ : size-1;
+        while(p > 0 && scores[p-1] < score){
+            alternatives[p] = alternatives[p-1];
+            scores[p] = scores[p-1];
+            p--;
+        }
+        alternatives[p] = alt;
+        scores[p] = score;
+        return size;
+    }
+
+    // register edge added by the current chain
+    private void addEdge(int a, int b){
+        added[2*numAdded] = a;
+        added[2*numAdded+1] = b;
+        numAdded++;
+    }
+
+    // check whether the given edge has been added by the current chain
+    private boolean isAdded(int a, int b){
+        for(int e=0; e<numAdded; e++){
+            int x = added[2*e], y = added[2*e+1];
+            if((x == a && y == b) || (x == b && y == a)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // successor of city in the given orientation
+    private int succ(TSPSolution sol, int city, boolean forward){
+        return forward ? sol.next(city) : sol.prev(city);
+    }
+
+    // predecessor of city in the given orientation
+    private int pred(TSPSolution sol, int city, boolean forward){
+        return forward ? sol.prev(city) : sol.next(city);
+    }
+
+    // number of steps from city a to city b in the given orientation
+    private int offset(TSPSolution sol, int a, int b, boolean forward, int n){
+        int d = forward ? sol.getPosition(b) - sol.getPosition(a) : sol.getPosition(a) - sol.getPosition(b);
+        return d < 0 ? d + n : d;
+    }
+
+    // add city to queue of active cities, if not yet active
+    private void activate(int city){
+        if(!active[city]){
+            active[city] = true;
+            queue[(queueHead+queueSize) % queue.length] = city;
+            queueSize++;
+        }
+    }
+
+}
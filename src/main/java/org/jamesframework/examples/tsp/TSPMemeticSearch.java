@@ -0,0 +1,331 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.jamesframework.core.exceptions.SearchException;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.constraints.validations.Validation;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.Search;
+import org.jamesframework.core.search.listeners.SearchListener;
+import org.jamesframework.core.search.status.SearchStatus;
+
+/**
+ * <p>
+ * Memetic search for the TSP problem. A population of round trips is created with the random solution generator
+ * of the problem and improved with a {@link TSP2OptDescent}. In every step, a new generation of offspring is
+ * created by recombining randomly chosen pairs of parents with a {@link PartitionCrossover}, after which all
+ * offspring are improved with a 2-opt descent in parallel, on the threads of a fork/join pool. The best round
+ * trips among the current population and the improved offspring survive, where round trips with the same
+ * edges (detected with their edge hash, see {@link TSPSolution#getEdgeHash()}) are only retained once.
+ * </p>
+ * <p>
+ * When the partition crossover can not improve the first parent, the offspring is obtained by applying a random
+ * 3-opt move to this parent instead, which keeps the population diverse. The descent that improves such an
+ * offspring only activates the endpoints of the edges modified by the 3-opt move. Offspring are improved with a
+ * {@link TSP2OptDescent}, so this search also requires symmetric distances.
+ * </p>
+ * <p>
+ * When the search is requested to stop (e.g. by a stop criterion), all running descents are stopped as well,
+ * and offspring whose descent has not yet started are not improved, so that a generation does not overrun
+ * the stop criteria of this search.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPMemeticSearch extends Search<TSPSolution> {
+
+    // default population size
+    private static final int DEFAULT_POPULATION_SIZE = 20;
+
+    // TSP problem
+    private final GenericProblem<TSPSolution, ? extends TSPData> problem;
+    // nearest neighbour candidate lists
+    private final NearestNeighbourLists candidates;
+    // population size
+    private final int populationSize;
+    // fork/join pool used to improve offspring
+    private final ForkJoinPool pool;
+
+    // crossover operator
+    private final PartitionCrossover crossover;
+    // perturbation applied when crossover fails
+    private final TSP3OptNeighbourhood mutation;
+    // descents that are currently improving offspring
+    private final Set<TSP2OptDescent> runningDescents = ConcurrentHashMap.newKeySet();
+
+    // round trips included in the initial population (null if none)
+    private List<? extends TSPSolution> initialPopulation;
+    // initial round trips that are improved in the first step (null once improved)
+    private List<TSPSolution> pendingPopulation;
+    // current population (sorted from best to worst)
+    private List<Individual> population;
+
+    /**
+     * Create a memetic search for the given TSP problem, using the given nearest neighbour candidate lists,
+     * with a default population size, that uses the common fork/join pool.
+     *
+     * @param problem TSP problem
+     * @param candidates nearest neighbour candidate lists
+     */
+    public TSPMemeticSearch(GenericProblem<TSPSolution, ? extends TSPData> problem, NearestNeighbourLists candidates) {
+        this(null, problem, candidates, DEFAULT_POPULATION_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a memetic search for the given TSP problem, using the given nearest neighbour candidate lists,
+     * population size and fork/join pool. The search is assigned the given name. If <code>name</code> is
+     * <code>null</code>, the default name "TSPMemeticSearch" is used.
+     *
+     * @param name custom search name
+     * @param problem TSP problem
+     * @param candidates nearest neighbour candidate lists
+     * @param populationSize population size
+     * @param pool fork/join pool used to improve offspring
+     * @throws IllegalArgumentException if the population size is smaller than two,
+     *                                  or if the problem has asymmetric distances
+     */
+    public TSPMemeticSearch(String name, GenericProblem<TSPSolution, ? extends TSPData> problem,
+                            NearestNeighbourLists candidates, int populationSize, ForkJoinPool pool) {
+        super(name != null ? name : "TSPMemeticSearch", problem);
+        AsymmetricTSPObjective.requireSymmetric(problem, "TSPMemeticSearch");
+        if(candidates == null){
+            throw new NullPointerException("Error: candidate lists can not be null.");
+        }
+        if(pool == null){
+            throw new NullPointerException("Error: fork/join pool can not be null.");
+        }
+        if(populationSize < 2){
+            throw new IllegalArgumentException("Error: population size should be at least two.");
+        }
+        this.problem = problem;
+        this.candidates = candidates;
+        this.populationSize = populationSize;
+        this.pool = pool;
+        crossover = new PartitionCrossover();
+        mutation = new TSP3OptNeighbourhood();
+    }
+
+    /**
+     * Include the given round trips in the initial population, e.g. the best round trips found by other searches.
+     * At most as many round trips as the population size are used (the first ones of the list), and the
+     * population is completed with round trips created by the random solution generator of the problem.
+     * By default, the entire initial population is generated. Setting <code>null</code> restores the default.
+     *
+     * @param solutions round trips included in the initial population, may be <code>null</code>
+     */
+    public void setInitialPopulation(List<? extends TSPSolution> solutions){
+        initialPopulation = solutions;
+    }
+
+    /**
+     * Get the round trips in the current population, sorted from best to worst. Returns an empty
+     * list if the search has not yet been started.
+     *
+     * @return round trips in the current population
+     */
+    public List<TSPSolution> getPopulation(){
+        List<TSPSolution> solutions = new ArrayList<>();
+        if(population != null){
+            for(Individual ind : population){
+                solutions.add(ind.solution);
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * When the search is started, an initial population is created, which is improved in parallel in the first
+     * step (so that stop criteria, which are only checked once the search is running, can interrupt it). It
+     * contains the round trips set with {@link #setInitialPopulation(List)}, if any, completed with random
+     * round trips.
+     */
+    @Override
+    protected void searchStarted() {
+        super.searchStarted();
+        List<TSPSolution> initial = new ArrayList<>();
+        if(initialPopulation != null){
+            for(int i=0; i<initialPopulation.size() && i<populationSize; i++){
+                initial.add(initialPopulation.get(i).copy());
+            }
+        }
+        while(initial.size() < populationSize){
+            initial.add(problem.createRandomSolution(getRandom()));
+        }
+        population = new ArrayList<>();
+        pendingPopulation = initial;
+    }
+
+    /**
+     * Improves the initial population in the first step. Afterwards, creates and improves a new generation
+     * of offspring and selects the survivors.
+     */
+    @Override
+    protected void searchStep() {
+        if(pendingPopulation != null){
+            select(improve(pendingPopulation, null));
+            pendingPopulation = null;
+            return;
+        }
+        if(population.isEmpty()){
+            // no valid round trips found
+            stop();
+            return;
+        }
+        Random rnd = getRandom();
+        List<TSPSolution> offspring = new ArrayList<>();
+        List<int[]> activeCities = new ArrayList<>();
+        for(int i=0; i<populationSize; i++){
+            // select two distinct parents, if possible (first parent is the best of both)
+            int p1 = rnd.nextInt(population.size());
+            int p2 = p1;
+            if(population.size() > 1){
+                p2 = rnd.nextInt(population.size()-1);
+                if(p2 >= p1){
+                    p2++;
+                }
+            }
+            TSPSolution first = population.get(Math.min(p1, p2)).solution;
+            TSPSolution second = population.get(Math.max(p1, p2)).solution;
+            // recombine (or mutate first parent if crossover fails)
+            TSPSolution child = crossover.cross(first, second, problem.getData());
+            int[] active = null;
+            if(child == null){
+                child = first.copy();
+                TSP3OptMove move = mutation.getRandomMove(child, rnd);
+                if(move != null){
+                    move.apply(child);
+                    // only the endpoints of the modified edges are activated
+                    active = new int[]{
+                        move.getA(), move.getA2(), move.getB(), move.getB2(), move.getE(), move.getE2()
+                    };
+                }
+            }
+            offspring.add(child);
+            activeCities.add(active);
+        }
+        select(improve(offspring, activeCities));
+    }
+
+    /**
+     * Stops the search, as well as all descents that are currently improving offspring.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        for(TSP2OptDescent descent : runningDescents){
+            descent.stop();
+        }
+    }
+
+    // improve the given round trips with a 2-opt descent, in parallel, starting from the given active cities
+    // of each round trip (null if all cities are activated); round trips are not improved once this search
+    // is terminating
+    private List<Individual> improve(List<TSPSolution> solutions, List<int[]> activeCities){
+        // stops a descent that is started after this search has been requested to stop
+        SearchListener<TSPSolution> stopListener = new SearchListener<TSPSolution>() {
+            @Override
+            public void searchStarted(Search<? extends TSPSolution> search) {
+                if(getStatus() == SearchStatus.TERMINATING){
+                    search.stop();
+                }
+            }
+        };
+        List<Callable<Individual>> tasks = new ArrayList<>();
+        for(int i=0; i<solutions.size(); i++){
+            TSPSolution sol = solutions.get(i);
+            int[] active = activeCities != null ? activeCities.get(i) : null;
+            tasks.add(() -> {
+                TSP2OptDescent descent = new TSP2OptDescent(problem, candidates);
+                descent.setCurrentSolution(sol);
+                descent.setInitialActiveCities(active);
+                if(getStatus() != SearchStatus.TERMINATING){
+                    // register before starting, so that the descent is either stopped by stop() or by the listener
+                    descent.addSearchListener(stopListener);
+                    runningDescents.add(descent);
+                    descent.start();
+                    runningDescents.remove(descent);
+                }
+                Individual improved = new Individual(
+                        descent.getCurrentSolution(),
+                        descent.getCurrentSolutionEvaluation(),
+                        descent.getCurrentSolutionValidation()
+                );
+                descent.dispose();
+                return improved;
+            });
+        }
+        List<Individual> improved = new ArrayList<>();
+        try {
+            for(Future<Individual> f : pool.invokeAll(tasks)){
+                improved.add(f.get());
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new SearchException("Error while improving offspring in memetic search.", ex);
+        }
+        return improved;
+    }
+
+    // select best distinct individuals among current population and the given new individuals
+    private void select(List<Individual> newIndividuals){
+        List<Individual> candidates = new ArrayList<>(population);
+        for(Individual ind : newIndividuals){
+            if(ind.validation.passed()){
+                candidates.add(ind);
+                // update best solution
+                updateBestSolution(ind.solution, ind.evaluation, ind.validation);
+            }
+        }
+        // sort from best to worst
+        candidates.sort((i1, i2) -> Double.compare(computeDelta(i2.evaluation, i1.evaluation), 0.0));
+        // retain best distinct round trips
+        List<Individual> survivors = new ArrayList<>();
+        Set<Long> hashes = new HashSet<>();
+        for(Individual ind : candidates){
+            if(survivors.size() < populationSize && hashes.add(ind.solution.getEdgeHash())){
+                survivors.add(ind);
+            }
+        }
+        population = survivors;
+    }
+
+    // round trip with its evaluation and validation
+    private static class Individual {
+
+        private final TSPSolution solution;
+        private final Evaluation evaluation;
+        private final Validation validation;
+
+        private Individual(TSPSolution solution, Evaluation evaluation, Validation validation){
+            this.solution = solution;
+            this.evaluation = evaluation;
+            this.validation = validation;
+        }
+
+    }
+
+}
@@ -16,7 +16,6 @@
 
 package org.jamesframework.examples.tsp;
 
-import java.util.List;
 import org.jamesframework.core.exceptions.IncompatibleDeltaEvaluationException;
 import org.jamesframework.core.problems.objectives.Objective;
 import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
@@ -33,13 +32,13 @@ public class TSPObjective implements Objective<TSPSolution, TSPData>{
     @Override
     public Evaluation evaluate(TSPSolution solution, TSPData data) {
         // compute sum of travel distances
-        List<Integer> cities = solution.getCities();
-        int n = cities.size();
+        int n = solution.getNumCities();
         double totalDistance = 0.0;
+        int fromCity = solution.getCity(n-1);
         for(int i=0; i<n; i++){
-            int fromCity = cities.get(i);
-            int toCity = cities.get((i+1)%n);
+            int toCity = solution.getCity(i);
             totalDistance += data.getDistance(fromCity, toCity);
+            fromCity = toCity;
         }
         // wrap in simple evaluation
         return SimpleEvaluation.WITH_VALUE(totalDistance);
@@ -49,11 +48,21 @@ public class TSPObjective implements Objective<TSPSolution, TSPData>{
     public Evaluation evaluate(Move move, TSPSolution curSolution, Evaluation curEvaluation, TSPData data){
         
         // check move type
-        if(!(move instanceof TSP2OptMove)){
-            throw new IncompatibleDeltaEvaluationException("Delta evaluation in TSP objective expects move of type TSP2OptMove.");
+        if(move instanceof TSP2OptMove){
+            return evaluate2Opt((TSP2OptMove) move, curSolution, curEvaluation, data);
+        } else if(move instanceof TSPOrOptMove){
+            return evaluateOrOpt((TSPOrOptMove) move, curEvaluation, data);
+        } else if(move instanceof TSP3OptMove){
+            return evaluate3Opt((TSP3OptMove) move, curEvaluation, data);
+        } else {
+            throw new IncompatibleDeltaEvaluationException("Delta evaluation in TSP objective expects move of type "
+                                                            + "TSP2OptMove, TSPOrOptMove or TSP3OptMove.");
         }
-        // cast move
-        TSP2OptMove move2opt = (TSP2OptMove) move;
+        
+    }
+    
+    private Evaluation evaluate2Opt(TSP2OptMove move2opt, TSPSolution curSolution, Evaluation curEvaluation, TSPData data){
+        
         // get bounds of reversed subsequence
         int i = move2opt.getI();
         int j = move2opt.getJ();
@@ -66,14 +75,11 @@ public class TSPObjective implements Objective<TSPSolution, TSPData>{
         } else {
             // get current total travel distance
             double totalDistance = curEvaluation.getValue();
-            // get current order of cities
-            List<Integer> cities = curSolution.getCities();
-
             // get crucial cities (at boundary of reversed subsequence)
-            int beforeReversed = cities.get((i-1+n)%n);
-            int firstReversed = cities.get(i);
-            int lastReversed = cities.get(j);
-            int afterReversed = cities.get((j+1)%n);
+            int beforeReversed = curSolution.getCity((i-1+n)%n);
+            int firstReversed = curSolution.getCity(i);
+            int lastReversed = curSolution.getCity(j);
+            int afterReversed = curSolution.getCity((j+1)%n);
 
             // account for dropped distances
             totalDistance -= data.getDistance(beforeReversed, firstReversed);
@@ -89,6 +95,77 @@ public class TSPObjective implements Objective<TSPSolution, TSPData>{
         
     }
     
+    private Evaluation evaluateOrOpt(TSPOrOptMove moveOrOpt, Evaluation curEvaluation, TSPData data){
+        
+        // get crucial cities (at boundary of relocated segment and insertion edge)
+        int prev = moveOrOpt.getPrev();
+        int first = moveOrOpt.getFirst();
+        int last = moveOrOpt.getLast();
+        int next = moveOrOpt.getNext();
+        int from = moveOrOpt.getInsertFrom();
+        int to = moveOrOpt.getInsertTo();
+        
+        // get current total travel distance
+        double totalDistance = curEvaluation.getValue();
+        
+        // account for dropped distances
+        totalDistance -= data.getDistance(prev, first);
+        totalDistance -= data.getDistance(last, next);
+        totalDistance -= data.getDistance(from, to);
+        
+        // account for new distances
+        totalDistance += data.getDistance(prev, next);
+        if(moveOrOpt.isReversed()){
+            totalDistance += data.getDistance(from, last);
+            totalDistance += data.getDistance(first, to);
+        } else {
+            totalDistance += data.getDistance(from, first);
+            totalDistance += data.getDistance(last, to);
+        }
+        
+        // return updated travel distance
+        return SimpleEvaluation.WITH_VALUE(totalDistance);
+        
+    }
+    
+    private Evaluation evaluate3Opt(TSP3OptMove move3opt, Evaluation curEvaluation, TSPData data){
+        
+        // get endpoints of removed edges
+        int a = move3opt.getA();
+        int a2 = move3opt.getA2();
+        int b = move3opt.getB();
+        int b2 = move3opt.getB2();
+        int e = move3opt.getE();
+        int e2 = move3opt.getE2();
+        
+        // get current total travel distance
+        double totalDistance = curEvaluation.getValue();
+        
+        // account for dropped distances
+        totalDistance -= data.getDistance(a, a2);
+        totalDistance -= data.getDistance(b, b2);
+        totalDistance -= data.getDistance(e, e2);
+        
+        // account for new distances
+        if(move3opt.isFirstReversed()){
+            totalDistance += data.getDistance(a, b2);
+            totalDistance += data.getDistance(e, b);
+            totalDistance += data.getDistance(a2, e2);
+        } else if(move3opt.isSecondReversed()){
+            totalDistance += data.getDistance(a, e);
+            totalDistance += data.getDistance(b2, a2);
+            totalDistance += data.getDistance(b, e2);
+        } else {
+            totalDistance += data.getDistance(a, b2);
+            totalDistance += data.getDistance(e, a2);
+            totalDistance += data.getDistance(b, e2);
+        }
+        
+        // return updated travel distance
+        return SimpleEvaluation.WITH_VALUE(totalDistance);
+        
+    }
+    
     @Override
     public boolean isMinimizing() {
         return true;
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import org.jamesframework.core.search.neigh.Move;
+
+/**
+ * An Or-opt TSP move that relocates a segment of consecutive cities to another
+ * position in the round trip, optionally reversing the segment.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPOrOptMove implements Move<TSPSolution> {
+
+    // segment (s_1) - ... - (s_2) is moved in between cities c and d as follows:
+    // ... - (p) - (s_1) - ... - (s_2) - (nx) - ... - (c) - (d) - ...
+    //  =>
+    // ... - (p) - (nx) - ... - (c) - (s_1) - ... - (s_2) - (d) - ...
+    // where s_1 and s_2 are swapped if the segment is reversed
+    private final int p, s1, s2, nx, c, d;
+    private final boolean reversed;
+
+    /**
+     * Create an Or-opt move. The cities should be specified in the order in which they are
+     * visited, i.e. <code>nx</code> follows <code>p</code> in the same direction as <code>s2</code>
+     * follows <code>s1</code> and <code>d</code> follows <code>c</code>. The insertion edge (c,d)
+     * should not be part of the path from <code>p</code> to <code>nx</code>.
+     *
+     * @param p city preceding the segment
+     * @param s1 first city of the segment
+     * @param s2 last city of the segment (equal to <code>s1</code> for a single city)
+     * @param nx city following the segment
+     * @param c first endpoint of the edge where the segment is inserted
+     * @param d second endpoint of the edge where the segment is inserted
+     * @param reversed if <code>true</code>, the segment is reversed when inserted
+     */
+    public TSPOrOptMove(int p, int s1, int s2, int nx, int c, int d, boolean reversed) {
+        // check
+        if(c == p || c == s2){
+            throw new IllegalArgumentException("Error: segment should be moved to a different position.");
+        }
+        // store
+        this.p = p;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.nx = nx;
+        this.c = c;
+        this.d = d;
+        this.reversed = reversed;
+    }
+
+    public int getPrev(){
+        return p;
+    }
+
+    public int getFirst(){
+        return s1;
+    }
+
+    public int getLast(){
+        return s2;
+    }
+
+    public int getNext(){
+        return nx;
+    }
+
+    public int getInsertFrom(){
+        return c;
+    }
+
+    public int getInsertTo(){
+        return d;
+    }
+
+    public boolean isReversed(){
+        return reversed;
+    }
+
+    @Override
+    public void apply(TSPSolution solution) {
+        // move reversed segment in between c and d
+        solution.exchangeEdges(p, s1, c, d);
+        solution.exchangeEdges(p, c, nx, s2);
+        if(!reversed){
+            // restore orientation of segment
+            solution.exchangeEdges(c, s2, s1, d);
+        }
+    }
+
+    @Override
+    public void undo(TSPSolution solution) {
+        // revert exchanges in opposite order
+        if(!reversed){
+            solution.exchangeEdges(c, s1, s2, d);
+        }
+        solution.exchangeEdges(p, nx, c, s2);
+        solution.exchangeEdges(p, c, s1, d);
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * Lazy, immutable list view of all Or-opt moves for a given round trip, i.e. a move for every segment of up
+ * to a given number of cities and every insertion position outside the segment, where segments of more than
+ * one city are inserted in both orientations. The moves are ordered by the position of the first city of the
+ * segment, then by segment length and then by insertion position, with the reversed insertion directly after
+ * the original orientation. The cities of the round trip are copied when the list is created, so that the
+ * moves are not affected by later modifications of the solution. See {@link LazyMoveList} for the behaviour
+ * of the list when there are more than {@link Integer#MAX_VALUE} moves.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPOrOptMoveList extends LazyMoveList<TSPOrOptMove> {
+
+    // cities in the order in which they are visited
+    private final int[] cities;
+    // number of moves per first city of the segment
+    private final long movesPerFirst;
+
+    /**
+     * Create a lazy list of all Or-opt moves for the given round trip, relocating segments of up to
+     * <code>maxLen</code> cities. At least two cities should remain outside the segment.
+     *
+     * @param solution round trip
+     * @param maxLen maximum segment length, at most n-2
+     * @throws IllegalArgumentException if the maximum segment length exceeds n-2
+     */
+    public TSPOrOptMoveList(TSPSolution solution, int maxLen){
+        this(toArray(solution), Math.max(0, maxLen));
+    }
+
+    private TSPOrOptMoveList(int[] cities, int maxLen){
+        super(cities.length * countMovesPerFirst(cities.length, maxLen));
+        if(maxLen > cities.length - 2 && maxLen > 0){
+            throw new IllegalArgumentException("Error: maximum segment length should be at most n-2.");
+        }
+        this.cities = cities;
+        movesPerFirst = countMovesPerFirst(cities.length, maxLen);
+    }
+
+    // copy cities of the given round trip
+    private static int[] toArray(TSPSolution solution){
+        int[] cities = new int[solution.getNumCities()];
+        for(int p=0; p<cities.length; p++){
+            cities[p] = solution.getCity(p);
+        }
+        return cities;
+    }
+
+    // count moves per first city: n-len-1 insertion positions for each length, in both orientations if len > 1
+    private static long countMovesPerFirst(int n, int maxLen){
+        long count = 0;
+        for(int len=1; len<=maxLen && len<=n-2; len++){
+            count += (long) (n - len - 1) * (len > 1 ? 2 : 1);
+        }
+        return count;
+    }
+
+    @Override
+    protected TSPOrOptMove createMove(long index){
+        int n = cities.length;
+        int first = (int) (index / movesPerFirst);
+        long rem = index % movesPerFirst;
+        // find segment length
+        int len = 1;
+        int orientations = 1;
+        long block = n - 2;
+        while(rem >= block){
+            rem -= block;
+            len++;
+            orientations = 2;
+            block = (long) (n - len - 1) * orientations;
+        }
+        // insertion position (after city c) and orientation
+        int r = (int) (rem / orientations);
+        boolean reversed = rem % orientations == 1;
+        int last = (first + len - 1) % n;
+        int cpos = (first + len + r) % n;
+        return new TSPOrOptMove(
+            cities[(first - 1 + n) % n],
+            cities[first],
+            cities[last],
+            cities[(last + 1) % n],
+            cities[cpos],
+            cities[(cpos + 1) % n],
+            reversed
+        );
+    }
+
+}
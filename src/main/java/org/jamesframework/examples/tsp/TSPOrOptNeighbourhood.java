@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jamesframework.core.search.neigh.Neighbourhood;
+
+/**
+ * Or-opt neighbourhood for the TSP problem. Generates moves that relocate a segment of up to three
+ * consecutive cities (by default) to another position in the round trip, either in its original
+ * orientation or reversed. By default, all segments and insertion positions are considered.
+ * Alternatively, nearest neighbour candidate lists can be specified, in which case only those
+ * moves are generated that place an endpoint of the segment next to one of its nearest neighbours.
+ * This neighbourhood complements the 2-opt neighbourhood, as relocating a short segment requires
+ * a sequence of several 2-opt moves that are usually not all improvements.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPOrOptNeighbourhood implements Neighbourhood<TSPSolution>{
+
+    // default maximum segment length
+    private static final int DEFAULT_MAX_SEGMENT_LENGTH = 3;
+    // maximum number of attempts to sample a random candidate move
+    private static final int MAX_SAMPLE_ATTEMPTS = 100;
+
+    // maximum segment length
+    private final int maxSegmentLength;
+    // nearest neighbour candidate lists (null if all moves are considered)
+    private final NearestNeighbourLists candidates;
+
+    /**
+     * Create an Or-opt neighbourhood that considers all segments of up to three cities
+     * and all insertion positions.
+     */
+    public TSPOrOptNeighbourhood(){
+        this(null);
+    }
+
+    /**
+     * Create an Or-opt neighbourhood for segments of up to three cities that only generates moves
+     * placing an endpoint of the segment next to one of its nearest neighbours, as specified in the
+     * given candidate lists. If <code>null</code>, all insertion positions are considered.
+     *
+     * @param candidates nearest neighbour candidate lists, may be <code>null</code>
+     */
+    public TSPOrOptNeighbourhood(NearestNeighbourLists candidates){
+        this(DEFAULT_MAX_SEGMENT_LENGTH, candidates);
+    }
+
+    /**
+     * Create an Or-opt neighbourhood with a custom maximum segment length. If <code>candidates</code>
+     * is <code>null</code>, all insertion positions are considered.
+     *
+     * @param maxSegmentLength maximum number of cities in a relocated segment
+     * @param candidates nearest neighbour candidate lists, may be <code>null</code>
+     * @throws IllegalArgumentException if the maximum segment length is not strictly positive
+     */
+    public TSPOrOptNeighbourhood(int maxSegmentLength, NearestNeighbourLists candidates){
+        if(maxSegmentLength <= 0){
+            throw new IllegalArgumentException("Error: maximum segment length should be strictly positive.");
+        }
+        this.maxSegmentLength = maxSegmentLength;
+        this.candidates = candidates;
+    }
+
+    @Override
+    public TSPOrOptMove getRandomMove(TSPSolution solution, Random rnd) {
+        int n = solution.getNumCities();
+        // at least two cities should remain outside the segment
+        int maxLen = Math.min(maxSegmentLength, n-2);
+        if(maxLen <= 0){
+            return null;
+        }
+        if(candidates != null){
+            return getRandomCandidateMove(solution, maxLen, rnd);
+        }
+        // pick random segment
+        int first = rnd.nextInt(n);
+        int len = 1 + rnd.nextInt(maxLen);
+        // pick random insertion position outside the segment, not directly in front of it
+        int c = solution.getCity((first + len + rnd.nextInt(n-len-1)) % n);
+        // single cities are never reversed
+        boolean reversed = len > 1 && rnd.nextBoolean();
+        return createMove(solution, first, len, c, reversed);
+    }
+
+    @Override
+    public List<TSPOrOptMove> getAllMoves(TSPSolution solution) {
+        int n = solution.getNumCities();
+        int maxLen = Math.min(maxSegmentLength, n-2);
+        if(candidates != null){
+            return getAllCandidateMoves(solution, maxLen);
+        }
+        // lazy view of the moves for every segment and insertion position, in both orientations
+        return new TSPOrOptMoveList(solution, maxLen);
+    }
+
+    private TSPOrOptMove getRandomCandidateMove(TSPSolution solution, int maxLen, Random rnd){
+        int n = solution.getNumCities();
+        for(int attempt=0; attempt<MAX_SAMPLE_ATTEMPTS; attempt++){
+            // pick random city and random nearest neighbour
+            int city = rnd.nextInt(n);
+            int[] neighbours = candidates.getNeighbours(city);
+            if(neighbours.length > 0){
+                int neighbour = neighbours[rnd.nextInt(neighbours.length)];
+                // place random segment starting or ending at neighbour on either side of city
+                int len = 1 + rnd.nextInt(maxLen);
+                TSPOrOptMove move = createCandidateMove(solution, city, neighbour, len,
+                                                        rnd.nextBoolean(), rnd.nextBoolean());
+                if(move != null){
+                    return move;
+                }
+            }
+        }
+        // sampling keeps failing: pick from all candidate moves
+        List<TSPOrOptMove> moves = getAllCandidateMoves(solution, maxLen);
+        return moves.isEmpty() ? null : moves.get(rnd.nextInt(moves.size()));
+    }
+
+    private List<TSPOrOptMove> getAllCandidateMoves(TSPSolution solution, int maxLen){
+        // generate all moves that connect a city with one of its nearest neighbours
+        int n = solution.getNumCities();
+        List<TSPOrOptMove> moves = new ArrayList<>();
+        for(int city=0; city<n; city++){
+            for(int neighbour : candidates.getNeighbours(city)){
+                for(int len=1; len<=maxLen; len++){
+                    for(int v=0; v<4; v++){
+                        // single city segments start and end at the neighbour (skip duplicates)
+                        if(len > 1 || v < 2){
+                            TSPOrOptMove move = createCandidateMove(solution, city, neighbour, len, v < 2, v % 2 == 0);
+                            if(move != null){
+                                moves.add(move);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    // create move that relocates a segment with the given length starting (if startAtNeighbour is true) or
+    // ending (else) at the given neighbour, so that the neighbour is placed right after (if afterCity is true)
+    // or before (else) the given city; returns null if the city is part of the segment or already adjacent
+    // to it on the requested side
+    private TSPOrOptMove createCandidateMove(TSPSolution solution, int city, int neighbour, int len,
+                                             boolean startAtNeighbour, boolean afterCity){
+        int n = solution.getNumCities();
+        int q = solution.getPosition(neighbour);
+        int first = startAtNeighbour ? q : (q - len + 1 + n) % n;
+        // insert after city or before city
+        int c = afterCity ? city : solution.prev(city);
+        // neighbour ends up next to city if it is the first city of a segment inserted
+        // after city, or the last city of a segment inserted before city (or vice versa if reversed)
+        boolean reversed = startAtNeighbour != afterCity;
+        return createMove(solution, first, len, c, reversed);
+    }
+
+    // create move that relocates the segment of the given length, starting at the given position, in
+    // between city c and its successor; returns null if c is part of the segment or directly precedes it
+    private TSPOrOptMove createMove(TSPSolution solution, int first, int len, int c, boolean reversed){
+        int n = solution.getNumCities();
+        int offset = solution.getPosition(c) - first;
+        if(offset < 0){
+            offset += n;
+        }
+        if(offset < len || offset == n-1){
+            return null;
+        }
+        int last = (first + len - 1) % n;
+        return new TSPOrOptMove(
+            solution.getCity((first - 1 + n) % n),
+            solution.getCity(first),
+            solution.getCity(last),
+            solution.getCity((last + 1) % n),
+            c,
+            solution.next(c),
+            reversed && len > 1
+        );
+    }
+
+}
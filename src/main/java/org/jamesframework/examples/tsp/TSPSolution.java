@@ -16,40 +16,226 @@
 
 package org.jamesframework.examples.tsp;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.Objects;
 import org.jamesframework.core.problems.sol.Solution;
 
 /**
+ * <p>
  * Represent a solution to the travelling salesman problem.
  * Each city is represented by a unique integer value, corresponding
  * to the row and column indices in the travel distance matrix.
+ * The round trip is stored in a {@link TSPTour}: by default, an
+ * {@link ArrayTour} is used, which holds a primitive array of cities
+ * together with the inverse array that holds the position of each city,
+ * so that both can be looked up in constant time. For very large
+ * instances, a {@link TwoLevelListTour} can be used instead, which
+ * reverses subpaths much faster. The factory method {@link #create(int[])}
+ * selects the tour representation based on the number of cities.
+ * </p>
+ * <p>
+ * In addition, every solution maintains a Zobrist-style hash of its edges: the XOR of a pseudo-random
+ * 64-bit key per (undirected) edge. This hash identifies the round trip regardless of the starting city
+ * and direction of traversal, and is updated in constant time whenever a subpath is reversed, so that
+ * searches can cheaply detect revisited round trips without storing them.
+ * </p>
  * 
  * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
  */
 public class TSPSolution extends Solution {
 
-    // list of cities in the order in which they are visited
-    private List<Integer> cities;
+    /**
+     * Number of cities from which round trips created with {@link #create(int[])} are stored in a
+     * {@link TwoLevelListTour} instead of an {@link ArrayTour}.
+     */
+    public static final int TWO_LEVEL_LIST_THRESHOLD = 100000;
+
+    // seed of the edge keys
+    private static final long EDGE_KEY_SEED = 0x2545F4914F6CDD1DL;
+    
+    // cities in the order in which they are visited
+    private final TSPTour tour;
+    // XOR of the keys of all edges
+    private long edgeHash;
+    
+    public TSPSolution(TSPTour tour){
+        this.tour = tour;
+        // compute edge hash
+        int n = tour.getNumCities();
+        if(n > 0){
+            int from = tour.getCity(n-1);
+            for(int p=0; p<n; p++){
+                int to = tour.getCity(p);
+                edgeHash ^= edgeKey(from, to);
+                from = to;
+            }
+        }
+    }
+    
+    public TSPSolution(int[] tour){
+        this(new ArrayTour(tour));
+    }
     
     public TSPSolution(List<Integer> cities){
-        this.cities = cities;
+        this(cities.stream().mapToInt(Integer::intValue).toArray());
+    }
+    
+    /**
+     * Create a solution with the given round trip. The round trip is stored in an {@link ArrayTour},
+     * or in a {@link TwoLevelListTour} if it contains at least {@link #TWO_LEVEL_LIST_THRESHOLD} cities.
+     * 
+     * @param cities cities in the order in which they are visited
+     * @return TSP solution
+     */
+    public static TSPSolution create(int[] cities){
+        if(cities.length >= TWO_LEVEL_LIST_THRESHOLD){
+            return new TSPSolution(new TwoLevelListTour(cities));
+        }
+        return new TSPSolution(cities);
+    }
+    
+    // deep copy constructor
+    protected TSPSolution(TSPSolution toCopy){
+        tour = toCopy.tour.copy();
+        edgeHash = toCopy.edgeHash;
+    }
+    
+    // number of cities in the round trip
+    public int getNumCities(){
+        return tour.getNumCities();
+    }
+    
+    // city visited at the given position
+    public int getCity(int position){
+        return tour.getCity(position);
+    }
+    
+    // position at which the given city is visited
+    public int getPosition(int city){
+        return tour.getPosition(city);
+    }
+    
+    // successor of the given city in the round trip
+    public int next(int city){
+        return tour.next(city);
     }
     
+    // predecessor of the given city in the round trip
+    public int prev(int city){
+        return tour.prev(city);
+    }
+    
+    // check whether b is visited when travelling from a to c in forward direction (both ends included)
+    public boolean between(int a, int b, int c){
+        return tour.between(a, b, c);
+    }
+    
+    // Zobrist hash of the edges of the round trip (independent of starting city and direction)
+    public long getEdgeHash(){
+        return edgeHash;
+    }
+    
+    /**
+     * Get the pseudo-random 64-bit key of the (undirected) edge between the given cities,
+     * as used to compute the edge hash. The key is computed on the fly by mixing the bits
+     * of both city indices, so that no table of n<sup>2</sup> keys needs to be stored.
+     * 
+     * @param a first city
+     * @param b second city
+     * @return key of edge (a,b)
+     */
+    public static long edgeKey(int a, int b){
+        long z = (a < b ? ((long) a << 32) | b : ((long) b << 32) | a) + EDGE_KEY_SEED;
+        // 64-bit finalizer of MurmurHash3
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+    
+    // unmodifiable view of the cities in the order in which they are visited
     public List<Integer> getCities(){
-        return cities;
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return tour.getCity(index);
+            }
+            @Override
+            public int size() {
+                return tour.getNumCities();
+            }
+        };
+    }
+    
+    /**
+     * Reverse the subpath from position i to position j (inclusive), wrapping around
+     * the end of the round trip if j &lt; i. If this subpath contains more than half of
+     * the cities, the complementary subpath from position j+1 to i-1 is reversed instead,
+     * which yields the same round trip (traversed in the opposite direction) at a lower
+     * cost, unless the direction of traversal matters (see {@link #isDirected()}). The
+     * choice only depends on i, j and the number of cities, so that calling this method
+     * twice with the same arguments always restores the original solution.
+     * 
+     * @param i position of the first city of the reversed subpath
+     * @param j position of the last city of the reversed subpath
+     */
+    public void reverse(int i, int j){
+        int n = tour.getNumCities();
+        // length of subpath from position i to j
+        int len = j - i;
+        if(len < 0){
+            len += n;
+        }
+        len++;
+        if(len < n){
+            // update edge hash: (a,b) and (c,d) are replaced with (a,c) and (b,d)
+            int a = tour.getCity(i > 0 ? i-1 : n-1);
+            int b = tour.getCity(i);
+            int c = tour.getCity(j);
+            int d = tour.getCity(j+1 < n ? j+1 : 0);
+            edgeHash ^= edgeKey(a, b) ^ edgeKey(c, d) ^ edgeKey(a, c) ^ edgeKey(b, d);
+        }
+        // switch to complementary subpath if shorter (and direction does not matter)
+        if(2*len > n && !isDirected()){
+            int start = j+1 < n ? j+1 : 0;
+            int stop = i > 0 ? i-1 : n-1;
+            i = start;
+            j = stop;
+        }
+        tour.reverse(i, j);
     }
     
-    // swap the i-th and j-th city in the round trip
-    public void swapCities(int i, int j){
-        Collections.swap(cities, i, j);
+    /**
+     * Indicates whether the direction in which the round trip is traversed matters, as for asymmetric
+     * distances. If so, subpaths are always reversed exactly as requested. Returns <code>false</code>.
+     * 
+     * @return <code>false</code>
+     */
+    protected boolean isDirected(){
+        return false;
     }
     
+    /**
+     * Replace the edges (a,b) and (c,d) with (a,c) and (b,d), by reversing the path from b to c.
+     * Both removed edges should be present in the round trip with the same orientation, i.e. either
+     * b and d are the successors of a and c, or they are their predecessors. Exchanging edges (a,c)
+     * and (b,d) afterwards restores the original solution.
+     *
+     * @param a first endpoint of first removed edge
+     * @param b second endpoint of first removed edge
+     * @param c first endpoint of second removed edge
+     * @param d second endpoint of second removed edge
+     */
+    public void exchangeEdges(int a, int b, int c, int d){
+        if(tour.next(a) == b){
+            reverse(tour.getPosition(b), tour.getPosition(c));
+        } else {
+            reverse(tour.getPosition(c), tour.getPosition(b));
+        }
+    }
+
     @Override
     public TSPSolution copy() {
-        return new TSPSolution(new ArrayList<>(cities));
+        return new TSPSolution(this);
     }
 
     @Override
@@ -61,12 +247,27 @@ public class TSPSolution extends Solution {
             return false;
         }
         final TSPSolution other = (TSPSolution) obj;
-        return Objects.equals(this.cities, other.cities);
+        // compare cities at each position
+        int n = tour.getNumCities();
+        if(n != other.tour.getNumCities()){
+            return false;
+        }
+        for(int p=0; p<n; p++){
+            if(tour.getCity(p) != other.tour.getCity(p)){
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(cities);
+        int hash = 1;
+        int n = tour.getNumCities();
+        for(int p=0; p<n; p++){
+            hash = 31 * hash + tour.getCity(p);
+        }
+        return hash;
     }
 
 }
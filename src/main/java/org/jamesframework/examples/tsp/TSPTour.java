@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * Data structure that stores the round trip of a {@link TSPSolution}. Each city is visited at a unique
+ * position from 0 to n-1, where n is the number of cities. Implementations differ in the cost of the
+ * basic operations: {@link ArrayTour} offers constant time lookups but linear time reversals, while
+ * {@link TwoLevelListTour} reverses subpaths in O(&radic;n) time at the expense of slightly slower lookups.
+ * Both yield exactly the same positions after every operation, so that moves can be applied to and
+ * evaluated on either of them.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public interface TSPTour {
+
+    // number of cities in the round trip
+    public int getNumCities();
+
+    // city visited at the given position
+    public int getCity(int position);
+
+    // position at which the given city is visited
+    public int getPosition(int city);
+
+    // successor of the given city in the round trip
+    public int next(int city);
+
+    // predecessor of the given city in the round trip
+    public int prev(int city);
+
+    // check whether b is visited when travelling from a to c in forward direction (both ends included)
+    public default boolean between(int a, int b, int c){
+        int n = getNumCities();
+        int pa = getPosition(a);
+        int ab = getPosition(b) - pa;
+        int ac = getPosition(c) - pa;
+        if(ab < 0){
+            ab += n;
+        }
+        if(ac < 0){
+            ac += n;
+        }
+        return ab <= ac;
+    }
+
+    /**
+     * Reverse the cities at positions i up to j (inclusive) in place, wrapping around the end of the
+     * round trip if j &lt; i. Afterwards, the city that was visited at position i is visited at position
+     * j and vice versa, and so on. All cities outside this range keep their position.
+     *
+     * @param i first position of the reversed subpath
+     * @param j last position of the reversed subpath
+     */
+    public void reverse(int i, int j);
+
+    // deep copy of the round trip
+    public TSPTour copy();
+
+}
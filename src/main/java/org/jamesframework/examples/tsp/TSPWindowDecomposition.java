@@ -0,0 +1,228 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.jamesframework.core.exceptions.SearchException;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.constraints.validations.Validation;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.LocalSearch;
+
+/**
+ * <p>
+ * Decomposition based local search for (very) large TSP instances, in the spirit of POPMUSIC. In every step,
+ * the current round trip is cut into consecutive windows of a few hundred cities. Each window is a subpath
+ * of which the first and last city are kept fixed, while the cities in between may be visited in any order.
+ * All windows are optimized independently and in parallel, on the threads of a fork/join pool, after which
+ * the improved subpaths are spliced back into the round trip. The windows of subsequent steps are shifted by
+ * half a window, so that they overlap with the boundaries of the previous windows.
+ * </p>
+ * <p>
+ * Each window is optimized as a separate, small TSP problem with its own local distance matrix (with local
+ * city indices) and a {@link TSPObjective}, using a {@link TSP2OptDescent}. The subpath is closed into a
+ * round trip by an edge between its first and last city with a large negative length, which is therefore
+ * never removed. Compared to a search over the entire round trip, every region of the instance receives a
+ * fair share of the runtime, and the memory and time per window do not depend on the number of cities. The
+ * search stops when no window can be improved for both alignments. As the local distance matrices are
+ * symmetric, the search can only be applied to symmetric TSP problems.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPWindowDecomposition extends LocalSearch<TSPSolution> {
+
+    // default number of cities per window
+    private static final int DEFAULT_WINDOW_SIZE = 300;
+    // number of nearest neighbours per city within a window
+    private static final int NUM_LOCAL_CANDIDATES = 8;
+
+    // TSP problem
+    private final GenericProblem<TSPSolution, ? extends TSPData> problem;
+    // number of cities per window
+    private final int windowSize;
+    // fork/join pool used to optimize windows
+    private final ForkJoinPool pool;
+
+    // indicates whether windows are shifted by half a window in the next step
+    private boolean shifted;
+    // number of consecutive steps in which no window was improved
+    private int numStepsWithoutImprovement;
+
+    /**
+     * Create a window decomposition search for the given TSP problem, with a default window size,
+     * that uses the common fork/join pool.
+     *
+     * @param problem TSP problem
+     */
+    public TSPWindowDecomposition(GenericProblem<TSPSolution, ? extends TSPData> problem) {
+        this(null, problem, DEFAULT_WINDOW_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a window decomposition search for the given TSP problem, with the given window size and
+     * fork/join pool. The search is assigned the given name. If <code>name</code> is <code>null</code>,
+     * the default name "TSPWindowDecomposition" is used.
+     *
+     * @param name custom search name
+     * @param problem TSP problem
+     * @param windowSize number of cities per window
+     * @param pool fork/join pool used to optimize windows
+     * @throws IllegalArgumentException if the window size is smaller than four,
+     *                                  or if the problem has asymmetric distances
+     */
+    public TSPWindowDecomposition(String name, GenericProblem<TSPSolution, ? extends TSPData> problem,
+                                  int windowSize, ForkJoinPool pool) {
+        super(name != null ? name : "TSPWindowDecomposition", problem);
+        AsymmetricTSPObjective.requireSymmetric(problem, "TSPWindowDecomposition");
+        if(pool == null){
+            throw new NullPointerException("Error: fork/join pool can not be null.");
+        }
+        if(windowSize < 4){
+            throw new IllegalArgumentException("Error: window size should be at least four.");
+        }
+        this.problem = problem;
+        this.windowSize = windowSize;
+        this.pool = pool;
+    }
+
+    /**
+     * When the search is started, the windows are aligned with the start of the round trip.
+     */
+    @Override
+    protected void searchStarted() {
+        super.searchStarted();
+        shifted = false;
+        numStepsWithoutImprovement = 0;
+    }
+
+    /**
+     * Optimizes all windows in parallel and splices the improved subpaths back into the round trip.
+     */
+    @Override
+    protected void searchStep() {
+        TSPSolution sol = getCurrentSolution();
+        int n = sol.getNumCities();
+        int w = Math.min(windowSize, n);
+        if(w < 4){
+            // nothing to optimize
+            stop();
+            return;
+        }
+        // copy round trip, starting at the first window
+        int offset = shifted ? w/2 : 0;
+        shifted = !shifted;
+        int[] tour = new int[n];
+        for(int p=0; p<n; p++){
+            tour[p] = sol.getCity((offset + p) % n);
+        }
+        // optimize disjoint windows in parallel (each task only modifies its own range)
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for(int from=0; from<n; from+=w){
+            int start = from;
+            int end = Math.min(from + w, n);
+            if(end - start >= 4){
+                tasks.add(() -> optimizeWindow(tour, start, end));
+            }
+        }
+        boolean improved = false;
+        try {
+            for(Future<Boolean> f : pool.invokeAll(tasks)){
+                improved |= f.get();
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new SearchException("Error while optimizing windows in decomposition search.", ex);
+        }
+        if(improved){
+            // evaluate and validate spliced round trip through problem
+            TSPSolution newSol = TSPSolution.create(tour);
+            Validation newValidation = problem.validate(newSol);
+            if(newValidation.passed()){
+                Evaluation newEvaluation = problem.evaluate(newSol);
+                if(computeDelta(newEvaluation, getCurrentSolutionEvaluation()) > 0){
+                    updateCurrentAndBestSolution(newSol, newEvaluation, newValidation);
+                    numStepsWithoutImprovement = 0;
+                    return;
+                }
+            }
+        }
+        // stop if windows can not be improved for both alignments
+        if(++numStepsWithoutImprovement >= 2){
+            stop();
+        }
+    }
+
+    // optimize the subpath at positions [from, to) of the given round trip, keeping both endpoints fixed,
+    // and write the improved subpath back into the array (returns true if improved)
+    private boolean optimizeWindow(int[] tour, int from, int to){
+        int m = to - from;
+        int[] cities = new int[m];
+        System.arraycopy(tour, from, cities, 0, m);
+        // create local distance matrix
+        TSPData data = problem.getData();
+        double[][] dist = new double[m][m];
+        double maxDist = 0.0;
+        for(int a=0; a<m; a++){
+            for(int b=0; b<a; b++){
+                double d = data.getDistance(cities[a], cities[b]);
+                dist[a][b] = d;
+                dist[b][a] = d;
+                maxDist = Math.max(maxDist, d);
+            }
+        }
+        // close subpath with an edge that is never removed
+        dist[0][m-1] = dist[m-1][0] = -(m * maxDist + 1.0);
+        TSPData local = new TSPData(dist);
+        GenericProblem<TSPSolution, TSPData> localProblem = new GenericProblem<>(
+                local, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        // optimize local round trip, starting from the current subpath
+        int[] identity = new int[m];
+        for(int a=0; a<m; a++){
+            identity[a] = a;
+        }
+        TSP2OptDescent descent = new TSP2OptDescent(localProblem, new NearestNeighbourLists(local, NUM_LOCAL_CANDIDATES));
+        descent.setCurrentSolution(new TSPSolution(identity));
+        double before = descent.getCurrentSolutionEvaluation().getValue();
+        descent.start();
+        TSPSolution opt = descent.getCurrentSolution();
+        double after = descent.getCurrentSolutionEvaluation().getValue();
+        descent.dispose();
+        if(after >= before){
+            return false;
+        }
+        // splice improved subpath (from local city 0 to local city m-1)
+        int prev = m-1;
+        int cur = 0;
+        for(int p=0; p<m; p++){
+            tour[from + p] = cities[cur];
+            int next = opt.next(cur);
+            if(next == prev){
+                next = opt.prev(cur);
+            }
+            prev = cur;
+            cur = next;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * Available construction heuristics for initial TSP round trips.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public enum TourConstruction {
+
+    /**
+     * Uniformly random round trip.
+     */
+    RANDOM {
+        @Override
+        public TourConstructor create(NearestNeighbourLists candidates) {
+            return new RandomTourConstructor();
+        }
+    },
+
+    /**
+     * Nearest neighbour heuristic, starting from a random city.
+     */
+    NEAREST_NEIGHBOUR {
+        @Override
+        public TourConstructor create(NearestNeighbourLists candidates) {
+            return new NearestNeighbourConstructor(candidates);
+        }
+    },
+
+    /**
+     * Greedy edge heuristic, with randomly perturbed edge lengths.
+     */
+    GREEDY {
+        @Override
+        public TourConstructor create(NearestNeighbourLists candidates) {
+            return new GreedyEdgeConstructor(candidates, GREEDY_NOISE);
+        }
+    },
+
+    /**
+     * Hilbert curve through the cities, with a random orientation (requires city coordinates).
+     */
+    SPACE_FILLING_CURVE {
+        @Override
+        public TourConstructor create(NearestNeighbourLists candidates) {
+            return new SpaceFillingCurveConstructor();
+        }
+    },
+
+    /**
+     * Cheapest insertion heuristic, starting from a random city.
+     */
+    CHEAPEST_INSERTION {
+        @Override
+        public TourConstructor create(NearestNeighbourLists candidates) {
+            return new CheapestInsertionConstructor();
+        }
+    };
+
+    // maximum relative perturbation of edge lengths in the greedy edge heuristic
+    private static final double GREEDY_NOISE = 0.1;
+
+    /**
+     * Create a constructor that applies this heuristic.
+     *
+     * @param candidates nearest neighbour candidate lists, required by the greedy edge heuristic
+     *                   and used to speed up the nearest neighbour heuristic
+     * @return tour constructor
+     */
+    public abstract TourConstructor create(NearestNeighbourLists candidates);
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Random;
+
+/**
+ * Construction heuristic that creates an initial round trip for a TSP instance. Constructors may use
+ * the given random generator to break ties or to perturb their choices, so that different round trips
+ * are obtained when a constructor is applied repeatedly, e.g. to initialize the replicas of a parallel
+ * tempering search.
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public interface TourConstructor {
+
+    /**
+     * Construct a round trip for the cities in the given distance matrix.
+     *
+     * @param dist distance matrix
+     * @param rnd random generator
+     * @return cities in the order in which they are visited
+     */
+    public int[] construct(DistanceMatrix dist, Random rnd);
+
+}
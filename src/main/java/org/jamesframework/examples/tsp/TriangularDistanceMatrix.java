@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+/**
+ * Symmetric distance matrix of which only the strictly lower triangular part is stored,
+ * in a single packed array (row-wise, without diagonal entries). This halves the memory
+ * footprint compared to a full matrix. Subclasses decide how the entries are represented.
+ * The number of cities is limited to 65536 because the packed entries are indexed by
+ * an integer.
+ * 
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public abstract class TriangularDistanceMatrix extends StoredDistanceMatrix {
+
+    // maximum number of cities
+    public static final int MAX_NUM_CITIES = 65536;
+    
+    // index of the first packed entry of each row
+    private final int[] rowStart;
+    
+    public TriangularDistanceMatrix(int n) {
+        super(n);
+        if(n > MAX_NUM_CITIES){
+            throw new IllegalArgumentException("Error: packed distance matrix supports at most "
+                                                + MAX_NUM_CITIES + " cities (got " + n + ").");
+        }
+        rowStart = new int[n];
+        for(int i=1; i<n; i++){
+            rowStart[i] = rowStart[i-1] + (i-1);
+        }
+    }
+    
+    // number of packed entries for the given number of cities
+    protected static int getNumEntries(int n){
+        return (int) ((long) n * (n-1) / 2);
+    }
+    
+    // get entry at given index in packed array
+    protected abstract double getEntry(int index);
+    
+    // set entry at given index in packed array
+    protected abstract void setEntry(int index, double distance);
+    
+    @Override
+    public void setDistance(int i, int j, double distance) {
+        if(i > j){
+            setEntry(rowStart[i] + j, distance);
+        } else if (i < j){
+            setEntry(rowStart[j] + i, distance);
+        } else {
+            throw new IllegalArgumentException("Error: can not set distance from a city to itself.");
+        }
+    }
+
+    @Override
+    public double getDistance(int from, int to) {
+        if(from > to){
+            return getEntry(rowStart[from] + to);
+        } else if (from < to){
+            return getEntry(rowStart[to] + from);
+        } else {
+            return 0.0;
+        }
+    }
+    
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+/**
+ * <p>
+ * Two-level list representation of a round trip, for very large TSP instances. The round trip is split
+ * into segments of about &radic;n consecutive cities. The cities of each segment are stored contiguously
+ * in an array, so that the links between neighbouring cities within a segment are implicit, and each
+ * segment has a reverse bit that indicates whether its cities are traversed from the end of its block
+ * to the start. The segments themselves are kept in the order in which they are visited, together with
+ * the position of their first city.
+ * </p>
+ * <p>
+ * Looking up the successor, predecessor or position of a city takes constant time, while retrieving the
+ * city at a given position requires a binary search over the segments. A subpath that lies within a single
+ * segment is reversed by swapping its cities. Any other subpath is reversed by splitting the segments at
+ * both of its ends, after which the order of the enclosed segments is reversed and their reverse bits are
+ * flipped. Both take O(&radic;n) time. As splitting increases the number of segments, all segments are
+ * rebuilt with balanced sizes when there are twice as many segments as initially.
+ * </p>
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TwoLevelListTour implements TSPTour {
+
+    // number of cities
+    private final int n;
+    // segment size when (re)building
+    private final int segmentSize;
+    // maximum number of segments before rebuilding
+    private final int maxSegments;
+
+    // city storage: cities of each segment occupy a contiguous block
+    private final int[] cities;
+    // index in city storage for each city
+    private final int[] index;
+    // segment of each city
+    private final int[] segmentOf;
+
+    // first and last index of the block of each segment
+    private final int[] lo, hi;
+    // reverse bit of each segment
+    private final boolean[] reversed;
+    // position of the first city of each segment
+    private final int[] start;
+    // slot of each segment in the segment order
+    private final int[] slot;
+    // segments in the order in which they are visited
+    private final int[] order;
+    // current number of segments
+    private int numSegments;
+
+    /**
+     * Create a two-level list that visits the given cities in the given order.
+     *
+     * @param tour cities in the order in which they are visited
+     */
+    public TwoLevelListTour(int[] tour){
+        n = tour.length;
+        segmentSize = Math.max(1, (int) Math.sqrt(n));
+        int initialSegments = (n + segmentSize - 1) / segmentSize;
+        maxSegments = 2 * initialSegments + 3;
+        // reversing a subpath creates at most three additional segments
+        int capacity = maxSegments + 3;
+        cities = tour.clone();
+        index = new int[n];
+        segmentOf = new int[n];
+        lo = new int[capacity];
+        hi = new int[capacity];
+        reversed = new boolean[capacity];
+        start = new int[capacity];
+        slot = new int[capacity];
+        order = new int[capacity];
+        build();
+    }
+
+    // deep copy constructor
+    private TwoLevelListTour(TwoLevelListTour toCopy){
+        n = toCopy.n;
+        segmentSize = toCopy.segmentSize;
+        maxSegments = toCopy.maxSegments;
+        cities = toCopy.cities.clone();
+        index = toCopy.index.clone();
+        segmentOf = toCopy.segmentOf.clone();
+        lo = toCopy.lo.clone();
+        hi = toCopy.hi.clone();
+        reversed = toCopy.reversed.clone();
+        start = toCopy.start.clone();
+        slot = toCopy.slot.clone();
+        order = toCopy.order.clone();
+        numSegments = toCopy.numSegments;
+    }
+
+    // create balanced segments from the current city storage, which should list the cities in order
+    private void build(){
+        numSegments = 0;
+        for(int from=0; from<n; from+=segmentSize){
+            int s = numSegments++;
+            lo[s] = from;
+            hi[s] = Math.min(from + segmentSize, n) - 1;
+            reversed[s] = false;
+            start[s] = from;
+            slot[s] = s;
+            order[s] = s;
+            for(int k=lo[s]; k<=hi[s]; k++){
+                index[cities[k]] = k;
+                segmentOf[cities[k]] = s;
+            }
+        }
+    }
+
+    // rewrite city storage in the order in which the cities are visited and rebuild balanced segments
+    private void rebuild(){
+        int[] tour = new int[n];
+        int p = 0;
+        for(int t=0; t<numSegments; t++){
+            int s = order[t];
+            if(reversed[s]){
+                for(int k=hi[s]; k>=lo[s]; k--){
+                    tour[p++] = cities[k];
+                }
+            } else {
+                for(int k=lo[s]; k<=hi[s]; k++){
+                    tour[p++] = cities[k];
+                }
+            }
+        }
+        System.arraycopy(tour, 0, cities, 0, n);
+        build();
+    }
+
+    @Override
+    public int getNumCities(){
+        return n;
+    }
+
+    @Override
+    public int getCity(int position){
+        int s = order[findSlot(position)];
+        int k = position - start[s];
+        return cities[reversed[s] ? hi[s] - k : lo[s] + k];
+    }
+
+    @Override
+    public int getPosition(int city){
+        int s = segmentOf[city];
+        return start[s] + (reversed[s] ? hi[s] - index[city] : index[city] - lo[s]);
+    }
+
+    @Override
+    public int next(int city){
+        int s = segmentOf[city];
+        int k = index[city];
+        if(reversed[s]){
+            if(k > lo[s]){
+                return cities[k-1];
+            }
+        } else if(k < hi[s]){
+            return cities[k+1];
+        }
+        int t = slot[s] + 1;
+        return first(order[t < numSegments ? t : 0]);
+    }
+
+    @Override
+    public int prev(int city){
+        int s = segmentOf[city];
+        int k = index[city];
+        if(reversed[s]){
+            if(k < hi[s]){
+                return cities[k+1];
+            }
+        } else if(k > lo[s]){
+            return cities[k-1];
+        }
+        int t = slot[s] - 1;
+        return last(order[t >= 0 ? t : numSegments-1]);
+    }
+
+    @Override
+    public void reverse(int i, int j){
+        // length of subpath from position i to j
+        int len = j - i;
+        if(len < 0){
+            len += n;
+        }
+        len++;
+        if(len <= 1){
+            return;
+        }
+        int s = order[findSlot(i)];
+        if(i <= j && j < start[s] + size(s)){
+            // subpath within a single segment: swap cities
+            reverseWithinSegment(s, i, j);
+            return;
+        }
+        // make sure that segments start at positions i and j+1
+        split(i);
+        split(j+1 < n ? j+1 : 0);
+        int ti = findSlot(i);
+        int tj = findSlot(j);
+        if(i <= j){
+            // reverse order of segments ti up to tj and flip their reverse bits
+            reverseSlots(ti, tj);
+            updateSlots(ti, tj, i);
+        } else {
+            // subpath wraps around: reversed subpath starts with the segments from slot 0 up to tj
+            // (in reverse order), followed by those from slot ti up to the end (in reverse order)
+            int numTail = numSegments - ti;
+            int numHead = tj + 1;
+            int[] reversedPath = new int[numHead + numTail + 1];
+            int r = 0;
+            for(int t=tj; t>=0; t--){
+                reversedPath[r++] = order[t];
+            }
+            for(int t=numSegments-1; t>=ti; t--){
+                reversedPath[r++] = order[t];
+            }
+            for(int k=0; k<r; k++){
+                reversed[reversedPath[k]] = !reversed[reversedPath[k]];
+            }
+            // first n-i cities of the reversed subpath are placed at the end of the round trip,
+            // split the segment that crosses this boundary if needed
+            int tailLength = n - i;
+            int cut = 0;
+            int cum = 0;
+            while(cum + size(reversedPath[cut]) <= tailLength){
+                cum += size(reversedPath[cut]);
+                cut++;
+            }
+            if(cum < tailLength){
+                int second = splitSegment(reversedPath[cut], tailLength - cum);
+                System.arraycopy(reversedPath, cut+1, reversedPath, cut+2, r - cut - 1);
+                reversedPath[cut+1] = second;
+                r++;
+                cut++;
+            }
+            // new order: head of the reversed subpath, untouched middle part, tail of the reversed subpath
+            int[] middle = new int[ti - tj - 1];
+            System.arraycopy(order, tj+1, middle, 0, middle.length);
+            int t = 0;
+            for(int k=cut; k<r; k++){
+                order[t++] = reversedPath[k];
+            }
+            for(int m : middle){
+                order[t++] = m;
+            }
+            for(int k=0; k<cut; k++){
+                order[t++] = reversedPath[k];
+            }
+            numSegments = t;
+            updateSlots(0, numSegments-1, 0);
+        }
+        if(numSegments > maxSegments){
+            rebuild();
+        }
+    }
+
+    // reverse cities from position i to j, which both belong to the given segment
+    private void reverseWithinSegment(int s, int i, int j){
+        int a = reversed[s] ? hi[s] - (j - start[s]) : lo[s] + (i - start[s]);
+        int b = a + (j - i);
+        while(a < b){
+            int ca = cities[a];
+            int cb = cities[b];
+            cities[a] = cb;
+            cities[b] = ca;
+            index[cb] = a;
+            index[ca] = b;
+            a++;
+            b--;
+        }
+    }
+
+    // reverse order of segments in the given range of slots and flip their reverse bits
+    private void reverseSlots(int from, int to){
+        for(int t=from; t<=to; t++){
+            reversed[order[t]] = !reversed[order[t]];
+        }
+        while(from < to){
+            int tmp = order[from];
+            order[from] = order[to];
+            order[to] = tmp;
+            from++;
+            to--;
+        }
+    }
+
+    // update slots and start positions of the segments in the given range of slots,
+    // where the first segment starts at the given position
+    private void updateSlots(int from, int to, int position){
+        for(int t=from; t<=to; t++){
+            int s = order[t];
+            slot[s] = t;
+            start[s] = position;
+            position += size(s);
+        }
+    }
+
+    // make sure that a segment starts at the given position
+    private void split(int position){
+        int t = findSlot(position);
+        int s = order[t];
+        int k = position - start[s];
+        if(k > 0){
+            int second = splitSegment(s, k);
+            // insert new segment in order
+            System.arraycopy(order, t+1, order, t+2, numSegments - t - 1);
+            order[t+1] = second;
+            numSegments++;
+            updateSlots(t+1, numSegments-1, position);
+        }
+    }
+
+    // split segment after the first k cities (in the order in which they are visited), the original segment
+    // retains the first part; returns the new segment holding the second part (not yet inserted in the order)
+    private int splitSegment(int s, int k){
+        int second = numSegments;
+        reversed[second] = reversed[s];
+        if(reversed[s]){
+            lo[second] = lo[s];
+            hi[second] = hi[s] - k;
+            lo[s] = hi[s] - k + 1;
+        } else {
+            lo[second] = lo[s] + k;
+            hi[second] = hi[s];
+            hi[s] = lo[s] + k - 1;
+        }
+        for(int c=lo[second]; c<=hi[second]; c++){
+            segmentOf[cities[c]] = second;
+        }
+        start[second] = start[s] + k;
+        return second;
+    }
+
+    // find slot of the segment that contains the given position
+    private int findSlot(int position){
+        int low = 0;
+        int high = numSegments - 1;
+        while(low < high){
+            int mid = (low + high + 1) >>> 1;
+            if(start[order[mid]] <= position){
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // number of cities in the given segment
+    private int size(int s){
+        return hi[s] - lo[s] + 1;
+    }
+
+    // first city of the given segment
+    private int first(int s){
+        return cities[reversed[s] ? hi[s] : lo[s]];
+    }
+
+    // last city of the given segment
+    private int last(int s){
+        return cities[reversed[s] ? lo[s] : hi[s]];
+    }
+
+    @Override
+    public TwoLevelListTour copy(){
+        return new TwoLevelListTour(this);
+    }
+
+}
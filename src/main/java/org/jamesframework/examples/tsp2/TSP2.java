@@ -16,17 +16,26 @@
 
 package org.jamesframework.examples.tsp2;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
 import org.jamesframework.core.search.LocalSearch;
 import org.jamesframework.core.search.algo.ParallelTempering;
 import org.jamesframework.core.search.algo.RandomDescent;
 import org.jamesframework.core.search.stopcriteria.MaxRuntime;
+import org.jamesframework.examples.tsp.CoordinateDistanceMatrix;
+import org.jamesframework.examples.tsp.MappedDistanceMatrix;
+import org.jamesframework.examples.tsp.NearestNeighbourLists;
+import org.jamesframework.examples.tsp.TSP;
+import org.jamesframework.examples.tsp.TSPLIBFileReader;
+import org.jamesframework.examples.tsp.TourConstruction;
+import org.jamesframework.examples.tsp.TourConstructor;
 import org.jamesframework.examples.util.ProgressSearchListener;
 import org.jamesframework.ext.permutation.PermutationProblem;
 import org.jamesframework.ext.permutation.PermutationSolution;
@@ -41,30 +50,45 @@ import org.jamesframework.ext.permutation.neigh.ReverseSubsequenceNeighbourhood;
  */
 public class TSP2 {
     
+    // number of nearest neighbours per city used by the construction heuristics
+    private static final int NUM_CANDIDATES = 10;
+    
+    // default construction heuristic for initial round trips
+    private static final TourConstruction DEFAULT_CONSTRUCTION = TourConstruction.GREEDY;
+    
     /**
      * Solves a (symmetric) travelling salesman problem. Expects two parameters: (1) the input file path and
      * (2) the runtime limit (in seconds). The input is specified in a text file in which the first row contains
      * a single integer value indicating the number of cities. The remainder of the file contains the entries of
      * the lower triangular part of a symmetric distance matrix (row-wise without diagonal entries), separated
-     * by whitespace and/or newlines.
+     * by whitespace and/or newlines. Alternatively, files with extension ".tsp" are read in TSPLIB format,
+     * where the cities are specified by their coordinates (see {@link TSPLIBFileReader}), and files with
+     * extension ".bin" are memory-mapped binary distance matrices (see {@link MappedDistanceMatrix}). An
+     * optional third parameter selects the construction heuristic for the initial round trips (see
+     * {@link TourConstruction}), e.g. "nearest_neighbour" or "random". By default, the greedy edge heuristic
+     * is applied.
      * 
-     * @param args array containing the input file path and runtime limit
+     * @param args array containing the input file path, runtime limit and optional construction heuristic
      */
     public static void main(String[] args) {
         System.out.println("###################################");
         System.out.println("# TRAVELLING SALESMAN PROBLEM (2) #");
         System.out.println("###################################");
         // parse arguments
-        if(args.length != 2){
-            System.err.println("Usage: java -cp james-examples.jar org.jamesframework.examples.tsp2.TSP2 <inputfile> <runtime>");
+        if(args.length != 2 && args.length != 3){
+            System.err.println("Usage: java -cp james-examples.jar org.jamesframework.examples.tsp2.TSP2 <inputfile> <runtime> [<construction>]");
             System.exit(1);
         }
         String filePath = args[0];
         int timeLimit = Integer.parseInt(args[1]);
-        run(filePath, timeLimit);
+        TourConstruction construction = DEFAULT_CONSTRUCTION;
+        if(args.length == 3){
+            construction = TSP.parseConstruction(args[2]);
+        }
+        run(filePath, timeLimit, construction);
     }
     
-    private static void run(String filePath, int timeLimit){
+    private static void run(String filePath, int timeLimit, TourConstruction construction){
         
         /***************/
         /* PARSE INPUT */
@@ -79,18 +103,41 @@ public class TSP2 {
             /* PROBLEM SPECIFICATION */
             /*************************/
             
-            // read TSP data from file
-            TSPData data = new TSPFileReader().read(filePath);
+            // read TSP data from file (TSPLIB coordinates, binary or text distance matrix)
+            TSPData data;
+            if(filePath.endsWith(".tsp")){
+                data = new TSPData(new TSPLIBFileReader().readDistanceMatrix(filePath));
+            } else if(filePath.endsWith(".bin")){
+                data = new TSPData(new MappedDistanceMatrix(filePath));
+            } else {
+                data = new TSPFileReader().read(filePath);
+            }
             // create objective
             TSPObjective obj = new TSPObjective();
             
+            // check construction heuristic
+            if(construction == TourConstruction.SPACE_FILLING_CURVE
+                    && !(data.getDistanceMatrix() instanceof CoordinateDistanceMatrix)){
+                System.err.println("Space-filling curve construction requires city coordinates (TSPLIB input).");
+                System.exit(1);
+            }
+            
             // wrap data and objective in permutation problem
             PermutationProblem<TSPData> problem = new PermutationProblem<>(data, obj);
+            // replace random permutations by the chosen construction heuristic
+            NearestNeighbourLists candidates = new NearestNeighbourLists(data.getDistanceMatrix(), NUM_CANDIDATES);
+            TourConstructor constructor = construction.create(candidates);
+            problem.setRandomSolutionGenerator((rnd, d) -> {
+                int[] cities = constructor.construct(d.getDistanceMatrix(), rnd);
+                List<Integer> order = Arrays.stream(cities).boxed().collect(Collectors.toList());
+                return new PermutationSolution(order);
+            });
                     
             System.out.println("# OPTIMIZING TSP ROUND TRIP");
 
             System.out.println("Number of cities: " + data.getIDs().size());
             System.out.println("Time limit: " + timeLimit + " seconds");
+            System.out.println("Construction heuristic: " + construction);
             
             /******************/
             /* RANDOM DESCENT */
@@ -131,7 +178,7 @@ public class TSP2 {
             
             // set temperature range, scaled according to average
             // distance between cities and their nearest neighbours
-            double scale = computeAvgNearestNeighbourDistance(data);
+            double scale = candidates.getAvgNearestNeighbourDistance(data.getDistanceMatrix());
             double minTemp = scale * 1e-8;
             double maxTemp = scale * 0.6;
             // create parallel tempering search with neighbourhood that reverses a subsequence (2-opt move)
@@ -187,29 +234,11 @@ public class TSP2 {
                                 ptBestEval != null ? df.format(ptBestEval.getValue()) : "-");
             System.out.println("---------------------------------------");
             
-        } catch (FileNotFoundException ex) {
-            System.err.println("Failed to read file: " + filePath);
+        } catch (IOException ex) {
+            System.err.println("Failed to read file: " + filePath + " (" + ex.getMessage() + ")");
             System.exit(2);
         }
         
     }
-
-    // compute average nearest neighbour distance
-    private static double computeAvgNearestNeighbourDistance(TSPData data){
-        Set<Integer> ids = data.getIDs();
-        double sum = 0.0;
-        for(int id1 : ids){
-            double min = Double.MAX_VALUE;
-            for(int id2 : ids) {
-                double dist = data.getDistance(id1, id2);
-                if(dist > 0.0 && dist < min){
-                    min = dist;
-                }
-            }
-            sum += min;
-        }
-        int n = ids.size();
-        return sum/n;
-    }
     
 }
@@ -19,25 +19,32 @@ package org.jamesframework.examples.tsp2;
 import java.util.HashSet;
 import java.util.Set;
 import org.jamesframework.core.problems.datatypes.IntegerIdentifiedData;
+import org.jamesframework.examples.tsp.DistanceMatrix;
+import org.jamesframework.examples.tsp.FullDistanceMatrix;
 
 /**
  * TSP data consisting of a distance matrix with travel distance between each pair of cities.
  * The IDs assigned to the cities correspond to the row and column indices in the distance matrix.
+ * The way in which the distances are stored depends on the chosen {@link DistanceMatrix} implementation.
  * 
  * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
  */
 public class TSPData implements IntegerIdentifiedData {
 
     // travel distance matrix
-    private final double[][] dist;
+    private final DistanceMatrix dist;
     
     // set of IDs
     private final Set<Integer> ids;
 
     public TSPData(double[][] dist) {
+        this(new FullDistanceMatrix(dist));
+    }
+    
+    public TSPData(DistanceMatrix dist) {
         // infer IDs
         ids = new HashSet<>();
-        for(int i=0; i<dist.length; i++){
+        for(int i=0; i<dist.getNumCities(); i++){
             ids.add(i);
         }
         // store distance matrix
@@ -51,7 +58,12 @@ public class TSPData implements IntegerIdentifiedData {
     
     // get travel distance from the given city to the given other city
     public double getDistance(int from, int to){
-        return dist[from][to];
+        return dist.getDistance(from, to);
+    }
+    
+    // retrieve underlying distance matrix
+    public DistanceMatrix getDistanceMatrix(){
+        return dist;
     }
     
 }
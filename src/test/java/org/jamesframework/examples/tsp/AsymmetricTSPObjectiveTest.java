@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.LocalSearch;
+import org.jamesframework.core.search.algo.RandomDescent;
+import org.jamesframework.core.search.neigh.Neighbourhood;
+import org.jamesframework.core.search.stopcriteria.MaxSteps;
+import org.jamesframework.ext.search.neigh.CompositeNeighbourhood;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class AsymmetricTSPObjectiveTest {
+
+    private static final Random RG = new Random();
+
+    public AsymmetricTSPObjectiveTest() {
+    }
+
+    @Test
+    public void testEvaluate2Opt() {
+        int n = 50;
+        TSPData data = new TSPData(new AsymmetricDistanceMatrix(randomMatrix(n)));
+        AsymmetricTSPObjective obj = new AsymmetricTSPObjective();
+        TSPSolution sol = TSP.ASYMMETRIC_RANDOM_SOLUTION_GENERATOR.create(RG, data);
+        assertTrue(sol instanceof AsymmetricTSPSolution);
+        Evaluation eval = obj.evaluate(sol, data);
+        for(int k=0; k<1000; k++){
+            // random 2-opt move (possibly wrapping around or reversing the entire round trip)
+            int i = RG.nextInt(n);
+            int j = k % 10 == 0 ? (i+n-1) % n : (i+1+RG.nextInt(n-1)) % n;
+            TSP2OptMove move = new TSP2OptMove(i, j);
+            double deltaEval = obj.evaluate(move, sol, eval, data).getValue();
+            move.apply(sol);
+            Evaluation fullEval = obj.evaluate(sol, data);
+            assertEquals(fullEval.getValue(), deltaEval, TestConstants.DOUBLE_COMPARISON_PRECISION);
+            // continue from new solution
+            eval = fullEval;
+        }
+    }
+
+    @Test
+    public void testReadAsymmetric() throws IOException {
+        int n = 50;
+        double[][] dist = randomMatrix(n);
+        File file = File.createTempFile("atsp", ".txt");
+        file.deleteOnExit();
+        StringBuilder str = new StringBuilder().append(n).append("\n");
+        for(int i=0; i<n; i++){
+            for(int j=0; j<n; j++){
+                str.append(dist[i][j]).append(j < n-1 ? " " : "\n");
+            }
+        }
+        Files.write(file.toPath(), str.toString().getBytes(StandardCharsets.UTF_8));
+        TSPData read = new TSPFileReader().readAsymmetric(file.getPath());
+        assertTrue(read.getDistanceMatrix() instanceof AsymmetricDistanceMatrix);
+        assertEquals(n, read.getNumCities());
+        // both directions are retained
+        int[] to = new int[n];
+        double[] row = new double[n];
+        for(int i=0; i<n; i++){
+            to[i] = n-1-i;
+        }
+        for(int i=0; i<n; i++){
+            for(int j=0; j<n; j++){
+                assertEquals(dist[i][j], read.getDistance(i, j), TestConstants.DOUBLE_COMPARISON_PRECISION);
+            }
+            read.getDistanceMatrix().getDistances(i, to, 0, n, row);
+            for(int k=0; k<n; k++){
+                assertEquals(dist[i][to[k]], row[k], TestConstants.DOUBLE_COMPARISON_PRECISION);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomDescent() {
+        int n = 40;
+        TSPData data = new TSPData(new AsymmetricDistanceMatrix(randomMatrix(n)));
+        GenericProblem<TSPSolution, TSPData> problem = new GenericProblem<>(
+                data, new AsymmetricTSPObjective(), TSP.ASYMMETRIC_RANDOM_SOLUTION_GENERATOR
+        );
+        NearestNeighbourLists candidates = new NearestNeighbourLists(data, 5);
+        Neighbourhood<TSPSolution> neigh = new CompositeNeighbourhood<>(
+                Arrays.asList(
+                    new TSP2OptNeighbourhood(candidates),
+                    new TSPOrOptNeighbourhood(candidates),
+                    new TSP3OptNeighbourhood(candidates)
+                ),
+                Arrays.asList(0.4, 0.3, 0.3)
+        );
+        LocalSearch<TSPSolution> search = new RandomDescent<>(problem, neigh);
+        search.addStopCriterion(new MaxSteps(2000));
+        search.start();
+        // delta evaluations agree with a full evaluation of the directed round trip
+        TSPSolution best = search.getBestSolution();
+        assertTrue(best instanceof AsymmetricTSPSolution);
+        assertEquals(n, new HashSet<>(best.getCities()).size());
+        assertEquals(problem.evaluate(best).getValue(), search.getBestSolutionEvaluation().getValue(),
+                     TestConstants.DOUBLE_COMPARISON_PRECISION);
+        search.dispose();
+    }
+
+    @Test
+    public void testSymmetricSearches() {
+        TSPData data = new TSPData(new AsymmetricDistanceMatrix(randomMatrix(10)));
+        NearestNeighbourLists candidates = new NearestNeighbourLists(data, 5);
+        GenericProblem<TSPSolution, TSPData> problem = new GenericProblem<>(
+                data, new AsymmetricTSPObjective(), TSP.ASYMMETRIC_RANDOM_SOLUTION_GENERATOR
+        );
+        // asymmetric distances wrapped in a cache are detected as well
+        GenericProblem<TSPSolution, TSPData> cachedProblem = new GenericProblem<>(
+                new TSPData(new CachedDistanceMatrix(data.getDistanceMatrix(), 16, false)),
+                new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        ForkJoinPool pool = new ForkJoinPool(2);
+        for(GenericProblem<TSPSolution, TSPData> p : Arrays.asList(problem, cachedProblem)){
+            try {
+                new TSP2OptDescent(p, candidates);
+                fail("Expected IllegalArgumentException for 2-opt descent.");
+            } catch (IllegalArgumentException ex){ }
+            try {
+                new TSP2OptSteepestDescent(null, p, pool);
+                fail("Expected IllegalArgumentException for steepest descent.");
+            } catch (IllegalArgumentException ex){ }
+            try {
+                new TSPLinKernighan(p, candidates);
+                fail("Expected IllegalArgumentException for Lin-Kernighan.");
+            } catch (IllegalArgumentException ex){ }
+            try {
+                new TSPGuidedLocalSearch(p, candidates);
+                fail("Expected IllegalArgumentException for guided local search.");
+            } catch (IllegalArgumentException ex){ }
+            try {
+                new TSPMemeticSearch(p, candidates);
+                fail("Expected IllegalArgumentException for memetic search.");
+            } catch (IllegalArgumentException ex){ }
+            try {
+                new TSPWindowDecomposition(null, p, 10, pool);
+                fail("Expected IllegalArgumentException for window decomposition.");
+            } catch (IllegalArgumentException ex){ }
+        }
+        pool.shutdown();
+    }
+
+    // create random asymmetric distance matrix with the given number of cities
+    private double[][] randomMatrix(int n){
+        double[][] dist = new double[n][n];
+        for(int i=0; i<n; i++){
+            for(int j=0; j<n; j++){
+                dist[i][j] = i == j ? 0.0 : RG.nextInt(1000);
+            }
+        }
+        return dist;
+    }
+
+}
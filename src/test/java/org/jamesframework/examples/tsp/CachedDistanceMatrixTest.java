@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class CachedDistanceMatrixTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static TSPData data;
+
+    public CachedDistanceMatrixTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        data = new TSPFileReader().read(file);
+    }
+
+    @Test
+    public void testGetDistance() {
+        int n = data.getNumCities();
+        for(boolean symmetric : new boolean[]{false, true}){
+            CachedDistanceMatrix cached = new CachedDistanceMatrix(data.getDistanceMatrix(), 1000, symmetric);
+            assertEquals(n, cached.getNumCities());
+            assertEquals(0.0, cached.getHitRate(), TestConstants.DOUBLE_COMPARISON_PRECISION);
+            // repeatedly query a few nearby cities (fits in the cache)
+            for(int rep=0; rep<10; rep++){
+                for(int i=0; i<20; i++){
+                    for(int j=0; j<20; j++){
+                        assertEquals(data.getDistance(i, j), cached.getDistance(i, j),
+                                     TestConstants.DOUBLE_COMPARISON_PRECISION);
+                    }
+                }
+            }
+            assertEquals(4000, cached.getNumLookups());
+            assertTrue(cached.getHitRate() > 0.5);
+            // random queries (frequent evictions)
+            for(int k=0; k<10000; k++){
+                int i = RG.nextInt(n);
+                int j = RG.nextInt(n);
+                assertEquals(data.getDistance(i, j), cached.getDistance(i, j), TestConstants.DOUBLE_COMPARISON_PRECISION);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentStatistics() throws InterruptedException {
+        int n = data.getNumCities();
+        CachedDistanceMatrix cached = new CachedDistanceMatrix(data.getDistanceMatrix(), 256, true);
+        int numThreads = 4;
+        int numQueries = 100000;
+        List<Thread> threads = new ArrayList<>();
+        for(int t=0; t<numThreads; t++){
+            Thread thread = new Thread(() -> {
+                Random rnd = new Random();
+                for(int k=0; k<numQueries; k++){
+                    cached.getDistance(rnd.nextInt(n), rnd.nextInt(n));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        // statistics can be read while other threads are querying distances
+        while(threads.get(0).isAlive()){
+            assertTrue(cached.getHitRate() <= 1.0);
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        assertEquals((long) numThreads * numQueries, cached.getNumLookups());
+        assertTrue(cached.getNumHits() <= cached.getNumLookups());
+    }
+
+    @Test
+    public void testCoordinates() {
+        // random cities with GEO coordinates (latitude and longitude)
+        int n = 300;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for(int c=0; c<n; c++){
+            x[c] = 100 * RG.nextDouble() - 50;
+            y[c] = 100 * RG.nextDouble() - 50;
+        }
+        CoordinateDistanceMatrix coords = new CoordinateDistanceMatrix(x, y, EdgeWeightType.GEO);
+        CachedDistanceMatrix cached = new CachedDistanceMatrix(coords);
+        assertSame(coords, CachedDistanceMatrix.unwrap(cached));
+        assertSame(coords, CachedDistanceMatrix.unwrap(coords));
+        // candidate lists and renumbering are computed from the underlying coordinates
+        NearestNeighbourLists expected = new NearestNeighbourLists(coords, 8);
+        NearestNeighbourLists actual = new NearestNeighbourLists(cached, 8);
+        for(int c=0; c<n; c++){
+            assertArrayEquals(expected.getNeighbours(c), actual.getNeighbours(c));
+        }
+        assertEquals(0, cached.getNumLookups());
+        CityRenumbering renumbering = new CityRenumbering(cached);
+        CityRenumbering expectedRenumbering = new CityRenumbering(coords);
+        for(int c=0; c<n; c++){
+            assertEquals(expectedRenumbering.getOriginalCity(c), renumbering.getOriginalCity(c));
+        }
+        TSPData renumbered = renumbering.renumberInPlace(new TSPData(cached));
+        assertTrue(renumbered.getDistanceMatrix() instanceof CoordinateDistanceMatrix);
+        // space-filling curve accepts cached coordinates
+        assertArrayEquals(new SpaceFillingCurveConstructor().construct(coords, new Random(7)),
+                          new SpaceFillingCurveConstructor().construct(cached, new Random(7)));
+    }
+
+}
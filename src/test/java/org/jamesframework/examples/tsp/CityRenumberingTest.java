@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.Random;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class CityRenumberingTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static TSPData data;
+    private static TSPObjective obj;
+
+    public CityRenumberingTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        data = new TSPFileReader().read(file);
+        obj = new TSPObjective();
+    }
+
+    @Test
+    public void testRenumber() {
+        int n = data.getNumCities();
+        CityRenumbering renumbering = new CityRenumbering(data.getDistanceMatrix());
+        for(DistanceStorage storage : DistanceStorage.values()){
+            TSPData renumbered = renumbering.renumber(data, storage);
+            for(int i=0; i<n; i++){
+                assertEquals(i, renumbering.getRenumberedCity(renumbering.getOriginalCity(i)));
+                for(int j=0; j<n; j++){
+                    assertEquals(data.getDistance(renumbering.getOriginalCity(i), renumbering.getOriginalCity(j)),
+                                 renumbered.getDistance(i, j), TestConstants.DOUBLE_COMPARISON_PRECISION);
+                }
+            }
+            // round trips are mapped back and forth without changing their travel distance
+            TSPSolution sol = TSP.RANDOM_SOLUTION_GENERATOR.create(RG, renumbered);
+            TSPSolution orig = renumbering.toOriginal(sol);
+            assertEquals(obj.evaluate(sol, renumbered).getValue(), obj.evaluate(orig, data).getValue(),
+                         TestConstants.DOUBLE_COMPARISON_PRECISION);
+            assertEquals(sol, renumbering.toRenumbered(orig));
+        }
+    }
+
+    @Test
+    public void testRenumberInPlace() throws IOException {
+        for(DistanceStorage storage : DistanceStorage.values()){
+            TSPData original = new TSPFileReader(storage).read(file);
+            TSPData copy = new TSPFileReader(storage).read(file);
+            int n = original.getNumCities();
+            CityRenumbering renumbering = new CityRenumbering(randomPermutation(n));
+            TSPData renumbered = renumbering.renumberInPlace(copy);
+            // storage mode is retained
+            assertSame(copy, renumbered);
+            assertEquals(storage.create(2).getClass(), renumbered.getDistanceMatrix().getClass());
+            for(int i=0; i<n; i++){
+                for(int j=0; j<n; j++){
+                    assertEquals(original.getDistance(renumbering.getOriginalCity(i), renumbering.getOriginalCity(j)),
+                                 renumbered.getDistance(i, j), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRenumberInPlaceAsymmetric() {
+        // full matrices retain asymmetric distances
+        int n = 30;
+        double[][] dist = new double[n][n];
+        for(int i=0; i<n; i++){
+            for(int j=0; j<n; j++){
+                dist[i][j] = i == j ? 0.0 : RG.nextInt(1000);
+            }
+        }
+        double[][] copy = new double[n][];
+        for(int i=0; i<n; i++){
+            copy[i] = dist[i].clone();
+        }
+        CityRenumbering renumbering = new CityRenumbering(randomPermutation(n));
+        TSPData renumbered = renumbering.renumberInPlace(new TSPData(copy));
+        for(int i=0; i<n; i++){
+            for(int j=0; j<n; j++){
+                assertEquals(dist[renumbering.getOriginalCity(i)][renumbering.getOriginalCity(j)],
+                             renumbered.getDistance(i, j), 0.0);
+            }
+        }
+    }
+
+    // create random permutation of 0, ..., n-1
+    private int[] randomPermutation(int n){
+        int[] perm = new int[n];
+        for(int c=0; c<n; c++){
+            int r = RG.nextInt(c+1);
+            perm[c] = perm[r];
+            perm[r] = c;
+        }
+        return perm;
+    }
+
+}
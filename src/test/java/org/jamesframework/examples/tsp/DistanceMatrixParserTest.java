@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.*;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class DistanceMatrixParserTest {
+
+    private static final Random RG = new Random();
+
+    // whitespace separators and number formats
+    private static final String[] SEPARATORS = {" ", "  ", "\n", "\r\n", "\t", " \n\t "};
+    private static final String[] FORMATS = {"%.0f", "%.3f", "%.17g", "%e", "%.2E"};
+
+    private static ForkJoinPool pool;
+
+    public DistanceMatrixParserTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testMultipleChunks() throws IOException {
+        // lower triangular matrix with mixed formatting
+        int n = 30;
+        File file = writeMatrix(n, n*(n-1)/2, " 99 100\n");
+        List<Double> expected = scan(file);
+        // every chunk size yields the same matrix (chunks as small as a single byte)
+        for(int chunkSize=1; chunkSize<=40; chunkSize++){
+            DistanceMatrixParser parser = new DistanceMatrixParser(pool, chunkSize, chunkSize);
+            StoredDistanceMatrix dist = parser.parse(file.getPath(), DistanceStorage.FULL);
+            assertEquals(n, dist.getNumCities());
+            int k = 0;
+            for(int i=1; i<n; i++){
+                for(int j=0; j<i; j++){
+                    assertEquals(expected.get(k++), dist.getDistance(i, j), 0.0);
+                    assertEquals(dist.getDistance(i, j), dist.getDistance(j, i), 0.0);
+                }
+            }
+        }
+        // default chunk size
+        StoredDistanceMatrix dist = new DistanceMatrixParser().parse(file.getPath(), DistanceStorage.FULL);
+        assertEquals(expected.get(expected.size()-3), dist.getDistance(n-1, n-2), 0.0);
+    }
+
+    @Test
+    public void testFullMatrix() throws IOException {
+        int n = 12;
+        File file = writeMatrix(n, n*n, "");
+        List<Double> expected = scan(file);
+        for(int chunkSize=1; chunkSize<=30; chunkSize+=3){
+            double[][] dist = new DistanceMatrixParser(pool, chunkSize, chunkSize).parseFull(file.getPath());
+            assertEquals(n, dist.length);
+            for(int i=0; i<n; i++){
+                for(int j=0; j<n; j++){
+                    assertEquals(expected.get(i*n + j), dist[i][j], 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFallback() throws IOException {
+        // numbers that are not converted exactly by the parser itself
+        String[] numbers = {
+            "0.12345678901234567890123", "123456789012345678901234567890", "1e300", "4.9e-324",
+            "1E-30", ".5", "5.", "+3", "-0.0", "1.7976931348623157e308", "0x1p3", "Infinity", "NaN"
+        };
+        for(int k=0; k+2<numbers.length; k+=3){
+            String content = "3\n" + numbers[k] + "\n" + numbers[k+1] + " " + numbers[k+2] + "\n";
+            File file = write(content);
+            for(int chunkSize : new int[]{1, 5, 1 << 20}){
+                StoredDistanceMatrix dist = new DistanceMatrixParser(pool, chunkSize, chunkSize)
+                                                    .parse(file.getPath(), DistanceStorage.FULL);
+                assertEquals(Double.parseDouble(numbers[k]), dist.getDistance(1, 0), 0.0);
+                assertEquals(Double.parseDouble(numbers[k+1]), dist.getDistance(2, 0), 0.0);
+                assertEquals(Double.parseDouble(numbers[k+2]), dist.getDistance(2, 1), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testMalformed() throws IOException {
+        assertError("3\n1 abc 2\n", "invalid number");
+        assertError("3\n1 2.5.1 2\n", "invalid number");
+        assertError("3\n1 2 3e\n", "invalid number");
+        assertError("2.5\n1\n", "invalid number of cities");
+        assertError("-3\n1 2 3\n", "invalid number of cities");
+        assertError("\n \n", "missing number of cities");
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        assertError("4\n1 2 3 4 5\n", "expected 6 distances for 4 cities, found 5");
+        assertError("3\n", "expected 3 distances for 3 cities, found 0");
+        // numbers after the last entry are ignored
+        File file = write("3\n1 2 3 4 5");
+        assertEquals(3.0, new DistanceMatrixParser().parse(file.getPath(), DistanceStorage.FULL).getDistance(2, 1), 0.0);
+    }
+
+    @Test
+    public void testNumberTooLong() throws IOException {
+        StringBuilder number = new StringBuilder();
+        for(int d=0; d<100; d++){
+            number.append(d % 10);
+        }
+        File file = write("3\n1 " + number + " 2\n");
+        try {
+            new DistanceMatrixParser(pool, 8, 8).parse(file.getPath(), DistanceStorage.FULL);
+            fail("Expected IOException.");
+        } catch (IOException ex){
+            assertTrue(ex.getMessage(), ex.getMessage().contains("number exceeds"));
+        }
+    }
+
+    // check that parsing the given content fails with an error message that contains the given text,
+    // for several chunk sizes
+    private void assertError(String content, String message) throws IOException {
+        File file = write(content);
+        for(int chunkSize : new int[]{1, 3, 1 << 20}){
+            try {
+                new DistanceMatrixParser(pool, chunkSize, chunkSize).parse(file.getPath(), DistanceStorage.FULL);
+                fail("Expected IOException for: " + content);
+            } catch (IOException ex){
+                assertTrue(ex.getMessage(), ex.getMessage().contains(message));
+            }
+        }
+    }
+
+    // write file with the given number of cities and random entries, followed by the given text
+    private File writeMatrix(int n, int numEntries, String trailer) throws IOException {
+        StringBuilder str = new StringBuilder().append(n).append("\n");
+        for(int k=0; k<numEntries; k++){
+            double d = RG.nextInt(4) == 0 ? RG.nextInt(1000) : 1000 * RG.nextDouble();
+            str.append(String.format(Locale.US, FORMATS[RG.nextInt(FORMATS.length)], d))
+               .append(SEPARATORS[RG.nextInt(SEPARATORS.length)]);
+        }
+        str.append(trailer);
+        return write(str.toString());
+    }
+
+    // write the given content to a temporary file
+    private File write(String content) throws IOException {
+        File file = File.createTempFile("dist", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    // read all numbers after the number of cities with a scanner
+    private List<Double> scan(File file) throws IOException {
+        List<Double> numbers = new ArrayList<>();
+        try (Scanner scanner = new Scanner(file, "US-ASCII")) {
+            scanner.next();
+            while(scanner.hasNext()){
+                numbers.add(Double.parseDouble(scanner.next()));
+            }
+        }
+        return numbers;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class DistanceStorageTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    public DistanceStorageTest() {
+    }
+
+    @Test
+    public void testStorageModes() {
+        int n = 100;
+        double[][] dist = new double[n][n];
+        for(int i=0; i<n; i++){
+            for(int j=0; j<i; j++){
+                dist[i][j] = dist[j][i] = RG.nextDouble() * 10000;
+            }
+        }
+        for(DistanceStorage storage : DistanceStorage.values()){
+            StoredDistanceMatrix matrix = storage.create(n);
+            assertEquals(n, matrix.getNumCities());
+            for(int i=0; i<n; i++){
+                for(int j=0; j<i; j++){
+                    matrix.setDistance(i, j, dist[i][j]);
+                }
+            }
+            for(int i=0; i<n; i++){
+                for(int j=0; j<n; j++){
+                    // both directions are stored in (or read from) the same entry
+                    double d = matrix.getDistance(i, j);
+                    assertEquals(d, matrix.getDistance(j, i), 0.0);
+                    switch(storage){
+                        case FULL:
+                        case PACKED:
+                            assertEquals(dist[i][j], d, 0.0);
+                            break;
+                        case FLOAT:
+                            assertEquals((float) dist[i][j], d, 0.0);
+                            break;
+                        case ROUNDED:
+                            assertEquals(Math.floor(dist[i][j] + 0.5), d, 0.0);
+                            break;
+                        default:
+                            fail("Unknown storage mode: " + storage);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReadStorageModes() throws IOException {
+        // integer distances are stored exactly with all storage modes
+        TSPData full = new TSPFileReader(DistanceStorage.FULL).read(file);
+        int n = full.getNumCities();
+        for(DistanceStorage storage : DistanceStorage.values()){
+            TSPData data = new TSPFileReader(storage).read(file);
+            assertEquals(n, data.getNumCities());
+            for(int i=0; i<n; i++){
+                for(int j=0; j<n; j++){
+                    assertEquals(full.getDistance(i, j), data.getDistance(i, j), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetDiagonal() {
+        DistanceStorage.PACKED.create(10).setDistance(3, 3, 1.0);
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class EdgePenaltiesTest {
+
+    private static final Random RG = new Random();
+
+    public EdgePenaltiesTest() {
+    }
+
+    @Test
+    public void testIncrementAndGet() {
+        EdgePenalties penalties = new EdgePenalties();
+        // reference penalties, with smallest endpoint first
+        Map<Long, Integer> expected = new HashMap<>();
+        int n = 200;
+        // penalize many distinct edges (storage grows several times)
+        for(int k=0; k<20000; k++){
+            int a = RG.nextInt(n);
+            int b = RG.nextInt(n);
+            // endpoints are given in either order
+            int p = RG.nextBoolean() ? penalties.increment(a, b) : penalties.increment(b, a);
+            long key = Math.min(a, b) * (long) n + Math.max(a, b);
+            expected.merge(key, 1, Integer::sum);
+            assertEquals(expected.get(key).intValue(), p);
+        }
+        assertTrue(expected.size() > 512);
+        assertEquals(expected.size(), penalties.size());
+        for(int a=0; a<n; a++){
+            for(int b=0; b<n; b++){
+                long key = Math.min(a, b) * (long) n + Math.max(a, b);
+                int p = expected.getOrDefault(key, 0);
+                assertEquals(p, penalties.get(a, b));
+                assertEquals(p, penalties.get(b, a));
+            }
+        }
+        // clear all penalties
+        penalties.clear();
+        assertEquals(0, penalties.size());
+        for(int k=0; k<100; k++){
+            assertEquals(0, penalties.get(RG.nextInt(n), RG.nextInt(n)));
+        }
+    }
+
+    @Test
+    public void testLargeIndices() {
+        // edges between cities with large indices are not confused with each other
+        EdgePenalties penalties = new EdgePenalties();
+        int big = Integer.MAX_VALUE - 1;
+        penalties.increment(big, 0);
+        penalties.increment(0, big);
+        penalties.increment(big, 1);
+        assertEquals(2, penalties.get(0, big));
+        assertEquals(1, penalties.get(1, big));
+        assertEquals(0, penalties.get(big, big-1));
+        assertEquals(2, penalties.size());
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+import java.util.Random;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class HeldKarpBoundTest {
+
+    private static final Random RG = new Random();
+
+    private static TSPObjective obj;
+
+    public HeldKarpBoundTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        obj = new TSPObjective();
+    }
+
+    @Test
+    public void testHeldKarpBound() {
+        int n = 8;
+        for(int k=0; k<20; k++){
+            // random Euclidean instance
+            double[] x = new double[n], y = new double[n];
+            for(int c=0; c<n; c++){
+                x[c] = RG.nextDouble();
+                y[c] = RG.nextDouble();
+            }
+            double[][] dist = new double[n][n];
+            for(int a=0; a<n; a++){
+                for(int b=0; b<n; b++){
+                    dist[a][b] = Math.hypot(x[a]-x[b], y[a]-y[b]);
+                }
+            }
+            TSPData small = new TSPData(dist);
+            // compute optimal round trip by enumeration
+            int[] tour = new int[n];
+            for(int c=0; c<n; c++){
+                tour[c] = c;
+            }
+            double opt = enumerate(small, tour, 1);
+            // bound should not exceed optimum (with and without candidate lists)
+            double upperBound = obj.evaluate(new TSPSolution(tour), small).getValue();
+            HeldKarpBound dense = new HeldKarpBound(small.getDistanceMatrix(), null, upperBound, 1000);
+            HeldKarpBound sparse = new HeldKarpBound(small, new NearestNeighbourLists(small, 3), upperBound);
+            assertTrue(dense.getBound() <= opt + TestConstants.DOUBLE_COMPARISON_PRECISION);
+            assertTrue(sparse.getBound() <= opt + TestConstants.DOUBLE_COMPARISON_PRECISION);
+            assertTrue(dense.getBound() > 0.9 * opt);
+        }
+    }
+
+    // compute length of shortest round trip that visits the cities in tour[0..p-1] in the given order
+    private double enumerate(TSPData data, int[] tour, int p){
+        int n = tour.length;
+        if(p == n){
+            return obj.evaluate(new TSPSolution(tour.clone()), data).getValue();
+        }
+        double best = Double.MAX_VALUE;
+        for(int q=p; q<n; q++){
+            swap(tour, p, q);
+            best = Math.min(best, enumerate(data, tour, p+1));
+            swap(tour, p, q);
+        }
+        return best;
+    }
+
+    private void swap(int[] tour, int i, int j){
+        int tmp = tour[i];
+        tour[i] = tour[j];
+        tour[j] = tmp;
+    }
+
+}
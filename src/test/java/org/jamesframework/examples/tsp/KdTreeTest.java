@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class KdTreeTest {
+
+    private static final Random RG = new Random();
+
+    public KdTreeTest() {
+    }
+
+    @Test
+    public void testNearestAndWithinRadius() {
+        int n = 500;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for(int c=0; c<n; c++){
+            // include some duplicate cities
+            if(c % 10 == 9){
+                x[c] = x[c-1];
+                y[c] = y[c-1];
+            } else {
+                x[c] = RG.nextInt(1000);
+                y[c] = RG.nextInt(1000);
+            }
+        }
+        KdTree tree = new KdTree(x, y);
+        for(int c=0; c<n; c++){
+            // compare with brute force (up to ties)
+            double[] dist = new double[n];
+            for(int o=0; o<n; o++){
+                dist[o] = Math.hypot(x[c]-x[o], y[c]-y[o]);
+            }
+            int[] nearest = tree.nearest(c, 10);
+            assertEquals(10, nearest.length);
+            double[] sorted = new double[n-1];
+            int s = 0;
+            for(int o=0; o<n; o++){
+                if(o != c){
+                    sorted[s++] = dist[o];
+                }
+            }
+            Arrays.sort(sorted);
+            for(int k=0; k<10; k++){
+                assertTrue(nearest[k] != c);
+                assertEquals(sorted[k], dist[nearest[k]], TestConstants.DOUBLE_COMPARISON_PRECISION);
+            }
+            int[] within = tree.withinRadius(c, 50.0);
+            int count = 0;
+            for(int o=0; o<n; o++){
+                if(o != c && dist[o] <= 50.0){
+                    count++;
+                }
+            }
+            assertEquals(count, within.length);
+            for(int o : within){
+                assertTrue(o != c && dist[o] <= 50.0);
+            }
+        }
+    }
+
+}
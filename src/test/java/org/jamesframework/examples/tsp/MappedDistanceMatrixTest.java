@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.File;
+import java.io.IOException;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class MappedDistanceMatrixTest {
+
+    private static final String file = "input/TSP4.txt";
+
+    private static TSPData data;
+
+    public MappedDistanceMatrixTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        data = new TSPFileReader().read(file);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        int n = data.getNumCities();
+        File bin = File.createTempFile("tsp", ".bin");
+        bin.deleteOnExit();
+        // integer distances are stored exactly with both entry types
+        for(MappedDistanceMatrix.EntryType type : MappedDistanceMatrix.EntryType.values()){
+            MappedDistanceMatrix.write(data.getDistanceMatrix(), type, bin.getPath());
+            MappedDistanceMatrix mapped = new MappedDistanceMatrix(bin.getPath());
+            assertEquals(n, mapped.getNumCities());
+            assertEquals(type, mapped.getEntryType());
+            for(int i=0; i<n; i++){
+                for(int j=0; j<n; j++){
+                    assertEquals(data.getDistance(i, j), mapped.getDistance(i, j), TestConstants.DOUBLE_COMPARISON_PRECISION);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class NearestNeighbourListsTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static TSPData data;
+
+    public NearestNeighbourListsTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        data = new TSPFileReader().read(file);
+    }
+
+    @Test
+    public void testNearestNeighbours() {
+        int n = data.getNumCities();
+        int k = 10;
+        NearestNeighbourLists candidates = new NearestNeighbourLists(data, k);
+        assertEquals(n, candidates.getNumCities());
+        for(int c=0; c<n; c++){
+            int[] neighbours = candidates.getNeighbours(c);
+            assertEquals(k, neighbours.length);
+            assertSorted(data.getDistanceMatrix(), c, neighbours);
+            // all other cities are at least as far away as the furthest neighbour
+            Set<Integer> set = new HashSet<>();
+            for(int nb : neighbours){
+                set.add(nb);
+                assertTrue(candidates.isNeighbour(c, nb));
+            }
+            double furthest = data.getDistance(c, neighbours[k-1]);
+            for(int o=0; o<n; o++){
+                if(o != c && !set.contains(o)){
+                    assertFalse(candidates.isNeighbour(c, o));
+                    assertTrue(data.getDistance(c, o) >= furthest);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMoreNeighboursThanCities() {
+        int n = 6;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for(int c=0; c<n; c++){
+            x[c] = 100 * RG.nextDouble();
+            y[c] = 100 * RG.nextDouble();
+        }
+        CoordinateDistanceMatrix coords = new CoordinateDistanceMatrix(x, y, EdgeWeightType.EUC_2D);
+        // lists contain all other cities (both with the spatial index and the full scan)
+        for(DistanceMatrix dist : new DistanceMatrix[]{coords, new FullDistanceMatrix(toArray(coords))}){
+            NearestNeighbourLists candidates = new NearestNeighbourLists(dist, 20);
+            for(int c=0; c<n; c++){
+                int[] neighbours = candidates.getNeighbours(c);
+                assertEquals(n-1, neighbours.length);
+                assertEquals(n-1, Arrays.stream(neighbours).distinct().count());
+                assertSorted(dist, c, neighbours);
+            }
+        }
+        try {
+            new NearestNeighbourLists(coords, 0);
+            fail("Expected IllegalArgumentException.");
+        } catch (IllegalArgumentException ex){ }
+    }
+
+    @Test
+    public void testKdTreeAgreesWithFullScan() {
+        // random cities with rounded Euclidean distances (many ties)
+        int n = 1500;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for(int c=0; c<n; c++){
+            x[c] = RG.nextInt(200);
+            y[c] = RG.nextInt(200);
+        }
+        for(EdgeWeightType type : new EdgeWeightType[]{EdgeWeightType.EUC_2D, EdgeWeightType.CEIL_2D, EdgeWeightType.ATT}){
+            CoordinateDistanceMatrix coords = new CoordinateDistanceMatrix(x, y, type);
+            FullDistanceMatrix full = new FullDistanceMatrix(toArray(coords));
+            NearestNeighbourLists tree = new NearestNeighbourLists(coords, 8);
+            NearestNeighbourLists scan = new NearestNeighbourLists(full, 8);
+            for(int c=0; c<n; c++){
+                int[] fromTree = tree.getNeighbours(c);
+                int[] fromScan = scan.getNeighbours(c);
+                assertEquals(fromScan.length, fromTree.length);
+                assertSorted(coords, c, fromTree);
+                // same distances at every position (ties may be broken differently)
+                for(int p=0; p<fromScan.length; p++){
+                    assertEquals(full.getDistance(c, fromScan[p]), coords.getDistance(c, fromTree[p]), 0.0);
+                }
+            }
+        }
+    }
+
+    // check that neighbours are distinct from the city and sorted by increasing distance
+    private void assertSorted(DistanceMatrix dist, int city, int[] neighbours){
+        for(int p=0; p<neighbours.length; p++){
+            assertNotEquals(city, neighbours[p]);
+            if(p > 0){
+                assertTrue(dist.getDistance(city, neighbours[p-1]) <= dist.getDistance(city, neighbours[p]));
+            }
+        }
+    }
+
+    // store all distances in an array
+    private double[][] toArray(DistanceMatrix dist){
+        int n = dist.getNumCities();
+        double[][] array = new double[n][n];
+        for(int i=0; i<n; i++){
+            for(int j=0; j<n; j++){
+                array[i][j] = dist.getDistance(i, j);
+            }
+        }
+        return array;
+    }
+
+}
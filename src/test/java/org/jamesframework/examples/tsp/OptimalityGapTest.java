@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.Random;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.search.LocalSearch;
+import org.jamesframework.core.search.algo.RandomDescent;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class OptimalityGapTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static GenericProblem<TSPSolution, TSPData> problem;
+
+    public OptimalityGapTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        TSPData data = new TSPFileReader().read(file);
+        problem = new GenericProblem<>(data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeGap() {
+        new OptimalityGap(100.0, -0.01);
+    }
+
+    @Test
+    public void testSearchShouldStop() {
+        LocalSearch<TSPSolution> search = new RandomDescent<>(problem, new TSP2OptNeighbourhood());
+        // search without best solution
+        assertFalse(new OptimalityGap(0.0, 0.0).searchShouldStop(search));
+        assertFalse(new OptimalityGap(Double.MAX_VALUE, 1.0).searchShouldStop(search));
+        // search with best solution
+        search.setCurrentSolution(problem.createRandomSolution(RG));
+        double best = search.getBestSolutionEvaluation().getValue();
+        double gap = 0.05;
+        double tightBound = best / (1.0 + gap);
+        // best solution exceeds allowed gap
+        assertFalse(new OptimalityGap(0.99 * tightBound, gap).searchShouldStop(search));
+        assertFalse(new OptimalityGap(0.99 * best, 0.0).searchShouldStop(search));
+        // best solution within (or exactly at) allowed gap
+        assertTrue(new OptimalityGap(1.01 * tightBound, gap).searchShouldStop(search));
+        assertTrue(new OptimalityGap(best, 0.0).searchShouldStop(search));
+        search.dispose();
+    }
+
+}
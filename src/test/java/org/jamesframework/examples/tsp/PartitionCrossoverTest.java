@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class PartitionCrossoverTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static TSPData data;
+    private static TSPObjective obj;
+
+    public PartitionCrossoverTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        data = new TSPFileReader().read(file);
+        obj = new TSPObjective();
+    }
+
+    @Test
+    public void testPartitionCrossover() {
+        PartitionCrossover gpx = new PartitionCrossover();
+        int n = data.getNumCities();
+        int numImproved = 0;
+        for(int k=0; k<100; k++){
+            // second parent differs from first parent in a few random places (swapping two
+            // adjacent cities yields a component that is entered and left through shared edges)
+            TSPSolution first = TSP.RANDOM_SOLUTION_GENERATOR.create(RG, data);
+            TSPSolution second = first.copy();
+            for(int m=0; m<5; m++){
+                int i = 1 + RG.nextInt(n-3);
+                new TSP2OptMove(i, i+1).apply(second);
+            }
+            TSPSolution child = gpx.cross(first, second, data);
+            if(child != null){
+                numImproved++;
+                // check round trip and inherited edges
+                assertEquals(n, new HashSet<>(child.getCities()).size());
+                assertTrue(obj.evaluate(child, data).getValue() < obj.evaluate(first, data).getValue());
+                for(int a=0; a<n; a++){
+                    int b = child.next(a);
+                    assertTrue(first.next(a) == b || first.prev(a) == b || second.next(a) == b || second.prev(a) == b);
+                }
+            }
+        }
+        assertTrue(numImproved > 0);
+    }
+
+}
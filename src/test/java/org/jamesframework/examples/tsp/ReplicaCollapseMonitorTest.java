@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.search.algo.MetropolisSearch;
+import org.jamesframework.core.search.algo.ParallelTempering;
+import org.jamesframework.core.search.neigh.Move;
+import org.jamesframework.core.search.neigh.Neighbourhood;
+import org.jamesframework.core.search.stopcriteria.MaxSteps;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class ReplicaCollapseMonitorTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static GenericProblem<TSPSolution, TSPData> problem;
+
+    // neighbourhood without moves (replicas stop immediately without modifying their current solution)
+    private static final Neighbourhood<TSPSolution> NO_MOVES = new Neighbourhood<TSPSolution>() {
+        @Override
+        public Move<? super TSPSolution> getRandomMove(TSPSolution solution, Random rnd) {
+            return null;
+        }
+        @Override
+        public List<? extends Move<? super TSPSolution>> getAllMoves(TSPSolution solution) {
+            return Collections.emptyList();
+        }
+    };
+
+    public ReplicaCollapseMonitorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        TSPData data = new TSPFileReader().read(file);
+        problem = new GenericProblem<>(data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR);
+    }
+
+    @Test
+    public void testCollapseStatistics() {
+        ReplicaCollapseMonitor monitor = new ReplicaCollapseMonitor();
+        List<MetropolisSearch<TSPSolution>> replicas = createReplicas(monitor, 4);
+        TSPSolution shared = problem.createRandomSolution(RG);
+        replicas.get(0).setCurrentSolution(shared.copy());
+        replicas.get(1).setCurrentSolution(shared.copy());
+        replicas.get(2).setCurrentSolution(problem.createRandomSolution(RG));
+        replicas.get(3).setCurrentSolution(problem.createRandomSolution(RG));
+        monitor.searchStarted(null);
+        assertEquals(-1, monitor.getNumDistinctTours());
+        // two replicas share a round trip
+        runAndInspect(monitor, replicas);
+        assertEquals(3, monitor.getNumDistinctTours());
+        assertEquals(1, monitor.getNumSteps());
+        assertEquals(1, monitor.getNumCollapsedSteps());
+        // all replicas explore a distinct round trip
+        replicas.get(1).setCurrentSolution(problem.createRandomSolution(RG));
+        runAndInspect(monitor, replicas);
+        assertEquals(4, monitor.getNumDistinctTours());
+        assertEquals(2, monitor.getNumSteps());
+        assertEquals(1, monitor.getNumCollapsedSteps());
+        // reversed round trip is the same round trip
+        List<Integer> cities = new ArrayList<>(replicas.get(0).getCurrentSolution().getCities());
+        Collections.reverse(cities);
+        replicas.get(3).setCurrentSolution(new TSPSolution(cities));
+        runAndInspect(monitor, replicas);
+        assertEquals(3, monitor.getNumDistinctTours());
+        assertEquals(3, monitor.getNumSteps());
+        assertEquals(2, monitor.getNumCollapsedSteps());
+    }
+
+    @Test
+    public void testReuseFactory() {
+        ReplicaCollapseMonitor monitor = new ReplicaCollapseMonitor();
+        // replicas of a previous search all share the same round trip
+        List<MetropolisSearch<TSPSolution>> previous = createReplicas(monitor, 3);
+        TSPSolution shared = problem.createRandomSolution(RG);
+        for(MetropolisSearch<TSPSolution> replica : previous){
+            replica.setCurrentSolution(shared.copy());
+        }
+        monitor.searchStarted(null);
+        runAndInspect(monitor, previous);
+        assertEquals(1, monitor.getNumDistinctTours());
+        // replicas of the next search are monitored without the previous ones
+        List<MetropolisSearch<TSPSolution>> next = createReplicas(monitor, 2);
+        for(MetropolisSearch<TSPSolution> replica : next){
+            replica.setCurrentSolution(problem.createRandomSolution(RG));
+        }
+        monitor.searchStarted(null);
+        runAndInspect(monitor, next);
+        assertEquals(2, monitor.getNumDistinctTours());
+        assertEquals(1, monitor.getNumSteps());
+        assertEquals(0, monitor.getNumCollapsedSteps());
+    }
+
+    @Test
+    public void testParallelTempering() {
+        ReplicaCollapseMonitor monitor = new ReplicaCollapseMonitor();
+        int numReplicas = 5;
+        for(int run=0; run<2; run++){
+            // monitor is reused as factory for a second search
+            ParallelTempering<TSPSolution> search = new ParallelTempering<>(
+                    problem, new TSP2OptNeighbourhood(), numReplicas, 1e-8, 0.6, monitor
+            );
+            search.addSearchListener(monitor);
+            search.addStopCriterion(new MaxSteps(20));
+            search.start();
+            assertEquals(20, monitor.getNumSteps());
+            assertTrue(monitor.getNumCollapsedSteps() <= monitor.getNumSteps());
+            assertTrue(monitor.getNumDistinctTours() >= 1);
+            assertTrue(monitor.getNumDistinctTours() <= numReplicas);
+            search.dispose();
+        }
+    }
+
+    // create replicas through the monitor
+    private List<MetropolisSearch<TSPSolution>> createReplicas(ReplicaCollapseMonitor monitor, int num){
+        List<MetropolisSearch<TSPSolution>> replicas = new ArrayList<>();
+        for(int r=0; r<num; r++){
+            replicas.add(monitor.create(problem, NO_MOVES, 1.0));
+        }
+        return replicas;
+    }
+
+    // run all replicas (without changing their current solution) and inspect them after a step
+    private void runAndInspect(ReplicaCollapseMonitor monitor, List<MetropolisSearch<TSPSolution>> replicas){
+        for(MetropolisSearch<TSPSolution> replica : replicas){
+            replica.start();
+        }
+        monitor.stepCompleted(null, 0);
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Random;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP2OptBatchEvaluatorTest {
+
+    private static final Random RG = new Random();
+
+    public TSP2OptBatchEvaluatorTest() {
+    }
+
+    @Test
+    public void testFindBest() {
+        TSPObjective obj = new TSPObjective();
+        for(int n : new int[]{3, 4, 5, 10, 57}){
+            TSPData data = randomInstance(n);
+            TSPSolution sol = new TSPSolution(randomPermutation(n));
+            Evaluation eval = obj.evaluate(sol, data);
+            int[] cities = new int[n];
+            double[] edgeLength = new double[n];
+            for(int p=0; p<n; p++){
+                cities[p] = sol.getCity(p);
+            }
+            for(int p=0; p<n; p++){
+                edgeLength[p] = data.getDistance(cities[p], cities[(p+1) % n]);
+            }
+            TSP2OptBatchEvaluator evaluator = new TSP2OptBatchEvaluator(n);
+            // all first positions, including i = n-2 with a single move (j = n-1)
+            for(int i=1; i<n-1; i++){
+                int j = evaluator.findBest(data.getDistanceMatrix(), cities, edgeLength, i);
+                // compare with delta evaluation of each move, where the last move (j = n-1)
+                // connects back to the city at position 0
+                int expectedJ = -1;
+                double expectedDelta = Double.MAX_VALUE;
+                for(int k=i+1; k<n; k++){
+                    double delta = obj.evaluate(new TSP2OptMove(i, k), sol, eval, data).getValue() - eval.getValue();
+                    if(delta < expectedDelta - TestConstants.DOUBLE_COMPARISON_PRECISION){
+                        expectedDelta = delta;
+                        expectedJ = k;
+                    }
+                }
+                assertEquals(expectedDelta, evaluator.getBestDelta(), TestConstants.DOUBLE_COMPARISON_PRECISION);
+                assertEquals(expectedJ, j);
+            }
+        }
+    }
+
+    @Test
+    public void testWrapAround() {
+        // only the last moves (j = n-1), which add an edge to the city at position 0, are improving
+        int[] cities = {0, 1, 2, 3, 4, 5};
+        double[][] dist = new double[6][6];
+        for(int a=0; a<6; a++){
+            for(int b=0; b<6; b++){
+                dist[a][b] = a == b ? 0.0 : 10.0;
+            }
+        }
+        // i = 2, j = 5: edges (1,5) and (2,0) replace (1,2) and (5,0)
+        dist[1][5] = dist[5][1] = 1.0;
+        dist[2][0] = dist[0][2] = 1.0;
+        // i = 4, j = 5: edges (3,5) and (4,0) replace (3,4) and (5,0)
+        dist[4][0] = dist[0][4] = 2.0;
+        TSPData data = new TSPData(dist);
+        double[] edgeLength = new double[6];
+        for(int p=0; p<6; p++){
+            edgeLength[p] = data.getDistance(cities[p], cities[(p+1) % 6]);
+        }
+        TSP2OptBatchEvaluator evaluator = new TSP2OptBatchEvaluator(6);
+        assertEquals(5, evaluator.findBest(data.getDistanceMatrix(), cities, edgeLength, 2));
+        assertEquals(-18.0, evaluator.getBestDelta(), TestConstants.DOUBLE_COMPARISON_PRECISION);
+        // single move at i = n-2
+        assertEquals(5, evaluator.findBest(data.getDistanceMatrix(), cities, edgeLength, 4));
+        assertEquals(-8.0, evaluator.getBestDelta(), TestConstants.DOUBLE_COMPARISON_PRECISION);
+    }
+
+    // create random symmetric instance with the given number of cities
+    private TSPData randomInstance(int n){
+        double[][] dist = new double[n][n];
+        for(int a=0; a<n; a++){
+            for(int b=a+1; b<n; b++){
+                dist[a][b] = dist[b][a] = 1000 * RG.nextDouble();
+            }
+        }
+        return new TSPData(dist);
+    }
+
+    // create random permutation of 0, ..., n-1
+    private int[] randomPermutation(int n){
+        int[] perm = new int[n];
+        for(int c=0; c<n; c++){
+            int r = RG.nextInt(c+1);
+            perm[c] = perm[r];
+            perm[r] = c;
+        }
+        return perm;
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.Random;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP2OptDescentTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static TSPData data;
+    private static NearestNeighbourLists candidates;
+    private static GenericProblem<TSPSolution, TSPData> problem;
+
+    public TSP2OptDescentTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        data = new TSPFileReader().read(file);
+        candidates = new NearestNeighbourLists(data, 5);
+        problem = new GenericProblem<>(data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR);
+    }
+
+    @Test
+    public void testLocalOptimum() {
+        for(int r=0; r<3; r++){
+            TSP2OptDescent descent = new TSP2OptDescent(problem, candidates);
+            descent.start();
+            // descent stops in a local optimum
+            TSPSolution sol = descent.getCurrentSolution();
+            assertEquals(problem.evaluate(sol).getValue(), descent.getCurrentSolutionEvaluation().getValue(),
+                         TestConstants.DOUBLE_COMPARISON_PRECISION);
+            assertEquals(descent.getBestSolution(), sol);
+            assertNoImprovingMove(sol);
+            descent.dispose();
+        }
+    }
+
+    @Test
+    public void testInitialActiveCities() {
+        TSP2OptDescent descent = new TSP2OptDescent(problem, candidates);
+        descent.start();
+        TSPSolution opt = descent.getCurrentSolution().copy();
+        int n = opt.getNumCities();
+        // no active cities: search stops immediately
+        TSPSolution random = problem.createRandomSolution(RG);
+        descent.setCurrentSolution(random.copy());
+        descent.setInitialActiveCities(new int[0]);
+        descent.start();
+        assertEquals(random, descent.getCurrentSolution());
+        assertTrue(descent.getSteps() <= 1);
+        // random 2-opt move applied to local optimum: only endpoints of modified edges are activated
+        for(int k=0; k<10; k++){
+            TSPSolution kicked = opt.copy();
+            int i = RG.nextInt(n);
+            int j = (i + 2 + RG.nextInt(n-3)) % n;
+            int[] endpoints = {
+                kicked.getCity(i), kicked.getCity((i+n-1) % n), kicked.getCity(j), kicked.getCity((j+1) % n)
+            };
+            new TSP2OptMove(i, j).apply(kicked);
+            double kickedEval = problem.evaluate(kicked).getValue();
+            descent.setCurrentSolution(kicked);
+            descent.setInitialActiveCities(endpoints);
+            descent.start();
+            // much fewer steps than a full pass
+            assertTrue(descent.getSteps() < n);
+            assertTrue(descent.getCurrentSolutionEvaluation().getValue()
+                        <= kickedEval + TestConstants.DOUBLE_COMPARISON_PRECISION);
+            assertEquals(problem.evaluate(descent.getCurrentSolution()).getValue(),
+                         descent.getCurrentSolutionEvaluation().getValue(),
+                         TestConstants.DOUBLE_COMPARISON_PRECISION);
+        }
+        // default restored: all cities are activated
+        descent.setCurrentSolution(random.copy());
+        descent.setInitialActiveCities(null);
+        descent.start();
+        assertTrue(descent.getSteps() >= n);
+        assertNoImprovingMove(descent.getCurrentSolution());
+        descent.dispose();
+    }
+
+    // check that no 2-opt move that connects a city to one of its candidates, which is closer than the
+    // city's neighbour that it is disconnected from, improves the round trip
+    private void assertNoImprovingMove(TSPSolution sol){
+        int n = sol.getNumCities();
+        for(int t1=0; t1<n; t1++){
+            for(boolean viaSuccessor : new boolean[]{true, false}){
+                int t2 = viaSuccessor ? sol.next(t1) : sol.prev(t1);
+                for(int t3 : candidates.getNeighbours(t2)){
+                    int t4 = viaSuccessor ? sol.prev(t3) : sol.next(t3);
+                    if(t3 != t1 && t4 != t2 && data.getDistance(t2, t3) < data.getDistance(t1, t2)){
+                        double gain = data.getDistance(t1, t2) + data.getDistance(t3, t4)
+                                    - data.getDistance(t2, t3) - data.getDistance(t4, t1);
+                        assertTrue(gain <= TestConstants.DOUBLE_COMPARISON_PRECISION);
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP2OptMoveListTest {
+
+    public TSP2OptMoveListTest() {
+    }
+
+    @Test
+    public void testDecode() {
+        for(int n=0; n<=20; n++){
+            TSP2OptMoveList moves = new TSP2OptMoveList(n);
+            assertEquals(n < 2 ? 0 : n*(n-1), moves.getNumMoves());
+            assertEquals(moves.getNumMoves(), moves.size());
+            // moves are ordered as in a nested loop over positions i and j != i
+            Iterator<TSP2OptMove> it = moves.iterator();
+            long k = 0;
+            for(int i=0; i<n && n >= 2; i++){
+                for(int j=0; j<n; j++){
+                    if(j != i){
+                        assertEquals(i, moves.getI(k));
+                        assertEquals(j, moves.getJ(k));
+                        TSP2OptMove move = moves.get((int) k);
+                        assertEquals(i, move.getI());
+                        assertEquals(j, move.getJ());
+                        move = it.next();
+                        assertEquals(i, move.getI());
+                        assertEquals(j, move.getJ());
+                        k++;
+                    }
+                }
+            }
+            assertEquals(moves.getNumMoves(), k);
+            assertFalse(it.hasNext());
+        }
+    }
+
+    @Test
+    public void testLargeNeighbourhood() {
+        // more than Integer.MAX_VALUE moves
+        int n = 50000;
+        TSP2OptMoveList moves = new TSP2OptMoveList(n);
+        long numMoves = (long) n * (n-1);
+        assertTrue(numMoves > Integer.MAX_VALUE);
+        assertEquals(numMoves, moves.getNumMoves());
+        assertEquals(Integer.MAX_VALUE, moves.size());
+        // indices beyond 2^31 are decoded directly
+        for(long k : new long[]{1L << 31, (1L << 31) + 12345, numMoves - n, numMoves - 1}){
+            int i = (int) (k / (n-1));
+            int r = (int) (k % (n-1));
+            assertEquals(i, moves.getI(k));
+            assertEquals(r < i ? r : r+1, moves.getJ(k));
+        }
+        assertEquals(n-1, moves.getI(numMoves-1));
+        assertEquals(n-2, moves.getJ(numMoves-1));
+        // only the first moves can be accessed by index
+        assertEquals(moves.getI(Integer.MAX_VALUE-1), moves.get(Integer.MAX_VALUE-1).getI());
+        try {
+            moves.get(-1);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException ex){ }
+        // splitting covers all moves
+        Spliterator<TSP2OptMove> split = moves.spliterator();
+        Spliterator<TSP2OptMove> prefix = split.trySplit();
+        assertEquals(numMoves, prefix.estimateSize() + split.estimateSize());
+        TSP2OptMove[] first = new TSP2OptMove[1];
+        assertTrue(split.tryAdvance(m -> first[0] = m));
+        assertEquals(moves.getI(numMoves/2), first[0].getI());
+        assertEquals(moves.getJ(numMoves/2), first[0].getJ());
+    }
+
+    @Test
+    public void testIterateBeyondIntegerRange() {
+        // iteration covers moves with indices beyond Integer.MAX_VALUE
+        long numMoves = Integer.MAX_VALUE + 3L;
+        Long none = -1L;
+        LazyMoveList<Long> moves = new LazyMoveList<Long>(numMoves) {
+            @Override
+            protected Long createMove(long index) {
+                return index < Integer.MAX_VALUE - 2 ? none : index;
+            }
+        };
+        assertEquals(Integer.MAX_VALUE, moves.size());
+        long count = 0;
+        long last = -1;
+        for(Long m : moves){
+            count++;
+            last = m;
+        }
+        assertEquals(numMoves, count);
+        assertEquals(numMoves - 1, last);
+    }
+
+    @Test
+    public void testParallelStream() {
+        // every move is visited exactly once when the index range is split across threads
+        int n = 300;
+        List<TSP2OptMove> moves = new TSP2OptMoveList(n);
+        AtomicIntegerArray visits = new AtomicIntegerArray(n*n);
+        moves.parallelStream().forEach(m -> visits.incrementAndGet(m.getI() * n + m.getJ()));
+        for(int i=0; i<n; i++){
+            for(int j=0; j<n; j++){
+                assertEquals(i == j ? 0 : 1, visits.get(i*n + j));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP2OptNeighbourhoodTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static TSPData data;
+
+    public TSP2OptNeighbourhoodTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        data = new TSPFileReader().read(file);
+    }
+
+    @Test
+    public void testGetAllCandidateMoves() {
+        int n = data.getNumCities();
+        NearestNeighbourLists candidates = new NearestNeighbourLists(data, 5);
+        TSP2OptNeighbourhood neigh = new TSP2OptNeighbourhood(candidates);
+        for(int r=0; r<5; r++){
+            TSPSolution sol = TSP.RANDOM_SOLUTION_GENERATOR.create(RG, data);
+            // each unordered pair of non-adjacent candidates is connected in two ways
+            int numPairs = 0;
+            for(int a=0; a<n; a++){
+                for(int b : candidates.getNeighbours(a)){
+                    boolean adjacent = sol.next(a) == b || sol.prev(a) == b;
+                    if(!adjacent && (a < b || !candidates.isNeighbour(b, a))){
+                        numPairs++;
+                    }
+                }
+            }
+            List<TSP2OptMove> moves = neigh.getAllMoves(sol);
+            assertEquals(2 * numPairs, moves.size());
+            // every move introduces one or two edges between candidates, and is listed once for each of them
+            Map<Set<Long>, Integer> counts = new HashMap<>();
+            for(TSP2OptMove move : moves){
+                // reversing the subpath from position i to j connects the cities before i and at j,
+                // and the cities at i and after j
+                long e1 = edge(sol.getCity((move.getI()+n-1) % n), sol.getCity(move.getJ()), n);
+                long e2 = edge(sol.getCity(move.getI()), sol.getCity((move.getJ()+1) % n), n);
+                counts.merge(new HashSet<>(Arrays.asList(e1, e2)), 1, Integer::sum);
+            }
+            for(Map.Entry<Set<Long>, Integer> entry : counts.entrySet()){
+                int expected = 0;
+                for(long e : entry.getKey()){
+                    int a = (int) (e / n);
+                    int b = (int) (e % n);
+                    if(candidates.isNeighbour(a, b) || candidates.isNeighbour(b, a)){
+                        expected++;
+                    }
+                }
+                assertTrue(expected > 0);
+                assertEquals(expected, entry.getValue().intValue());
+            }
+        }
+    }
+
+    // identify undirected edge (smallest index first)
+    private long edge(int a, int b, int n){
+        return Math.min(a, b) * (long) n + Math.max(a, b);
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.constraints.validations.Validation;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.LocalSearch;
+import org.jamesframework.core.search.listeners.SearchListener;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP2OptSteepestDescentTest {
+
+    private static final Random RG = new Random();
+
+    public TSP2OptSteepestDescentTest() {
+    }
+
+    @Test
+    public void testBestMove() {
+        // cities on a grid with rounded distances, so that many moves have exactly the same delta
+        int side = 20;
+        double[] x = new double[side*side];
+        double[] y = new double[side*side];
+        for(int c=0; c<side*side; c++){
+            x[c] = c % side;
+            y[c] = c / side;
+        }
+        TSPData data = new TSPData(new CoordinateDistanceMatrix(x, y, EdgeWeightType.EUC_2D));
+        GenericProblem<TSPSolution, TSPData> problem = new GenericProblem<>(
+                data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        for(int threads : new int[]{1, 4}){
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            TSP2OptSteepestDescent search = new TSP2OptSteepestDescent(null, problem, pool);
+            search.setCurrentSolution(TSP.RANDOM_SOLUTION_GENERATOR.create(RG, data));
+            // record all current solutions
+            List<TSPSolution> current = new ArrayList<>();
+            current.add(search.getCurrentSolution().copy());
+            search.addSearchListener(new SearchListener<TSPSolution>() {
+                @Override
+                public void newCurrentSolution(LocalSearch<? extends TSPSolution> search, TSPSolution newCurrentSolution,
+                                               Evaluation newCurrentSolutionEvaluation,
+                                               Validation newCurrentSolutionValidation) {
+                    current.add(newCurrentSolution.copy());
+                }
+            });
+            search.start();
+            search.dispose();
+            pool.shutdown();
+            assertTrue(current.size() > 1);
+            // each step applies the move that would have been selected by a sequential scan
+            for(int s=0; s+1<current.size(); s++){
+                TSPSolution expected = current.get(s).copy();
+                TSP2OptMove move = findBestMove(data, expected);
+                assertNotNull(move);
+                move.apply(expected);
+                assertEquals(expected.getEdgeHash(), current.get(s+1).getEdgeHash());
+            }
+            // last solution is a 2-opt local optimum
+            assertNull(findBestMove(data, current.get(current.size()-1)));
+        }
+    }
+
+    // scan all moves sequentially and return the first move with the smallest (negative) delta, if any
+    private TSP2OptMove findBestMove(TSPData data, TSPSolution sol){
+        int n = sol.getNumCities();
+        TSP2OptMove best = null;
+        double bestDelta = 0.0;
+        for(int i=1; i<n-1; i++){
+            for(int j=i+1; j<n; j++){
+                int a = sol.getCity(i-1);
+                int b = sol.getCity(i);
+                int c = sol.getCity(j);
+                int d = sol.getCity((j+1) % n);
+                double delta = data.getDistance(a, c) + data.getDistance(b, d)
+                             - data.getDistance(a, b) - data.getDistance(c, d);
+                if(delta < bestDelta){
+                    bestDelta = delta;
+                    best = new TSP2OptMove(i, j);
+                }
+            }
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSP3OptNeighbourhoodTest {
+
+    private static final Random RG = new Random();
+
+    public TSP3OptNeighbourhoodTest() {
+    }
+
+    @Test
+    public void testGetAllMoves() {
+        for(int n=0; n<=25; n++){
+            TSPSolution sol = new TSPSolution(randomPermutation(n));
+            TSPSolution orig = sol.copy();
+            List<TSP3OptMove> moves = new TSP3OptNeighbourhood().getAllMoves(sol);
+            assertEquals(n < 3 ? 0 : 3 * n*(n-1)*(n-2)/6, moves.size());
+            // moves are ordered by triple of positions i < j < k and reconnection
+            int m = 0;
+            for(int i=0; i<n; i++){
+                for(int j=i+1; j<n; j++){
+                    for(int k=j+1; k<n; k++){
+                        for(int variant=0; variant<3; variant++){
+                            TSP3OptMove move = moves.get(m++);
+                            assertEquals(sol.getCity(i), move.getA());
+                            assertEquals(sol.getCity(i+1), move.getA2());
+                            assertEquals(sol.getCity(j), move.getB());
+                            assertEquals(sol.getCity(j+1), move.getB2());
+                            assertEquals(sol.getCity(k), move.getE());
+                            assertEquals(sol.getCity((k+1)%n), move.getE2());
+                            assertEquals(variant == 1, move.isFirstReversed());
+                            assertEquals(variant == 2, move.isSecondReversed());
+                            move.apply(sol);
+                            move.undo(sol);
+                            assertEquals(orig, sol);
+                        }
+                    }
+                }
+            }
+            // list is not affected by modifications of the solution
+            if(n > 3){
+                TSP3OptMove first = moves.get(0);
+                new TSP2OptMove(0, n/2).apply(sol);
+                assertEquals(first.getE(), moves.get(0).getE());
+                assertEquals(orig.getCity(2), moves.get(0).getE());
+            }
+        }
+    }
+
+    @Test
+    public void testLargeIndices() {
+        // decode last moves without enumerating the neighbourhood
+        int n = 1000;
+        TSPSolution sol = new TSPSolution(randomPermutation(n));
+        TSP3OptMoveList moves = (TSP3OptMoveList) new TSP3OptNeighbourhood().getAllMoves(sol);
+        long numMoves = 3L * n*(n-1)*(n-2)/6;
+        assertEquals(numMoves, moves.getNumMoves());
+        TSP3OptMove last = moves.createMove(numMoves-1);
+        assertEquals(sol.getCity(n-3), last.getA());
+        assertEquals(sol.getCity(n-2), last.getB());
+        assertEquals(sol.getCity(n-1), last.getE());
+        assertEquals(sol.getCity(0), last.getE2());
+        assertTrue(last.isSecondReversed());
+        // first move with i = 1
+        TSP3OptMove move = moves.createMove(3L * (n-1)*(n-2)/2);
+        assertEquals(sol.getCity(1), move.getA());
+        assertEquals(sol.getCity(2), move.getB());
+        assertEquals(sol.getCity(3), move.getE());
+        assertFalse(move.isFirstReversed() || move.isSecondReversed());
+    }
+
+    @Test
+    public void testApplyAndUndo() {
+        // all moves on small round trip
+        TSPSolution sol = new TSPSolution(new int[]{0, 1, 2, 3, 4, 5, 6});
+        List<TSP3OptMove> moves = new TSP3OptNeighbourhood().getAllMoves(sol);
+        // three reconnections for each triple of positions
+        assertEquals(3 * 35, moves.size());
+        for(TSP3OptMove move : moves){
+            TSPSolution copy = sol.copy();
+            move.apply(copy);
+            // check that both segments have been exchanged
+            List<Integer> first = getPath(sol, move.getA2(), move.getB());
+            List<Integer> second = getPath(sol, move.getB2(), move.getE());
+            if(move.isFirstReversed()){
+                Collections.reverse(first);
+            }
+            if(move.isSecondReversed()){
+                Collections.reverse(second);
+            }
+            List<Integer> expected = new ArrayList<>();
+            expected.add(move.getA());
+            expected.addAll(second);
+            expected.addAll(first);
+            if(move.getE2() != move.getA()){
+                expected.addAll(getPath(sol, move.getE2(), sol.prev(move.getA())));
+            }
+            boolean forward = copy.next(move.getA()) == expected.get(1);
+            int city = move.getA();
+            for(int c : expected){
+                assertEquals(c, city);
+                city = forward ? copy.next(city) : copy.prev(city);
+            }
+            // undo
+            move.undo(copy);
+            assertEquals(sol, copy);
+        }
+    }
+
+    // get path from city a to city b
+    private List<Integer> getPath(TSPSolution sol, int a, int b){
+        List<Integer> path = new ArrayList<>();
+        path.add(a);
+        while(a != b){
+            a = sol.next(a);
+            path.add(a);
+        }
+        return path;
+    }
+
+    // create random permutation of 0, ..., n-1
+    private int[] randomPermutation(int n){
+        int[] perm = new int[n];
+        for(int c=0; c<n; c++){
+            int r = RG.nextInt(c+1);
+            perm[c] = perm[r];
+            perm[r] = c;
+        }
+        return perm;
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.search.stopcriteria.MaxSteps;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPBackboneReductionTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static TSPData data;
+    private static TSPObjective obj;
+    private static NearestNeighbourLists candidates;
+    private static List<TSPSolution> elite;
+
+    public TSPBackboneReductionTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        data = new TSPFileReader().read(file);
+        obj = new TSPObjective();
+        candidates = new NearestNeighbourLists(data, 5);
+        // elite round trips: 2-opt local optima
+        GenericProblem<TSPSolution, TSPData> problem = new GenericProblem<>(data, obj, TSP.RANDOM_SOLUTION_GENERATOR);
+        elite = new ArrayList<>();
+        for(int t=0; t<3; t++){
+            TSP2OptDescent descent = new TSP2OptDescent(problem, candidates);
+            descent.start();
+            elite.add(descent.getBestSolution());
+            descent.dispose();
+        }
+    }
+
+    @Test
+    public void testReduceAndExpand() {
+        TSPBackboneReduction reduction = new TSPBackboneReduction(data, elite);
+        TSPData reducedData = reduction.getReducedData();
+        assertTrue(reducedData.getNumCities() < data.getNumCities());
+        for(TSPSolution tour : elite){
+            // reduce and expand (yields same round trip)
+            TSPSolution reduced = reduction.reduce(tour);
+            TSPSolution expanded = reduction.expand(reduced);
+            assertEquals(tour.getEdgeHash(), expanded.getEdgeHash());
+            assertEquals(obj.evaluate(tour, data).getValue(),
+                         obj.evaluate(reduced, reducedData).getValue() + reduction.getOffset(),
+                         TestConstants.DOUBLE_COMPARISON_PRECISION);
+        }
+        // expanding an arbitrary round trip yields a valid round trip
+        TSPSolution random = TSP.RANDOM_SOLUTION_GENERATOR.create(RG, reducedData);
+        assertEquals(data.getNumCities(), new HashSet<>(reduction.expand(random).getCities()).size());
+    }
+
+    @Test
+    public void testReduceCandidates() {
+        TSPBackboneReduction reduction = new TSPBackboneReduction(data, elite);
+        TSPData reducedData = reduction.getReducedData();
+        int m = reducedData.getNumCities();
+        NearestNeighbourLists reducedCandidates = reduction.reduce(candidates);
+        assertEquals(m, reducedCandidates.getNumCities());
+        for(int u=0; u<m; u++){
+            int[] neighbours = reducedCandidates.getNeighbours(u);
+            assertTrue(neighbours.length <= candidates.getNeighbours(0).length + 1);
+            for(int k=0; k<neighbours.length; k++){
+                int v = neighbours[k];
+                assertTrue(v >= 0 && v < m && v != u);
+                // only the first neighbour can be connected by a contracted path (sorted by increasing distance)
+                if(k > 0){
+                    assertTrue(reducedData.getDistance(u, v) >= 0.0);
+                    assertTrue(reducedData.getDistance(u, neighbours[k-1]) <= reducedData.getDistance(u, v));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFixedEdgesRetained() {
+        // improving the reduced elite round trips never removes the edges that connect path endpoints
+        TSPBackboneReduction reduction = new TSPBackboneReduction(data, elite);
+        TSPData reducedData = reduction.getReducedData();
+        GenericProblem<TSPSolution, TSPData> reducedProblem = new GenericProblem<>(
+                reducedData, obj, TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        NearestNeighbourLists reducedCandidates = reduction.reduce(candidates);
+        for(TSPSolution tour : elite){
+            TSPLinKernighan search = new TSPLinKernighan(reducedProblem, reducedCandidates);
+            search.setCurrentSolution(reduction.reduce(tour));
+            search.start();
+            TSPSolution improved = search.getBestSolution();
+            TSPSolution expanded = reduction.expand(improved);
+            // expanded round trip is exactly as long as predicted by the offset
+            assertEquals(obj.evaluate(expanded, data).getValue(),
+                         search.getBestSolutionEvaluation().getValue() + reduction.getOffset(),
+                         TestConstants.DOUBLE_COMPARISON_PRECISION);
+            assertTrue(obj.evaluate(expanded, data).getValue()
+                        <= obj.evaluate(tour, data).getValue() + TestConstants.DOUBLE_COMPARISON_PRECISION);
+            search.dispose();
+        }
+    }
+
+    @Test
+    public void testMemeticSearch() {
+        // memetic search on the reduced instance, as applied by the example (mutations cut contracted paths,
+        // which are restored by the descents that improve the offspring)
+        TSPBackboneReduction reduction = new TSPBackboneReduction(data, elite);
+        TSPData reducedData = reduction.getReducedData();
+        GenericProblem<TSPSolution, TSPData> reducedProblem = new GenericProblem<>(
+                reducedData, obj, TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        TSPMemeticSearch search = new TSPMemeticSearch(reducedProblem, reduction.reduce(candidates));
+        List<TSPSolution> reducedElite = new ArrayList<>();
+        for(TSPSolution tour : elite){
+            reducedElite.add(reduction.reduce(tour));
+        }
+        search.setInitialPopulation(reducedElite);
+        search.addStopCriterion(new MaxSteps(20));
+        search.start();
+        // best round trip and all survivors contain every edge between path endpoints (else the offset
+        // does not apply)
+        List<TSPSolution> tours = new ArrayList<>(search.getPopulation());
+        tours.add(search.getBestSolution());
+        for(TSPSolution tour : tours){
+            TSPSolution expanded = reduction.expand(tour);
+            assertEquals(obj.evaluate(expanded, data).getValue(),
+                         obj.evaluate(tour, reducedData).getValue() + reduction.getOffset(),
+                         TestConstants.DOUBLE_COMPARISON_PRECISION);
+        }
+        search.dispose();
+    }
+
+    @Test
+    public void testMutationRepaired() {
+        // a 3-opt kick that cuts a contracted path is undone by the descent that improves the offspring
+        TSPBackboneReduction reduction = new TSPBackboneReduction(data, elite);
+        TSPData reducedData = reduction.getReducedData();
+        GenericProblem<TSPSolution, TSPData> reducedProblem = new GenericProblem<>(
+                reducedData, obj, TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        NearestNeighbourLists reducedCandidates = reduction.reduce(candidates);
+        TSP3OptNeighbourhood mutation = new TSP3OptNeighbourhood();
+        TSPSolution reduced = reduction.reduce(elite.get(0));
+        int numCut = 0;
+        for(int t=0; t<200; t++){
+            TSPSolution child = reduced.copy();
+            TSP3OptMove move = mutation.getRandomMove(child, RG);
+            int[] active = {move.getA(), move.getA2(), move.getB(), move.getB2(), move.getE(), move.getE2()};
+            boolean cut = false;
+            for(int k=0; k<6; k+=2){
+                cut |= reducedData.getDistance(active[k], active[k+1]) < 0.0;
+            }
+            if(cut){
+                numCut++;
+                move.apply(child);
+                TSP2OptDescent descent = new TSP2OptDescent(reducedProblem, reducedCandidates);
+                descent.setCurrentSolution(child);
+                descent.setInitialActiveCities(active);
+                descent.start();
+                // offset only applies if the round trip contains all edges between path endpoints
+                TSPSolution expanded = reduction.expand(descent.getCurrentSolution());
+                assertEquals(obj.evaluate(expanded, data).getValue(),
+                             descent.getCurrentSolutionEvaluation().getValue() + reduction.getOffset(),
+                             TestConstants.DOUBLE_COMPARISON_PRECISION);
+                descent.dispose();
+            }
+        }
+        assertTrue(numCut > 0);
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.constraints.validations.Validation;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.Search;
+import org.jamesframework.core.search.listeners.SearchListener;
+import org.jamesframework.core.search.stopcriteria.MaxRuntime;
+import org.jamesframework.core.search.stopcriteria.MaxSteps;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPGuidedLocalSearchTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static NearestNeighbourLists candidates;
+    private static GenericProblem<TSPSolution, TSPData> problem;
+
+    public TSPGuidedLocalSearchTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        TSPData data = new TSPFileReader().read(file);
+        candidates = new NearestNeighbourLists(data, 5);
+        problem = new GenericProblem<>(data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR);
+    }
+
+    @Test
+    public void testImproveLocalOptimum() {
+        // start from a 2-opt local optimum
+        TSP2OptDescent descent = new TSP2OptDescent(problem, candidates);
+        descent.start();
+        TSPSolution opt = descent.getBestSolution();
+        double optEval = descent.getBestSolutionEvaluation().getValue();
+        descent.dispose();
+        TSPGuidedLocalSearch search = new TSPGuidedLocalSearch(problem, candidates);
+        search.setCurrentSolution(opt.copy());
+        // best solution never gets worse
+        double[] lastBest = {Double.MAX_VALUE};
+        search.addSearchListener(new SearchListener<TSPSolution>() {
+            @Override
+            public void newBestSolution(Search<? extends TSPSolution> search, TSPSolution newBest,
+                                        Evaluation newBestEval, Validation newBestValidation) {
+                assertTrue(newBestEval.getValue() <= lastBest[0]);
+                lastBest[0] = newBestEval.getValue();
+            }
+        });
+        search.addStopCriterion(new MaxSteps(200));
+        search.start();
+        TSPSolution best = search.getBestSolution();
+        assertEquals(opt.getNumCities(), new HashSet<>(best.getCities()).size());
+        assertTrue(search.getBestSolutionEvaluation().getValue()
+                    <= optEval + TestConstants.DOUBLE_COMPARISON_PRECISION);
+        // best evaluation is the travel distance (without penalties)
+        assertEquals(problem.evaluate(best).getValue(), search.getBestSolutionEvaluation().getValue(),
+                     TestConstants.DOUBLE_COMPARISON_PRECISION);
+        search.dispose();
+    }
+
+    @Test
+    public void testStopInterruptsDescent() {
+        // large instance: the first descent from a random round trip takes several seconds
+        int n = 50000;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for(int c=0; c<n; c++){
+            x[c] = 1000 * RG.nextDouble();
+            y[c] = 1000 * RG.nextDouble();
+        }
+        TSPData data = new TSPData(new CoordinateDistanceMatrix(x, y, EdgeWeightType.EUC_2D));
+        GenericProblem<TSPSolution, TSPData> largeProblem = new GenericProblem<>(
+                data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        TSPGuidedLocalSearch search = new TSPGuidedLocalSearch(largeProblem, new NearestNeighbourLists(data, 5));
+        search.addStopCriterion(new MaxRuntime(200, TimeUnit.MILLISECONDS));
+        search.setStopCriterionCheckPeriod(10, TimeUnit.MILLISECONDS);
+        long start = System.currentTimeMillis();
+        search.start();
+        long elapsed = System.currentTimeMillis() - start;
+        // inner descent is stopped as well
+        assertTrue("Search took " + elapsed + " ms.", elapsed < 2000);
+        TSPSolution best = search.getBestSolution();
+        assertEquals(n, new HashSet<>(best.getCities()).size());
+        assertEquals(largeProblem.evaluate(best).getValue(), search.getBestSolutionEvaluation().getValue(),
+                     TestConstants.DOUBLE_COMPARISON_PRECISION);
+        search.dispose();
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPLIBFileReaderTest {
+
+    // TSPLIB instance with GEO distances (optimal travel distance: 3323)
+    private static final String file = "input/burma14.tsp";
+
+    public TSPLIBFileReaderTest() {
+    }
+
+    @Test
+    public void testGeo() throws IOException {
+        TSPData data = new TSPLIBFileReader().read(file);
+        assertEquals(14, data.getNumCities());
+        // optimal round trip (1-based city numbers as in TSPLIB)
+        int[] opt = {1, 2, 14, 3, 4, 5, 6, 12, 7, 13, 8, 11, 9, 10};
+        int[] tour = Arrays.stream(opt).map(c -> c-1).toArray();
+        assertEquals(3323.0, new TSPObjective().evaluate(new TSPSolution(tour), data).getValue(), 0.0);
+        // no shorter round trip exists
+        assertEquals(3323.0, shortestRoundTrip(data), 0.0);
+    }
+
+    @Test
+    public void testPlanarDistances() {
+        // rounded to nearest integer
+        assertEquals(5.0, EdgeWeightType.EUC_2D.distance(0, 0, 3, 4), 0.0);
+        assertEquals(1.0, EdgeWeightType.EUC_2D.distance(0, 0, 1, 1), 0.0);
+        assertEquals(3.0, EdgeWeightType.EUC_2D.distance(0, 0, 2, 2), 0.0);
+        // rounded up
+        assertEquals(5.0, EdgeWeightType.CEIL_2D.distance(0, 0, 3, 4), 0.0);
+        assertEquals(2.0, EdgeWeightType.CEIL_2D.distance(0, 0, 1, 1), 0.0);
+        // pseudo-Euclidean: sqrt(10) is rounded up to 4, sqrt(250) = 15.81 is rounded to 16
+        assertEquals(4.0, EdgeWeightType.ATT.distance(0, 0, 10, 0), 0.0);
+        assertEquals(16.0, EdgeWeightType.ATT.distance(0, 0, 30, 40), 0.0);
+    }
+
+    @Test
+    public void testReadEuclidean() throws IOException {
+        File tmp = File.createTempFile("tsplib", ".tsp");
+        tmp.deleteOnExit();
+        String content = "NAME : test\n"
+                       + "TYPE : TSP\n"
+                       + "DIMENSION : 4\n"
+                       + "EDGE_WEIGHT_TYPE : CEIL_2D\n"
+                       + "NODE_COORD_SECTION\n"
+                       + "1 0 0\n"
+                       + "2 3 0\n"
+                       + "3 3 4\n"
+                       + "4 0.5 4.5\n"
+                       + "EOF\n";
+        Files.write(tmp.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+        CoordinateDistanceMatrix dist = new TSPLIBFileReader().readDistanceMatrix(tmp.getPath());
+        assertEquals(4, dist.getNumCities());
+        assertEquals(EdgeWeightType.CEIL_2D, dist.getEdgeWeightType());
+        assertEquals(3.0, dist.getDistance(0, 1), 0.0);
+        assertEquals(5.0, dist.getDistance(2, 0), 0.0);
+        // sqrt(0.25 + 20.25) = 4.53
+        assertEquals(5.0, dist.getDistance(0, 3), 0.0);
+        assertEquals(0.5, dist.getX(3), 0.0);
+        assertEquals(4.5, dist.getY(3), 0.0);
+    }
+
+    // compute length of shortest round trip with dynamic programming over subsets (small instances only)
+    private double shortestRoundTrip(TSPData data){
+        int n = data.getNumCities();
+        int numSets = 1 << (n-1);
+        // best[S][c]: shortest path from city n-1 through all cities in S, ending at c (in S)
+        double[][] best = new double[numSets][n-1];
+        for(double[] row : best){
+            Arrays.fill(row, Double.MAX_VALUE);
+        }
+        for(int c=0; c<n-1; c++){
+            best[1 << c][c] = data.getDistance(n-1, c);
+        }
+        for(int s=1; s<numSets; s++){
+            for(int c=0; c<n-1; c++){
+                if(best[s][c] == Double.MAX_VALUE){
+                    continue;
+                }
+                for(int d=0; d<n-1; d++){
+                    if((s & (1 << d)) == 0){
+                        int t = s | (1 << d);
+                        best[t][d] = Math.min(best[t][d], best[s][c] + data.getDistance(c, d));
+                    }
+                }
+            }
+        }
+        double min = Double.MAX_VALUE;
+        for(int c=0; c<n-1; c++){
+            min = Math.min(min, best[numSets-1][c] + data.getDistance(c, n-1));
+        }
+        return min;
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.problems.constraints.validations.Validation;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.LocalSearch;
+import org.jamesframework.core.search.listeners.SearchListener;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPLinKernighanTest {
+
+    private static final String file = "input/TSP4.txt";
+
+    private static GenericProblem<TSPSolution, TSPData> problem;
+    private static NearestNeighbourLists candidates;
+
+    public TSPLinKernighanTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        TSPData data = new TSPFileReader().read(file);
+        problem = new GenericProblem<>(data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR);
+        candidates = new NearestNeighbourLists(data, 5);
+    }
+
+    @Test
+    public void testImproves2OptLocalOptimum() {
+        int n = problem.getData().getNumCities();
+        for(int t=0; t<3; t++){
+            // start from 2-opt local optimum
+            TSP2OptDescent descent = new TSP2OptDescent(problem, candidates);
+            descent.start();
+            TSPSolution localOpt = descent.getBestSolution();
+            double localOptValue = descent.getBestSolutionEvaluation().getValue();
+            descent.dispose();
+            // apply Lin-Kernighan
+            TSPLinKernighan lk = new TSPLinKernighan(problem, candidates);
+            lk.setCurrentSolution(localOpt.copy());
+            List<Double> values = new ArrayList<>();
+            lk.addSearchListener(new SearchListener<TSPSolution>() {
+                @Override
+                public void newCurrentSolution(LocalSearch<? extends TSPSolution> search, TSPSolution newCurrentSolution,
+                                               Evaluation newCurrentSolutionEvaluation,
+                                               Validation newCurrentSolutionValidation) {
+                    values.add(newCurrentSolutionEvaluation.getValue());
+                }
+            });
+            lk.start();
+            // current solution never worsens
+            double prev = localOptValue;
+            for(double value : values){
+                assertTrue(value <= prev + TestConstants.DOUBLE_COMPARISON_PRECISION);
+                prev = value;
+            }
+            TSPSolution best = lk.getBestSolution();
+            double bestValue = lk.getBestSolutionEvaluation().getValue();
+            lk.dispose();
+            // valid permutation that is not worse than the local optimum
+            assertEquals(n, best.getNumCities());
+            assertEquals(n, new HashSet<>(best.getCities()).size());
+            assertTrue(bestValue <= localOptValue + TestConstants.DOUBLE_COMPARISON_PRECISION);
+            // reported evaluation matches full evaluation
+            assertEquals(problem.evaluate(best).getValue(), bestValue, TestConstants.DOUBLE_COMPARISON_PRECISION);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.core.search.stopcriteria.MaxRuntime;
+import org.jamesframework.core.search.stopcriteria.MaxSteps;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPMemeticSearchTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static GenericProblem<TSPSolution, TSPData> problem;
+    private static NearestNeighbourLists candidates;
+
+    public TSPMemeticSearchTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        TSPData data = new TSPFileReader().read(file);
+        problem = new GenericProblem<>(data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR);
+        candidates = new NearestNeighbourLists(data, 5);
+    }
+
+    @Test
+    public void testSearch() {
+        int n = problem.getData().getNumCities();
+        // start from 2-opt local optima
+        List<TSPSolution> initial = new ArrayList<>();
+        for(int i=0; i<5; i++){
+            TSP2OptDescent descent = new TSP2OptDescent(problem, candidates);
+            descent.start();
+            initial.add(descent.getBestSolution());
+            descent.dispose();
+        }
+        TSPMemeticSearch search = new TSPMemeticSearch(problem, candidates);
+        search.setInitialPopulation(initial);
+        search.addStopCriterion(new MaxSteps(5));
+        search.start();
+        // best round trip is a valid permutation
+        TSPSolution best = search.getBestSolution();
+        assertEquals(n, best.getNumCities());
+        assertEquals(n, new HashSet<>(best.getCities()).size());
+        double bestValue = search.getBestSolutionEvaluation().getValue();
+        assertEquals(problem.evaluate(best).getValue(), bestValue, TestConstants.DOUBLE_COMPARISON_PRECISION);
+        // not worse than the initial local optima
+        for(TSPSolution sol : initial){
+            assertTrue(bestValue <= problem.evaluate(sol).getValue() + TestConstants.DOUBLE_COMPARISON_PRECISION);
+        }
+        // population contains distinct round trips, sorted from best to worst
+        List<TSPSolution> population = search.getPopulation();
+        assertFalse(population.isEmpty());
+        Set<Long> hashes = new HashSet<>();
+        double prev = bestValue;
+        for(TSPSolution sol : population){
+            assertTrue(hashes.add(sol.getEdgeHash()));
+            assertEquals(n, new HashSet<>(sol.getCities()).size());
+            double value = problem.evaluate(sol).getValue();
+            assertTrue(value >= prev - TestConstants.DOUBLE_COMPARISON_PRECISION);
+            prev = value;
+        }
+        assertEquals(bestValue, problem.evaluate(population.get(0)).getValue(), TestConstants.DOUBLE_COMPARISON_PRECISION);
+        search.dispose();
+    }
+
+    @Test
+    public void testStopInterruptsDescents() {
+        // large instance: improving a single generation of random round trips takes many seconds
+        int n = 20000;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for(int c=0; c<n; c++){
+            x[c] = 1000 * RG.nextDouble();
+            y[c] = 1000 * RG.nextDouble();
+        }
+        TSPData data = new TSPData(new CoordinateDistanceMatrix(x, y, EdgeWeightType.EUC_2D));
+        GenericProblem<TSPSolution, TSPData> largeProblem = new GenericProblem<>(
+                data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        ForkJoinPool pool = new ForkJoinPool(2);
+        TSPMemeticSearch search = new TSPMemeticSearch(
+                null, largeProblem, new NearestNeighbourLists(data, 5), 10, pool
+        );
+        search.addStopCriterion(new MaxRuntime(200, TimeUnit.MILLISECONDS));
+        search.setStopCriterionCheckPeriod(10, TimeUnit.MILLISECONDS);
+        long start = System.currentTimeMillis();
+        search.start();
+        long elapsed = System.currentTimeMillis() - start;
+        // running descents are stopped and queued descents are skipped
+        assertTrue("Search took " + elapsed + " ms.", elapsed < 5000);
+        // partially improved round trips are still valid
+        TSPSolution best = search.getBestSolution();
+        assertEquals(n, new HashSet<>(best.getCities()).size());
+        assertEquals(largeProblem.evaluate(best).getValue(), search.getBestSolutionEvaluation().getValue(),
+                     TestConstants.DOUBLE_COMPARISON_PRECISION);
+        search.dispose();
+        pool.shutdown();
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.io.IOException;
+import java.util.Random;
+import org.jamesframework.core.problems.objectives.Objective;
+import org.jamesframework.core.problems.objectives.evaluations.Evaluation;
+import org.jamesframework.core.search.neigh.Move;
+import org.jamesframework.core.search.neigh.Neighbourhood;
+import org.jamesframework.test.util.TestConstants;
+import org.junit.AfterClass;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPObjectiveTest {
+
+    private static final String file = "input/TSP4.txt";
+    private static final Random RG = new Random();
+
+    private static TSPData data;
+    private static TSPObjective obj;
+    private static NearestNeighbourLists candidates;
+
+    public TSPObjectiveTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        // read data
+        TSPFileReader reader = new TSPFileReader();
+        data = reader.read(file);
+        // set objective
+        obj = new TSPObjective();
+        // compute candidate lists
+        candidates = new NearestNeighbourLists(data, 5);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Test
+    public void testEvaluate2Opt() {
+        testEvaluateRandom(new TSP2OptNeighbourhood());
+        testEvaluateRandom(new TSP2OptNeighbourhood(candidates));
+    }
+
+    @Test
+    public void testEvaluateOrOpt() {
+        testEvaluateRandom(new TSPOrOptNeighbourhood());
+        testEvaluateRandom(new TSPOrOptNeighbourhood(candidates));
+    }
+
+    @Test
+    public void testEvaluate3Opt() {
+        testEvaluateRandom(new TSP3OptNeighbourhood());
+        testEvaluateRandom(new TSP3OptNeighbourhood(candidates));
+    }
+
+    @Test
+    public void testEvaluateAugmented() {
+        // penalize random edges
+        EdgePenalties penalties = new EdgePenalties();
+        int n = data.getNumCities();
+        for(int k=0; k<50000; k++){
+            penalties.increment(RG.nextInt(n), RG.nextInt(n));
+        }
+        TSPAugmentedObjective augmented = new TSPAugmentedObjective(obj, penalties, 0.7);
+        testEvaluateRandom(new TSP2OptNeighbourhood(), augmented);
+        testEvaluateRandom(new TSPOrOptNeighbourhood(candidates), augmented);
+        testEvaluateRandom(new TSP3OptNeighbourhood(candidates), augmented);
+    }
+
+    // convert solution to array of cities
+    private int[] toArray(TSPSolution sol){
+        return sol.getCities().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void testEvaluateRandom(Neighbourhood<TSPSolution> neigh) {
+        testEvaluateRandom(neigh, obj);
+    }
+
+    private void testEvaluateRandom(Neighbourhood<TSPSolution> neigh, Objective<TSPSolution, TSPData> obj) {
+
+        Evaluation eval;
+        double deltaEval, fullEval;
+
+        for(int i=0; i<1000; i++){
+            // create random solution (alternately stored in an array or two-level list)
+            TSPSolution sol = TSP.RANDOM_SOLUTION_GENERATOR.create(RG, data);
+            if(i % 2 == 1){
+                sol = new TSPSolution(new TwoLevelListTour(toArray(sol)));
+            }
+            TSPSolution orig = sol.copy();
+            // evaluate
+            eval = obj.evaluate(sol, data);
+            // create random move + check delta evaluation <-> full evaluation
+            Move<? super TSPSolution> move = neigh.getRandomMove(sol, RG);
+            // delta evaluation
+            deltaEval = obj.evaluate(move, sol, eval, data).getValue();
+            // full evaluation
+            move.apply(sol);
+            fullEval = obj.evaluate(sol, data).getValue();
+            // check incrementally updated edge hash
+            assertEquals(new TSPSolution(toArray(sol)).getEdgeHash(), sol.getEdgeHash());
+            move.undo(sol);
+            // compare
+            assertEquals(fullEval, deltaEval, TestConstants.DOUBLE_COMPARISON_PRECISION);
+            assertEquals(orig, sol);
+            assertEquals(orig.getEdgeHash(), sol.getEdgeHash());
+        }
+
+    }
+
+}
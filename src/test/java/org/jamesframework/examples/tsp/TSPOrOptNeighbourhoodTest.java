@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPOrOptNeighbourhoodTest {
+
+    private static final Random RG = new Random();
+
+    public TSPOrOptNeighbourhoodTest() {
+    }
+
+    @Test
+    public void testGetAllMoves() {
+        for(int n=3; n<=12; n++){
+            TSPSolution sol = new TSPSolution(randomPermutation(n));
+            TSPSolution orig = sol.copy();
+            int maxLen = Math.min(3, n-2);
+            List<TSPOrOptMove> moves = new TSPOrOptNeighbourhood().getAllMoves(sol);
+            // moves yield the same round trips as the reference relocations
+            List<Long> expected = getReferenceNeighbours(sol, maxLen);
+            assertEquals(expected.size(), moves.size());
+            List<Long> actual = new ArrayList<>();
+            for(TSPOrOptMove move : moves){
+                move.apply(sol);
+                actual.add(sol.getEdgeHash());
+                move.undo(sol);
+                assertEquals(orig, sol);
+            }
+            // list is not affected by modifications of the solution
+            new TSP2OptMove(0, n/2).apply(sol);
+            for(int m=0; m<moves.size(); m++){
+                TSPSolution neigh = orig.copy();
+                moves.get(m).apply(neigh);
+                assertEquals(actual.get(m).longValue(), neigh.getEdgeHash());
+            }
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testSize() {
+        // size is computed without creating any moves
+        int n = 20000;
+        List<TSPOrOptMove> moves = new TSPOrOptNeighbourhood().getAllMoves(new TSPSolution(randomPermutation(n)));
+        assertEquals((long) n * ((n-2) + 2*(n-3) + 2*(n-4)), moves.size());
+        assertNotNull(moves.get(moves.size()-1));
+    }
+
+    @Test
+    public void testApplyAndUndo() {
+        // all moves on small round trip
+        TSPSolution sol = new TSPSolution(new int[]{0, 1, 2, 3, 4, 5, 6});
+        List<TSPOrOptMove> moves = new TSPOrOptNeighbourhood().getAllMoves(sol);
+        // 7 segment starts, 5 + 4 + 3 insertion positions for segments of length 1, 2 and 3
+        // (longer segments are inserted in both orientations)
+        assertEquals(7 * (5 + 2*4 + 2*3), moves.size());
+        for(TSPOrOptMove move : moves){
+            TSPSolution copy = sol.copy();
+            move.apply(copy);
+            // check new edges
+            int first = move.isReversed() ? move.getLast() : move.getFirst();
+            int last = move.isReversed() ? move.getFirst() : move.getLast();
+            assertTrue(copy.next(move.getPrev()) == move.getNext() || copy.prev(move.getPrev()) == move.getNext());
+            if(copy.next(move.getInsertFrom()) == first){
+                assertEquals(move.getInsertTo(), copy.next(last));
+            } else {
+                assertEquals(first, copy.prev(move.getInsertFrom()));
+                assertEquals(move.getInsertTo(), copy.prev(last));
+            }
+            // undo
+            move.undo(copy);
+            assertEquals(sol, copy);
+        }
+    }
+
+    // relocate every segment of up to maxLen cities after every city outside the segment (except its
+    // predecessor) in both orientations, and return the edge hashes of the resulting round trips
+    private List<Long> getReferenceNeighbours(TSPSolution sol, int maxLen){
+        int n = sol.getNumCities();
+        List<Long> hashes = new ArrayList<>();
+        for(int first=0; first<n; first++){
+            for(int len=1; len<=maxLen; len++){
+                List<Integer> segment = new ArrayList<>();
+                List<Integer> rest = new ArrayList<>();
+                for(int o=0; o<len; o++){
+                    segment.add(sol.getCity((first + o) % n));
+                }
+                for(int r=0; r<n-len; r++){
+                    rest.add(sol.getCity((first + len + r) % n));
+                }
+                // insert after rest[r], which is not the last city of the rest (precedes the segment)
+                for(int r=0; r<n-len-1; r++){
+                    for(int o=0; o<(len > 1 ? 2 : 1); o++){
+                        List<Integer> seg = new ArrayList<>(segment);
+                        if(o == 1){
+                            Collections.reverse(seg);
+                        }
+                        List<Integer> tour = new ArrayList<>(rest);
+                        tour.addAll(r+1, seg);
+                        hashes.add(new TSPSolution(tour).getEdgeHash());
+                    }
+                }
+            }
+        }
+        return hashes;
+    }
+
+    // create random permutation of 0, ..., n-1
+    private int[] randomPermutation(int n){
+        int[] perm = new int[n];
+        for(int c=0; c<n; c++){
+            int r = RG.nextInt(c+1);
+            perm[c] = perm[r];
+            perm[r] = c;
+        }
+        return perm;
+    }
+
+}
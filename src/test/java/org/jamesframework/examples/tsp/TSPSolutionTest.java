@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPSolutionTest {
+
+    private static final Random RG = new Random();
+
+    public TSPSolutionTest() {
+    }
+
+    @Test
+    public void testReverseWrapAround() {
+        // positions 8, 9, 0 and 1 are reversed
+        ArrayTour tour = new ArrayTour(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        tour.reverse(8, 1);
+        assertArrayEquals(new int[]{9, 8, 2, 3, 4, 5, 6, 7, 1, 0}, toArray(tour));
+        checkPositions(tour);
+    }
+
+    @Test
+    public void testReverseShorterSide() {
+        // subpath at positions 1 to 8 is longer than half of the round trip: positions 9 and 0 are swapped instead
+        TSPSolution sol = new TSPSolution(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        sol.reverse(1, 8);
+        assertArrayEquals(new int[]{9, 1, 2, 3, 4, 5, 6, 7, 8, 0}, toArray(sol));
+        assertEquals(getEdges(new TSPSolution(new int[]{0, 8, 7, 6, 5, 4, 3, 2, 1, 9})), getEdges(sol));
+        // a directed solution reverses exactly the requested subpath
+        TSPSolution directed = new AsymmetricTSPSolution(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        directed.reverse(1, 8);
+        assertArrayEquals(new int[]{0, 8, 7, 6, 5, 4, 3, 2, 1, 9}, toArray(directed));
+    }
+
+    @Test
+    public void testReverseRandom() {
+        for(int k=0; k<1000; k++){
+            int n = 2 + RG.nextInt(30);
+            TSPSolution sol = new TSPSolution(randomPermutation(n));
+            TSPSolution orig = sol.copy();
+            int i = RG.nextInt(n);
+            int j = RG.nextInt(n);
+            // compare with reference reversal of the requested subpath (same edges)
+            int[] expected = toArray(orig);
+            int len = (j - i + n) % n + 1;
+            for(int s=0; s<len/2; s++){
+                int a = (i + s) % n;
+                int b = (j - s + n) % n;
+                int tmp = expected[a];
+                expected[a] = expected[b];
+                expected[b] = tmp;
+            }
+            sol.reverse(i, j);
+            checkPositions(sol);
+            assertEquals(getEdges(new TSPSolution(expected)), getEdges(sol));
+            assertEquals(new TSPSolution(expected).getEdgeHash(), sol.getEdgeHash());
+            // reversing again restores the original solution
+            sol.reverse(i, j);
+            assertArrayEquals(toArray(orig), toArray(sol));
+            assertEquals(orig.getEdgeHash(), sol.getEdgeHash());
+        }
+    }
+
+    // create random permutation of 0, ..., n-1
+    private int[] randomPermutation(int n){
+        int[] perm = new int[n];
+        for(int c=0; c<n; c++){
+            int r = RG.nextInt(c+1);
+            perm[c] = perm[r];
+            perm[r] = c;
+        }
+        return perm;
+    }
+
+    // check that cities and positions are consistent
+    private void checkPositions(TSPTour tour){
+        int n = tour.getNumCities();
+        for(int p=0; p<n; p++){
+            assertEquals(p, tour.getPosition(tour.getCity(p)));
+            assertEquals(tour.getCity((p+1) % n), tour.next(tour.getCity(p)));
+            assertEquals(tour.getCity((p+n-1) % n), tour.prev(tour.getCity(p)));
+        }
+    }
+
+    private void checkPositions(TSPSolution sol){
+        int n = sol.getNumCities();
+        for(int p=0; p<n; p++){
+            assertEquals(p, sol.getPosition(sol.getCity(p)));
+            assertEquals(sol.getCity((p+1) % n), sol.next(sol.getCity(p)));
+        }
+    }
+
+    // get set of undirected edges
+    private Set<Long> getEdges(TSPSolution sol){
+        Set<Long> edges = new HashSet<>();
+        for(int p=0; p<sol.getNumCities(); p++){
+            edges.add(TSPSolution.edgeKey(sol.getCity(p), sol.next(sol.getCity(p))));
+        }
+        return edges;
+    }
+
+    private int[] toArray(TSPTour tour){
+        int[] cities = new int[tour.getNumCities()];
+        for(int p=0; p<cities.length; p++){
+            cities[p] = tour.getCity(p);
+        }
+        return cities;
+    }
+
+    private int[] toArray(TSPSolution sol){
+        int[] cities = new int[sol.getNumCities()];
+        for(int p=0; p<cities.length; p++){
+            cities[p] = sol.getCity(p);
+        }
+        return cities;
+    }
+
+}
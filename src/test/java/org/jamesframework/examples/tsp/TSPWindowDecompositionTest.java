@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.jamesframework.core.problems.GenericProblem;
+import org.jamesframework.test.util.TestConstants;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TSPWindowDecompositionTest {
+
+    private static final Random RG = new Random();
+
+    public TSPWindowDecompositionTest() {
+    }
+
+    @Test
+    public void testSearchStep() {
+        // window size does not divide the number of cities: trailing window of three cities
+        int n = 103;
+        int w = 10;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for(int c=0; c<n; c++){
+            x[c] = 1000 * RG.nextDouble();
+            y[c] = 1000 * RG.nextDouble();
+        }
+        TSPData data = new TSPData(new CoordinateDistanceMatrix(x, y, EdgeWeightType.EUC_2D));
+        GenericProblem<TSPSolution, TSPData> problem = new GenericProblem<>(
+                data, new TSPObjective(), TSP.RANDOM_SOLUTION_GENERATOR
+        );
+        ForkJoinPool pool = new ForkJoinPool(4);
+        TSPWindowDecomposition search = new TSPWindowDecomposition(null, problem, w, pool);
+        search.setCurrentSolution(TSP.RANDOM_SOLUTION_GENERATOR.create(RG, data));
+        // number of improved steps for each alignment
+        int[] numImproved = new int[2];
+        // windows are alternately aligned with the start of the round trip and shifted by half a window
+        for(int step=0; step<10; step++){
+            int offset = step % 2 == 0 ? 0 : w/2;
+            TSPSolution before = search.getCurrentSolution();
+            double beforeValue = search.getCurrentSolutionEvaluation().getValue();
+            int[] rotated = new int[n];
+            for(int p=0; p<n; p++){
+                rotated[p] = before.getCity((offset + p) % n);
+            }
+            search.searchStep();
+            TSPSolution after = search.getCurrentSolution();
+            double afterValue = search.getCurrentSolutionEvaluation().getValue();
+            assertTrue(afterValue <= beforeValue + TestConstants.DOUBLE_COMPARISON_PRECISION);
+            assertEquals(problem.evaluate(after).getValue(), afterValue, TestConstants.DOUBLE_COMPARISON_PRECISION);
+            if(after == before){
+                continue;
+            }
+            numImproved[step % 2]++;
+            // spliced round trip starts at the first window
+            int[] tour = new int[n];
+            for(int p=0; p<n; p++){
+                tour[p] = after.getCity(p);
+            }
+            int[] sorted = tour.clone();
+            Arrays.sort(sorted);
+            for(int c=0; c<n; c++){
+                assertEquals(c, sorted[c]);
+            }
+            for(int from=0; from<n; from+=w){
+                int to = Math.min(from + w, n);
+                if(to - from < 4){
+                    // trailing window is left untouched
+                    for(int p=from; p<to; p++){
+                        assertEquals(rotated[p], tour[p]);
+                    }
+                } else {
+                    // endpoints are fixed, cities in between stay within the window
+                    assertEquals(rotated[from], tour[from]);
+                    assertEquals(rotated[to-1], tour[to-1]);
+                    int[] oldWindow = Arrays.copyOfRange(rotated, from, to);
+                    int[] newWindow = Arrays.copyOfRange(tour, from, to);
+                    Arrays.sort(oldWindow);
+                    Arrays.sort(newWindow);
+                    assertArrayEquals(oldWindow, newWindow);
+                }
+            }
+        }
+        assertTrue(numImproved[0] > 0 && numImproved[1] > 0);
+        search.dispose();
+        pool.shutdown();
+    }
+
+}
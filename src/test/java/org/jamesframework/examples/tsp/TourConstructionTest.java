@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TourConstructionTest {
+
+    private static final Random RG = new Random();
+
+    public TourConstructionTest() {
+    }
+
+    @Test
+    public void testTinyInstances() {
+        for(int n=1; n<=3; n++){
+            testConstructions(randomInstance(n));
+        }
+    }
+
+    @Test
+    public void testRandomInstance() {
+        testConstructions(randomInstance(500));
+    }
+
+    @Test
+    public void testDuplicateCities() {
+        // all cities at the same location
+        int n = 50;
+        testConstructions(new CoordinateDistanceMatrix(new double[n], new double[n], EdgeWeightType.EUC_2D));
+    }
+
+    // check that every heuristic yields a permutation of all cities
+    private void testConstructions(DistanceMatrix dist){
+        int n = dist.getNumCities();
+        NearestNeighbourLists candidates = new NearestNeighbourLists(dist, 10);
+        for(TourConstruction construction : TourConstruction.values()){
+            for(int r=0; r<3; r++){
+                int[] tour = construction.create(candidates).construct(dist, RG);
+                assertEquals(construction + " (n = " + n + ")", n, tour.length);
+                boolean[] visited = new boolean[n];
+                for(int c : tour){
+                    assertTrue(construction + " (n = " + n + ")", c >= 0 && c < n && !visited[c]);
+                    visited[c] = true;
+                }
+            }
+        }
+    }
+
+    // create random Euclidean instance with the given number of cities
+    private CoordinateDistanceMatrix randomInstance(int n){
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for(int c=0; c<n; c++){
+            x[c] = 1000 * RG.nextDouble();
+            y[c] = 1000 * RG.nextDouble();
+        }
+        return new CoordinateDistanceMatrix(x, y, EdgeWeightType.EUC_2D);
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Ghent University, Bayer CropScience.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jamesframework.examples.tsp;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:herman.debeukelaer@ugent.be">Herman De Beukelaer</a>
+ */
+public class TwoLevelListTourTest {
+
+    private static final Random RG = new Random();
+
+    public TwoLevelListTourTest() {
+    }
+
+    @Test
+    public void testTwoLevelListTour() {
+        for(int n : new int[]{2, 3, 10, 100}){
+            int[] cities = toArray(TSP.RANDOM_SOLUTION_GENERATOR.create(RG, new TSPData(new double[n][n])));
+            TSPTour array = new ArrayTour(cities.clone());
+            TSPTour list = new TwoLevelListTour(cities.clone());
+            for(int k=0; k<1000; k++){
+                // reverse random subpath in both tours
+                int i = RG.nextInt(n);
+                int j = RG.nextInt(n);
+                array.reverse(i, j);
+                list.reverse(i, j);
+                // compare
+                for(int p=0; p<n; p++){
+                    int c = array.getCity(p);
+                    assertEquals(c, list.getCity(p));
+                    assertEquals(p, list.getPosition(c));
+                    assertEquals(array.next(c), list.next(c));
+                    assertEquals(array.prev(c), list.prev(c));
+                }
+            }
+        }
+    }
+
+    // convert solution to array of cities
+    private int[] toArray(TSPSolution sol){
+        return sol.getCities().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+}